@@ -0,0 +1,103 @@
+/*
+ * (C) Copyright 2026 Cognizant Netcentric.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package biz.netcentric.cq.tools.actool.aceinstaller;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import biz.netcentric.cq.tools.actool.benchmarks.BenchmarkRepository;
+import biz.netcentric.cq.tools.actool.benchmarks.SyntheticConfigGenerator;
+import biz.netcentric.cq.tools.actool.benchmarks.SyntheticContentSeeder;
+import biz.netcentric.cq.tools.actool.configmodel.AcConfiguration;
+import biz.netcentric.cq.tools.actool.configmodel.AceBean;
+import biz.netcentric.cq.tools.actool.configreader.YamlConfigReader;
+import biz.netcentric.cq.tools.actool.configreader.YamlConfigurationMergerBenchmark;
+import biz.netcentric.cq.tools.actool.helper.AcHelper;
+import biz.netcentric.cq.tools.actool.history.impl.PersistableInstallationLogger;
+
+/** Measures the incremental installation of ACLs, either against ACLs that are already equal to the configuration (the common case for
+ * repeated runs) or against paths without ACLs. Changes are discarded after every invocation. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class AceBeanInstallerIncrementalBenchmark {
+
+    @Param({ "100", "1000", "10000", "100000" })
+    int aceCount;
+
+    @Param({ "true", "false" })
+    boolean aclsExist;
+
+    private final BenchmarkRepository repository = new BenchmarkRepository();
+    private Session session;
+    private AcConfiguration acConfiguration;
+    private Map<String, Set<AceBean>> pathBasedAceMap;
+    private Set<String> principalsToRemoveAcesFor;
+    private AceBeanInstallerIncremental aceBeanInstaller;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        session = repository.start();
+        SyntheticConfigGenerator generator = SyntheticConfigGenerator.forAceCount(aceCount);
+        SyntheticContentSeeder seeder = new SyntheticContentSeeder(generator);
+        seeder.seedContent(session);
+        seeder.seedGroups(session, false);
+
+        acConfiguration = YamlConfigurationMergerBenchmark.createConfigurationMerger().getMergedConfigurations(generator.generate(),
+                new PersistableInstallationLogger(), new YamlConfigReader(), session);
+        pathBasedAceMap = AcHelper.getPathBasedAceMap(acConfiguration.getAceConfig(), AcHelper.ACE_ORDER_ACTOOL_BEST_PRACTICE);
+        principalsToRemoveAcesFor = acConfiguration.getAuthorizablesConfig().getPrincipalNames();
+        aceBeanInstaller = new AceBeanInstallerIncremental();
+
+        if (aclsExist) {
+            installAcls();
+            session.save();
+        }
+    }
+
+    @TearDown(Level.Invocation)
+    public void discardChanges() throws RepositoryException {
+        session.refresh(false);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        repository.stop();
+    }
+
+    @Benchmark
+    public PersistableInstallationLogger installAcls() throws Exception {
+        PersistableInstallationLogger installLog = new PersistableInstallationLogger();
+        aceBeanInstaller.installPathBasedACEs(pathBasedAceMap, acConfiguration, session, installLog, principalsToRemoveAcesFor);
+        return installLog;
+    }
+
+}
@@ -0,0 +1,86 @@
+/*
+ * (C) Copyright 2026 Cognizant Netcentric.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package biz.netcentric.cq.tools.actool.authorizableinstaller.impl;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+
+import org.apache.jackrabbit.api.JackrabbitSession;
+import org.apache.jackrabbit.api.security.user.UserManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import biz.netcentric.cq.tools.actool.benchmarks.BenchmarkRepository;
+import biz.netcentric.cq.tools.actool.benchmarks.SyntheticConfigGenerator;
+import biz.netcentric.cq.tools.actool.benchmarks.SyntheticContentSeeder;
+import biz.netcentric.cq.tools.actool.history.impl.PersistableInstallationLogger;
+
+/** Measures the prefetching of all groups and their memberships (one group per ten configured ACEs) and the scoped prefetching of the
+ * groups referenced by a configuration covering 1% of the groups. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class AuthInstallerUserManagerPrefetchingBenchmark {
+
+    @Param({ "100", "1000", "10000", "100000" })
+    int aceCount;
+
+    private final BenchmarkRepository repository = new BenchmarkRepository();
+    private Session session;
+    private UserManager userManager;
+    private Set<String> authorizableIdsFromConfig;
+
+    @Setup(Level.Trial)
+    public void setup() throws RepositoryException, IOException {
+        session = repository.start();
+        SyntheticConfigGenerator configGenerator = SyntheticConfigGenerator.forAceCount(aceCount);
+        new SyntheticContentSeeder(configGenerator).seedGroups(session, true);
+        userManager = ((JackrabbitSession) session).getUserManager();
+        authorizableIdsFromConfig = new HashSet<>();
+        for (int i = 0; i < Math.max(1, configGenerator.getGroupCount() / 100); i++) {
+            authorizableIdsFromConfig.add(SyntheticConfigGenerator.getGroupId(i));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        repository.stop();
+    }
+
+    @Benchmark
+    public AuthInstallerUserManager prefetch() throws RepositoryException {
+        return new AuthInstallerUserManagerPrefetchingImpl(userManager, session.getValueFactory(), new PersistableInstallationLogger());
+    }
+
+    @Benchmark
+    public AuthInstallerUserManager prefetchScoped() throws RepositoryException {
+        return new AuthInstallerUserManagerPrefetchingImpl(userManager, session.getValueFactory(), new PersistableInstallationLogger(),
+                authorizableIdsFromConfig, 0, 1, null);
+    }
+
+}
@@ -0,0 +1,42 @@
+/*
+ * (C) Copyright 2026 Cognizant Netcentric.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package biz.netcentric.cq.tools.actool.benchmarks;
+
+import java.io.IOException;
+
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+
+import biz.netcentric.cq.tools.actool.extensions.OakRepository;
+
+/** In-memory Oak repository as used by the ITs, to be started in the setup of a JMH state and stopped in its tear down. */
+public final class BenchmarkRepository {
+
+    private final OakRepository oakRepository = new OakRepository(false);
+    private Session session;
+
+    public Session start() throws RepositoryException, IOException {
+        try {
+            oakRepository.initRepository();
+        } catch (org.apache.jackrabbit.oak.segment.file.InvalidFileStoreVersionException e) {
+            throw new IllegalStateException("Could not start repository: " + e, e);
+        }
+        session = oakRepository.createAdminSession();
+        return session;
+    }
+
+    public void stop() throws IOException {
+        if (session != null) {
+            session.logout();
+            session = null;
+        }
+        oakRepository.shutdownRepository();
+    }
+
+}
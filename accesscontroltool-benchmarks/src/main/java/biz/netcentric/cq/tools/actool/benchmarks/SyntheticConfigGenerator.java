@@ -0,0 +1,335 @@
+/*
+ * (C) Copyright 2026 Cognizant Netcentric.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package biz.netcentric.cq.tools.actool.benchmarks;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import biz.netcentric.cq.tools.actool.helper.Constants;
+
+/** Generates valid AC Tool YAML configurations of a given size, to be used for benchmarks and scale tests. The generated configuration is
+ * reproducible for the same parameters (including the seed).
+ *
+ * Groups are arranged in membership chains of the given depth (every group is member of its predecessor in the chain). Every group gets
+ * its own site below {@link #CONTENT_ROOT} with one page per ACE. The configuration is split into files as in the exampleconfig package
+ * (one folder per project containing a config.yaml), every file contains the group_config and ace_config of its groups.
+ *
+ * Can be used as library or from the command line with arguments in the form {@code name=value}, see {@link #main(String[])}. */
+public class SyntheticConfigGenerator {
+
+    public static final String CONTENT_ROOT = "/content/synthetic";
+    public static final String CONFIG_ROOT = "/apps/netcentric/actool-synthetic";
+
+    static final String GROUP_PREFIX = "synthetic-group-";
+    static final String GROUPS_PATH = Constants.GROUPS_ROOT + "/synthetic";
+    static final String PRIVILEGES_READ = "jcr:read";
+    static final String PRIVILEGES_WRITE = "jcr:read,rep:write";
+    static final String ACTIONS_READ = "read";
+    static final String ACTIONS_WRITE = "read,modify,create,delete";
+    static final String GLOB_RESTRICTION = "*/jcr:content*";
+
+    private int groupCount = 100;
+    private int membershipDepth = 3;
+    private int acesPerGroup = 10;
+    private double restrictionRatio = 0.2;
+    private double actionsRatio = 0.5;
+    private double macroRatio = 0.3;
+    private double virtualGroupRatio = 0.0;
+    private int fileCount = 1;
+    private long seed = 1;
+
+    /** @return a generator for (roughly) the given number of ACEs using ten ACEs per group and default values otherwise */
+    public static SyntheticConfigGenerator forAceCount(int aceCount) {
+        SyntheticConfigGenerator generator = new SyntheticConfigGenerator();
+        return generator.withGroupCount(Math.max(1, aceCount / generator.acesPerGroup));
+    }
+
+    public SyntheticConfigGenerator withGroupCount(int groupCount) {
+        this.groupCount = groupCount;
+        return this;
+    }
+
+    /** @param membershipDepth the length of the isMemberOf chains (1 for no memberships) */
+    public SyntheticConfigGenerator withMembershipDepth(int membershipDepth) {
+        this.membershipDepth = Math.max(1, membershipDepth);
+        return this;
+    }
+
+    public SyntheticConfigGenerator withAcesPerGroup(int acesPerGroup) {
+        this.acesPerGroup = acesPerGroup;
+        return this;
+    }
+
+    /** @param restrictionRatio the ratio of groups whose ACEs have a rep:glob restriction */
+    public SyntheticConfigGenerator withRestrictionRatio(double restrictionRatio) {
+        this.restrictionRatio = restrictionRatio;
+        return this;
+    }
+
+    /** @param actionsRatio the ratio of groups whose ACEs use actions instead of privileges */
+    public SyntheticConfigGenerator withActionsRatio(double actionsRatio) {
+        this.actionsRatio = actionsRatio;
+        return this;
+    }
+
+    /** @param macroRatio the ratio of groups whose ACEs are generated by a FOR loop, every second of those is additionally wrapped into
+     *            an IF statement */
+    public SyntheticConfigGenerator withMacroRatio(double macroRatio) {
+        this.macroRatio = macroRatio;
+        return this;
+    }
+
+    /** @param virtualGroupRatio the ratio of groups that are virtual (only groups that have a member in their chain) */
+    public SyntheticConfigGenerator withVirtualGroupRatio(double virtualGroupRatio) {
+        this.virtualGroupRatio = virtualGroupRatio;
+        return this;
+    }
+
+    public SyntheticConfigGenerator withFileCount(int fileCount) {
+        this.fileCount = Math.max(1, fileCount);
+        return this;
+    }
+
+    public SyntheticConfigGenerator withSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    public int getGroupCount() {
+        return groupCount;
+    }
+
+    public int getAcesPerGroup() {
+        return acesPerGroup;
+    }
+
+    public static String getGroupId(int groupIndex) {
+        return GROUP_PREFIX + groupIndex;
+    }
+
+    public static String getSitePath(int groupIndex) {
+        return CONTENT_ROOT + "/site" + groupIndex;
+    }
+
+    public static String getPagePath(int groupIndex, int pageIndex) {
+        return getSitePath(groupIndex) + "/page" + pageIndex;
+    }
+
+    /** @param groupIndex the group index
+     * @return the index of the group the given group is member of or -1 */
+    public int getParentGroupIndex(int groupIndex) {
+        return groupIndex % membershipDepth > 0 ? groupIndex - 1 : -1;
+    }
+
+    /** @return the groups in the order they are generated */
+    public List<SyntheticGroup> createGroups() {
+        Random random = new Random(seed);
+        List<SyntheticGroup> groups = new ArrayList<>(groupCount);
+        for (int groupIndex = 0; groupIndex < groupCount; groupIndex++) {
+            boolean hasMemberInChain = groupIndex % membershipDepth < membershipDepth - 1 && groupIndex < groupCount - 1;
+            SyntheticGroup group = new SyntheticGroup(groupIndex, getParentGroupIndex(groupIndex),
+                    hasMemberInChain && random.nextDouble() < virtualGroupRatio,
+                    random.nextDouble() < actionsRatio,
+                    random.nextDouble() < restrictionRatio,
+                    random.nextDouble() < macroRatio,
+                    random.nextBoolean());
+            groups.add(group);
+        }
+        return groups;
+    }
+
+    /** @return the file contents by file path (below {@link #CONFIG_ROOT}) */
+    public Map<String, String> generate() {
+        List<SyntheticGroup> groups = createGroups();
+        Map<String, String> configFiles = new LinkedHashMap<>();
+        int groupsPerFile = (int) Math.ceil((double) groups.size() / fileCount);
+        for (int fileIndex = 0; fileIndex < fileCount; fileIndex++) {
+            int fromIndex = Math.min(groups.size(), fileIndex * groupsPerFile);
+            int toIndex = Math.min(groups.size(), fromIndex + groupsPerFile);
+            if (fromIndex == toIndex && fileIndex > 0) {
+                break;
+            }
+            configFiles.put(CONFIG_ROOT + "/project" + fileIndex + "/config.yaml", createYaml(groups.subList(fromIndex, toIndex)));
+        }
+        return configFiles;
+    }
+
+    String createYaml(List<SyntheticGroup> groups) {
+        StringBuilder yaml = new StringBuilder();
+        yaml.append("# generated by ").append(getClass().getSimpleName()).append(" (seed ").append(seed).append(")\n");
+        yaml.append("- ").append(Constants.GROUP_CONFIGURATION_KEY).append(":\n");
+        for (SyntheticGroup group : groups) {
+            yaml.append("    - ").append(getGroupId(group.index)).append(":\n")
+                    .append("        - name: Synthetic group ").append(group.index).append("\n")
+                    .append("          isMemberOf: ").append(group.parentIndex >= 0 ? getGroupId(group.parentIndex) : "").append("\n")
+                    .append("          path: ").append(GROUPS_PATH).append("\n");
+            if (group.isVirtual) {
+                yaml.append("          virtual: true\n");
+            }
+        }
+        yaml.append("- ").append(Constants.ACE_CONFIGURATION_KEY).append(":\n");
+        for (SyntheticGroup group : groups) {
+            if (group.usesMacros && group.usesIf) {
+                // always true, but evaluated as expression
+                yaml.append("    - if ${").append(group.index).append(" >= 0}:\n");
+                appendAces(yaml, group, "        ");
+            } else {
+                appendAces(yaml, group, "    ");
+            }
+        }
+        return yaml.toString();
+    }
+
+    private void appendAces(StringBuilder yaml, SyntheticGroup group, String indent) {
+        yaml.append(indent).append("- ").append(getGroupId(group.index)).append(":\n");
+        if (group.usesMacros) {
+            List<String> pageNames = new ArrayList<>();
+            for (int pageIndex = 0; pageIndex < acesPerGroup; pageIndex++) {
+                pageNames.add("page" + pageIndex);
+            }
+            yaml.append(indent).append("    - FOR page IN [ ").append(String.join(", ", pageNames)).append(" ]:\n");
+            appendAce(yaml, group, getSitePath(group.index) + "/${page}", indent + "        ");
+        } else {
+            for (int pageIndex = 0; pageIndex < acesPerGroup; pageIndex++) {
+                appendAce(yaml, group, getPagePath(group.index, pageIndex), indent + "    ");
+            }
+        }
+    }
+
+    private void appendAce(StringBuilder yaml, SyntheticGroup group, String path, String indent) {
+        boolean isWrite = group.index % 2 == 1;
+        yaml.append(indent).append("- path: ").append(path).append("\n");
+        yaml.append(indent).append("  permission: allow\n");
+        if (group.usesActions) {
+            yaml.append(indent).append("  actions: ").append(isWrite ? ACTIONS_WRITE : ACTIONS_READ).append("\n");
+        } else {
+            yaml.append(indent).append("  privileges: ").append(isWrite ? PRIVILEGES_WRITE : PRIVILEGES_READ).append("\n");
+        }
+        if (group.hasRestriction) {
+            yaml.append(indent).append("  restrictions:\n");
+            yaml.append(indent).append("    rep:glob: \"").append(GLOB_RESTRICTION).append("\"\n");
+        }
+    }
+
+    /** Writes the generated files to the given directory, the file paths below {@link #CONFIG_ROOT} are kept.
+     *
+     * @return the number of written files */
+    public int writeTo(Path outputDir) throws IOException {
+        Map<String, String> configFiles = generate();
+        for (Map.Entry<String, String> configFile : configFiles.entrySet()) {
+            Path file = outputDir.resolve(configFile.getKey().substring(CONFIG_ROOT.length() + 1));
+            Files.createDirectories(file.getParent());
+            Files.write(file, Collections.singletonList(configFile.getValue()), StandardCharsets.UTF_8);
+        }
+        return configFiles.size();
+    }
+
+    /** Arguments are given as name=value, supported names: groups, depth, acesPerGroup, restrictions, actions, macros, virtualGroups,
+     * files, seed and out (the output directory, defaults to target/synthetic-config). */
+    public static void main(String[] args) throws IOException {
+        SyntheticConfigGenerator generator = new SyntheticConfigGenerator();
+        Path outputDir = Paths.get("target", "synthetic-config");
+        for (String arg : args) {
+            String[] nameAndValue = arg.split("=", 2);
+            if (nameAndValue.length != 2) {
+                throw new IllegalArgumentException("Invalid argument " + arg + " (expected name=value)");
+            }
+            String value = nameAndValue[1];
+            switch (nameAndValue[0]) {
+            case "groups":
+                generator.withGroupCount(Integer.parseInt(value));
+                break;
+            case "depth":
+                generator.withMembershipDepth(Integer.parseInt(value));
+                break;
+            case "acesPerGroup":
+                generator.withAcesPerGroup(Integer.parseInt(value));
+                break;
+            case "restrictions":
+                generator.withRestrictionRatio(Double.parseDouble(value));
+                break;
+            case "actions":
+                generator.withActionsRatio(Double.parseDouble(value));
+                break;
+            case "macros":
+                generator.withMacroRatio(Double.parseDouble(value));
+                break;
+            case "virtualGroups":
+                generator.withVirtualGroupRatio(Double.parseDouble(value));
+                break;
+            case "files":
+                generator.withFileCount(Integer.parseInt(value));
+                break;
+            case "seed":
+                generator.withSeed(Long.parseLong(value));
+                break;
+            case "out":
+                outputDir = Paths.get(value);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown argument " + nameAndValue[0]);
+            }
+        }
+        int countFiles = generator.writeTo(outputDir);
+        System.out.println("Generated " + countFiles + " files with " + generator.groupCount + " groups and "
+                + (generator.groupCount * generator.acesPerGroup) + " ACEs in " + outputDir.toAbsolutePath());
+    }
+
+    /** A generated group with the properties determining its configuration. */
+    public static final class SyntheticGroup {
+        final int index;
+        final int parentIndex;
+        final boolean isVirtual;
+        final boolean usesActions;
+        final boolean hasRestriction;
+        final boolean usesMacros;
+        final boolean usesIf;
+
+        SyntheticGroup(int index, int parentIndex, boolean isVirtual, boolean usesActions, boolean hasRestriction, boolean usesMacros,
+                boolean usesIf) {
+            this.index = index;
+            this.parentIndex = parentIndex;
+            this.isVirtual = isVirtual;
+            this.usesActions = usesActions;
+            this.hasRestriction = hasRestriction;
+            this.usesMacros = usesMacros;
+            this.usesIf = usesIf;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public int getParentIndex() {
+            return parentIndex;
+        }
+
+        public boolean isVirtual() {
+            return isVirtual;
+        }
+
+        public boolean usesActions() {
+            return usesActions;
+        }
+
+        public boolean hasRestriction() {
+            return hasRestriction;
+        }
+    }
+
+}
@@ -0,0 +1,140 @@
+/*
+ * (C) Copyright 2026 Cognizant Netcentric.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package biz.netcentric.cq.tools.actool.benchmarks;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import javax.jcr.Node;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.jcr.Value;
+import javax.jcr.security.AccessControlManager;
+import javax.jcr.security.Privilege;
+
+import org.apache.jackrabbit.api.JackrabbitSession;
+import org.apache.jackrabbit.api.security.JackrabbitAccessControlList;
+import org.apache.jackrabbit.api.security.user.Group;
+import org.apache.jackrabbit.api.security.user.UserManager;
+import org.apache.jackrabbit.commons.jackrabbit.authorization.AccessControlUtils;
+
+import biz.netcentric.cq.tools.actool.benchmarks.SyntheticConfigGenerator.SyntheticGroup;
+
+/** Seeds a repository with the content, groups and ACLs matching a configuration created by {@link SyntheticConfigGenerator}. The session is
+ * saved in intervals to keep the transient space small. */
+public class SyntheticContentSeeder {
+
+    private static final int SAVE_INTERVAL = 1000;
+
+    private static final String[] PRIVILEGES_READ = { Privilege.JCR_READ };
+    private static final String[] PRIVILEGES_WRITE = { Privilege.JCR_READ, "rep:write" };
+    // privileges of the actions read,modify,create,delete as mapped by AcToolCqActions
+    private static final String[] PRIVILEGES_WRITE_ACTIONS = { Privilege.JCR_READ, Privilege.JCR_MODIFY_PROPERTIES,
+            Privilege.JCR_LOCK_MANAGEMENT, Privilege.JCR_VERSION_MANAGEMENT, Privilege.JCR_ADD_CHILD_NODES, Privilege.JCR_NODE_TYPE_MANAGEMENT,
+            Privilege.JCR_REMOVE_CHILD_NODES, Privilege.JCR_REMOVE_NODE };
+
+    private final SyntheticConfigGenerator generator;
+    private final List<SyntheticGroup> groups;
+
+    public SyntheticContentSeeder(SyntheticConfigGenerator generator) {
+        this.generator = generator;
+        this.groups = generator.createGroups();
+    }
+
+    /** Creates the sites and pages the generated ACEs refer to. */
+    public void seedContent(Session session) throws RepositoryException {
+        Node contentRoot = getOrAddNode(getOrAddNode(session.getRootNode(), "content"), "synthetic");
+        for (SyntheticGroup group : groups) {
+            Node site = getOrAddNode(contentRoot, "site" + group.getIndex());
+            for (int pageIndex = 0; pageIndex < generator.getAcesPerGroup(); pageIndex++) {
+                getOrAddNode(getOrAddNode(site, "page" + pageIndex), "jcr:content");
+            }
+            saveIfNeeded(session, group.getIndex());
+        }
+        session.save();
+    }
+
+    /** Creates the (non-virtual) groups, optionally with their memberships as the AC Tool would install them. */
+    public void seedGroups(Session session, boolean withMemberships) throws RepositoryException {
+        UserManager userManager = ((JackrabbitSession) session).getUserManager();
+        for (SyntheticGroup group : groups) {
+            String groupId = SyntheticConfigGenerator.getGroupId(group.getIndex());
+            if (!group.isVirtual() && userManager.getAuthorizable(groupId) == null) {
+                userManager.createGroup(groupId);
+            }
+            saveIfNeeded(session, group.getIndex());
+        }
+        session.save();
+        if (!withMemberships) {
+            return;
+        }
+        for (SyntheticGroup group : groups) {
+            int parentIndex = getEffectiveParentIndex(group);
+            if (!group.isVirtual() && parentIndex >= 0) {
+                Group parentGroup = (Group) userManager.getAuthorizable(SyntheticConfigGenerator.getGroupId(parentIndex));
+                parentGroup.addMember(userManager.getAuthorizable(SyntheticConfigGenerator.getGroupId(group.getIndex())));
+            }
+            saveIfNeeded(session, group.getIndex());
+        }
+        session.save();
+    }
+
+    /** Creates the ACLs as configured via the JCR API, requires {@link #seedContent(Session)} and {@link #seedGroups(Session, boolean)}
+     * to be run before. ACEs of virtual groups are skipped (the AC Tool would move them to the member groups). */
+    public void seedAcls(Session session) throws RepositoryException {
+        UserManager userManager = ((JackrabbitSession) session).getUserManager();
+        AccessControlManager acMgr = session.getAccessControlManager();
+        for (SyntheticGroup group : groups) {
+            if (group.isVirtual()) {
+                continue;
+            }
+            Group repositoryGroup = (Group) userManager.getAuthorizable(SyntheticConfigGenerator.getGroupId(group.getIndex()));
+            Privilege[] privileges = AccessControlUtils.privilegesFromNames(session, getPrivilegeNames(group));
+            Map<String, Value> restrictions = group.hasRestriction()
+                    ? Collections.singletonMap("rep:glob", session.getValueFactory().createValue(SyntheticConfigGenerator.GLOB_RESTRICTION))
+                    : Collections.<String, Value> emptyMap();
+            for (int pageIndex = 0; pageIndex < generator.getAcesPerGroup(); pageIndex++) {
+                String pagePath = SyntheticConfigGenerator.getPagePath(group.getIndex(), pageIndex);
+                JackrabbitAccessControlList acl = AccessControlUtils.getAccessControlList(acMgr, pagePath);
+                acl.addEntry(repositoryGroup.getPrincipal(), privileges, true, restrictions);
+                acMgr.setPolicy(pagePath, acl);
+            }
+            saveIfNeeded(session, group.getIndex());
+        }
+        session.save();
+    }
+
+    private String[] getPrivilegeNames(SyntheticGroup group) {
+        boolean isWrite = group.getIndex() % 2 == 1;
+        if (!isWrite) {
+            return PRIVILEGES_READ;
+        }
+        return group.usesActions() ? PRIVILEGES_WRITE_ACTIONS : PRIVILEGES_WRITE;
+    }
+
+    private int getEffectiveParentIndex(SyntheticGroup group) {
+        int parentIndex = group.getParentIndex();
+        while (parentIndex >= 0 && groups.get(parentIndex).isVirtual()) {
+            parentIndex = groups.get(parentIndex).getParentIndex();
+        }
+        return parentIndex;
+    }
+
+    private static void saveIfNeeded(Session session, int index) throws RepositoryException {
+        if (index > 0 && index % SAVE_INTERVAL == 0) {
+            session.save();
+        }
+    }
+
+    private static Node getOrAddNode(Node parent, String name) throws RepositoryException {
+        return parent.hasNode(name) ? parent.getNode(name) : parent.addNode(name, "nt:unstructured");
+    }
+
+}
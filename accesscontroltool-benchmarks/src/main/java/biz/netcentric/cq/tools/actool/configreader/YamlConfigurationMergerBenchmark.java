@@ -0,0 +1,105 @@
+/*
+ * (C) Copyright 2026 Cognizant Netcentric.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package biz.netcentric.cq.tools.actool.configreader;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.yaml.snakeyaml.Yaml;
+
+import biz.netcentric.cq.tools.actool.benchmarks.BenchmarkRepository;
+import biz.netcentric.cq.tools.actool.benchmarks.SyntheticConfigGenerator;
+import biz.netcentric.cq.tools.actool.configmodel.AcConfiguration;
+import biz.netcentric.cq.tools.actool.history.impl.PersistableInstallationLogger;
+import biz.netcentric.cq.tools.actool.validators.ExternalGroupsInIsMemberOfValidator;
+import biz.netcentric.cq.tools.actool.validators.exceptions.AcConfigBeanValidationException;
+import biz.netcentric.cq.tools.actool.validators.impl.ObsoleteAuthorizablesValidatorImpl;
+
+/** Measures merging (parsing, macro expansion, bean creation and validation) of a synthetic configuration split into ten files, the
+ * macro expansion is measured for the first file. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class YamlConfigurationMergerBenchmark {
+
+    @Param({ "100", "1000", "10000", "100000" })
+    int aceCount;
+
+    private final BenchmarkRepository repository = new BenchmarkRepository();
+    private Session session;
+    private Map<String, String> configFiles;
+    private List<Map> parsedYaml;
+    private YamlConfigurationMerger mergerWithWarmCache;
+
+    @Setup(Level.Trial)
+    public void setup() throws RepositoryException, IOException, AcConfigBeanValidationException {
+        session = repository.start();
+        configFiles = SyntheticConfigGenerator.forAceCount(aceCount).withFileCount(10).generate();
+        parsedYaml = (List<Map>) new Yaml().load(configFiles.values().iterator().next());
+        mergerWithWarmCache = createConfigurationMerger();
+        mergerWithWarmCache.getMergedConfigurations(configFiles, new PersistableInstallationLogger(), new YamlConfigReader(), session);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        repository.stop();
+    }
+
+    @Benchmark
+    public AcConfiguration mergeConfigurations() throws RepositoryException, AcConfigBeanValidationException {
+        return createConfigurationMerger().getMergedConfigurations(configFiles, new PersistableInstallationLogger(),
+                new YamlConfigReader(), session);
+    }
+
+    @Benchmark
+    public AcConfiguration mergeUnchangedConfigurations() throws RepositoryException, AcConfigBeanValidationException {
+        return mergerWithWarmCache.getMergedConfigurations(configFiles, new PersistableInstallationLogger(), new YamlConfigReader(),
+                session);
+    }
+
+    @Benchmark
+    public List<Map> processMacros() {
+        return new YamlMacroProcessorImpl().processMacros(parsedYaml, new HashMap<String, Object>(), new PersistableInstallationLogger(),
+                session);
+    }
+
+    /** @return a merger wired as in YamlConfigurationMergerTest (without OSGi) */
+    public static YamlConfigurationMerger createConfigurationMerger() {
+        YamlConfigurationMerger merger = new YamlConfigurationMerger();
+        merger.yamlMacroProcessor = new YamlMacroProcessorImpl();
+        merger.obsoleteAuthorizablesValidator = new ObsoleteAuthorizablesValidatorImpl();
+        merger.virtualGroupProcessor = new VirtualGroupProcessor();
+        merger.testUserConfigsCreator = new TestUserConfigsCreator();
+        merger.externalGroupsInIsMemberOfValidator = new ExternalGroupsInIsMemberOfValidator();
+        return merger;
+    }
+
+}
@@ -0,0 +1,106 @@
+/*
+ * (C) Copyright 2026 Cognizant Netcentric.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package biz.netcentric.cq.tools.actool.dumpservice.impl;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import biz.netcentric.cq.tools.actool.benchmarks.BenchmarkRepository;
+import biz.netcentric.cq.tools.actool.benchmarks.SyntheticConfigGenerator;
+import biz.netcentric.cq.tools.actool.benchmarks.SyntheticContentSeeder;
+import biz.netcentric.cq.tools.actool.dumpservice.AceDumpData;
+import biz.netcentric.cq.tools.actool.helper.AcHelper;
+
+/** Measures the creation of the ACL dump (as also used for the purge and cleanup of ACEs during the installation). */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class DumpServiceImplBenchmark {
+
+    private static final List<String> EXCLUDE_PATHS = Arrays.asList("/home", "/jcr:system", "/tmp");
+
+    @Param({ "100", "1000", "10000", "100000" })
+    int aceCount;
+
+    private final BenchmarkRepository repository = new BenchmarkRepository();
+    private Session session;
+    private DumpServiceImpl dumpService;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        session = repository.start();
+        SyntheticContentSeeder seeder = new SyntheticContentSeeder(SyntheticConfigGenerator.forAceCount(aceCount));
+        seeder.seedContent(session);
+        seeder.seedGroups(session, false);
+        seeder.seedAcls(session);
+
+        dumpService = new DumpServiceImpl();
+        dumpService.activate(new DumpServiceImpl.Configuration() {
+            @Override
+            public Class<? extends Annotation> annotationType() {
+                return DumpServiceImpl.Configuration.class;
+            }
+
+            @Override
+            public int DumpService_nrOfSavedDumps() {
+                return 5;
+            }
+
+            @Override
+            public boolean DumpService_includeUsers() {
+                return false;
+            }
+
+            @Override
+            public String[] DumpService_queryExcludePaths() {
+                return EXCLUDE_PATHS.toArray(new String[EXCLUDE_PATHS.size()]);
+            }
+
+            @Override
+            public String[] DumpService_queryShardedPaths() {
+                return new String[] { "/content" };
+            }
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        repository.stop();
+    }
+
+    @Benchmark
+    public AceDumpData createAclDumpMap() throws RepositoryException {
+        return dumpService.createAclDumpMap(AcHelper.PATH_BASED_ORDER, AcHelper.ACE_ORDER_ACTOOL_BEST_PRACTICE, EXCLUDE_PATHS, false,
+                session);
+    }
+
+}
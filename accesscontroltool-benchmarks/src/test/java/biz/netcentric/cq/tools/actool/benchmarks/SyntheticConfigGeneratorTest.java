@@ -0,0 +1,79 @@
+/*
+ * (C) Copyright 2026 Cognizant Netcentric.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package biz.netcentric.cq.tools.actool.benchmarks;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+
+import javax.jcr.Session;
+
+import org.apache.jackrabbit.api.JackrabbitSession;
+import org.apache.jackrabbit.api.security.user.Group;
+import org.apache.jackrabbit.api.security.user.UserManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import biz.netcentric.cq.tools.actool.configmodel.AcConfiguration;
+import biz.netcentric.cq.tools.actool.configreader.YamlConfigReader;
+import biz.netcentric.cq.tools.actool.configreader.YamlConfigurationMergerBenchmark;
+import biz.netcentric.cq.tools.actool.extensions.OakRepository;
+import biz.netcentric.cq.tools.actool.history.impl.PersistableInstallationLogger;
+
+@ExtendWith(OakRepository.class)
+class SyntheticConfigGeneratorTest {
+
+    @Test
+    void testGeneratedConfigIsValid(Session session) throws Exception {
+        SyntheticConfigGenerator generator = new SyntheticConfigGenerator()
+                .withGroupCount(50)
+                .withAcesPerGroup(4)
+                .withMacroRatio(0.5)
+                .withFileCount(3);
+        Map<String, String> configFiles = generator.generate();
+        assertEquals(3, configFiles.size());
+        assertEquals(configFiles, generator.generate(), "same seed has to generate the same config");
+
+        AcConfiguration acConfiguration = YamlConfigurationMergerBenchmark.createConfigurationMerger().getMergedConfigurations(configFiles,
+                new PersistableInstallationLogger(), new YamlConfigReader(), session);
+        assertEquals(50, acConfiguration.getAuthorizablesConfig().size());
+        assertEquals(200, acConfiguration.getAceConfig().size());
+        assertEquals(SyntheticConfigGenerator.getGroupId(1), acConfiguration.getAuthorizablesConfig()
+                .getAuthorizableConfig(SyntheticConfigGenerator.getGroupId(2)).getIsMemberOf()[0]);
+    }
+
+    @Test
+    void testGeneratedConfigWithVirtualGroupsIsValid(Session session) throws Exception {
+        SyntheticConfigGenerator generator = new SyntheticConfigGenerator()
+                .withGroupCount(30)
+                .withVirtualGroupRatio(0.5);
+        AcConfiguration acConfiguration = YamlConfigurationMergerBenchmark.createConfigurationMerger().getMergedConfigurations(
+                generator.generate(), new PersistableInstallationLogger(), new YamlConfigReader(), session);
+        assertTrue(acConfiguration.getAuthorizablesConfig().size() < 30, "virtual groups are removed while merging");
+    }
+
+    @Test
+    void testSeeder(Session session) throws Exception {
+        SyntheticConfigGenerator generator = new SyntheticConfigGenerator().withGroupCount(6).withAcesPerGroup(2);
+        SyntheticContentSeeder seeder = new SyntheticContentSeeder(generator);
+        seeder.seedContent(session);
+        seeder.seedGroups(session, true);
+        seeder.seedAcls(session);
+
+        assertTrue(session.nodeExists(SyntheticConfigGenerator.getPagePath(5, 1)));
+        assertTrue(session.nodeExists(SyntheticConfigGenerator.getPagePath(5, 1) + "/rep:policy"));
+        UserManager userManager = ((JackrabbitSession) session).getUserManager();
+        Group group1 = (Group) userManager.getAuthorizable(SyntheticConfigGenerator.getGroupId(1));
+        assertNotNull(group1);
+        assertTrue(group1.isDeclaredMember(userManager.getAuthorizable(SyntheticConfigGenerator.getGroupId(2))));
+    }
+
+}
@@ -0,0 +1,4 @@
+package biz.netcentric.cq.tools.actool.aceinstaller.jmh_generated;
+public class AceBeanInstallerIncrementalBenchmark_jmhType extends AceBeanInstallerIncrementalBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package biz.netcentric.cq.tools.actool.authorizableinstaller.impl.jmh_generated;
+public class AuthInstallerUserManagerPrefetchingBenchmark_jmhType extends AuthInstallerUserManagerPrefetchingBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package biz.netcentric.cq.tools.actool.configreader.jmh_generated;
+public class YamlConfigurationMergerBenchmark_jmhType extends YamlConfigurationMergerBenchmark_jmhType_B3 {
+}
+
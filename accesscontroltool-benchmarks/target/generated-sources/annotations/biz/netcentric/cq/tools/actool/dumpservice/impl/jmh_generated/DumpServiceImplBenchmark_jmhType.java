@@ -0,0 +1,4 @@
+package biz.netcentric.cq.tools.actool.dumpservice.impl.jmh_generated;
+public class DumpServiceImplBenchmark_jmhType extends DumpServiceImplBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,140 @@
+/*
+ * (C) Copyright 2026 Cognizant Netcentric.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package biz.netcentric.cq.tools.actool.aceinstaller;
+
+import java.security.Principal;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.jcr.security.AccessControlEntry;
+import javax.jcr.security.AccessControlManager;
+import javax.jcr.security.Privilege;
+
+import org.apache.jackrabbit.api.security.JackrabbitAccessControlList;
+import org.apache.jackrabbit.oak.spi.security.principal.PrincipalImpl;
+import org.apache.sling.jcr.api.SlingRepository;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.annotations.ReferencePolicyOption;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import biz.netcentric.cq.tools.actool.configmodel.AceBean;
+import biz.netcentric.cq.tools.actool.configmodel.Restriction;
+import biz.netcentric.cq.tools.actool.helper.RestrictionsHolder;
+import biz.netcentric.cq.tools.actool.history.InstallationLogger;
+
+/** Installs ACLs that do not contain any ACEs of configured principals yet (e.g. for the initial installation on a fresh repository) in
+ * bulk: All ACEs of a path are added to the ACL in one pass and the ACL is written once. Privileges and restrictions are resolved and
+ * validated once per distinct combination per ACL (instead of once per ACE) and no comparison with the existing ACL is required.
+ *
+ * ACLs that contain ACEs of configured principals are installed exactly like by {@link AceBeanInstallerIncremental}, the resulting
+ * repository state is the same for both installers. Can be configured in "global_config" section by setting "installAclsInBulk=true". */
+@Component(service = AceBeanInstaller.class)
+public class AceBeanInstallerBulk extends AceBeanInstallerIncremental {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AceBeanInstallerBulk.class);
+
+    @Reference(policyOption = ReferencePolicyOption.GREEDY)
+    private SlingRepository slingRepository;
+
+    @Override
+    protected SlingRepository getSlingRepository() {
+        return slingRepository;
+    }
+
+    @Override
+    protected void installAcl(Set<AceBean> aceBeanSetFromConfig, String path, Set<String> principalsInConfiguration,
+            AclWorkingSet aclWorkingSet, InstallationLogger installLog) throws RepositoryException {
+
+        Session session = aclWorkingSet.getSession();
+        AccessControlManager acMgr = session.getAccessControlManager();
+        JackrabbitAccessControlList acl = aclWorkingSet.getAcl(path);
+        if (containsEntriesOfPrincipals(acl, principalsInConfiguration)) {
+            // existing ACEs of configured principals have to be compared with the configuration
+            super.installAcl(aceBeanSetFromConfig, path, principalsInConfiguration, aclWorkingSet, installLog);
+            return;
+        }
+
+        PrivilegeCatalog privilegeCatalog = aclWorkingSet.getPrivilegeCatalog();
+        List<AceBean> configuredAceEntries = getConfiguredAceEntries(aceBeanSetFromConfig, session, privilegeCatalog, installLog);
+        if (configuredAceEntries.isEmpty()) {
+            installLog.incCountAclsNoChange();
+            return;
+        }
+
+        Collection<String> supportedRestrictionNames = Arrays.asList(acl.getRestrictionNames());
+        Map<String, Privilege[]> privilegesByPrivilegesString = new HashMap<>();
+        Map<String, RestrictionsHolder> restrictionsHoldersByRestrictionsString = new HashMap<>();
+        Map<String, Principal> principalsByName = new HashMap<>();
+        for (AceBean aceBean : configuredAceEntries) {
+
+            Privilege[] privileges = privilegesByPrivilegesString.get(aceBean.getPrivilegesString());
+            if (privileges == null) {
+                Set<Privilege> privilegeSet = getPrivilegeSet(aceBean.getPrivileges(), privilegeCatalog, acMgr);
+                privileges = privilegeSet.toArray(new Privilege[privilegeSet.size()]);
+                privilegesByPrivilegesString.put(aceBean.getPrivilegesString(), privileges);
+            }
+            if (privileges.length == 0) {
+                continue;
+            }
+
+            Principal principal = principalsByName.get(aceBean.getPrincipalName());
+            if (principal == null) {
+                principal = new PrincipalImpl(aceBean.getPrincipalName());
+                principalsByName.put(aceBean.getPrincipalName(), principal);
+            }
+
+            if (aceBean.getRestrictions().isEmpty()) {
+                acl.addEntry(principal, privileges, aceBean.isAllow());
+            } else {
+                String restrictionsString = aceBean.getRestrictions().toString();
+                RestrictionsHolder restrictions = restrictionsHoldersByRestrictionsString.get(restrictionsString);
+                if (restrictions == null) {
+                    restrictions = createRestrictionsHolder(aceBean.getRestrictions(), supportedRestrictionNames, session, acl);
+                    restrictionsHoldersByRestrictionsString.put(restrictionsString, restrictions);
+                }
+                acl.addEntry(principal, privileges, aceBean.isAllow(),
+                        restrictions.getSingleValuedRestrictionsMap(), restrictions.getMultiValuedRestrictionsMap());
+            }
+        }
+
+        aclWorkingSet.setModified(path);
+        installLog.incCountAclsChanged();
+        installLog.addVerboseMessage(LOG, "Installed " + configuredAceEntries.size() + " ACEs in bulk at path " + path);
+    }
+
+    private boolean containsEntriesOfPrincipals(JackrabbitAccessControlList acl, Set<String> principalNames) throws RepositoryException {
+        for (AccessControlEntry ace : acl.getAccessControlEntries()) {
+            if (principalNames.contains(ace.getPrincipal().getName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private RestrictionsHolder createRestrictionsHolder(List<Restriction> restrictions, Collection<String> supportedRestrictionNames,
+            Session session, JackrabbitAccessControlList acl) throws RepositoryException {
+        for (Restriction restriction : restrictions) {
+            if (!supportedRestrictionNames.contains(restriction.getName())) {
+                throw new IllegalStateException(
+                        "The AccessControlList at " + acl.getPath() + " does not support setting " + restriction.getName()
+                                + " restrictions!");
+            }
+        }
+        return new RestrictionsHolder(restrictions, session.getValueFactory(), acl);
+    }
+
+}
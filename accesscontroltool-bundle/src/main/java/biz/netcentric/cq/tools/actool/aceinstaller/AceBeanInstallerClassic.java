@@ -30,7 +30,10 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.jackrabbit.api.security.JackrabbitAccessControlEntry;
 import org.apache.jackrabbit.api.security.JackrabbitAccessControlList;
 import org.apache.jackrabbit.oak.spi.security.principal.PrincipalImpl;
+import org.apache.sling.jcr.api.SlingRepository;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.annotations.ReferencePolicyOption;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -47,12 +50,22 @@ public class AceBeanInstallerClassic extends BaseAceBeanInstaller implements Ace
 
     private static final Logger LOG = LoggerFactory.getLogger(AceBeanInstallerClassic.class);
 
+    @Reference(policyOption = ReferencePolicyOption.GREEDY)
+    private SlingRepository slingRepository;
+
+    @Override
+    protected SlingRepository getSlingRepository() {
+        return slingRepository;
+    }
     
     /** Installs a full set of ACE beans that form an ACL for the path
      * 
      * @throws RepositoryException */
-    protected void installAcl(Set<AceBean> aceBeanSetFromConfig, String path, Set<String> principalsToRemoveAcesFor, Session session,
-            InstallationLogger installLog) throws RepositoryException {
+    protected void installAcl(Set<AceBean> aceBeanSetFromConfig, String path, Set<String> principalsToRemoveAcesFor,
+            AclWorkingSet aclWorkingSet, InstallationLogger installLog) throws RepositoryException {
+
+        // the classic installer writes every ACE individually, hence the ACL handle of the working set is not used
+        Session session = aclWorkingSet.getSession();
 
         // Remove all config contained authorizables from ACL of this path
         int countRemoved = AccessControlUtils.deleteAllEntriesForPrincipalsFromACL(session,
@@ -61,12 +74,13 @@ public class AceBeanInstallerClassic extends BaseAceBeanInstaller implements Ace
         installLog.addVerboseMessage(LOG, "Deleted " + countRemoved + " ACEs for configured principals from path " + path);
 
         // Set ACL in repo with permissions from merged config
+        PrivilegeCatalog privilegeCatalog = aclWorkingSet.getPrivilegeCatalog();
         for (final AceBean bean : aceBeanSetFromConfig) {
 
             LOG.debug("Writing bean to repository {}", bean);
 
             Principal currentPrincipal = new PrincipalImpl(bean.getPrincipalName());
-            installAce(bean, session, currentPrincipal, installLog);
+            installAce(bean, session, currentPrincipal, privilegeCatalog, installLog);
 
         }
 
@@ -77,7 +91,7 @@ public class AceBeanInstallerClassic extends BaseAceBeanInstaller implements Ace
     /** Installs the AccessControlEntry being represented by this bean in the repository
     *
     * @throws NoSuchMethodException */
-   private void installAce(AceBean aceBean, final Session session, Principal principal,
+   private void installAce(AceBean aceBean, final Session session, Principal principal, PrivilegeCatalog privilegeCatalog,
             InstallationLogger installLog) throws RepositoryException {
 
         if (aceBean.isInitialContentOnlyConfig()) {
@@ -103,7 +117,7 @@ public class AceBeanInstallerClassic extends BaseAceBeanInstaller implements Ace
         }
 
         // then install (remaining) privileges
-        if (installPrivileges(aceBean, principal, acl, session, acMgr)) {
+        if (installPrivileges(aceBean, principal, acl, session, acMgr, privilegeCatalog)) {
             installLog.addVerboseMessage(LOG, "Added privilege(s) for path: " + aceBean.getJcrPath()
                     + ", principal: " + principal.getName() + ", privileges: "
                     + aceBean.getPrivilegesString() + ", allow: " + aceBean.isAllow());
@@ -8,29 +8,27 @@
  */
 package biz.netcentric.cq.tools.actool.aceinstaller;
 
-import java.security.Principal;
-import java.text.Collator;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collection;
+import java.util.BitSet;
 import java.util.Collections;
-import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
 
+import javax.jcr.Node;
 import javax.jcr.PathNotFoundException;
 import javax.jcr.RepositoryException;
 import javax.jcr.Session;
 import javax.jcr.UnsupportedRepositoryOperationException;
 import javax.jcr.security.AccessControlEntry;
+import javax.jcr.security.AccessControlException;
 import javax.jcr.security.AccessControlManager;
-import javax.jcr.security.Privilege;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.jackrabbit.api.security.JackrabbitAccessControlList;
@@ -42,11 +40,12 @@ import org.osgi.service.component.annotations.ReferencePolicyOption;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.day.cq.replication.Replicator;
+
 import biz.netcentric.cq.tools.actool.aem.AcToolCqActions;
 import biz.netcentric.cq.tools.actool.configmodel.AceBean;
 import biz.netcentric.cq.tools.actool.configmodel.Restriction;
 import biz.netcentric.cq.tools.actool.helper.AcHelper;
-import biz.netcentric.cq.tools.actool.helper.AccessControlUtils;
 import biz.netcentric.cq.tools.actool.history.InstallationLogger;
 
 @Component
@@ -58,13 +57,25 @@ public class AceBeanInstallerIncremental extends BaseAceBeanInstaller implements
     private static final Logger LOG = LoggerFactory.getLogger(AceBeanInstallerIncremental.class);
 
     private Map<String, Set<AceBean>> actionsToPrivilegesMapping = new ConcurrentHashMap<String, Set<AceBean>>();
+    private Map<String, Boolean> definesContentByNodeType = new ConcurrentHashMap<String, Boolean>();
+
+    @Override
+    protected SlingRepository getSlingRepository() {
+        return slingRepository;
+    }
+
+    @Override
+    protected boolean supportsAclFingerprints() {
+        return true;
+    }
 
     /** Installs a full set of ACE beans that form an ACL for the path
      * 
      * @throws RepositoryException */
-    protected void installAcl(Set<AceBean> aceBeanSetFromConfig, String path, Set<String> principalsInConfiguration, Session session,
-            InstallationLogger installLog) throws RepositoryException {
+    protected void installAcl(Set<AceBean> aceBeanSetFromConfig, String path, Set<String> principalsInConfiguration,
+            AclWorkingSet aclWorkingSet, InstallationLogger installLog) throws RepositoryException {
 
+        Session session = aclWorkingSet.getSession();
         boolean hadPendingChanges = session.hasPendingChanges();
 
         int countDeleted = 0;
@@ -72,34 +83,39 @@ public class AceBeanInstallerIncremental extends BaseAceBeanInstaller implements
         int countNoChange = 0;
         int countOutsideConfig = 0;
 
-        StringBuilder diffLog = new StringBuilder();
-
-        aceBeanSetFromConfig = transformActionsIntoPrivileges(aceBeanSetFromConfig, session, installLog);
-        aceBeanSetFromConfig = filterInitialContentOnlyNodes(aceBeanSetFromConfig);
-        aceBeanSetFromConfig = filterDuplicates(aceBeanSetFromConfig, session);
+        // the diff log is only created if it is logged
+        StringBuilder diffLog = LOG.isDebugEnabled() ? new StringBuilder() : null;
 
-        List<AceBean> configuredAceEntries = new ArrayList<AceBean>(aceBeanSetFromConfig);
+        PrivilegeCatalog privilegeCatalog = aclWorkingSet.getPrivilegeCatalog();
+        List<AceBean> configuredAceEntries = getConfiguredAceEntries(aceBeanSetFromConfig, session, privilegeCatalog, installLog);
         int currentPositionConfig = 0;
 
         boolean changeHasBeenFound = false;
             
         AccessControlManager acMgr = session.getAccessControlManager();
 
-        JackrabbitAccessControlList acl = getAccessControlList(acMgr, path);
+        // the fingerprints of the configured ACEs are created once per ACL (and not for every ACE of the repository compared to them)
+        List<AceFingerprint> configuredAceFingerprints = new ArrayList<AceFingerprint>(configuredAceEntries.size());
+        for (AceBean configuredAceEntry : configuredAceEntries) {
+            configuredAceFingerprints.add(AceFingerprint.create(configuredAceEntry, privilegeCatalog, acMgr));
+        }
+
+        JackrabbitAccessControlList acl = aclWorkingSet.getAcl(path);
         Iterator<AccessControlEntry> aceIt = Arrays.asList(acl.getAccessControlEntries()).iterator();
         while (aceIt.hasNext()) {
             AccessControlEntry ace = aceIt.next();
             AceBean actualAceBean = AcHelper.getAceBean(ace, acl);
 
             String acePrincipalName = actualAceBean.getPrincipalName();
-            String actualAceBeanCompareStr = toAceCompareString(actualAceBean, acMgr);
 
             if (!principalsInConfiguration.contains(acePrincipalName)) {
                 countOutsideConfig++;
-                diffLog.append("    OUTSIDE (not in Config) " + actualAceBeanCompareStr + "\n");
+                appendToDiffLog(diffLog, "    OUTSIDE (not in Config) ", actualAceBean, privilegeCatalog, acMgr);
                 continue;
             }
 
+            AceFingerprint actualAceFingerprint = AceFingerprint.create(actualAceBean, privilegeCatalog, acMgr);
+
             AceBean configuredAceAtThisLocation;
             if (currentPositionConfig < configuredAceEntries.size()) {
                 configuredAceAtThisLocation = configuredAceEntries.get(currentPositionConfig);
@@ -109,13 +125,12 @@ public class AceBeanInstallerIncremental extends BaseAceBeanInstaller implements
                 configuredAceAtThisLocation = null; // setting explicitly to null
             }
 
-            String configuredAceAtThisLocationCompareStr = toAceCompareString(configuredAceAtThisLocation, acMgr);
-            boolean dumpEqualToConfig = StringUtils.equals(actualAceBeanCompareStr, configuredAceAtThisLocationCompareStr);
+            boolean dumpEqualToConfig = configuredAceAtThisLocation != null
+                    && actualAceFingerprint.equals(configuredAceFingerprints.get(currentPositionConfig));
 
             if (!changeHasBeenFound && !dumpEqualToConfig) {
-                String configBeanStr = configuredAceAtThisLocationCompareStr;
-                diffLog.append("<<< CHANGE (Repo Version)   " + actualAceBeanCompareStr
-                        + "\n>>> CHANGE (Config Version) " + configBeanStr + "\n");
+                appendToDiffLog(diffLog, "<<< CHANGE (Repo Version)   ", actualAceBean, privilegeCatalog, acMgr);
+                appendToDiffLog(diffLog, ">>> CHANGE (Config Version) ", configuredAceAtThisLocation, privilegeCatalog, acMgr);
             }
 
             if (changeHasBeenFound || !dumpEqualToConfig) {
@@ -123,14 +138,14 @@ public class AceBeanInstallerIncremental extends BaseAceBeanInstaller implements
                 acl.removeAccessControlEntry(ace);
                 countDeleted++;
 
-                diffLog.append("    DELETED (from Repo)     " + actualAceBeanCompareStr + "\n");
+                appendToDiffLog(diffLog, "    DELETED (from Repo)     ", actualAceBean, privilegeCatalog, acMgr);
 
                 continue; // we do not touch currentPositionConfig anymore, we'll have to recreate from there
             }
 
             currentPositionConfig++; // found equal ACE, compare next pair
             countNoChange++;
-            diffLog.append("    UNCHANGED               " + actualAceBeanCompareStr + "\n");
+            appendToDiffLog(diffLog, "    UNCHANGED               ", actualAceBean, privilegeCatalog, acMgr);
 
         }
 
@@ -140,20 +155,20 @@ public class AceBeanInstallerIncremental extends BaseAceBeanInstaller implements
         for (int i = currentPositionConfig; i < configuredAceEntries.size(); i++) {
             AceBean aceBeanToAppend = configuredAceEntries.get(i);
 
-            installPrivileges(aceBeanToAppend, new PrincipalImpl(aceBeanToAppend.getPrincipalName()), acl, session, acMgr);
-            diffLog.append("    APPENDED (from Config)  " + toAceCompareString(aceBeanToAppend, acMgr) + "\n");
+            installPrivileges(aceBeanToAppend, new PrincipalImpl(aceBeanToAppend.getPrincipalName()), acl, session, acMgr, privilegeCatalog);
+            appendToDiffLog(diffLog, "    APPENDED (from Config)  ", aceBeanToAppend, privilegeCatalog, acMgr);
 
             countAdded++;
         }
 
         if (countAdded > 0 || countDeleted > 0) {
-            acMgr.setPolicy(StringUtils.isNotBlank(path) ? path : /* repo level permission */null, acl);
+            aclWorkingSet.setModified(path);
 
             installLog.incCountAclsChanged();
 
             installLog.addVerboseMessage(LOG, "Update result at path " + path + ": O=" + countOutsideConfig + " N="
                     + countNoChange + " D=" + countDeleted + " A=" + countAdded
-                    + (LOG.isDebugEnabled() ? "\nDIFF at " + path + "\n" + diffLog : ""));
+                    + (diffLog != null ? "\nDIFF at " + path + "\n" + diffLog : ""));
 
         } else {
             installLog.incCountAclsNoChange();
@@ -168,23 +183,31 @@ public class AceBeanInstallerIncremental extends BaseAceBeanInstaller implements
 
     }
 
+    /** @return the ACEs to be installed as they would appear in the ACL (actions resolved into privileges, initial content only entries
+     *         and duplicates removed) */
+    List<AceBean> getConfiguredAceEntries(Set<AceBean> aceBeanSetFromConfig, Session session, PrivilegeCatalog privilegeCatalog,
+            InstallationLogger installLog) throws RepositoryException {
+        aceBeanSetFromConfig = transformActionsIntoPrivileges(aceBeanSetFromConfig, session, privilegeCatalog, installLog);
+        aceBeanSetFromConfig = filterInitialContentOnlyNodes(aceBeanSetFromConfig);
+        aceBeanSetFromConfig = filterDuplicates(aceBeanSetFromConfig, session, privilegeCatalog);
+        return new ArrayList<AceBean>(aceBeanSetFromConfig);
+    }
+
     // When using actions, it often happens that the second entry produced (with the rep:glob '*/jcr:content*') is a duplicate
     // Also without this, a potential effective duplicate in config would be detected as change of incremental run when it is
     // really not since jackrabbit ignores adding a duplicate entry to ACL
-    private Set<AceBean> filterDuplicates(Set<AceBean> aceBeanSetFromConfig, Session session)
+    private Set<AceBean> filterDuplicates(Set<AceBean> aceBeanSetFromConfig, Session session, PrivilegeCatalog privilegeCatalog)
             throws UnsupportedRepositoryOperationException, RepositoryException {
 
+        AccessControlManager acMgr = session.getAccessControlManager();
         LinkedHashSet<AceBean> filteredAceBeans = new LinkedHashSet<AceBean>(aceBeanSetFromConfig);
         Iterator<AceBean> aceBeansIt = filteredAceBeans.iterator();
-        Set<String> aceCompareKeysToAvoidDuplicates = new HashSet<String>();
+        Set<AceFingerprint> aceFingerprintsToAvoidDuplicates = new HashSet<AceFingerprint>();
         while (aceBeansIt.hasNext()) {
-            String aceCompareKey = toAceCompareString(aceBeansIt.next(), session.getAccessControlManager());
-            if (aceCompareKeysToAvoidDuplicates.contains(aceCompareKey)) {
+            // privileges are compared by their bits, hence aggregates and their non-aggregate privileges are considered equal
+            if (!aceFingerprintsToAvoidDuplicates.add(AceFingerprint.create(aceBeansIt.next(), privilegeCatalog, acMgr))) {
                 aceBeansIt.remove();
-            } else {
-                aceCompareKeysToAvoidDuplicates.add(aceCompareKey);
             }
-
         }
         return filteredAceBeans;
     }
@@ -200,14 +223,8 @@ public class AceBeanInstallerIncremental extends BaseAceBeanInstaller implements
         return aceBeanSetNoInitialContentOnlyNodes;
     }
 
-    // to be overwritten in JUnit Test
-    protected JackrabbitAccessControlList getAccessControlList(AccessControlManager acMgr, String path) throws RepositoryException {
-        JackrabbitAccessControlList acl = AccessControlUtils.getModifiableAcl(acMgr, path);
-        return acl;
-    }
-
     private Set<AceBean> transformActionsIntoPrivileges(Set<AceBean> aceBeanSetFromConfig, Session session,
-            InstallationLogger installLog) throws RepositoryException {
+            PrivilegeCatalog privilegeCatalog, InstallationLogger installLog) throws RepositoryException {
 
 
         Set<AceBean> aceBeanSetWithPrivilegesOnly = new LinkedHashSet<AceBean>();
@@ -217,7 +234,8 @@ public class AceBeanInstallerIncremental extends BaseAceBeanInstaller implements
                 continue;
             }
 
-            Set<AceBean> aceBeansForActionEntry = getPrincipalAceBeansForActionAceBeanCached(origAceBean, session, installLog);
+            Set<AceBean> aceBeansForActionEntry = getPrincipalAceBeansForActionAceBeanCached(origAceBean, session, privilegeCatalog,
+                    installLog);
             for (AceBean aceBeanResolvedFromAction : aceBeansForActionEntry) {
                 aceBeanSetWithPrivilegesOnly.add(aceBeanResolvedFromAction);
             }
@@ -227,7 +245,7 @@ public class AceBeanInstallerIncremental extends BaseAceBeanInstaller implements
     }
 
     private Set<AceBean> getPrincipalAceBeansForActionAceBeanCached(AceBean origAceBean, Session session,
-            InstallationLogger installLog) throws RepositoryException {
+            PrivilegeCatalog privilegeCatalog, InstallationLogger installLog) throws RepositoryException {
         
         String cacheKey = (definesContent(origAceBean.getJcrPathForPolicyApi(), session) ? "definesContent" : "simple")
                 + "-" + origAceBean.getPermission() + "-" + getRestrictionsComparable(origAceBean.getRestrictions()) + "-"
@@ -247,52 +265,39 @@ public class AceBeanInstallerIncremental extends BaseAceBeanInstaller implements
         } else {
             installLog.incCountActionCacheMiss();
 
-            Set<AceBean> aceBeansForActionEntry = null;
-            Session newSession =  slingRepository.loginService(null, null);
-            try {
-                Session relevantSessionToUse;
-                if (newSession.nodeExists(origAceBean.getJcrPath())) {
-                    // a new session is needed to ensure no pending changes are introduced (even if there would not be real pending changes
-                    // since we add and remove, but session.hasPendingChanges() is true then).
-                    // The new session is not saved(), its only function is to produce the action->privileges mapping with the ootb class
-                    // CqActions
-                    relevantSessionToUse = newSession;
-                } else {
-                    // if the path was just only created in this session via initialContent
-                    relevantSessionToUse = session;
-                    LOG.warn("Reusing main session for path {} since the node was only just created in that session via 'initialContent'",
-                            origAceBean.getJcrPath());
-                }
-                aceBeansForActionEntry = getPrincipalAceBeansForActionAceBean(origAceBean, relevantSessionToUse);
-            } finally {
-                newSession.logout();
-            }
+            // the mapping is computed in memory, hence neither a separate session nor the node itself (that might have only just been
+            // created via 'initialContent') is required
+            Set<AceBean> aceBeansForActionEntry = getPrincipalAceBeansForActionAceBean(origAceBean, session, privilegeCatalog);
 
             LOG.debug("Adding to cache: {}={}", cacheKey, aceBeansForActionEntry);
             actionsToPrivilegesMapping.put(cacheKey, aceBeansForActionEntry);
 
-
             return aceBeansForActionEntry;
         }
 
     }
 
-    Set<AceBean> getPrincipalAceBeansForActionAceBean(AceBean origAceBean, Session session) throws RepositoryException {
+    Set<AceBean> getPrincipalAceBeansForActionAceBean(AceBean origAceBean, Session session, PrivilegeCatalog privilegeCatalog)
+            throws RepositoryException {
 
         Set<AceBean> aceBeansForActionEntry = new LinkedHashSet<AceBean>();
+        AccessControlManager acMgr = session.getAccessControlManager();
 
-        Principal testActionMapperPrincipal = getTestActionMapperPrincipal();
-        applyCqActions(origAceBean, session, testActionMapperPrincipal);
+        Map<String, Boolean> actionMap = new HashMap<String, Boolean>(origAceBean.getActionMap());
+        if (actionMap.containsKey(AcToolCqActions.CqActions.replicate.name()) && !isPrivilegeRegistered(Replicator.REPLICATE_PRIVILEGE, acMgr)) {
+            LOG.warn("Replicate privilege not registered");
+            actionMap.remove(AcToolCqActions.CqActions.replicate.name());
+        }
 
-        JackrabbitAccessControlList newAcl = getAccessControlList(session.getAccessControlManager(), origAceBean.getJcrPathForPolicyApi());
+        String policyPath = origAceBean.getJcrPathForPolicyApi();
+        boolean definesContent = definesContent(policyPath, session);
+        // the rep:glob entries for the page content can only be created if the AC model supports rep:glob
+        boolean globRestrictionSupported = definesContent
+                && AcToolCqActions.isGlobRestrictionSupported(getAccessControlList(acMgr, policyPath));
 
         boolean isFirst = true;
-        for (AccessControlEntry newAce : newAcl.getAccessControlEntries()) {
-            if (!newAce.getPrincipal().equals(testActionMapperPrincipal)) {
-                continue;
-            }
-
-            AceBean privilegesAceBeanForAction = AcHelper.getAceBean(newAce, newAcl);
+        for (AceBean privilegesAceBeanForAction : AcToolCqActions.compileActions(actionMap, definesContent, globRestrictionSupported)) {
+            privilegesAceBeanForAction.setJcrPath(origAceBean.getJcrPath());
             privilegesAceBeanForAction.setPrincipalName(origAceBean.getPrincipalName());
 
             // handle restrictions
@@ -311,13 +316,11 @@ public class AceBeanInstallerIncremental extends BaseAceBeanInstaller implements
             }
 
             aceBeansForActionEntry.add(privilegesAceBeanForAction);
-
-            // remove the fake entry again
-            newAcl.removeAccessControlEntry(newAce);
             isFirst = false;
         }
-        AccessControlManager acMgr = session.getAccessControlManager();
-        acMgr.setPolicy(origAceBean.getJcrPath(), newAcl);
+        if (aceBeansForActionEntry.isEmpty()) {
+            return aceBeansForActionEntry;
+        }
 
         // handle privileges
         AceBean firstMappedBean = aceBeansForActionEntry.iterator().next(); // apply additional privileges only to first bean
@@ -326,10 +329,11 @@ public class AceBeanInstallerIncremental extends BaseAceBeanInstaller implements
         if (firstMappedBean.getPrivileges() != null) {
             newPrivilegesFirstMappedBean.addAll(Arrays.asList(firstMappedBean.getPrivileges()));
         }
-        Set<String> flatSetPrincipalsOfFirstMappedBean = flatSetResolvedAggregates(firstMappedBean.getPrivileges(), acMgr, true);
+        BitSet privilegeBitsOfFirstMappedBean = privilegeCatalog.getPrivilegeBits(firstMappedBean.getPrivileges(), acMgr);
         if (origAceBean.getPrivileges() != null) {
             for (String origBeanPrivString : origAceBean.getPrivileges()) {
-                if (!flatSetPrincipalsOfFirstMappedBean.contains(origBeanPrivString)) {
+                BitSet origBeanPrivBits = privilegeCatalog.getPrivilegeBits(new String[] { origBeanPrivString }, acMgr);
+                if (!PrivilegeCatalog.includes(privilegeBitsOfFirstMappedBean, origBeanPrivBits)) {
                     newPrivilegesFirstMappedBean.add(origBeanPrivString);
                 }
             }
@@ -339,9 +343,9 @@ public class AceBeanInstallerIncremental extends BaseAceBeanInstaller implements
         if (LOG.isDebugEnabled()) {
             StringBuilder buf = new StringBuilder();
             buf.append("CqActions at path " + origAceBean.getJcrPath()
-                    + " with authorizableId=" + origAceBean.getAuthorizableId() + "/" + testActionMapperPrincipal.getName() + " produced \n");
+                    + " with authorizableId=" + origAceBean.getAuthorizableId() + " produced \n");
             for (AceBean aceBean : aceBeansForActionEntry) {
-                buf.append("   " + toAceCompareString(aceBean, acMgr) + "\n");
+                buf.append("   " + AceFingerprint.create(aceBean, privilegeCatalog, acMgr) + "\n");
             }
             LOG.debug(buf.toString());
         }
@@ -350,45 +354,13 @@ public class AceBeanInstallerIncremental extends BaseAceBeanInstaller implements
 
     }
 
-    Principal getTestActionMapperPrincipal() {
-        String groupPrincipalId = "actool-tester-action-mapper"; // does not have to exist since the ACEs for it are not saved
-        Principal principal = new PrincipalImpl(groupPrincipalId);
-        return principal;
-    }
-
-    void applyCqActions(AceBean origAceBean, Session session, Principal principal) throws RepositoryException {
-
-        if (origAceBean.getActionMap().isEmpty()) {
-            return;
-        }
-
-        AcToolCqActions cqActions = new AcToolCqActions(session);
-        Collection<String> inheritedAllows = cqActions.getAllowedActions(origAceBean.getJcrPathForPolicyApi(),
-                Collections.singleton(principal));
-        // this does always install new entries
-        cqActions.installActions(origAceBean.getJcrPath(), principal, origAceBean.getActionMap(), inheritedAllows);
-
-    }
-
-    private Set<String> flatSetResolvedAggregates(String[] privNames, AccessControlManager acMgr, boolean includeAggregates)
-            throws RepositoryException {
-        if (privNames == null) {
-            return Collections.emptySet();
-        }
-        final Set<String> privileges = new HashSet<String>();
-        for (final String name : privNames) {
-            final Privilege p = acMgr.privilegeFromName(name);
-            if (!p.isAggregate() || includeAggregates) {
-                privileges.add(p.getName());
-            }
-            if (p.isAggregate()) { // add "sub privileges" as well
-                for (Privilege subPriv : p.getDeclaredAggregatePrivileges()) {
-                    Set<String> subPrivileges = flatSetResolvedAggregates(new String[] { subPriv.getName() }, acMgr, includeAggregates);
-                    privileges.addAll(subPrivileges);
-                }
-            }
+    private boolean isPrivilegeRegistered(String privilegeName, AccessControlManager acMgr) throws RepositoryException {
+        try {
+            acMgr.privilegeFromName(privilegeName);
+            return true;
+        } catch (AccessControlException e) {
+            return false;
         }
-        return privileges;
     }
 
     boolean definesContent(String pagePath, Session session) throws RepositoryException {
@@ -396,41 +368,37 @@ public class AceBeanInstallerIncremental extends BaseAceBeanInstaller implements
             return false;
         }
         try {
-            return AcToolCqActions.definesContent(session.getNode(pagePath));
+            Node node = session.getNode(pagePath);
+            String primaryNodeTypeName = node.getPrimaryNodeType().getName();
+            Boolean definesContent = definesContentByNodeType.get(primaryNodeTypeName);
+            if (definesContent == null) {
+                definesContent = AcToolCqActions.definesContent(node);
+                definesContentByNodeType.put(primaryNodeTypeName, definesContent);
+            }
+            return definesContent;
         } catch (PathNotFoundException e) {
             return false;
         }
 
     }
 
-    private String toAceCompareString(AceBean aceBean, AccessControlManager acMgr) throws RepositoryException {
-        if (aceBean == null) {
-            return "null";
+    private void appendToDiffLog(StringBuilder diffLog, String prefix, AceBean aceBean, PrivilegeCatalog privilegeCatalog,
+            AccessControlManager acMgr) throws RepositoryException {
+        if (diffLog == null) {
+            return;
         }
-
-        List<Restriction> restrictionsSorted = getRestrictionsComparable(aceBean.getRestrictions());
-
-        String nonAggregatePrivsNormalized = privilegesToComparableSet(aceBean.getPrivileges(), acMgr);
-
-        String aceCompareStr = aceBean.getPrincipalName() + " " + aceBean.getPermission() + " " + nonAggregatePrivsNormalized
-                + Arrays.toString(restrictionsSorted.toArray());
-        return aceCompareStr;
+        diffLog.append(prefix).append(aceBean != null ? AceFingerprint.create(aceBean, privilegeCatalog, acMgr) : "null").append("\n");
     }
 
     private List<Restriction> getRestrictionsComparable(List<Restriction> restrictions) {
         List<Restriction> restrictionsSorted = new ArrayList<Restriction>(restrictions);
-        Collections.sort(restrictionsSorted, new Comparator<Restriction>() {
-
-            @Override
-            public int compare(Restriction r1, Restriction r2) {
-                return Collator.getInstance().compare(r1.getName(), r2.getName());
-            }
-        });
+        Collections.sort(restrictionsSorted, AceFingerprint.RESTRICTION_NAME_COMPARATOR);
         return restrictionsSorted;
     }
 
-    String privilegesToComparableSet(String[] privileges, AccessControlManager acMgr) throws RepositoryException {
-        return new TreeSet<String>(flatSetResolvedAggregates(privileges, acMgr, false)).toString();
+    String privilegesToComparableSet(String[] privileges, PrivilegeCatalog privilegeCatalog, AccessControlManager acMgr)
+            throws RepositoryException {
+        return privilegeCatalog.toComparableString(privilegeCatalog.getPrivilegeBits(privileges, acMgr));
     }
 
 
@@ -0,0 +1,128 @@
+/*
+ * (C) Copyright 2026 Cognizant Netcentric.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package biz.netcentric.cq.tools.actool.aceinstaller;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+import javax.jcr.RepositoryException;
+import javax.jcr.security.AccessControlManager;
+
+import biz.netcentric.cq.tools.actool.configmodel.AceBean;
+import biz.netcentric.cq.tools.actool.configmodel.Restriction;
+
+/** Canonical representation of an ACE as used to compare ACEs from the repository with ACEs from the configuration: principal name,
+ * allow flag, privilege bits (see {@link PrivilegeCatalog}) and restrictions (independent of their order). Equality and hash code are
+ * computed without building strings, the human-readable form as returned by {@link #toString()} is only created on demand (for the diff
+ * log). */
+final class AceFingerprint {
+
+    /** Orders restrictions by name, used wherever restrictions are compared independent of their configured order. */
+    static final Comparator<Restriction> RESTRICTION_NAME_COMPARATOR = new Comparator<Restriction>() {
+        @Override
+        public int compare(Restriction r1, Restriction r2) {
+            return r1.getName().compareTo(r2.getName());
+        }
+    };
+
+    private final String principalName;
+    private final boolean isAllow;
+    private final BitSet privilegeBits;
+    private final List<Restriction> restrictions;
+    private final int restrictionsHash;
+    private final PrivilegeCatalog privilegeCatalog;
+    private final int hashCode;
+
+    private AceFingerprint(String principalName, boolean isAllow, BitSet privilegeBits, List<Restriction> restrictions,
+            PrivilegeCatalog privilegeCatalog) {
+        this.principalName = principalName;
+        this.isAllow = isAllow;
+        this.privilegeBits = privilegeBits;
+        this.restrictions = restrictions;
+        this.restrictionsHash = hashRestrictions(restrictions);
+        this.privilegeCatalog = privilegeCatalog;
+        this.hashCode = Objects.hash(principalName, isAllow, privilegeBits, restrictionsHash);
+    }
+
+    static AceFingerprint create(AceBean aceBean, PrivilegeCatalog privilegeCatalog, AccessControlManager acMgr)
+            throws RepositoryException {
+        return new AceFingerprint(aceBean.getPrincipalName(), aceBean.isAllow(),
+                privilegeCatalog.getPrivilegeBits(aceBean.getPrivileges(), acMgr), aceBean.getRestrictions(), privilegeCatalog);
+    }
+
+    String getPrincipalName() {
+        return principalName;
+    }
+
+    /** The hash is independent of the order of restrictions, the order of values of multi-valued restrictions is taken into account. */
+    private static int hashRestrictions(List<Restriction> restrictions) {
+        int hash = 0;
+        for (Restriction restriction : restrictions) {
+            hash += 31 * restriction.getName().hashCode() + Objects.hashCode(restriction.getValues());
+        }
+        return hash;
+    }
+
+    private static boolean restrictionsEqual(List<Restriction> restrictions, List<Restriction> otherRestrictions) {
+        if (restrictions.size() != otherRestrictions.size()) {
+            return false;
+        }
+        for (Restriction restriction : restrictions) {
+            if (!containsRestriction(otherRestrictions, restriction)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean containsRestriction(List<Restriction> restrictions, Restriction restrictionToFind) {
+        for (Restriction restriction : restrictions) {
+            if (restriction.getName().equals(restrictionToFind.getName())
+                    && Objects.equals(restriction.getValues(), restrictionToFind.getValues())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof AceFingerprint)) {
+            return false;
+        }
+        AceFingerprint other = (AceFingerprint) obj;
+        return hashCode == other.hashCode
+                && isAllow == other.isAllow
+                && restrictionsHash == other.restrictionsHash
+                && Objects.equals(principalName, other.principalName)
+                && privilegeBits.equals(other.privilegeBits)
+                && restrictionsEqual(restrictions, other.restrictions);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    @Override
+    public String toString() {
+        List<Restriction> restrictionsSorted = new ArrayList<>(restrictions);
+        Collections.sort(restrictionsSorted, RESTRICTION_NAME_COMPARATOR);
+        return principalName + " " + (isAllow ? "allow" : "deny") + " " + privilegeCatalog.toComparableString(privilegeBits)
+                + restrictionsSorted;
+    }
+
+}
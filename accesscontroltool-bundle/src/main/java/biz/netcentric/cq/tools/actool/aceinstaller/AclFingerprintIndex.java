@@ -0,0 +1,221 @@
+/*
+ * (C) Copyright 2026 Cognizant Netcentric.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package biz.netcentric.cq.tools.actool.aceinstaller;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.jcr.Node;
+import javax.jcr.NodeIterator;
+import javax.jcr.Property;
+import javax.jcr.PropertyIterator;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.jcr.Value;
+
+import org.apache.commons.lang3.StringUtils;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.FrameworkUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import biz.netcentric.cq.tools.actool.aem.AcToolCqActions;
+import biz.netcentric.cq.tools.actool.configmodel.AceBean;
+import biz.netcentric.cq.tools.actool.helper.HashHelper;
+import biz.netcentric.cq.tools.actool.history.impl.HistoryUtils;
+
+/** Run-scoped index of ACL fingerprints as persisted after the last successful installation. A fingerprint consists of a hash over the
+ * configured ACEs of a path and a hash over the ACL (and the node type of the path) as found in the repository after the installation. If
+ * both hashes are unchanged for a path, the ACL does not need to be read (and compared) via the access control API.
+ *
+ * The fingerprints are stored below /var/statistics/achistory/aclfingerprints in 256 bucket nodes, using the md5 hash of the path as
+ * property name. Fingerprints of paths that are no longer configured are removed when persisting the index. */
+class AclFingerprintIndex {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AclFingerprintIndex.class);
+
+    static final String NODE_ACL_FINGERPRINTS = "aclfingerprints";
+
+    private static final String REP_POLICY = "rep:policy";
+    private static final String REP_REPO_POLICY = "rep:repoPolicy";
+
+    private final Map<String, String> persistedFingerprints;
+    private final Map<String, String> updatedFingerprints = new ConcurrentHashMap<>();
+    private final AtomicInteger countSkipped = new AtomicInteger();
+    private int countRemoved = 0;
+
+    private AclFingerprintIndex(Map<String, String> persistedFingerprints) {
+        this.persistedFingerprints = persistedFingerprints;
+    }
+
+    static AclFingerprintIndex load(Session session) throws RepositoryException {
+        Map<String, String> persistedFingerprints = new HashMap<>();
+        String fingerprintsPath = HistoryUtils.ACHISTORY_PATH + "/" + NODE_ACL_FINGERPRINTS;
+        if (session.nodeExists(fingerprintsPath)) {
+            NodeIterator bucketNodes = session.getNode(fingerprintsPath).getNodes();
+            while (bucketNodes.hasNext()) {
+                PropertyIterator fingerprintProperties = bucketNodes.nextNode().getProperties();
+                while (fingerprintProperties.hasNext()) {
+                    Property fingerprintProperty = fingerprintProperties.nextProperty();
+                    if (!fingerprintProperty.getName().contains(":")) { // skip jcr:primaryType
+                        persistedFingerprints.put(fingerprintProperty.getName(), fingerprintProperty.getString());
+                    }
+                }
+            }
+        }
+        LOG.debug("Loaded {} ACL fingerprints", persistedFingerprints.size());
+        return new AclFingerprintIndex(persistedFingerprints);
+    }
+
+    /** @return true if the config hash is equal to the last successful installation and the ACL in the repository has not been changed
+     *         since then */
+    boolean isUnchanged(String path, String configHash, Session session) throws RepositoryException {
+        String persistedFingerprint = persistedFingerprints.get(HashHelper.md5(path));
+        if (persistedFingerprint == null || !persistedFingerprint.startsWith(configHash + ":")) {
+            return false;
+        }
+        boolean isUnchanged = persistedFingerprint.equals(configHash + ":" + createLiveAclHash(path, session));
+        if (isUnchanged) {
+            countSkipped.incrementAndGet();
+        }
+        return isUnchanged;
+    }
+
+    /** Records the fingerprint for the ACL at the given path as visible in the (possibly unsaved) session. */
+    void update(String path, String configHash, Session session) throws RepositoryException {
+        String fingerprint = configHash + ":" + createLiveAclHash(path, session);
+        String pathHash = HashHelper.md5(path);
+        if (!fingerprint.equals(persistedFingerprints.get(pathHash))) {
+            updatedFingerprints.put(pathHash, fingerprint);
+        }
+    }
+
+    /** Writes updated fingerprints to the given session (without saving it) and removes the fingerprints of paths not contained in the
+     * given configured paths.
+     * 
+     * @return the number of updated fingerprints */
+    int persist(Session session, Collection<String> configuredPaths) throws RepositoryException {
+        Set<String> configuredPathHashes = new HashSet<>();
+        for (String configuredPath : configuredPaths) {
+            configuredPathHashes.add(HashHelper.md5(configuredPath));
+        }
+        Set<String> stalePathHashes = new HashSet<>(persistedFingerprints.keySet());
+        stalePathHashes.removeAll(configuredPathHashes);
+
+        if (updatedFingerprints.isEmpty() && stalePathHashes.isEmpty()) {
+            return 0;
+        }
+        Node fingerprintsNode = getOrAddNode(HistoryUtils.getAcHistoryRootNode(session), NODE_ACL_FINGERPRINTS);
+        for (Map.Entry<String, String> updatedFingerprint : updatedFingerprints.entrySet()) {
+            String pathHash = updatedFingerprint.getKey();
+            Node bucketNode = getOrAddNode(fingerprintsNode, pathHash.substring(0, 2));
+            bucketNode.setProperty(pathHash, updatedFingerprint.getValue());
+        }
+        for (String stalePathHash : stalePathHashes) {
+            String bucketName = stalePathHash.substring(0, 2);
+            if (fingerprintsNode.hasNode(bucketName) && fingerprintsNode.getNode(bucketName).hasProperty(stalePathHash)) {
+                fingerprintsNode.getNode(bucketName).getProperty(stalePathHash).remove();
+                countRemoved++;
+            }
+        }
+        LOG.debug("Removed {} fingerprints of paths that are no longer configured", countRemoved);
+        return updatedFingerprints.size();
+    }
+
+    int getCountSkipped() {
+        return countSkipped.get();
+    }
+
+    /** @return the number of fingerprints removed by {@link #persist(Session, Collection)} as their paths are no longer configured */
+    int getCountRemoved() {
+        return countRemoved;
+    }
+
+    private Node getOrAddNode(Node parentNode, String name) throws RepositoryException {
+        return parentNode.hasNode(name) ? parentNode.getNode(name) : parentNode.addNode(name, HistoryUtils.NODETYPE_NT_UNSTRUCTURED);
+    }
+
+    /** The config hash covers the ordered ACEs as configured for the path, the principals whose ACEs are managed at this path (ACEs of
+     * other principals remain untouched) and the version of the AC Tool. */
+    static String createConfigHash(Set<AceBean> orderedAceBeansFromConfig, Set<String> principalsToRemoveAcesFor) {
+        StringBuilder buf = new StringBuilder();
+        buf.append(getBundleVersion()).append("\n");
+        for (AceBean aceBean : orderedAceBeansFromConfig) {
+            buf.append(aceBean.getPrincipalName()).append(" ")
+                    .append(aceBean.getPermission()).append(" ")
+                    .append(aceBean.getPrivilegesString()).append(" ")
+                    .append(Arrays.toString(aceBean.getActions())).append(" ")
+                    .append(aceBean.getRestrictions()).append(" ")
+                    .append(aceBean.isKeepOrder()).append(" ")
+                    .append(StringUtils.defaultString(aceBean.getInitialContent()).hashCode()).append("\n");
+        }
+        buf.append(new TreeSet<>(principalsToRemoveAcesFor));
+        return HashHelper.md5(buf.toString());
+    }
+
+    /** Hashes the ACL of the given path by reading the raw policy node (with its ACE and restriction nodes), hence avoiding to
+     * materialise the ACEs via the access control API. The node type of the path is included as it determines the privileges that
+     * actions are mapped to (see {@link AcToolCqActions#definesContent(Node)}). */
+    static String createLiveAclHash(String path, Session session) throws RepositoryException {
+        String policyNodePath;
+        StringBuilder buf = new StringBuilder();
+        if (StringUtils.isBlank(path)) {
+            policyNodePath = "/" + REP_REPO_POLICY;
+        } else {
+            policyNodePath = StringUtils.removeEnd(path, "/") + "/" + REP_POLICY;
+            if (session.nodeExists(path)) {
+                Node node = session.getNode(path);
+                buf.append(node.getPrimaryNodeType().getName()).append(" definesContent=")
+                        .append(AcToolCqActions.definesContent(node)).append("\n");
+            }
+        }
+        if (session.nodeExists(policyNodePath)) {
+            appendNode(session.getNode(policyNodePath), buf);
+        }
+        return HashHelper.md5(buf.toString());
+    }
+
+    private static void appendNode(Node node, StringBuilder buf) throws RepositoryException {
+        buf.append(node.getName()).append("{");
+        Map<String, String> properties = new TreeMap<>();
+        PropertyIterator propertyIt = node.getProperties();
+        while (propertyIt.hasNext()) {
+            Property property = propertyIt.nextProperty();
+            if (property.isMultiple()) {
+                StringBuilder valuesBuf = new StringBuilder();
+                for (Value value : property.getValues()) {
+                    valuesBuf.append(value.getString()).append(",");
+                }
+                properties.put(property.getName(), valuesBuf.toString());
+            } else {
+                properties.put(property.getName(), property.getString());
+            }
+        }
+        buf.append(properties);
+        NodeIterator childNodeIt = node.getNodes();
+        while (childNodeIt.hasNext()) {
+            appendNode(childNodeIt.nextNode(), buf);
+        }
+        buf.append("}");
+    }
+
+    private static String getBundleVersion() {
+        Bundle bundle = FrameworkUtil.getBundle(AclFingerprintIndex.class);
+        return bundle != null ? bundle.getVersion().toString() : "";
+    }
+
+}
@@ -0,0 +1,159 @@
+/*
+ * (C) Copyright 2026 Cognizant Netcentric.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package biz.netcentric.cq.tools.actool.aceinstaller;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.jcr.security.AccessControlManager;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.jackrabbit.api.security.JackrabbitAccessControlList;
+
+import biz.netcentric.cq.tools.actool.helper.AccessControlUtils;
+
+/** Run-scoped working set of modifiable ACLs of one session used by the ACE bean installers. Every ACL is loaded once and the same handle
+ * is shared by all steps of the installation of a path (e.g. the check for existing ACEs of the bulk installer, the comparison and the
+ * installation). Modified ACLs are written back via
+ * {@link AccessControlManager#setPolicy(String, javax.jcr.security.AccessControlPolicy)} once per path when the path is flushed (the
+ * session itself is not saved). The working set also holds the {@link PrivilegeCatalog} of the installation run.
+ *
+ * Instances are not thread-safe, every session (e.g. of a worker for parallel installation) uses its own working set. */
+public class AclWorkingSet {
+
+    /** Loads the modifiable ACL for a path, returns null if the path does not exist. */
+    public interface AclLoader {
+        JackrabbitAccessControlList loadAcl(AccessControlManager acMgr, String path) throws RepositoryException;
+    }
+
+    private static final AclLoader DEFAULT_ACL_LOADER = new AclLoader() {
+        @Override
+        public JackrabbitAccessControlList loadAcl(AccessControlManager acMgr, String path) throws RepositoryException {
+            return AccessControlUtils.getModifiableAcl(acMgr, path);
+        }
+    };
+
+    private final Session session;
+    private final AccessControlManager acMgr;
+    private final AclLoader aclLoader;
+
+    private final Map<String, JackrabbitAccessControlList> aclsByPath = new HashMap<>();
+    private final Set<String> modifiedPaths = new LinkedHashSet<>();
+    private PrivilegeCatalog privilegeCatalog;
+
+    private final AtomicInteger countHits = new AtomicInteger();
+    private final AtomicInteger countMisses = new AtomicInteger();
+    private final AtomicInteger countWritten = new AtomicInteger();
+
+    public AclWorkingSet(Session session) throws RepositoryException {
+        this(session, DEFAULT_ACL_LOADER);
+    }
+
+    public AclWorkingSet(Session session, AclLoader aclLoader) throws RepositoryException {
+        this.session = session;
+        this.acMgr = session.getAccessControlManager();
+        this.aclLoader = aclLoader;
+    }
+
+    public Session getSession() {
+        return session;
+    }
+
+    /** @return the privilege catalog of the installation run (created on first use) */
+    public PrivilegeCatalog getPrivilegeCatalog() throws RepositoryException {
+        if (privilegeCatalog == null) {
+            privilegeCatalog = PrivilegeCatalog.create(acMgr);
+        }
+        return privilegeCatalog;
+    }
+
+    /** @param path the path (empty or null for repository level permissions)
+     * @return the ACL handle for the path or null if the path does not exist (this is not cached as the path might be created later on,
+     *         e.g. via initial content) */
+    public JackrabbitAccessControlList getAcl(String path) throws RepositoryException {
+        String key = StringUtils.defaultString(path);
+        JackrabbitAccessControlList acl = aclsByPath.get(key);
+        if (acl != null) {
+            countHits.incrementAndGet();
+            return acl;
+        }
+        countMisses.incrementAndGet();
+        acl = aclLoader.loadAcl(acMgr, toPolicyApiPath(key));
+        if (acl != null) {
+            aclsByPath.put(key, acl);
+        }
+        return acl;
+    }
+
+    /** Marks the ACL handle of the given path as modified, it is written on {@link #flush(String)}. */
+    public void setModified(String path) {
+        modifiedPaths.add(StringUtils.defaultString(path));
+    }
+
+    /** Writes the ACL of the given path if it has been modified (an empty ACL is removed) and releases the handle.
+     * 
+     * @return true if the ACL has been written */
+    public boolean flush(String path) throws RepositoryException {
+        String key = StringUtils.defaultString(path);
+        JackrabbitAccessControlList acl = aclsByPath.remove(key);
+        if (!modifiedPaths.remove(key) || acl == null) {
+            return false;
+        }
+        if (!acl.isEmpty()) {
+            acMgr.setPolicy(toPolicyApiPath(key), acl);
+        } else {
+            acMgr.removePolicy(toPolicyApiPath(key), acl);
+        }
+        countWritten.incrementAndGet();
+        return true;
+    }
+
+    /** Writes all modified ACLs and releases all handles.
+     * 
+     * @return the number of ACLs written */
+    public int flushAll() throws RepositoryException {
+        int countFlushed = 0;
+        for (String path : new ArrayList<>(aclsByPath.keySet())) {
+            if (flush(path)) {
+                countFlushed++;
+            }
+        }
+        return countFlushed;
+    }
+
+    /** Adds the statistics of the given working set (e.g. of a worker session) to the statistics of this working set. */
+    public void addStatistics(AclWorkingSet aclWorkingSet) {
+        countHits.addAndGet(aclWorkingSet.getCountHits());
+        countMisses.addAndGet(aclWorkingSet.getCountMisses());
+        countWritten.addAndGet(aclWorkingSet.getCountWritten());
+    }
+
+    public int getCountHits() {
+        return countHits.get();
+    }
+
+    public int getCountMisses() {
+        return countMisses.get();
+    }
+
+    public int getCountWritten() {
+        return countWritten.get();
+    }
+
+    private static String toPolicyApiPath(String path) {
+        return StringUtils.isNotBlank(path) ? path : /* repository level permissions */null;
+    }
+
+}
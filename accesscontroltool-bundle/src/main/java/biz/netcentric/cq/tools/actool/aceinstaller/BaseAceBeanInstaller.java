@@ -11,14 +11,20 @@ package biz.netcentric.cq.tools.actool.aceinstaller;
 import static biz.netcentric.cq.tools.actool.history.impl.PersistableInstallationLogger.msHumanReadable;
 
 import java.security.Principal;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import javax.jcr.RepositoryException;
 import javax.jcr.Session;
@@ -27,20 +33,25 @@ import javax.jcr.ValueFormatException;
 import javax.jcr.security.AccessControlManager;
 import javax.jcr.security.Privilege;
 
+import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.time.StopWatch;
 import org.apache.jackrabbit.api.security.JackrabbitAccessControlList;
+import org.apache.sling.jcr.api.SlingRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import biz.netcentric.cq.tools.actool.comparators.AcePermissionComparator;
 import biz.netcentric.cq.tools.actool.configmodel.AcConfiguration;
 import biz.netcentric.cq.tools.actool.configmodel.AceBean;
+import biz.netcentric.cq.tools.actool.configmodel.GlobalConfiguration;
 import biz.netcentric.cq.tools.actool.configmodel.Restriction;
 import biz.netcentric.cq.tools.actool.helper.AccessControlUtils;
+import biz.netcentric.cq.tools.actool.helper.CommitBatcher;
 import biz.netcentric.cq.tools.actool.helper.ContentHelper;
 import biz.netcentric.cq.tools.actool.helper.RestrictionsHolder;
 import biz.netcentric.cq.tools.actool.helper.runtime.RuntimeHelper;
 import biz.netcentric.cq.tools.actool.history.InstallationLogger;
+import biz.netcentric.cq.tools.actool.history.impl.PersistableInstallationLogger;
 
 /** Base Class */
 public abstract class BaseAceBeanInstaller implements AceBeanInstaller {
@@ -57,6 +68,9 @@ public abstract class BaseAceBeanInstaller implements AceBeanInstaller {
         StopWatch stopWatch = new StopWatch();
         stopWatch.start();
 
+        // ACL handles are loaded once per path and shared by the existence check, the comparison and the installation of the path
+        AclWorkingSet aclWorkingSet = new AclWorkingSet(session);
+
         Set<String> paths = pathBasedAceMapFromConfig.keySet();
 
         history.addVerboseMessage(LOG, "Found " + paths.size() + "  paths in config");
@@ -64,32 +78,42 @@ public abstract class BaseAceBeanInstaller implements AceBeanInstaller {
         
         paths = filterReadOnlyPaths(paths, history, session);
 
-        // loop through all nodes from config
-        for (final String path : paths) {
-            
-            final Set<AceBean> aceBeanSetFromConfig = pathBasedAceMapFromConfig
-                    .get(path); // Set which holds the AceBeans of the current path in configuration
-
-            // check if the path even exists
-            final boolean pathExits = AccessControlUtils.getModifiableAcl(session.getAccessControlManager(), path) != null;
-            if (!pathExits) {
-                if (!ContentHelper.createInitialContent(session, history, path, aceBeanSetFromConfig)) {
-                    history.addVerboseMessage(LOG, "Skipped installing privileges/actions for non existing path: " + path);
-                    history.incCountAclsPathDoesNotExist();
-                    continue;
+        final AclFingerprintIndex aclFingerprintIndex = supportsAclFingerprints()
+                && acConfiguration.getGlobalConfiguration().getUseAclFingerprints() ? AclFingerprintIndex.load(session) : null;
+
+        int aclInstallationThreads = acConfiguration.getGlobalConfiguration().getAclInstallationThreads();
+        boolean installInParallel = aclInstallationThreads > 1 && getSlingRepository() != null;
+        if (installInParallel && acConfiguration.getGlobalConfiguration().getCommitBatchSize() <= 0) {
+            // parallel installation saves independently per subtree, this is only acceptable if non-atomic runs are configured explicitly
+            history.addWarning(LOG, "Ignoring " + GlobalConfiguration.KEY_ACL_INSTALLATION_THREADS + "=" + aclInstallationThreads
+                    + " as parallel installation of ACLs requires " + GlobalConfiguration.KEY_COMMIT_BATCH_SIZE
+                    + " to be set (the installation is not atomic then), installing ACLs sequentially");
+            installInParallel = false;
+        }
+        if (installInParallel) {
+            installAclsInParallel(pathBasedAceMapFromConfig, paths, acConfiguration, aclWorkingSet, history, principalsToRemoveAcesFor,
+                    aclFingerprintIndex, aclInstallationThreads);
+        } else {
+            CommitBatcher commitBatcher = new CommitBatcher(session, acConfiguration.getGlobalConfiguration().getCommitBatchSize(),
+                    "ACLs", history);
+            try {
+                // loop through all nodes from config
+                for (final String path : paths) {
+                    boolean changed = installAclForPath(pathBasedAceMapFromConfig.get(path), path, acConfiguration, aclWorkingSet,
+                            history, principalsToRemoveAcesFor, aclFingerprintIndex);
+                    commitBatcher.itemProcessed(path, changed);
                 }
+            } catch (Exception e) {
+                commitBatcher.logPersistedBatchesOnFailure();
+                throw e;
             }
+        }
 
-            // order entries (denies in front of allows)
-            final Set<AceBean> orderedAceBeanSetFromConfig = new TreeSet<AceBean>(
-                    new AcePermissionComparator());
-            orderedAceBeanSetFromConfig.addAll(aceBeanSetFromConfig);
-
-            Set<String> principalsToRemoveAcesForAtThisPath = acConfiguration.getAuthorizablesConfig()
-                    .removeUnmanagedPrincipalNamesAtPath(path, principalsToRemoveAcesFor,
-                            acConfiguration.getGlobalConfiguration().getDefaultUnmanagedAcePathsRegex());
-            installAcl(orderedAceBeanSetFromConfig, path, principalsToRemoveAcesForAtThisPath, session, history);
-
+        if (aclFingerprintIndex != null) {
+            int countFingerprintsUpdated = aclFingerprintIndex.persist(session, paths);
+            history.addMessage(LOG, "Skipped " + aclFingerprintIndex.getCountSkipped() + " unchanged ACLs using ACL fingerprints ("
+                    + countFingerprintsUpdated + " fingerprints updated, " + aclFingerprintIndex.getCountRemoved()
+                    + " fingerprints of paths no longer configured removed)");
         }
 
         if (history.getMissingParentPathsForInitialContent() > 0) {
@@ -100,10 +124,202 @@ public abstract class BaseAceBeanInstaller implements AceBeanInstaller {
         history.addMessage(LOG, "ACL Update Statistics: Changed=" + history.getCountAclsChanged() + " Unchanged=" + history.getCountAclsUnchanged()
                 + " Path not found=" + history.getCountAclsPathDoesNotExist() + " (action cache hit/miss="
                 + history.getCountActionCacheHit() + "/" + history.getCountActionCacheMiss() + ")");
+        history.addMessage(LOG, "ACL working set: hit/miss=" + aclWorkingSet.getCountHits() + "/" + aclWorkingSet.getCountMisses()
+                + ", ACLs written=" + aclWorkingSet.getCountWritten());
         history.addMessage(LOG, "*** Finished installation of " + paths.size() + " ACLs in "
                 + msHumanReadable(stopWatch.getTime()));
     }
 
+    /** @return true if the ACL has been written or initial content has been created for the path */
+    private boolean installAclForPath(Set<AceBean> aceBeanSetFromConfig, String path, AcConfiguration acConfiguration,
+            AclWorkingSet aclWorkingSet, InstallationLogger history, Set<String> principalsToRemoveAcesFor,
+            AclFingerprintIndex aclFingerprintIndex) throws RepositoryException {
+
+        Session session = aclWorkingSet.getSession();
+
+        // check if the path even exists (the ACL is only loaded once the path is known to be not skipped by its fingerprint)
+        final boolean pathExits = StringUtils.isEmpty(path) /* repository level permissions */ || session.nodeExists(path);
+        if (!pathExits) {
+            if (!ContentHelper.createInitialContent(session, history, path, aceBeanSetFromConfig)) {
+                history.addVerboseMessage(LOG, "Skipped installing privileges/actions for non existing path: " + path);
+                history.incCountAclsPathDoesNotExist();
+                return false;
+            }
+        }
+
+        // order entries (denies in front of allows)
+        final Set<AceBean> orderedAceBeanSetFromConfig = new TreeSet<AceBean>(
+                new AcePermissionComparator());
+        orderedAceBeanSetFromConfig.addAll(aceBeanSetFromConfig);
+
+        Set<String> principalsToRemoveAcesForAtThisPath = acConfiguration.getAuthorizablesConfig()
+                .removeUnmanagedPrincipalNamesAtPath(path, principalsToRemoveAcesFor,
+                        acConfiguration.getGlobalConfiguration().getDefaultUnmanagedAcePathsRegex());
+
+        String configHash = null;
+        if (aclFingerprintIndex != null) {
+            configHash = AclFingerprintIndex.createConfigHash(orderedAceBeanSetFromConfig, principalsToRemoveAcesForAtThisPath);
+            if (aclFingerprintIndex.isUnchanged(path, configHash, session)) {
+                history.addVerboseMessage(LOG, "Skipped unchanged ACL at path " + path + " (fingerprint is unchanged)");
+                history.incCountAclsNoChange();
+                return false;
+            }
+        }
+
+        installAcl(orderedAceBeanSetFromConfig, path, principalsToRemoveAcesForAtThisPath, aclWorkingSet, history);
+        boolean aclWritten = aclWorkingSet.flush(path);
+
+        if (aclFingerprintIndex != null) {
+            aclFingerprintIndex.update(path, configHash, session);
+        }
+        return aclWritten || !pathExits;
+    }
+
+    /** Installs the ACLs of disjoint subtrees concurrently, every subtree is handled by a worker using its own session. As each worker
+     * saves its session independently, the pending changes of the given session (authorizables and ACL cleanup) are saved upfront to
+     * make them visible to the workers. The installation is hence not atomic (like with a commit batch size, which is required for this
+     * mode). */
+    private void installAclsInParallel(final Map<String, Set<AceBean>> pathBasedAceMapFromConfig, Set<String> paths,
+            final AcConfiguration acConfiguration, final AclWorkingSet aclWorkingSet, InstallationLogger history,
+            final Set<String> principalsToRemoveAcesFor, final AclFingerprintIndex aclFingerprintIndex, int aclInstallationThreads)
+            throws Exception {
+
+        Session session = aclWorkingSet.getSession();
+        if (session.hasPendingChanges()) {
+            session.save();
+            history.addMessage(LOG, "Persisted changes of authorizables and ACL cleanup before parallel installation of ACLs"
+                    + " (those are not rolled back if the installation of ACLs fails)");
+        }
+
+        int partitionDepth = acConfiguration.getGlobalConfiguration().getAclInstallationPartitionDepth();
+        Map<String, List<String>> pathsBySubtree = partitionPathsBySubtree(paths, partitionDepth);
+        int threadCount = Math.min(aclInstallationThreads, pathsBySubtree.size());
+        history.addMessage(LOG, "Installing ACLs of " + pathsBySubtree.size() + " subtrees (partitioned by " + partitionDepth
+                + " path segments) using " + threadCount + " threads, every subtree is persisted independently");
+
+        ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+        List<InstallationLogger> workerLogs = new ArrayList<>();
+        List<Future<Void>> workerResults = new ArrayList<>();
+        try {
+            for (final List<String> pathsOfSubtree : pathsBySubtree.values()) {
+                final InstallationLogger workerLog = new PersistableInstallationLogger();
+                workerLogs.add(workerLog);
+                workerResults.add(executorService.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        Session workerSession = getSlingRepository().loginService(null, null);
+                        AclWorkingSet workerAclWorkingSet = new AclWorkingSet(workerSession);
+                        CommitBatcher commitBatcher = new CommitBatcher(workerSession,
+                                acConfiguration.getGlobalConfiguration().getCommitBatchSize(), "ACLs", workerLog);
+                        try {
+                            for (String path : pathsOfSubtree) {
+                                boolean changed = installAclForPath(pathBasedAceMapFromConfig.get(path), path, acConfiguration,
+                                        workerAclWorkingSet, workerLog, principalsToRemoveAcesFor, aclFingerprintIndex);
+                                commitBatcher.itemProcessed(path, changed);
+                            }
+                            if (workerSession.hasPendingChanges()) {
+                                workerSession.save();
+                            }
+                        } catch (Exception e) {
+                            commitBatcher.logPersistedBatchesOnFailure();
+                            throw e;
+                        } finally {
+                            aclWorkingSet.addStatistics(workerAclWorkingSet);
+                            workerSession.logout();
+                        }
+                        return null;
+                    }
+                }));
+            }
+
+            Exception firstException = null;
+            int countSubtreesFailed = 0;
+            for (Future<Void> workerResult : workerResults) {
+                try {
+                    workerResult.get();
+                } catch (ExecutionException e) {
+                    countSubtreesFailed++;
+                    if (firstException == null) {
+                        firstException = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                    }
+                }
+            }
+            for (InstallationLogger workerLog : workerLogs) {
+                history.merge(workerLog);
+            }
+            if (firstException != null) {
+                history.addWarning(LOG, "Installation of ACLs failed for " + countSubtreesFailed + " of " + pathsBySubtree.size()
+                        + " subtrees, the installation is not atomic: authorizables, ACL cleanup and the ACLs of the other subtrees"
+                        + " have been persisted");
+                throw firstException;
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    /** Groups the given paths by their subtree (the first {@code depth} path segments, e.g. /content/site for depth 2), subtrees are
+     * disjoint and can hence be installed concurrently. A subtree whose root is an ancestor of another subtree root (e.g. /content for
+     * /content/site) covers the other subtree, otherwise initial content of ancestors and descendants would be created concurrently. The
+     * order of paths within a subtree is retained. */
+    static Map<String, List<String>> partitionPathsBySubtree(Collection<String> paths, int depth) {
+        Set<String> subtreeRoots = new TreeSet<>();
+        for (String path : paths) {
+            subtreeRoots.add(getSubtreeRoot(path, depth));
+        }
+        Map<String, List<String>> pathsBySubtree = new TreeMap<>();
+        for (String path : paths) {
+            String subtreeRoot = getCoveringSubtreeRoot(getSubtreeRoot(path, depth), subtreeRoots);
+            List<String> pathsOfSubtree = pathsBySubtree.get(subtreeRoot);
+            if (pathsOfSubtree == null) {
+                pathsOfSubtree = new ArrayList<>();
+                pathsBySubtree.put(subtreeRoot, pathsOfSubtree);
+            }
+            pathsOfSubtree.add(path);
+        }
+        return pathsBySubtree;
+    }
+
+    /** @return the top-most subtree root being an ancestor of (or equal to) the given subtree root */
+    private static String getCoveringSubtreeRoot(String subtreeRoot, Set<String> subtreeRoots) {
+        if (subtreeRoot.isEmpty()) {
+            // repository level permissions are not related to any path
+            return subtreeRoot;
+        }
+        if (subtreeRoots.contains("/")) {
+            return "/";
+        }
+        // check the ancestors from the top-most one downwards
+        int endOfSegment = subtreeRoot.indexOf('/', 1);
+        while (endOfSegment > 0) {
+            String ancestor = subtreeRoot.substring(0, endOfSegment);
+            if (subtreeRoots.contains(ancestor)) {
+                return ancestor;
+            }
+            endOfSegment = subtreeRoot.indexOf('/', endOfSegment + 1);
+        }
+        return subtreeRoot;
+    }
+
+    private static String getSubtreeRoot(String path, int depth) {
+        if (StringUtils.isEmpty(path)) {
+            // repository level permissions
+            return "";
+        }
+        int endOfLastSegment = StringUtils.ordinalIndexOf(path, "/", depth + 1);
+        return endOfLastSegment > 0 ? path.substring(0, endOfLastSegment) : path;
+    }
+
+    /** @return true if unchanged ACLs may be skipped based on ACL fingerprints (only supported for incremental installation) */
+    protected boolean supportsAclFingerprints() {
+        return false;
+    }
+
+    /** @return the repository to open sessions for parallel installation with or null if not supported by the installer */
+    protected SlingRepository getSlingRepository() {
+        return null;
+    }
+
     private Set<String> filterReadOnlyPaths(Set<String> paths, InstallationLogger history, Session session) {
 
         boolean isCompositeNodeStore = RuntimeHelper.isCompositeNodeStore(session);
@@ -124,18 +340,39 @@ public abstract class BaseAceBeanInstaller implements AceBeanInstaller {
         }
     }
 
-    /** Installs a full set of ACE beans that form an ACL for the path
+    /** Installs a full set of ACE beans that form an ACL for the path. The ACL is taken from the given working set and marked as modified
+     * if changed (it is written by the caller).
      * 
      * @throws RepositoryException */
     protected abstract void installAcl(Set<AceBean> aceBeanSetFromConfig, String path, Set<String> authorizablesToRemoveAcesFor,
-            Session session, InstallationLogger history) throws RepositoryException;
+            AclWorkingSet aclWorkingSet, InstallationLogger history) throws RepositoryException;
+
+    /** Installs a full set of ACE beans that form an ACL for the path, the ACL is written immediately.
+     * 
+     * @throws RepositoryException */
+    protected void installAcl(Set<AceBean> aceBeanSetFromConfig, String path, Set<String> authorizablesToRemoveAcesFor,
+            Session session, InstallationLogger history) throws RepositoryException {
+        AclWorkingSet aclWorkingSet = new AclWorkingSet(session, new AclWorkingSet.AclLoader() {
+            @Override
+            public JackrabbitAccessControlList loadAcl(AccessControlManager acMgr, String path) throws RepositoryException {
+                return getAccessControlList(acMgr, path);
+            }
+        });
+        installAcl(aceBeanSetFromConfig, path, authorizablesToRemoveAcesFor, aclWorkingSet, history);
+        aclWorkingSet.flush(path);
+    }
+
+    // to be overwritten in JUnit Test
+    protected JackrabbitAccessControlList getAccessControlList(AccessControlManager acMgr, String path) throws RepositoryException {
+        return AccessControlUtils.getModifiableAcl(acMgr, path);
+    }
     
 
     protected boolean installPrivileges(AceBean aceBean, Principal principal, JackrabbitAccessControlList acl, Session session,
-            AccessControlManager acMgr)
+            AccessControlManager acMgr, PrivilegeCatalog privilegeCatalog)
             throws RepositoryException {
 
-        final Set<Privilege> privileges = getPrivilegeSet(aceBean.getPrivileges(), acMgr);
+        final Set<Privilege> privileges = getPrivilegeSet(aceBean.getPrivileges(), privilegeCatalog, acMgr);
         if (!privileges.isEmpty()) {
             final RestrictionsHolder restrictions = getRestrictions(aceBean, session, acl);
             if (!restrictions.isEmpty()) {
@@ -186,23 +423,16 @@ public abstract class BaseAceBeanInstaller implements AceBeanInstaller {
     /** Converts the given privilege names into a set of privilege objects.
      * 
      * @param privNames (may be {@code null}
+     * @param privilegeCatalog the privilege catalog of the installation run
      * @param acMgr
      * @return a set of privileges (never {@code null}, but may be empty set)
      * @throws RepositoryException */
-    public Set<Privilege> getPrivilegeSet(String[] privNames, AccessControlManager acMgr) throws RepositoryException {
+    public Set<Privilege> getPrivilegeSet(String[] privNames, PrivilegeCatalog privilegeCatalog, AccessControlManager acMgr)
+            throws RepositoryException {
         if (privNames == null) {
             return Collections.emptySet();
         }
-        final Set<Privilege> privileges = new HashSet<Privilege>(privNames.length);
-        for (final String name : privNames) {
-            final Privilege p = acMgr.privilegeFromName(name);
-            if (p.isAggregate()) {
-                privileges.addAll(Arrays.asList(p.getAggregatePrivileges()));
-            } else {
-                privileges.add(p);
-            }
-        }
-        return privileges;
+        return privilegeCatalog.getPrivileges(privilegeCatalog.getPrivilegeBits(privNames, acMgr));
     }
 
 }
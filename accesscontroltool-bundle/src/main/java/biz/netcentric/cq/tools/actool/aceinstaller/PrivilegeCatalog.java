@@ -0,0 +1,118 @@
+/*
+ * (C) Copyright 2026 Cognizant Netcentric.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package biz.netcentric.cq.tools.actool.aceinstaller;
+
+import java.util.BitSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.jcr.RepositoryException;
+import javax.jcr.security.AccessControlManager;
+import javax.jcr.security.Privilege;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/** Run-scoped catalog of the privileges registered in the repository. Every non-aggregate privilege is assigned a bit index and aggregate
+ * privileges are expanded once, so the privileges of an ACE can be represented as {@link BitSet} (containing non-aggregate privileges
+ * only). Comparing, de-duplicating and merging privileges then become bit operations instead of repeated
+ * {@link AccessControlManager#privilegeFromName(String)} lookups.
+ *
+ * The catalog is initialised with all privileges aggregated by jcr:all, other privileges are added lazily on first use. Bit sets
+ * returned by this class are never shared and may hence be modified by the caller. The catalog of an installation run is held by the
+ * {@link AclWorkingSet}. */
+public class PrivilegeCatalog {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PrivilegeCatalog.class);
+
+    private final Map<String, BitSet> privilegeBitsByName = new ConcurrentHashMap<>();
+    private final List<Privilege> nonAggregatePrivileges = new CopyOnWriteArrayList<>();
+    private final Map<BitSet, String> comparableStringsByPrivilegeBits = new ConcurrentHashMap<>();
+
+    private PrivilegeCatalog() {
+    }
+
+    public static PrivilegeCatalog create(AccessControlManager acMgr) throws RepositoryException {
+        PrivilegeCatalog privilegeCatalog = new PrivilegeCatalog();
+        privilegeCatalog.register(acMgr.privilegeFromName(Privilege.JCR_ALL));
+        LOG.debug("Created privilege catalog with {} privileges ({} non-aggregate)", privilegeCatalog.privilegeBitsByName.size(),
+                privilegeCatalog.nonAggregatePrivileges.size());
+        return privilegeCatalog;
+    }
+
+    /** @param privilegeNames the privilege names (may be {@code null})
+     * @return the bits of the non-aggregate privileges contained in the given privileges */
+    BitSet getPrivilegeBits(String[] privilegeNames, AccessControlManager acMgr) throws RepositoryException {
+        BitSet privilegeBits = new BitSet();
+        if (privilegeNames != null) {
+            for (String privilegeName : privilegeNames) {
+                BitSet bitsForName = privilegeBitsByName.get(privilegeName);
+                if (bitsForName == null) {
+                    bitsForName = register(acMgr.privilegeFromName(privilegeName));
+                }
+                privilegeBits.or(bitsForName);
+            }
+        }
+        return privilegeBits;
+    }
+
+    /** @return the non-aggregate privileges for the given bits (nested aggregates like jcr:modifyProperties are expanded as well, e.g. the
+     *         bits of rep:write yield 7 privileges) */
+    Set<Privilege> getPrivileges(BitSet privilegeBits) {
+        Set<Privilege> privileges = new LinkedHashSet<>();
+        for (int i = privilegeBits.nextSetBit(0); i >= 0; i = privilegeBits.nextSetBit(i + 1)) {
+            privileges.add(nonAggregatePrivileges.get(i));
+        }
+        return privileges;
+    }
+
+    /** @return the sorted names of the non-aggregate privileges for the given bits, e.g. "[jcr:readNodes, jcr:readProperties]" */
+    String toComparableString(BitSet privilegeBits) {
+        String comparableString = comparableStringsByPrivilegeBits.get(privilegeBits);
+        if (comparableString == null) {
+            Set<String> privilegeNames = new TreeSet<>();
+            for (Privilege privilege : getPrivileges(privilegeBits)) {
+                privilegeNames.add(privilege.getName());
+            }
+            comparableString = privilegeNames.toString();
+            comparableStringsByPrivilegeBits.put((BitSet) privilegeBits.clone(), comparableString);
+        }
+        return comparableString;
+    }
+
+    /** @return true if all privileges of otherPrivilegeBits are contained in privilegeBits */
+    static boolean includes(BitSet privilegeBits, BitSet otherPrivilegeBits) {
+        BitSet notIncluded = (BitSet) otherPrivilegeBits.clone();
+        notIncluded.andNot(privilegeBits);
+        return notIncluded.isEmpty();
+    }
+
+    private synchronized BitSet register(Privilege privilege) {
+        BitSet privilegeBits = privilegeBitsByName.get(privilege.getName());
+        if (privilegeBits == null) {
+            privilegeBits = new BitSet();
+            if (privilege.isAggregate()) {
+                for (Privilege declaredAggregatePrivilege : privilege.getDeclaredAggregatePrivileges()) {
+                    privilegeBits.or(register(declaredAggregatePrivilege));
+                }
+            } else {
+                privilegeBits.set(nonAggregatePrivileges.size());
+                nonAggregatePrivileges.add(privilege);
+            }
+            privilegeBitsByName.put(privilege.getName(), privilegeBits);
+        }
+        return privilegeBits;
+    }
+
+}
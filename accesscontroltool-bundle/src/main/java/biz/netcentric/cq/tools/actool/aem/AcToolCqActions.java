@@ -1,12 +1,16 @@
 package biz.netcentric.cq.tools.actool.aem;
 
-import java.security.AccessControlException;
 import java.security.Principal;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -16,6 +20,7 @@ import javax.jcr.Session;
 import javax.jcr.Value;
 import javax.jcr.nodetype.NodeDefinition;
 import javax.jcr.nodetype.NodeType;
+import javax.jcr.security.AccessControlException;
 import javax.jcr.security.AccessControlManager;
 import javax.jcr.security.Privilege;
 
@@ -25,9 +30,9 @@ import org.apache.jackrabbit.api.security.JackrabbitAccessControlManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.day.cq.replication.Replicator;
 
 import biz.netcentric.cq.tools.actool.configmodel.AceBean;
+import biz.netcentric.cq.tools.actool.configmodel.Restriction;
 import biz.netcentric.cq.tools.actool.helper.AccessControlUtils;
 
 /** Mimics the behaviour of the now deprecated <a href="https://www.adobe.io/experience-manager/reference-materials/6-5/javadoc/com/day/cq/security/util/CqActions.html">CqActions</a> class (behaviour should be in line with cq-security-5.6.2.)
@@ -50,30 +55,62 @@ public class AcToolCqActions {
 
     private static final String CONTENT_RESTRICTION = "*/jcr:content*";
 
+    // the privilege names are used in the prefixed form as used in configurations and AceBeans (the constants of Privilege are expanded
+    // names that would neither match configured privileges nor the keys of the PrivilegeCatalog)
+    private static final String JCR_READ = "jcr:read";
+    private static final String JCR_MODIFY_PROPERTIES = "jcr:modifyProperties";
+    private static final String JCR_LOCK_MANAGEMENT = "jcr:lockManagement";
+    private static final String JCR_VERSION_MANAGEMENT = "jcr:versionManagement";
+    private static final String JCR_ADD_CHILD_NODES = "jcr:addChildNodes";
+    private static final String JCR_NODE_TYPE_MANAGEMENT = "jcr:nodeTypeManagement";
+    private static final String JCR_REMOVE_CHILD_NODES = "jcr:removeChildNodes";
+    private static final String JCR_REMOVE_NODE = "jcr:removeNode";
+    private static final String JCR_READ_ACCESS_CONTROL = "jcr:readAccessControl";
+    private static final String JCR_MODIFY_ACCESS_CONTROL = "jcr:modifyAccessControl";
+    private static final String JCR_WRITE = "jcr:write";
+    private static final String REP_WRITE = "rep:write";
+    private static final String CRX_REPLICATE = "crx:replicate";
+
+    private static final Map<CqActions, String[]> PRIVILEGE_NAMES_BY_ACTION = new EnumMap<>(CqActions.class);
+    static {
+        PRIVILEGE_NAMES_BY_ACTION.put(CqActions.read, new String[] { JCR_READ });
+        PRIVILEGE_NAMES_BY_ACTION.put(CqActions.modify, new String[] {
+                JCR_MODIFY_PROPERTIES,
+                JCR_LOCK_MANAGEMENT,
+                JCR_VERSION_MANAGEMENT });
+        PRIVILEGE_NAMES_BY_ACTION.put(CqActions.create, new String[] {
+                JCR_ADD_CHILD_NODES,
+                JCR_NODE_TYPE_MANAGEMENT });
+        PRIVILEGE_NAMES_BY_ACTION.put(CqActions.delete, new String[] {
+                JCR_REMOVE_CHILD_NODES,
+                JCR_REMOVE_NODE });
+        PRIVILEGE_NAMES_BY_ACTION.put(CqActions.acl_read, new String[] { JCR_READ_ACCESS_CONTROL });
+        PRIVILEGE_NAMES_BY_ACTION.put(CqActions.acl_edit, new String[] { JCR_MODIFY_ACCESS_CONTROL });
+        PRIVILEGE_NAMES_BY_ACTION.put(CqActions.replicate, new String[] { CRX_REPLICATE });
+    }
+
+    private static final List<String> JCR_WRITE_PRIVILEGE_NAMES = Arrays.asList(
+            JCR_MODIFY_PROPERTIES,
+            JCR_ADD_CHILD_NODES,
+            JCR_REMOVE_NODE,
+            JCR_REMOVE_CHILD_NODES);
+
     private final Session session;
     private final Map<String, Set<Privilege>> map = new HashMap<>();
 
     public AcToolCqActions(Session session) throws RepositoryException {
         this.session = session;
         AccessControlManager acMgr = session.getAccessControlManager();
-        map.put(CqActions.read.name(), getPrivilegeSet(Privilege.JCR_READ, acMgr));
-        map.put(CqActions.modify.name(), getPrivilegeSet(new String[] {
-                Privilege.JCR_MODIFY_PROPERTIES,
-                Privilege.JCR_LOCK_MANAGEMENT,
-                Privilege.JCR_VERSION_MANAGEMENT }, acMgr));
-        map.put(CqActions.create.name(), getPrivilegeSet(new String[] {
-                Privilege.JCR_ADD_CHILD_NODES,
-                Privilege.JCR_NODE_TYPE_MANAGEMENT }, acMgr));
-        map.put(CqActions.delete.name(), getPrivilegeSet(new String[] {
-                Privilege.JCR_REMOVE_CHILD_NODES,
-                Privilege.JCR_REMOVE_NODE }, acMgr));
-        map.put(CqActions.acl_read.name(), getPrivilegeSet(Privilege.JCR_READ_ACCESS_CONTROL, acMgr));
-        map.put(CqActions.acl_edit.name(), getPrivilegeSet(Privilege.JCR_MODIFY_ACCESS_CONTROL, acMgr));
-
-        try {
-            map.put(CqActions.replicate.name(), getPrivilegeSet(Replicator.REPLICATE_PRIVILEGE, acMgr));
-        } catch (AccessControlException e) {
-            LOG.warn("Replicate privilege not registered");
+        for (Map.Entry<CqActions, String[]> privilegeNamesForAction : PRIVILEGE_NAMES_BY_ACTION.entrySet()) {
+            CqActions action = privilegeNamesForAction.getKey();
+            try {
+                map.put(action.name(), getPrivilegeSet(privilegeNamesForAction.getValue(), acMgr));
+            } catch (AccessControlException e) {
+                if (action != CqActions.replicate) {
+                    throw e;
+                }
+                LOG.warn("Replicate privilege not registered");
+            }
         }
     }
 
@@ -124,12 +161,9 @@ public class AcToolCqActions {
 
         if (definesContent(session.getNode(nodePath))) {
             Map<String, Value> restrictions = null;
-            for (String rName : acl.getRestrictionNames()) {
-                if (AceBean.RESTRICTION_NAME_GLOB.equals(rName)) {
-                    Value v = session.getValueFactory().createValue(CONTENT_RESTRICTION, acl.getRestrictionType(rName));
-                    restrictions = Collections.singletonMap(rName, v);
-                    break;
-                }
+            if (isGlobRestrictionSupported(acl)) {
+                Value v = session.getValueFactory().createValue(CONTENT_RESTRICTION, acl.getRestrictionType(AceBean.RESTRICTION_NAME_GLOB));
+                restrictions = Collections.singletonMap(AceBean.RESTRICTION_NAME_GLOB, v);
             }
             if (restrictions == null) {
                 LOG.warn(
@@ -187,6 +221,102 @@ public class AcToolCqActions {
         acMgr.setPolicy(nodePath, acl);
     }
 
+    /** Computes the privilege based ACEs for the given actions in memory, without writing to (and reading back from) an ACL. The result is
+     * equal to the entries that {@link #installActions(String, Principal, Map, Collection)} creates for a principal without any
+     * inherited permissions: entries with equal permission and restrictions are merged the same way as the access control list merges
+     * them and privileges are aggregated where possible (jcr:write, rep:write).
+     * 
+     * @param actionMap the actions with their allow (true) or deny (false) flag
+     * @param definesContent whether the node type of the target node defines a jcr:content child node (see {@link #definesContent(Node)})
+     * @param globRestrictionSupported whether the access control model supports the rep:glob restriction (see
+     *            {@link #isGlobRestrictionSupported(JackrabbitAccessControlList)}), if not no entries for the page content are created
+     * @return the ACE beans with permission, privileges and restrictions set (principal and path are not set), the first bean always being
+     *         the one without restrictions */
+    public static List<AceBean> compileActions(Map<String, Boolean> actionMap, boolean definesContent, boolean globRestrictionSupported) {
+        Map<Boolean, Set<String>> privilegeNamesByPermission = new LinkedHashMap<>();
+        for (CqActions action : CqActions.values()) {
+            Boolean isAllow = actionMap.get(action.name());
+            if (isAllow != null) {
+                if (!privilegeNamesByPermission.containsKey(isAllow)) {
+                    privilegeNamesByPermission.put(isAllow, new LinkedHashSet<String>());
+                }
+                privilegeNamesByPermission.get(isAllow).addAll(Arrays.asList(PRIVILEGE_NAMES_BY_ACTION.get(action)));
+            }
+        }
+
+        List<AceBean> aceBeans = new ArrayList<>();
+        for (Map.Entry<Boolean, Set<String>> privilegeNamesForPermission : privilegeNamesByPermission.entrySet()) {
+            aceBeans.add(createAceBean(privilegeNamesForPermission.getKey(), privilegeNamesForPermission.getValue(), null));
+        }
+
+        if (definesContent && !globRestrictionSupported) {
+            LOG.warn("Cannot install special permissions node with jcr:content primary item. rep:glob restriction not supported by AC model.");
+        } else if (definesContent) {
+            Set<String> allowPrivs = new LinkedHashSet<>();
+            Set<String> denyPrivs = new LinkedHashSet<>();
+            List<String> createPrivs = Arrays.asList(PRIVILEGE_NAMES_BY_ACTION.get(CqActions.create));
+            List<String> deletePrivs = Arrays.asList(PRIVILEGE_NAMES_BY_ACTION.get(CqActions.delete));
+
+            Boolean modify = actionMap.get(CqActions.modify.name());
+            if (modify != null) {
+                Set<String> contentModifyPrivs = modify ? allowPrivs : denyPrivs;
+                contentModifyPrivs.addAll(createPrivs);
+                contentModifyPrivs.addAll(deletePrivs);
+            }
+
+            if (!Boolean.TRUE.equals(modify)) {
+                if (Boolean.TRUE.equals(actionMap.get(CqActions.create.name()))) {
+                    denyPrivs.addAll(createPrivs);
+                }
+                if (Boolean.TRUE.equals(actionMap.get(CqActions.delete.name()))) {
+                    denyPrivs.addAll(deletePrivs);
+                }
+            } else {
+                if (Boolean.FALSE.equals(actionMap.get(CqActions.create.name()))) {
+                    allowPrivs.addAll(createPrivs);
+                }
+                if (Boolean.FALSE.equals(actionMap.get(CqActions.delete.name()))) {
+                    allowPrivs.addAll(deletePrivs);
+                }
+            }
+
+            if (!allowPrivs.isEmpty()) {
+                aceBeans.add(createAceBean(true, allowPrivs, new Restriction(AceBean.RESTRICTION_NAME_GLOB, CONTENT_RESTRICTION)));
+            }
+            if (!denyPrivs.isEmpty()) {
+                aceBeans.add(createAceBean(false, denyPrivs, new Restriction(AceBean.RESTRICTION_NAME_GLOB, CONTENT_RESTRICTION)));
+            }
+        }
+        return aceBeans;
+    }
+
+    private static AceBean createAceBean(boolean isAllow, Set<String> privilegeNames, Restriction restriction) {
+        Set<String> aggregatedPrivilegeNames = new LinkedHashSet<>(privilegeNames);
+        if (aggregatedPrivilegeNames.containsAll(JCR_WRITE_PRIVILEGE_NAMES)) {
+            aggregatedPrivilegeNames.removeAll(JCR_WRITE_PRIVILEGE_NAMES);
+            if (aggregatedPrivilegeNames.remove(JCR_NODE_TYPE_MANAGEMENT)) {
+                aggregatedPrivilegeNames.add(REP_WRITE);
+            } else {
+                aggregatedPrivilegeNames.add(JCR_WRITE);
+            }
+        }
+        AceBean aceBean = new AceBean();
+        aceBean.setPermission(isAllow ? "allow" : "deny");
+        aceBean.setPrivilegesString(String.join(",", aggregatedPrivilegeNames));
+        List<Restriction> restrictions = new ArrayList<>();
+        if (restriction != null) {
+            restrictions.add(restriction);
+        }
+        aceBean.setRestrictions(restrictions);
+        return aceBean;
+    }
+
+    /** @param acl an access control list of the access control model the actions are installed to
+     * @return true if the rep:glob restriction (required to restrict entries to the page content) is supported */
+    public static boolean isGlobRestrictionSupported(JackrabbitAccessControlList acl) throws RepositoryException {
+        return Arrays.asList(acl.getRestrictionNames()).contains(AceBean.RESTRICTION_NAME_GLOB);
+    }
+
     public static boolean definesContent(Node node) throws RepositoryException {
         NodeType nt = node.getPrimaryNodeType();
         for (NodeDefinition cnd : nt.getChildNodeDefinitions()) {
@@ -217,14 +347,7 @@ public class AcToolCqActions {
     }
 
     private static Set<Privilege> getPrivilegeSet(String privName, AccessControlManager acMgr) throws RepositoryException {
-        Set<Privilege> privileges;
-        Privilege p = acMgr.privilegeFromName(privName);
-        if (p.isAggregate()) {
-            privileges = new HashSet<>(Arrays.asList(p.getAggregatePrivileges()));
-        } else {
-            privileges = Collections.singleton(p);
-        }
-        return privileges;
+        return getPrivilegeSet(new String[] { privName }, acMgr);
     }
 
     private static Set<Privilege> getPrivilegeSet(String[] privNames, AccessControlManager acMgr) throws RepositoryException {
@@ -20,6 +20,13 @@ interface AuthInstallerUserManager {
 
     Set<String> getDeclaredMembersWithoutRegularUsers(String id);
 
+    /** @return the run-scoped plan of membership changes that are applied in bulk per group at the end of the installation */
+    GroupMembershipPlan getGroupMembershipPlan();
+
+    /** Updates the prefetched memberships with changes that have been applied to the given group (those are not visible to the queries
+     * behind {@link Authorizable#declaredMemberOf()} before the session is saved). */
+    void updateMemberships(String groupId, Set<String> addedMemberIds, Set<String> removedMemberIds) throws RepositoryException;
+
     UserManager getOakUserManager();
 
     void removeAuthorizable(Authorizable authorizable) throws RepositoryException;
@@ -2,19 +2,38 @@ package biz.netcentric.cq.tools.actool.authorizableinstaller.impl;
 
 import static biz.netcentric.cq.tools.actool.history.impl.PersistableInstallationLogger.msHumanReadable;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Principal;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
 
+import javax.jcr.Node;
+import javax.jcr.NodeIterator;
+import javax.jcr.Property;
 import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.jcr.Value;
 import javax.jcr.ValueFactory;
 
 import org.apache.commons.collections4.map.CaseInsensitiveMap;
 import org.apache.jackrabbit.JcrConstants;
+import org.apache.jackrabbit.api.JackrabbitSession;
 import org.apache.jackrabbit.api.security.user.Authorizable;
 import org.apache.jackrabbit.api.security.user.Group;
 import org.apache.jackrabbit.api.security.user.Query;
@@ -49,19 +68,70 @@ import biz.netcentric.cq.tools.actool.history.InstallationLogger;
  * huge number of users in production to then only filter out a few relevant groups in the end (the AC Tool does not touch user memberships
  * to groups).
  * </p>
+ * <p>
+ * If the ids of the authorizables referenced by the configuration are given and the repository contains many more groups and system
+ * users than referenced by the configuration (e.g. because of synced IMS/LDAP groups), only the referenced authorizables are prefetched
+ * (scoped prefetch). They are looked up in batched queries by their content ids, for each of them the declared memberships are loaded
+ * (that way also the parent groups are known). For groups the member references are read directly from {@code rep:members} (and
+ * {@code rep:membersList}) and resolved with batched queries restricted to groups and system users, so regular users are never loaded.
+ * </p>
+ * <p>
+ * The full prefetch can resolve the memberships with multiple threads: the results of the prefetch query are streamed in batches of paths
+ * to workers, each worker reads the memberships with its own (read-only) session.
+ * </p>
  */
 class AuthInstallerUserManagerPrefetchingImpl implements AuthInstallerUserManager {
 
     private static final Logger LOG = LoggerFactory.getLogger(AuthInstallerUserManagerPrefetchingImpl.class);
 
+    /** scoped prefetch is used if the repository contains more than this factor times the number of authorizables referenced by config */
+    static final int RATIO_FOR_SCOPED_PREFETCH = 10;
+    /** for small repositories the full prefetch is always used */
+    static final int MIN_AUTHORIZABLES_FOR_SCOPED_PREFETCH = 5000;
+
+    static final int ID_QUERY_BATCH_SIZE = 100;
+
+    static final int PATH_BATCH_SIZE_FOR_WORKERS = 100;
+
+    /** Creates the sessions for the workers of the parallel prefetch, those are logged out by the worker. */
+    interface WorkerSessionFactory {
+        Session createSession() throws RepositoryException;
+    }
+
     private final UserManager delegate;
 
-    private final Map<String, Set<String>> nonRegularUserMembersByAuthorizableId = new CaseInsensitiveMap<>();
-    private final Map<String, Set<String>> isMemberOfByAuthorizableId = new CaseInsensitiveMap<>();
-    private final Map<String, String> authorizableIdsAndPaths = new CaseInsensitiveMap<>();
+    // maps are written concurrently by the workers of the parallel prefetch
+    private final Map<String, Set<String>> nonRegularUserMembersByAuthorizableId = Collections
+            .synchronizedMap(new CaseInsensitiveMap<String, Set<String>>());
+    private final Map<String, Set<String>> isMemberOfByAuthorizableId = Collections
+            .synchronizedMap(new CaseInsensitiveMap<String, Set<String>>());
+    private final Map<String, String> authorizableIdsAndPaths = Collections.synchronizedMap(new CaseInsensitiveMap<String, String>());
+    private final GroupMembershipPlan groupMembershipPlan = new GroupMembershipPlan();
+    private final boolean scopedPrefetch;
 
     public AuthInstallerUserManagerPrefetchingImpl(UserManager delegate, final ValueFactory valueFactory, InstallationLogger installLog)
             throws RepositoryException {
+        this(delegate, valueFactory, null, installLog, null, Integer.MAX_VALUE, 1, null);
+    }
+
+    /** @param session the session the delegate user manager belongs to (used to read the member references for the scoped prefetch)
+     * @param authorizableIdsFromConfig the ids of all authorizables referenced by the configuration (ids, members, isMemberOf and
+     *            migrateFrom) or null to always prefetch all groups and system users
+     * @param prefetchThreads the number of threads to prefetch the memberships with (only used for the full prefetch)
+     * @param workerSessionFactory the factory for the sessions of the workers (if null, the memberships are prefetched sequentially) */
+    public AuthInstallerUserManagerPrefetchingImpl(UserManager delegate, Session session, InstallationLogger installLog,
+            Set<String> authorizableIdsFromConfig, int prefetchThreads, WorkerSessionFactory workerSessionFactory)
+            throws RepositoryException {
+        this(delegate, session.getValueFactory(), session, installLog, authorizableIdsFromConfig,
+                authorizableIdsFromConfig != null
+                        ? Math.max(MIN_AUTHORIZABLES_FOR_SCOPED_PREFETCH, RATIO_FOR_SCOPED_PREFETCH * authorizableIdsFromConfig.size())
+                        : Integer.MAX_VALUE,
+                prefetchThreads, workerSessionFactory);
+    }
+
+    AuthInstallerUserManagerPrefetchingImpl(UserManager delegate, final ValueFactory valueFactory, Session session,
+            InstallationLogger installLog, Set<String> authorizableIdsFromConfig, int maxAuthorizablesForFullPrefetch, int prefetchThreads,
+            WorkerSessionFactory workerSessionFactory) throws RepositoryException {
         this.delegate = delegate;
 
         long startPrefetch = System.currentTimeMillis();
@@ -75,15 +145,40 @@ class AuthInstallerUserManagerPrefetchingImpl implements AuthInstallerUserManage
                 );
             }
         });
+
+        if (authorizableIdsFromConfig != null && session != null) {
+            // only read as many authorizables as needed to decide between full and scoped prefetch
+            List<Authorizable> authorizablesForFullPrefetch = new ArrayList<>();
+            while (authorizablesToPrefetchIt.hasNext() && authorizablesForFullPrefetch.size() <= maxAuthorizablesForFullPrefetch) {
+                authorizablesForFullPrefetch.add(authorizablesToPrefetchIt.next());
+            }
+            scopedPrefetch = authorizablesForFullPrefetch.size() > maxAuthorizablesForFullPrefetch;
+            authorizablesToPrefetchIt = authorizablesForFullPrefetch.iterator();
+        } else {
+            scopedPrefetch = false;
+        }
+
+        if (scopedPrefetch) {
+            installLog.addMessage(LOG, "Repository contains more than " + maxAuthorizablesForFullPrefetch
+                    + " groups and system users, prefetching only the " + authorizableIdsFromConfig.size()
+                    + " authorizables referenced by configuration");
+            prefetchScoped(authorizableIdsFromConfig, valueFactory, session, installLog);
+            return;
+        }
+
         installLog.addMessage(LOG, "Prefetched authorizables in "
                 + msHumanReadable(System.currentTimeMillis() - startPrefetch));
 
         int membershipCount = 0;
         long startPrefetchMemberships = System.currentTimeMillis();
-        while (authorizablesToPrefetchIt.hasNext()) {
-            Authorizable auth = authorizablesToPrefetchIt.next();
-            membershipCount += prefetchAuthorizable(auth);
-            authorizableIdsAndPaths.put(auth.getID(), auth.getPath());
+        if (prefetchThreads > 1 && workerSessionFactory != null) {
+            membershipCount += prefetchInParallel(authorizablesToPrefetchIt, prefetchThreads, workerSessionFactory, installLog);
+        } else {
+            while (authorizablesToPrefetchIt.hasNext()) {
+                Authorizable auth = authorizablesToPrefetchIt.next();
+                membershipCount += prefetchAuthorizable(auth);
+                authorizableIdsAndPaths.put(auth.getID(), auth.getPath());
+            }
         }
 
         Authorizable anonymous = delegate.getAuthorizable(UserConstants.DEFAULT_ANONYMOUS_ID);
@@ -96,6 +191,188 @@ class AuthInstallerUserManagerPrefetchingImpl implements AuthInstallerUserManage
                 + msHumanReadable(System.currentTimeMillis() - startPrefetchMemberships));
     }
 
+    /** Streams the paths of the given authorizables in batches to workers that resolve the memberships with their own sessions.
+     * 
+     * @return the number of prefetched memberships */
+    private int prefetchInParallel(Iterator<Authorizable> authorizablesToPrefetchIt, int prefetchThreads,
+            final WorkerSessionFactory workerSessionFactory, InstallationLogger installLog) throws RepositoryException {
+        final List<String> endOfQueue = Collections.emptyList();
+        final BlockingQueue<List<String>> pathBatches = new LinkedBlockingQueue<>();
+        ExecutorService executorService = Executors.newFixedThreadPool(prefetchThreads);
+        try {
+            List<Future<WorkerResult>> workerResults = new ArrayList<>();
+            for (int i = 0; i < prefetchThreads; i++) {
+                workerResults.add(executorService.submit(new Callable<WorkerResult>() {
+                    @Override
+                    public WorkerResult call() throws Exception {
+                        long startTime = System.currentTimeMillis();
+                        WorkerResult workerResult = new WorkerResult();
+                        Session workerSession = workerSessionFactory.createSession();
+                        try {
+                            UserManager workerUserManager = ((JackrabbitSession) workerSession).getUserManager();
+                            List<String> pathBatch;
+                            while ((pathBatch = pathBatches.take()) != endOfQueue) {
+                                for (String path : pathBatch) {
+                                    Authorizable authorizable = workerUserManager.getAuthorizableByPath(path);
+                                    if (authorizable != null) {
+                                        workerResult.membershipCount += prefetchAuthorizable(authorizable);
+                                        workerResult.authorizableCount++;
+                                    }
+                                }
+                            }
+                        } finally {
+                            workerSession.logout();
+                        }
+                        workerResult.timeInMs = System.currentTimeMillis() - startTime;
+                        return workerResult;
+                    }
+                }));
+            }
+
+            // the query result is consumed while the workers are already resolving memberships
+            List<String> pathBatch = new ArrayList<>();
+            while (authorizablesToPrefetchIt.hasNext()) {
+                Authorizable auth = authorizablesToPrefetchIt.next();
+                authorizableIdsAndPaths.put(auth.getID(), auth.getPath());
+                pathBatch.add(auth.getPath());
+                if (pathBatch.size() >= PATH_BATCH_SIZE_FOR_WORKERS) {
+                    pathBatches.add(pathBatch);
+                    pathBatch = new ArrayList<>();
+                }
+            }
+            if (!pathBatch.isEmpty()) {
+                pathBatches.add(pathBatch);
+            }
+            for (int i = 0; i < prefetchThreads; i++) {
+                pathBatches.add(endOfQueue);
+            }
+
+            int membershipCount = 0;
+            for (int i = 0; i < workerResults.size(); i++) {
+                WorkerResult workerResult = workerResults.get(i).get();
+                installLog.addMessage(LOG, "Prefetch worker " + (i + 1) + " prefetched " + workerResult.membershipCount
+                        + " memberships of " + workerResult.authorizableCount + " authorizables in "
+                        + msHumanReadable(workerResult.timeInMs));
+                membershipCount += workerResult.membershipCount;
+            }
+            return membershipCount;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while prefetching memberships", e);
+        } catch (ExecutionException e) {
+            throw new RepositoryException("Could not prefetch memberships: " + e.getCause(), e.getCause());
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    private static final class WorkerResult {
+        private int authorizableCount = 0;
+        private int membershipCount = 0;
+        private long timeInMs;
+    }
+
+    private void prefetchScoped(Set<String> authorizableIdsFromConfig, final ValueFactory valueFactory, Session session,
+            InstallationLogger installLog) throws RepositoryException {
+        long startPrefetch = System.currentTimeMillis();
+        Set<String> contentIds = new HashSet<>();
+        for (String id : authorizableIdsFromConfig) {
+            contentIds.add(getContentId(id));
+        }
+        // ids that do not exist simply do not match, hence no individual lookups are needed
+        List<Authorizable> authorizablesToPrefetch = findByContentIds(contentIds, false, valueFactory);
+        installLog.addMessage(LOG, "Prefetched " + authorizablesToPrefetch.size() + " authorizables referenced by configuration in "
+                + msHumanReadable(System.currentTimeMillis() - startPrefetch));
+
+        int membershipCount = 0;
+        long startPrefetchMemberships = System.currentTimeMillis();
+        for (Authorizable authorizable : authorizablesToPrefetch) {
+            membershipCount += prefetchAuthorizable(authorizable);
+            if (authorizable.isGroup()) {
+                Set<String> nonRegularUserMembers = nonRegularUserMembersByAuthorizableId.computeIfAbsent(authorizable.getID(),
+                        id -> new HashSet<>());
+                Set<String> memberContentIds = readMemberContentIds(session.getNode(authorizable.getPath()));
+                if (memberContentIds.remove(getContentId(UserConstants.DEFAULT_ANONYMOUS_ID))) {
+                    nonRegularUserMembers.add(UserConstants.DEFAULT_ANONYMOUS_ID);
+                }
+                for (Authorizable member : findByContentIds(memberContentIds, true, valueFactory)) {
+                    nonRegularUserMembers.add(member.getID());
+                }
+            }
+        }
+        installLog.addMessage(LOG, "Prefetched " + membershipCount + " memberships in "
+                + msHumanReadable(System.currentTimeMillis() - startPrefetchMemberships));
+    }
+
+    /** Looks up authorizables by their content ids (the jcr:uuid of the authorizable node) in batched queries.
+     * 
+     * @param onlyNonRegularUsers if true only groups and system users are returned */
+    private List<Authorizable> findByContentIds(Set<String> contentIds, final boolean onlyNonRegularUsers,
+            final ValueFactory valueFactory) throws RepositoryException {
+        List<Authorizable> authorizables = new ArrayList<>();
+        final List<String> contentIdsList = new ArrayList<>(contentIds);
+        for (int i = 0; i < contentIdsList.size(); i += ID_QUERY_BATCH_SIZE) {
+            final List<String> contentIdsOfBatch = contentIdsList.subList(i, Math.min(i + ID_QUERY_BATCH_SIZE, contentIdsList.size()));
+            Iterator<Authorizable> authorizablesOfBatchIt = delegate.findAuthorizables(new Query() {
+                public <T> void build(QueryBuilder<T> builder) {
+                    T condition = null;
+                    for (String contentId : contentIdsOfBatch) {
+                        T idCondition = builder.eq("@" + JcrConstants.JCR_UUID, valueFactory.createValue(contentId));
+                        condition = condition == null ? idCondition : builder.or(condition, idCondition);
+                    }
+                    if (onlyNonRegularUsers) {
+                        condition = builder.and(condition, builder.or(
+                                builder.eq("@" + JcrConstants.JCR_PRIMARYTYPE, valueFactory.createValue(UserConstants.NT_REP_SYSTEM_USER)),
+                                builder.eq("@" + JcrConstants.JCR_PRIMARYTYPE, valueFactory.createValue(UserConstants.NT_REP_GROUP))));
+                    }
+                    builder.setCondition(condition);
+                }
+            });
+            while (authorizablesOfBatchIt.hasNext()) {
+                authorizables.add(authorizablesOfBatchIt.next());
+            }
+        }
+        return authorizables;
+    }
+
+    /** @return the content ids of the declared members as referenced by the group node (in {@code rep:members} and, for groups with many
+     *         members, in the {@code rep:MemberRefs} nodes below {@code rep:membersList}) */
+    private Set<String> readMemberContentIds(Node groupNode) throws RepositoryException {
+        Set<String> memberContentIds = new HashSet<>();
+        addMemberContentIds(groupNode, memberContentIds);
+        if (groupNode.hasNode(UserConstants.REP_MEMBERS_LIST)) {
+            NodeIterator memberRefsNodes = groupNode.getNode(UserConstants.REP_MEMBERS_LIST).getNodes();
+            while (memberRefsNodes.hasNext()) {
+                addMemberContentIds(memberRefsNodes.nextNode(), memberContentIds);
+            }
+        }
+        return memberContentIds;
+    }
+
+    private void addMemberContentIds(Node node, Set<String> memberContentIds) throws RepositoryException {
+        if (node.hasProperty(UserConstants.REP_MEMBERS)) {
+            Property membersProperty = node.getProperty(UserConstants.REP_MEMBERS);
+            for (Value memberRef : membersProperty.getValues()) {
+                memberContentIds.add(memberRef.getString());
+            }
+        }
+    }
+
+    /** @see org.apache.jackrabbit.oak.security.user.AuthorizableBaseProvider#getContentID(String authorizableId) */
+    static String getContentId(String authorizableId) {
+        return UUID.nameUUIDFromBytes(authorizableId.toLowerCase(Locale.ENGLISH).getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
+    private boolean isRegularUser(Authorizable authorizable) throws RepositoryException {
+        return !authorizable.isGroup() && !((User) authorizable).isSystemUser()
+                && !UserConstants.DEFAULT_ANONYMOUS_ID.equals(authorizable.getID());
+    }
+
+    /** @return true if only the authorizables referenced by configuration have been prefetched */
+    boolean isScopedPrefetch() {
+        return scopedPrefetch;
+    }
+
     public Authorizable getAuthorizable(String id) throws RepositoryException {
         // lookup by path is faster than looking up by id (which uses a query under the hood)
         Authorizable authorizable = null;
@@ -129,6 +406,47 @@ class AuthInstallerUserManagerPrefetchingImpl implements AuthInstallerUserManage
                 : Collections.<String>emptySet();
     }
 
+    @Override
+    public GroupMembershipPlan getGroupMembershipPlan() {
+        return groupMembershipPlan;
+    }
+
+    @Override
+    public void updateMemberships(String groupId, Set<String> addedMemberIds, Set<String> removedMemberIds) throws RepositoryException {
+        Authorizable group = getAuthorizable(groupId);
+        String groupIdInRepo = group != null ? group.getID() : groupId;
+        Set<String> nonRegularUserMembers = nonRegularUserMembersByAuthorizableId.computeIfAbsent(groupIdInRepo,
+                id -> ConcurrentHashMap.<String> newKeySet());
+        for (String memberId : addedMemberIds) {
+            Authorizable member = getAuthorizable(memberId);
+            if (member == null) {
+                continue;
+            }
+            getDeclaredIsMemberOfForUpdate(member.getID()).add(groupIdInRepo);
+            if (!isRegularUser(member)) {
+                nonRegularUserMembers.add(member.getID());
+            }
+        }
+        for (String memberId : removedMemberIds) {
+            Authorizable member = getAuthorizable(memberId);
+            String memberIdInRepo = member != null ? member.getID() : memberId;
+            if (member != null) {
+                getDeclaredIsMemberOfForUpdate(memberIdInRepo).remove(groupIdInRepo);
+            }
+            nonRegularUserMembers.remove(memberIdInRepo);
+        }
+    }
+
+    private Set<String> getDeclaredIsMemberOfForUpdate(String id) throws RepositoryException {
+        Set<String> memberOf = isMemberOfByAuthorizableId.get(id);
+        if (memberOf == null) {
+            // not prefetched (e.g. regular users), the persisted memberships are the base for the applied changes
+            memberOf = new HashSet<>(getDeclaredIsMemberOf(id));
+            isMemberOfByAuthorizableId.put(id, memberOf);
+        }
+        return memberOf;
+    }
+
     @Override
     public void removeAuthorizable(final Authorizable authorizable) throws RepositoryException {
         Objects.requireNonNull(authorizable);
@@ -156,7 +474,13 @@ class AuthInstallerUserManagerPrefetchingImpl implements AuthInstallerUserManage
             Group memberOfGroup = declaredMemberOf.next();
             String memberOfGroupId = memberOfGroup.getID();
             memberOfByAuthorizableIds.add(memberOfGroupId);
-            nonRegularUserMembersByAuthorizableId.computeIfAbsent(memberOfGroupId, id -> new HashSet<>()).add(authId);
+            if (!scopedPrefetch) {
+                nonRegularUserMembersByAuthorizableId.computeIfAbsent(memberOfGroupId, id -> ConcurrentHashMap.<String> newKeySet())
+                        .add(authId);
+            } else {
+                // the members of groups are prefetched separately, parent groups have to be looked up by path
+                authorizableIdsAndPaths.put(memberOfGroupId, memberOfGroup.getPath());
+            }
             membershipCount++;
         }
         authorizableIdsAndPaths.put(authorizable.getID(), authorizable.getPath());
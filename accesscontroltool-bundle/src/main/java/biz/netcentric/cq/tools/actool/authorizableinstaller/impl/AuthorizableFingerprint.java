@@ -0,0 +1,159 @@
+/*
+ * (C) Copyright 2026 Cognizant Netcentric.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package biz.netcentric.cq.tools.actool.authorizableinstaller.impl;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Set;
+import java.util.TreeSet;
+
+import javax.jcr.RepositoryException;
+import javax.jcr.Value;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.jackrabbit.api.security.user.Authorizable;
+import org.apache.jackrabbit.api.security.user.Group;
+import org.apache.jackrabbit.api.security.user.User;
+import org.apache.jackrabbit.api.security.user.UserManager;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.FrameworkUtil;
+
+import biz.netcentric.cq.tools.actool.configmodel.AuthorizableConfigBean;
+import biz.netcentric.cq.tools.actool.configmodel.GlobalConfiguration;
+import biz.netcentric.cq.tools.actool.helper.AcHelper;
+import biz.netcentric.cq.tools.actool.helper.Constants;
+import biz.netcentric.cq.tools.actool.helper.HashHelper;
+
+/** Fingerprint of an authorizable as installed by the AC Tool, stored in a property on the authorizable node. The fingerprint consists
+ * of a hash over the applied {@link AuthorizableConfigBean} (and the global options relevant for authorizables) and a hash over a cheap
+ * to read part of the repository state: path, external id, declared memberships (in both directions, regular users as members are only
+ * considered if they are listed in 'members' of the configuration) and jcr:lastModified of the authorizable and its profile.
+ *
+ * If both hashes are unchanged since the last installation, the installation of the authorizable can be skipped. Authorizables with
+ * passwords, keys, migrateFrom or impersonationAllowedFor are never skipped as their state is not covered by the fingerprint. */
+final class AuthorizableFingerprint {
+
+    static final String PROPERTY_FINGERPRINT = "acToolFingerprint";
+
+    private static final String PROPERTY_JCR_LAST_MODIFIED = "jcr:lastModified";
+    private static final String PROPERTY_PROFILE_JCR_LAST_MODIFIED = "profile/" + PROPERTY_JCR_LAST_MODIFIED;
+    private static final String REP_EXTERNAL_ID = "rep:externalId";
+
+    private AuthorizableFingerprint() {
+        // static methods only
+    }
+
+    /** @return true if the state resulting from the installation of the given bean is fully covered by the fingerprint */
+    static boolean isApplicable(AuthorizableConfigBean authorizableConfigBean) {
+        return StringUtils.isBlank(authorizableConfigBean.getPassword())
+                && authorizableConfigBean.getKeys() == null
+                && StringUtils.isBlank(authorizableConfigBean.getMigrateFrom())
+                && authorizableConfigBean.getImpersonationAllowedFor() == null;
+    }
+
+    /** @return the fingerprint as stored on the authorizable by the last installation or null */
+    static String getStoredFingerprint(Authorizable authorizable) throws RepositoryException {
+        Value[] values = authorizable.getProperty(PROPERTY_FINGERPRINT);
+        return values != null && values.length > 0 ? values[0].getString() : null;
+    }
+
+    /** @param declaredIsMemberOf the ids of the groups the authorizable is declared member of
+     * @param declaredMembersWithoutRegularUsers the ids of the declared members without regular users plus the regular users listed in
+     *            'members' of the configuration (only relevant for groups), see {@link #addDeclaredMembersFromConfig(Set, Group, String[], UserManager)}
+     * @param authorizablesFromConfigurations ids of all authorizables of the configuration (memberships to those are handled differently
+     *            from memberships to external authorizables)
+     * @return the fingerprint */
+    static String create(AuthorizableConfigBean authorizableConfigBean, GlobalConfiguration globalConfiguration,
+            Authorizable authorizable, Collection<String> declaredIsMemberOf, Collection<String> declaredMembersWithoutRegularUsers,
+            Set<String> authorizablesFromConfigurations) throws RepositoryException {
+        return createConfigHash(authorizableConfigBean, globalConfiguration) + ":"
+                + createRepositoryHash(authorizable, declaredIsMemberOf, declaredMembersWithoutRegularUsers, authorizablesFromConfigurations);
+    }
+
+    static String createConfigHash(AuthorizableConfigBean bean, GlobalConfiguration globalConfiguration) {
+        StringBuilder buf = new StringBuilder();
+        buf.append(getBundleVersion()).append("\n");
+        buf.append(bean.getAuthorizableId()).append("\n")
+                .append(bean.getPrincipalName()).append("\n")
+                .append(bean.isGroup()).append(" ").append(bean.isSystemUser()).append("\n")
+                .append(bean.getPath()).append("\n")
+                .append(bean.getExternalId()).append("\n")
+                .append(bean.getName()).append("\n")
+                .append(bean.getEmail()).append("\n")
+                .append(bean.getDescription()).append("\n")
+                .append(bean.getDisabled()).append("\n")
+                .append(bean.getIsMemberOf() != null ? Arrays.toString(bean.getIsMemberOf()) : null).append("\n")
+                .append(bean.getMembers() != null ? Arrays.toString(bean.getMembers()) : null).append("\n")
+                .append(bean.getUnmanagedExternalIsMemberOfRegex()).append("\n")
+                .append(bean.getUnmanagedExternalMembersRegex()).append("\n")
+                .append(bean.getProfileContent()).append("\n")
+                .append(bean.getPreferencesContent()).append("\n")
+                .append(bean.getSocialContent()).append("\n");
+        buf.append(globalConfiguration.getDefaultUnmanagedExternalIsMemberOfRegex()).append("\n")
+                .append(globalConfiguration.getDefaultUnmanagedExternalMembersRegex()).append("\n");
+        return HashHelper.md5(buf.toString());
+    }
+
+    static String createRepositoryHash(Authorizable authorizable, Collection<String> declaredIsMemberOf,
+            Collection<String> declaredMembersWithoutRegularUsers, Set<String> authorizablesFromConfigurations)
+            throws RepositoryException {
+        StringBuilder buf = new StringBuilder();
+        buf.append(authorizable.getPath()).append("\n")
+                .append(AcHelper.valuesToString(authorizable.getProperty(REP_EXTERNAL_ID))).append("\n")
+                .append(AcHelper.valuesToString(authorizable.getProperty(PROPERTY_JCR_LAST_MODIFIED))).append("\n")
+                .append(AcHelper.valuesToString(authorizable.getProperty(PROPERTY_PROFILE_JCR_LAST_MODIFIED))).append("\n");
+        if (!authorizable.isGroup()) {
+            buf.append(((User) authorizable).isDisabled()).append("\n");
+        }
+        buf.append(markAuthorizablesFromConfig(declaredIsMemberOf, authorizablesFromConfigurations)).append("\n");
+        if (authorizable.isGroup()) {
+            buf.append(markAuthorizablesFromConfig(declaredMembersWithoutRegularUsers, authorizablesFromConfigurations)).append("\n");
+        }
+        return HashHelper.md5(buf.toString());
+    }
+
+    /** Adds the members listed in 'members' of the configuration that are declared members of the given group. This covers regular users
+     * configured as members (those are re-added on every installation but not contained in the prefetched members), without having to
+     * read all declared members of the group.
+     *
+     * @return a new set containing the given members and the declared members from the configuration */
+    static Set<String> addDeclaredMembersFromConfig(Set<String> declaredMembersWithoutRegularUsers, Group group, String[] membersInConfig,
+            UserManager userManager) throws RepositoryException {
+        Set<String> members = new TreeSet<>(declaredMembersWithoutRegularUsers);
+        if (membersInConfig != null) {
+            for (String memberId : membersInConfig) {
+                Authorizable member = userManager.getAuthorizable(memberId);
+                if (member != null && group.isDeclaredMember(member)) {
+                    members.add(member.getID());
+                }
+            }
+        }
+        return members;
+    }
+
+    private static Set<String> markAuthorizablesFromConfig(Collection<String> authorizableIds, Set<String> authorizablesFromConfigurations) {
+        Set<String> markedAuthorizableIds = new TreeSet<>();
+        if (authorizableIds != null) {
+            for (String authorizableId : authorizableIds) {
+                if (Constants.PRINCIPAL_EVERYONE.equals(authorizableId)) {
+                    continue; // membership in everyone is implicit
+                }
+                // a change of the configured authorizables changes how memberships are treated
+                markedAuthorizableIds.add(authorizablesFromConfigurations.contains(authorizableId) ? authorizableId + "*" : authorizableId);
+            }
+        }
+        return markedAuthorizableIds;
+    }
+
+    private static String getBundleVersion() {
+        Bundle bundle = FrameworkUtil.getBundle(AuthorizableFingerprint.class);
+        return bundle != null ? bundle.getVersion().toString() : "";
+    }
+
+}
@@ -15,9 +15,11 @@ import java.security.GeneralSecurityException;
 import java.security.cert.Certificate;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -30,6 +32,7 @@ import javax.jcr.RepositoryException;
 import javax.jcr.Session;
 import javax.jcr.SimpleCredentials;
 import javax.jcr.UnsupportedRepositoryOperationException;
+import javax.jcr.Value;
 import javax.jcr.ValueFactory;
 
 import org.apache.commons.collections4.CollectionUtils;
@@ -69,6 +72,7 @@ import biz.netcentric.cq.tools.actool.crypto.DecryptionService;
 import biz.netcentric.cq.tools.actool.externalusermanagement.ExternalGroupManagement;
 import biz.netcentric.cq.tools.actool.helper.AcHelper;
 import biz.netcentric.cq.tools.actool.helper.AccessControlUtils;
+import biz.netcentric.cq.tools.actool.helper.CommitBatcher;
 import biz.netcentric.cq.tools.actool.helper.Constants;
 import biz.netcentric.cq.tools.actool.helper.ContentHelper;
 import biz.netcentric.cq.tools.actool.history.InstallationLogger;
@@ -115,26 +119,157 @@ public class AuthorizableInstallerServiceImpl implements
             final Session session, InstallationLogger installLog)
             throws RepositoryException, AuthorizableCreatorException, LoginException, IOException, GeneralSecurityException {
 
-        AuthInstallerUserManager userManager = new AuthInstallerUserManagerPrefetchingImpl(AccessControlUtils.getUserManagerAutoSaveDisabled(session), session.getValueFactory(), installLog);
+        // workers of the parallel prefetch would not see unsaved changes of the session
+        AuthInstallerUserManagerPrefetchingImpl.WorkerSessionFactory workerSessionFactory = !session.hasPendingChanges() && repository != null
+                ? new AuthInstallerUserManagerPrefetchingImpl.WorkerSessionFactory() {
+                    @Override
+                    public Session createSession() throws RepositoryException {
+                        return repository.loginService(null, null);
+                    }
+                }
+                : null;
+        AuthInstallerUserManager userManager = new AuthInstallerUserManagerPrefetchingImpl(AccessControlUtils.getUserManagerAutoSaveDisabled(session), session, installLog,
+                getAuthorizableIdsReferencedByConfig(authorizablesConfigBeans), acConfiguration.getGlobalConfiguration().getAuthorizablePrefetchThreads(),
+                workerSessionFactory);
 
         Set<String> authorizablesFromConfigurations = authorizablesConfigBeans.getAuthorizableIds();
         Collection<AuthorizableConfigBean> groupsToSyncWithExternalUserMgmt = new LinkedList<>();
-        for (AuthorizableConfigBean authorizableConfigBean : authorizablesConfigBeans) {
+        PasswordHashVerifier passwordHashVerifier = null;
+        if (acConfiguration.getGlobalConfiguration().getVerifyPasswordsViaHash()) {
+            passwordHashVerifier = new PasswordHashVerifier();
+            passwordHashVerifier.verifyPasswords(getConfiguredPasswordsOfExistingUsers(authorizablesConfigBeans, userManager), session,
+                    installLog);
+        }
+        boolean useAuthorizableFingerprints = acConfiguration.getGlobalConfiguration().getUseAuthorizableFingerprints();
+        Collection<AuthorizableConfigBean> authorizablesToFingerprint = new LinkedList<>();
+        CommitBatcher commitBatcher = new CommitBatcher(session, acConfiguration.getGlobalConfiguration().getCommitBatchSize(),
+                "authorizables", installLog);
+        // a persisted batch has to contain the memberships of its authorizables (rep:members is then rewritten once per batch and group)
+        commitBatcher.setBeforeCommitHook(new CommitBatcher.BeforeCommitHook() {
+            @Override
+            public void beforeCommit() throws RepositoryException {
+                userManager.getGroupMembershipPlan().apply(userManager, installLog);
+            }
+        });
+        try {
+            for (AuthorizableConfigBean authorizableConfigBean : authorizablesConfigBeans) {
+
+                boolean isFingerprintApplicable = useAuthorizableFingerprints
+                        && !StringUtils.equals(authorizableConfigBean.getAuthorizableId(), PRINCIPAL_EVERYONE)
+                        && AuthorizableFingerprint.isApplicable(authorizableConfigBean);
+                if (isFingerprintApplicable && isUnchangedSinceLastInstallation(acConfiguration, authorizableConfigBean, userManager,
+                        authorizablesFromConfigurations)) {
+                    installLog.incCountAuthorizablesUnchanged();
+                } else {
+                    boolean changed = installAuthorizableConfigurationBean(session, userManager, acConfiguration,
+                            authorizableConfigBean, installLog, authorizablesFromConfigurations, passwordHashVerifier);
+                    commitBatcher.itemProcessed(authorizableConfigBean.getAuthorizableId(), changed);
+                    if (isFingerprintApplicable) {
+                        authorizablesToFingerprint.add(authorizableConfigBean);
+                    }
+                }
 
-            installAuthorizableConfigurationBean(session, userManager, acConfiguration,
-                    authorizableConfigBean, installLog, authorizablesFromConfigurations);
-            
-            if (authorizableConfigBean.isExternalSync() && authorizableConfigBean.isGroup() && !externalGroupManagementServices.isEmpty()) {
-                installLog.addVerboseMessage(LOG, "Synchronizing external group with id " + authorizableConfigBean.getAuthorizableId() + " and description " + authorizableConfigBean.getDescription());
-                groupsToSyncWithExternalUserMgmt.add(authorizableConfigBean);
+                if (authorizableConfigBean.isExternalSync() && authorizableConfigBean.isGroup() && !externalGroupManagementServices.isEmpty()) {
+                    installLog.addVerboseMessage(LOG, "Synchronizing external group with id " + authorizableConfigBean.getAuthorizableId() + " and description " + authorizableConfigBean.getDescription());
+                    groupsToSyncWithExternalUserMgmt.add(authorizableConfigBean);
+                }
             }
+            // membership changes of all authorizables (of the last batch if batching is enabled) are applied with one write per group
+            userManager.getGroupMembershipPlan().apply(userManager, installLog);
+            // fingerprints are taken from the final state (after all membership changes have been applied)
+            storeFingerprints(authorizablesToFingerprint, acConfiguration, userManager, session, authorizablesFromConfigurations);
+        } catch (Exception e) {
+            commitBatcher.logPersistedBatchesOnFailure();
+            throw e;
         }
 
-        installLog.addMessage(LOG, "Created "+installLog.getCountAuthorizablesCreated() + " authorizables (moved "+installLog.getCountAuthorizablesMoved() + " authorizables)");
+        installLog.addMessage(LOG, "Created "+installLog.getCountAuthorizablesCreated() + " authorizables (moved "+installLog.getCountAuthorizablesMoved() + " authorizables"
+                + (useAuthorizableFingerprints ? ", skipped " + installLog.getCountAuthorizablesUnchanged() + " unchanged authorizables" : "") + ")");
         syncWithExternalGroupManagement(groupsToSyncWithExternalUserMgmt, installLog);
 
     }
 
+    private boolean isUnchangedSinceLastInstallation(AcConfiguration acConfiguration, AuthorizableConfigBean authorizableConfigBean,
+            AuthInstallerUserManager userManager, Set<String> authorizablesFromConfigurations) throws RepositoryException {
+        String authorizableId = authorizableConfigBean.getAuthorizableId();
+        Authorizable authorizable = userManager.getAuthorizable(authorizableId);
+        if (authorizable == null) {
+            return false;
+        }
+        String storedFingerprint = AuthorizableFingerprint.getStoredFingerprint(authorizable);
+        if (storedFingerprint == null
+                || !storedFingerprint.startsWith(
+                        AuthorizableFingerprint.createConfigHash(authorizableConfigBean, acConfiguration.getGlobalConfiguration()) + ":")) {
+            return false;
+        }
+        String currentFingerprint = createFingerprint(authorizableConfigBean, acConfiguration, authorizable, userManager,
+                authorizablesFromConfigurations);
+        return storedFingerprint.equals(currentFingerprint);
+    }
+
+    /** The repository side is taken from the prefetched memberships (plus the regular users configured as members). Those also contain the
+     * membership changes applied in this run, which are not yet visible to queries before the session is saved. */
+    private String createFingerprint(AuthorizableConfigBean authorizableConfigBean, AcConfiguration acConfiguration,
+            Authorizable authorizable, AuthInstallerUserManager userManager, Set<String> authorizablesFromConfigurations)
+            throws RepositoryException {
+        String authorizableId = authorizable.getID();
+        Set<String> declaredMembers = authorizable.isGroup()
+                ? AuthorizableFingerprint.addDeclaredMembersFromConfig(userManager.getDeclaredMembersWithoutRegularUsers(authorizableId),
+                        (Group) authorizable, authorizableConfigBean.getMembers(), userManager.getOakUserManager())
+                : Collections.<String> emptySet();
+        return AuthorizableFingerprint.create(authorizableConfigBean, acConfiguration.getGlobalConfiguration(),
+                authorizable, userManager.getDeclaredIsMemberOf(authorizableId), declaredMembers, authorizablesFromConfigurations);
+    }
+
+    private void storeFingerprints(Collection<AuthorizableConfigBean> authorizableConfigBeans, AcConfiguration acConfiguration,
+            AuthInstallerUserManager userManager, Session session, Set<String> authorizablesFromConfigurations) throws RepositoryException {
+        for (AuthorizableConfigBean authorizableConfigBean : authorizableConfigBeans) {
+            Authorizable authorizable = userManager.getAuthorizable(authorizableConfigBean.getAuthorizableId());
+            if (authorizable == null) {
+                continue;
+            }
+            String fingerprint = createFingerprint(authorizableConfigBean, acConfiguration, authorizable, userManager,
+                    authorizablesFromConfigurations);
+            if (!fingerprint.equals(AuthorizableFingerprint.getStoredFingerprint(authorizable))) {
+                authorizable.setProperty(AuthorizableFingerprint.PROPERTY_FINGERPRINT, session.getValueFactory().createValue(fingerprint));
+            }
+        }
+    }
+
+    /** @return the ids of all authorizables that are referenced by the configuration (and hence have to be prefetched) */
+    static Set<String> getAuthorizableIdsReferencedByConfig(AuthorizablesConfig authorizablesConfigBeans) {
+        Set<String> authorizableIds = new HashSet<>();
+        for (AuthorizableConfigBean authorizableConfigBean : authorizablesConfigBeans) {
+            authorizableIds.add(authorizableConfigBean.getAuthorizableId());
+            if (authorizableConfigBean.getMembers() != null) {
+                authorizableIds.addAll(Arrays.asList(authorizableConfigBean.getMembers()));
+            }
+            if (authorizableConfigBean.getIsMemberOf() != null) {
+                authorizableIds.addAll(Arrays.asList(authorizableConfigBean.getIsMemberOf()));
+            }
+            if (StringUtils.isNotBlank(authorizableConfigBean.getMigrateFrom())) {
+                authorizableIds.add(authorizableConfigBean.getMigrateFrom());
+            }
+        }
+        return authorizableIds;
+    }
+
+    private Map<User, String> getConfiguredPasswordsOfExistingUsers(AuthorizablesConfig authorizablesConfigBeans,
+            AuthInstallerUserManager userManager) throws RepositoryException, AuthorizableCreatorException {
+        Map<User, String> passwordsByUser = new LinkedHashMap<>();
+        for (AuthorizableConfigBean authorizableConfigBean : authorizablesConfigBeans) {
+            if (authorizableConfigBean.isGroup() || authorizableConfigBean.isSystemUser()
+                    || StringUtils.isBlank(authorizableConfigBean.getPassword())) {
+                continue;
+            }
+            Authorizable existingAuthorizable = userManager.getAuthorizable(authorizableConfigBean.getAuthorizableId());
+            if (existingAuthorizable != null && !existingAuthorizable.isGroup()) {
+                passwordsByUser.put((User) existingAuthorizable, getPassword(authorizableConfigBean));
+            }
+        }
+        return passwordsByUser;
+    }
+
     private void syncWithExternalGroupManagement(Collection<AuthorizableConfigBean> groupConfigBeans, InstallationLogger installLog) throws IOException {
         if (groupConfigBeans.isEmpty()) {
             return;
@@ -145,11 +280,12 @@ public class AuthorizableInstallerServiceImpl implements
         }
     }
     
-    private void installAuthorizableConfigurationBean(final Session session,
+    /** @return true if the authorizable has been changed (including planned membership changes) */
+    private boolean installAuthorizableConfigurationBean(final Session session,
             AuthInstallerUserManager userManager,
             AcConfiguration acConfiguration,
             AuthorizableConfigBean authorizableConfigBean,
-            InstallationLogger installLog, Set<String> authorizablesFromConfigurations)
+            InstallationLogger installLog, Set<String> authorizablesFromConfigurations, PasswordHashVerifier passwordHashVerifier)
             throws RepositoryException, AuthorizableCreatorException, IOException, GeneralSecurityException, LoginException {
 
         String authorizableId = authorizableConfigBean.getAuthorizableId();
@@ -166,27 +302,29 @@ public class AuthorizableInstallerServiceImpl implements
                         + " does not support setting properties 'members', 'isMemberOf' and 'migrateFrom'");
             }
             // only setting authorizables properties is supported for everyone
-            setAuthorizableProperties(authorizableToInstall, authorizableConfigBean, acConfiguration.getAuthorizablesConfig(), session, installLog);
-            return;
+            return setAuthorizableProperties(authorizableToInstall, authorizableConfigBean, acConfiguration.getAuthorizablesConfig(), session, installLog);
         }
 
+        boolean changed = false;
+        int countPlannedMembershipChangesBefore = userManager.getGroupMembershipPlan().getCountPlannedChanges();
         if (authorizableToInstall == null) {
             authorizableToInstall = createNewAuthorizable(acConfiguration, authorizableConfigBean, installLog, userManager, session);
             
             installLog.incCountAuthorizablesCreated();
+            changed = true;
         }
         // if current authorizable from config already exists in repository
         else {
             // update name for both groups and users
-            setAuthorizableProperties(authorizableToInstall, authorizableConfigBean, acConfiguration.getAuthorizablesConfig(), session, installLog);
+            changed |= setAuthorizableProperties(authorizableToInstall, authorizableConfigBean, acConfiguration.getAuthorizablesConfig(), session, installLog);
             // update password for users
             if (!authorizableToInstall.isGroup() && !authorizableConfigBean.isSystemUser()
                     && StringUtils.isNotBlank(authorizableConfigBean.getPassword())) {
-                setUserPassword(authorizableConfigBean, (User) authorizableToInstall, installLog);
+                changed |= setUserPassword(authorizableConfigBean, (User) authorizableToInstall, passwordHashVerifier, installLog);
             }
 
             // move authorizable if path changed (retaining existing members)
-            handleRecreationOfAuthorizableIfNecessary(session, acConfiguration, authorizableConfigBean, installLog, userManager);
+            changed |= handleRecreationOfAuthorizableIfNecessary(session, acConfiguration, authorizableConfigBean, installLog, userManager);
 
             applyGroupMembershipConfigIsMemberOf(installLog, acConfiguration, authorizableConfigBean, userManager, session,
                     authorizablesFromConfigurations);
@@ -197,17 +335,19 @@ public class AuthorizableInstallerServiceImpl implements
                 authorizablesFromConfigurations);
 
         if (StringUtils.isNotBlank(authorizableConfigBean.getMigrateFrom()) && authorizableConfigBean.isGroup()) {
-            migrateFromOldGroup(authorizableConfigBean, userManager, installLog);
+            changed |= migrateFromOldGroup(authorizableConfigBean, userManager, installLog);
         }
 
         if (authorizableConfigBean.getKeys() != null) {
             try {
                 installKeys(authorizableConfigBean.isAppendToKeyStore(), (User)authorizableToInstall,  authorizableConfigBean.getKeys(), authorizableId, decryptionService.decrypt(authorizableConfigBean.getKeyStorePassword()), session, installLog);
+                changed = true;
             } catch (UnsupportedOperationException e) {
                 throw new AuthorizableCreatorException(
                         "Could not decrypt key store password for user " + authorizableConfigBean.getAuthorizableId() + ": " + e.getMessage(), e);
             }
         }
+        return changed || userManager.getGroupMembershipPlan().getCountPlannedChanges() != countPlannedMembershipChangesBefore;
     }
 
     private void installKeys(boolean appendToKeyStore, User user, Map<String, Key> keys, String userId, String keyStorePassword, Session session, InstallationLogger installLog) throws LoginException, SlingIOException, SecurityException, KeyStoreNotInitialisedException, IOException, GeneralSecurityException, UnsupportedRepositoryOperationException, RepositoryException {
@@ -269,7 +409,27 @@ public class AuthorizableInstallerServiceImpl implements
         }
     }
 
-    void setUserPassword(final AuthorizableConfigBean authorizableConfigBean,
+    /** @return true if the password has been changed */
+    boolean setUserPassword(final AuthorizableConfigBean authorizableConfigBean, final User authorizableToInstall,
+            PasswordHashVerifier passwordHashVerifier, InstallationLogger installLog)
+            throws RepositoryException, AuthorizableCreatorException {
+
+        String userId = authorizableToInstall.getID();
+        Boolean isPasswordUnchanged = passwordHashVerifier != null ? passwordHashVerifier.isPasswordUnchanged(userId) : null;
+        if (isPasswordUnchanged == null) {
+            return setUserPassword(authorizableConfigBean, authorizableToInstall, installLog);
+        } else if (isPasswordUnchanged) {
+            installLog.addVerboseMessage(LOG, "Password of user " + userId + " has not changed");
+            return false;
+        } else {
+            authorizableToInstall.changePassword(getPassword(authorizableConfigBean));
+            installLog.addMessage(LOG, "Changed password of user " + userId);
+            return true;
+        }
+    }
+
+    /** @return true if the password has been changed */
+    boolean setUserPassword(final AuthorizableConfigBean authorizableConfigBean,
             final User authorizableToInstall, InstallationLogger installLog) throws RepositoryException, AuthorizableCreatorException {
 
         String userId = authorizableToInstall.getID();
@@ -279,10 +439,12 @@ public class AuthorizableInstallerServiceImpl implements
             sessionForUser = repository.login(new SimpleCredentials(userId, password.toCharArray()));
             LOG.trace("Could obtain session {} for user {}, will not update password", sessionForUser, userId);
             installLog.addVerboseMessage(LOG, "Password of user " + userId + " has not changed");
+            return false;
         } catch (javax.jcr.LoginException e) {
             LOG.trace("User {} could not log in with existing password", userId, e);
             authorizableToInstall.changePassword(password);
             installLog.addMessage(LOG, "Changed password of user " + userId);
+            return true;
         } finally {
             if (sessionForUser != null) {
                 sessionForUser.logout();
@@ -326,7 +488,7 @@ public class AuthorizableInstallerServiceImpl implements
             Set<String> membersToAdd = new HashSet<String>(CollectionUtils.subtract(membersInConfig, relevantMembersInRepo));
             Set<String> membersToRemove = new HashSet<String>(CollectionUtils.subtract(relevantMembersInRepo, membersInConfig));
 
-            Group installedGroup = (Group) userManager.getAuthorizable(authorizableId);
+            GroupMembershipPlan groupMembershipPlan = userManager.getGroupMembershipPlan();
             if (!membersToAdd.isEmpty()) {
                 installLog.addVerboseMessage(LOG,
                         "Adding " + membersToAdd.size() + " external members to group " + authorizableConfigBean.getAuthorizableId());
@@ -337,7 +499,7 @@ public class AuthorizableInstallerServiceImpl implements
                                 "Member " + member + " does not exist and cannot be added as external member to group "
                                         + authorizableConfigBean.getAuthorizableId());
                     }
-                    installedGroup.addMember(memberGroup);
+                    groupMembershipPlan.addMember(authorizableId, memberGroup.getID());
                     installLog.addVerboseMessage(LOG,
                             "Adding " + member + " as external member to group " + authorizableConfigBean.getAuthorizableId());
                 }
@@ -348,8 +510,7 @@ public class AuthorizableInstallerServiceImpl implements
                 installLog.addVerboseMessage(LOG,
                         "Removing " + membersToRemove.size() + " external members from group " + authorizableConfigBean.getAuthorizableId());
                 for (String member : membersToRemove) {
-                    Authorizable memberGroup = userManager.getAuthorizable(member);
-                    installedGroup.removeMember(memberGroup);
+                    groupMembershipPlan.removeMember(authorizableId, member);
                     installLog.addVerboseMessage(LOG,
                             "Removing " + member + " as external member from group " + authorizableConfigBean.getAuthorizableId());
                 }
@@ -389,7 +550,8 @@ public class AuthorizableInstallerServiceImpl implements
     }
 
     
-    private void migrateFromOldGroup(AuthorizableConfigBean authorizableConfigBean, AuthInstallerUserManager userManager,
+    /** @return true if a group has been migrated */
+    private boolean migrateFromOldGroup(AuthorizableConfigBean authorizableConfigBean, AuthInstallerUserManager userManager,
             InstallationLogger installLog) throws RepositoryException {
         Authorizable groupForMigration = userManager.getAuthorizable(authorizableConfigBean.getMigrateFrom());
 
@@ -399,12 +561,12 @@ public class AuthorizableInstallerServiceImpl implements
             installLog.addMessage(LOG, "Group " + authorizableConfigBean.getMigrateFrom()
                     + " does not exist (specified as migrateFrom in group "
                     + authorizableId + ") - no action taken");
-            return;
+            return false;
         }
         if (!groupForMigration.isGroup()) {
             installLog.addWarning(LOG, "Specifying a user in 'migrateFrom' does not make sense (migrateFrom="
                     + authorizableConfigBean.getMigrateFrom() + " in " + authorizableId + ")");
-            return;
+            return false;
         }
 
         installLog.addMessage(LOG, "Migrating from group " + authorizableConfigBean.getMigrateFrom()
@@ -430,10 +592,11 @@ public class AuthorizableInstallerServiceImpl implements
 
         userManager.removeAuthorizable(groupForMigration);
         installLog.addMessage(LOG, "- Deleted group " + authorizableConfigBean.getMigrateFrom());
-
+        return true;
     }
 
-    private void handleRecreationOfAuthorizableIfNecessary(final Session session,
+    /** @return true if the authorizable has been recreated */
+    private boolean handleRecreationOfAuthorizableIfNecessary(final Session session,
             AcConfiguration acConfiguration, 
             AuthorizableConfigBean principalConfigBean,
             InstallationLogger installLog,
@@ -510,8 +673,9 @@ public class AuthorizableInstallerServiceImpl implements
             + (newAuthorizable.isGroup() ? "(retained " + countMovedMembersOfGroup + " members of group)" : ""));
 
             installLog.incCountAuthorizablesMoved();
+            return true;
         }
-
+        return false;
     }
 
     /** Deletes old intermediatePath parent node and all empty parent nodes up to /home/groups or /home/user.
@@ -650,19 +814,16 @@ public class AuthorizableInstallerServiceImpl implements
 
         }
 
-        // perform changes
-
-        Authorizable currentAuthorizable = userManager.getAuthorizable(authorizableId);
+        // plan changes (applied in bulk per group after all authorizables have been processed)
 
+        GroupMembershipPlan groupMembershipPlan = userManager.getGroupMembershipPlan();
         for (String groupId : toBeAddedMembers) {
             LOG.debug("Membership Change: Adding {} to members of group {} in repository", authorizableId, groupId);
-            Authorizable targetAuthorizable = userManager.getAuthorizable(groupId);
-            ((Group) targetAuthorizable).addMember(currentAuthorizable);
+            groupMembershipPlan.addMember(groupId, authorizableId);
         }
         for (String groupId : toBeRemovedMembers) {
             LOG.debug("Membership Change: Removing {} from members of group {} in repository", authorizableId, groupId);
-            Authorizable targetAuthorizable = userManager.getAuthorizable(groupId);
-            ((Group) targetAuthorizable).removeMember(currentAuthorizable);
+            groupMembershipPlan.removeMember(groupId, authorizableId);
         }
 
         if (!toBeAddedMembers.isEmpty() && !toBeRemovedMembers.isEmpty()) {
@@ -717,23 +878,28 @@ public class AuthorizableInstallerServiceImpl implements
         return newGroup;
     }
 
-    void setAuthorizableProperties(Authorizable authorizable, AuthorizableConfigBean principalConfigBean, AuthorizablesConfig authorizablesConfig,
+    /** @return true if any property has been changed (imported content is always considered a change) */
+    boolean setAuthorizableProperties(Authorizable authorizable, AuthorizableConfigBean principalConfigBean, AuthorizablesConfig authorizablesConfig,
             Session session, InstallationLogger installationLog)
             throws RepositoryException {
 
+        boolean changed = false;
         String profileContent = principalConfigBean.getProfileContent();
         if (StringUtils.isNotBlank(profileContent)) {
             ContentHelper.importContent(session, authorizable.getPath() + "/profile", profileContent);
+            changed = true;
         }
 
         String preferencesContent = principalConfigBean.getPreferencesContent();
         if (StringUtils.isNotBlank(preferencesContent)) {
             ContentHelper.importContent(session, authorizable.getPath() + "/preferences", preferencesContent);
+            changed = true;
         }
 
         String socialContent = principalConfigBean.getSocialContent();
         if (StringUtils.isNotBlank(socialContent)) {
             ContentHelper.importContent(session, authorizable.getPath() + "/social", socialContent);
+            changed = true;
         }
 
         ValueFactory vf = session.getValueFactory();
@@ -741,7 +907,7 @@ public class AuthorizableInstallerServiceImpl implements
         String name = principalConfigBean.getName();
         if (StringUtils.isNotBlank(name)) {
             if (authorizable.isGroup()) {
-                authorizable.setProperty("profile/givenName", vf.createValue(name));
+                changed |= setPropertyIfChanged(authorizable, "profile/givenName", name, vf);
             } else {
                 String givenName;
                 String familyName;
@@ -753,30 +919,30 @@ public class AuthorizableInstallerServiceImpl implements
                     givenName = StringUtils.substringBeforeLast(name, " ");
                     familyName = StringUtils.substringAfterLast(name, " ");
                 }
-                authorizable.setProperty("profile/givenName", vf.createValue(givenName));
-                authorizable.setProperty("profile/familyName", vf.createValue(familyName));
+                changed |= setPropertyIfChanged(authorizable, "profile/givenName", givenName, vf);
+                changed |= setPropertyIfChanged(authorizable, "profile/familyName", familyName, vf);
             }
         } else {
             if (StringUtils.isBlank(profileContent)) {
-                authorizable.removeProperty("profile/givenName");
-                authorizable.removeProperty("profile/familyName");
+                changed |= authorizable.removeProperty("profile/givenName");
+                changed |= authorizable.removeProperty("profile/familyName");
             }
         }
 
         String email = principalConfigBean.getEmail();
         if (StringUtils.isNotBlank(email)) {
-            authorizable.setProperty("profile/email", vf.createValue(email));
+            changed |= setPropertyIfChanged(authorizable, "profile/email", email, vf);
         } else {
             if (StringUtils.isBlank(profileContent)) {
-                authorizable.removeProperty("profile/email");
+                changed |= authorizable.removeProperty("profile/email");
             }
         }
         String description = principalConfigBean.getDescription();
         if (StringUtils.isNotBlank(description)) {
-            authorizable.setProperty("profile/aboutMe", vf.createValue(description));
+            changed |= setPropertyIfChanged(authorizable, "profile/aboutMe", description, vf);
         } else {
             if (StringUtils.isBlank(profileContent)) {
-                authorizable.removeProperty("profile/aboutMe");
+                changed |= authorizable.removeProperty("profile/aboutMe");
             }
         }
 
@@ -797,6 +963,7 @@ public class AuthorizableInstallerServiceImpl implements
                 installationLog.addMessage(LOG, "Disabling user " + user.getID() + " with reason: " + disabledReason);
             }
             if(currentlyDisabled || toBeDisabled) {
+                changed |= currentlyDisabled != toBeDisabled || (toBeDisabled && !StringUtils.equals(user.getDisabledReason(), disabledReason));
                 user.disable(disabledReason);
             }
             
@@ -808,8 +975,18 @@ public class AuthorizableInstallerServiceImpl implements
                 throw new IllegalStateException("Property 'impersonationAllowedFor' cannot be set on groups");
             }
             impersonationInstallerService.setupImpersonation((User) authorizable, impersonationAllowedFor, authorizablesConfig, installationLog);
+            changed = true;
         }
+        return changed;
+    }
 
+    private boolean setPropertyIfChanged(Authorizable authorizable, String relPath, String value, ValueFactory vf) throws RepositoryException {
+        Value[] existingValues = authorizable.getProperty(relPath);
+        if (existingValues != null && existingValues.length == 1 && value.equals(existingValues[0].getString())) {
+            return false;
+        }
+        authorizable.setProperty(relPath, vf.createValue(value));
+        return true;
     }
 
     private Authorizable createNewUser(
@@ -855,9 +1032,8 @@ public class AuthorizableInstallerServiceImpl implements
             if (!referencingAuthorizablesToBeChanged.isEmpty()) {
                 LOG.debug("start adding {} to assignedGroups", authorizableId);
                 for (String referencingAuthorizableToBeChangedId : referencingAuthorizablesToBeChanged) {
-                    Group referencingAuthorizableToBeChanged = (Group) userManager.getAuthorizable(referencingAuthorizableToBeChangedId);
-                    referencingAuthorizableToBeChanged.addMember(authorizable);
-                    LOG.debug("added to {} ", referencingAuthorizableToBeChanged);
+                    userManager.getGroupMembershipPlan().addMember(referencingAuthorizableToBeChangedId, authorizable.getID());
+                    LOG.debug("planned adding to {} ", referencingAuthorizableToBeChangedId);
                 }
             }
         }
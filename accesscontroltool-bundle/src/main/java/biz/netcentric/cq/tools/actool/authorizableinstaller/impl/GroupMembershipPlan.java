@@ -0,0 +1,136 @@
+/*
+ * (C) Copyright 2026 Cognizant Netcentric.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package biz.netcentric.cq.tools.actool.authorizableinstaller.impl;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import javax.jcr.RepositoryException;
+
+import org.apache.jackrabbit.api.security.user.Authorizable;
+import org.apache.jackrabbit.api.security.user.Group;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import biz.netcentric.cq.tools.actool.history.InstallationLogger;
+
+/** Collects the membership changes (as computed from the prefetched membership maps of {@link AuthInstallerUserManagerPrefetchingImpl})
+ * for all groups of an installation run and applies them with one {@link Group#removeMembers(String...)} and one
+ * {@link Group#addMembers(String...)} call per group. That way the rep:members of a group is rewritten once per run instead of once per
+ * membership change. The applied changes are also reflected in the prefetched membership maps.
+ *
+ * Group and member IDs are handled case-insensitively in alignment with the prefetching user manager. If a membership is planned to be
+ * both added and removed, the last planned change wins. */
+class GroupMembershipPlan {
+
+    private static final Logger LOG = LoggerFactory.getLogger(GroupMembershipPlan.class);
+
+    private final Map<String, Set<String>> membersToAddByGroupId = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    private final Map<String, Set<String>> membersToRemoveByGroupId = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    private int countPlannedChanges = 0;
+
+    void addMember(String groupId, String memberId) {
+        getMembers(membersToAddByGroupId, groupId).add(memberId);
+        getMembers(membersToRemoveByGroupId, groupId).remove(memberId);
+        countPlannedChanges++;
+    }
+
+    void removeMember(String groupId, String memberId) {
+        getMembers(membersToRemoveByGroupId, groupId).add(memberId);
+        getMembers(membersToAddByGroupId, groupId).remove(memberId);
+        countPlannedChanges++;
+    }
+
+    /** @return the number of changes planned so far in this run (also counting changes that have been applied already or that have been
+     *         overruled by later changes), allows callers to detect whether they planned any change */
+    int getCountPlannedChanges() {
+        return countPlannedChanges;
+    }
+
+    Set<String> getMembersToAdd(String groupId) {
+        return getMembers(membersToAddByGroupId, groupId);
+    }
+
+    Set<String> getMembersToRemove(String groupId) {
+        return getMembers(membersToRemoveByGroupId, groupId);
+    }
+
+    int getCountMembershipChanges() {
+        int count = 0;
+        for (Set<String> members : membersToAddByGroupId.values()) {
+            count += members.size();
+        }
+        for (Set<String> members : membersToRemoveByGroupId.values()) {
+            count += members.size();
+        }
+        return count;
+    }
+
+    /** Applies all planned changes and resets the plan.
+     *
+     * @return the number of groups that have been changed */
+    int apply(AuthInstallerUserManager userManager, InstallationLogger installLog) throws RepositoryException {
+        int countMembershipChanges = getCountMembershipChanges();
+        Set<String> groupIds = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        groupIds.addAll(membersToAddByGroupId.keySet());
+        groupIds.addAll(membersToRemoveByGroupId.keySet());
+
+        int countChangedGroups = 0;
+        for (String groupId : groupIds) {
+            Set<String> membersToRemove = getMembersToRemove(groupId);
+            Set<String> membersToAdd = getMembersToAdd(groupId);
+            if (membersToRemove.isEmpty() && membersToAdd.isEmpty()) {
+                continue;
+            }
+            Authorizable authorizable = userManager.getAuthorizable(groupId);
+            if (!(authorizable instanceof Group)) {
+                installLog.addWarning(LOG, "Group " + groupId + " does not exist anymore, cannot add members " + membersToAdd
+                        + " and remove members " + membersToRemove);
+                continue;
+            }
+            Group group = (Group) authorizable;
+            if (!membersToRemove.isEmpty()) {
+                Set<String> failedIds = group.removeMembers(membersToRemove.toArray(new String[membersToRemove.size()]));
+                logFailedIds(groupId, "remove", failedIds, installLog);
+            }
+            if (!membersToAdd.isEmpty()) {
+                Set<String> failedIds = group.addMembers(membersToAdd.toArray(new String[membersToAdd.size()]));
+                logFailedIds(groupId, "add", failedIds, installLog);
+            }
+            userManager.updateMemberships(groupId, membersToAdd, membersToRemove);
+            countChangedGroups++;
+        }
+        membersToAddByGroupId.clear();
+        membersToRemoveByGroupId.clear();
+
+        if (countMembershipChanges > 0) {
+            installLog.addMessage(LOG, "Applied " + countMembershipChanges + " membership changes to " + countChangedGroups + " groups");
+        }
+        return countChangedGroups;
+    }
+
+    private void logFailedIds(String groupId, String operation, Set<String> failedIds, InstallationLogger installLog) {
+        if (failedIds != null && !failedIds.isEmpty()) {
+            installLog.addVerboseMessage(LOG, "Could not " + operation + " members " + failedIds + " of group " + groupId
+                    + " (already in the requested state or not existing)");
+        }
+    }
+
+    private static Set<String> getMembers(Map<String, Set<String>> membersByGroupId, String groupId) {
+        Set<String> members = membersByGroupId.get(groupId);
+        if (members == null) {
+            members = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+            membersByGroupId.put(groupId, members);
+        }
+        return members;
+    }
+
+}
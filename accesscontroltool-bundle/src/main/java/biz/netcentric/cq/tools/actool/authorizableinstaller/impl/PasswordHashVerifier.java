@@ -0,0 +1,121 @@
+/*
+ * (C) Copyright 2026 Cognizant Netcentric.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package biz.netcentric.cq.tools.actool.authorizableinstaller.impl;
+
+import static biz.netcentric.cq.tools.actool.history.impl.PersistableInstallationLogger.msHumanReadable;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.jcr.Node;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+
+import org.apache.jackrabbit.api.security.user.User;
+import org.apache.jackrabbit.oak.spi.security.user.UserConstants;
+import org.apache.jackrabbit.oak.spi.security.user.util.PasswordUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import biz.netcentric.cq.tools.actool.history.InstallationLogger;
+
+/** Verifies configured passwords against the password hashes (property rep:password) of existing users. In contrast to a repository
+ * login per user, no session has to be created and the (intentionally expensive) hash computations are executed in parallel. */
+class PasswordHashVerifier {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PasswordHashVerifier.class);
+
+    private static final int MAX_THREADS = 4;
+
+    private final Map<String, Boolean> passwordUnchangedByUserId = new ConcurrentHashMap<>();
+
+    /** Reads the password hashes of the given users via the session and verifies the configured passwords against them.
+     *
+     * @param passwordsByUser the configured (decrypted) passwords of existing users
+     * @param session the session to read the password hashes with */
+    void verifyPasswords(Map<User, String> passwordsByUser, Session session, InstallationLogger installLog) {
+        if (passwordsByUser.isEmpty()) {
+            return;
+        }
+        long startTime = System.currentTimeMillis();
+
+        // the session is not thread-safe, hence the hashes are read upfront
+        Map<String, String> passwordHashesByUserId = new LinkedHashMap<>();
+        final Map<String, String> passwordsByUserId = new LinkedHashMap<>();
+        for (Map.Entry<User, String> userWithPassword : passwordsByUser.entrySet()) {
+            try {
+                String userId = userWithPassword.getKey().getID();
+                passwordHashesByUserId.put(userId, readPasswordHash(userWithPassword.getKey(), session));
+                passwordsByUserId.put(userId, userWithPassword.getValue());
+            } catch (RepositoryException e) {
+                // the password is then verified via login
+                LOG.debug("Could not read password hash of user {}: {}", userWithPassword.getKey(), e, e);
+            }
+        }
+
+        int threadCount = Math.min(Math.min(MAX_THREADS, Runtime.getRuntime().availableProcessors()), passwordHashesByUserId.size());
+        if (threadCount <= 1) {
+            for (Map.Entry<String, String> passwordHash : passwordHashesByUserId.entrySet()) {
+                verifyPassword(passwordHash.getKey(), passwordHash.getValue(), passwordsByUserId.get(passwordHash.getKey()));
+            }
+        } else {
+            ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+            try {
+                List<Future<Void>> verifications = new ArrayList<>();
+                for (final Map.Entry<String, String> passwordHash : passwordHashesByUserId.entrySet()) {
+                    verifications.add(executorService.submit(new Callable<Void>() {
+                        @Override
+                        public Void call() {
+                            verifyPassword(passwordHash.getKey(), passwordHash.getValue(), passwordsByUserId.get(passwordHash.getKey()));
+                            return null;
+                        }
+                    }));
+                }
+                for (Future<Void> verification : verifications) {
+                    verification.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while verifying password hashes", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Could not verify password hashes: " + e.getCause(), e.getCause());
+            } finally {
+                executorService.shutdownNow();
+            }
+        }
+
+        installLog.addMessage(LOG, "Verified passwords of " + passwordUnchangedByUserId.size() + " users via password hash using "
+                + Math.max(threadCount, 1) + " threads in " + msHumanReadable(System.currentTimeMillis() - startTime));
+    }
+
+    private void verifyPassword(String userId, String passwordHash, String password) {
+        // users without password hash never have an unchanged password
+        passwordUnchangedByUserId.put(userId, passwordHash != null && PasswordUtil.isSame(passwordHash, password));
+    }
+
+    private String readPasswordHash(User user, Session session) throws RepositoryException {
+        Node userNode = session.getNode(user.getPath());
+        return userNode.hasProperty(UserConstants.REP_PASSWORD) ? userNode.getProperty(UserConstants.REP_PASSWORD).getString() : null;
+    }
+
+    /** @return whether the configured password is equal to the password in the repository or null if it has not been verified for the
+     *         given user */
+    Boolean isPasswordUnchanged(String userId) {
+        return passwordUnchangedByUserId.get(userId);
+    }
+
+}
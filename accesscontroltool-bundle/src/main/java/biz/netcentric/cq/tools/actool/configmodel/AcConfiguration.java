@@ -83,6 +83,19 @@ public class AcConfiguration {
             }
            
         }
+        // principal names are part of the index
+        aceBeansConfig.invalidateIndex();
+    }
+
+    /** Freezes the authorizables and ACE configuration once the configuration is fully merged, this builds the indexes used for lookups
+     * and rejects any further modifications. */
+    public void freeze() {
+        if (authorizablesConfig != null) {
+            authorizablesConfig.freeze();
+        }
+        if (aceBeansConfig != null) {
+            aceBeansConfig.freeze();
+        }
     }
 
     public Set<String> getObsoleteAuthorizables() {
@@ -8,44 +8,57 @@
  */
 package biz.netcentric.cq.tools.actool.configmodel;
 
+import java.util.HashMap;
 import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
 
 import org.apache.commons.lang3.StringUtils;
 
 /** "ace_config" part of the AC Tool configuration (natural ordered set of AceBeans). */
-public class AcesConfig extends LinkedHashSet<AceBean> {
+public class AcesConfig extends IndexedConfigSet<AceBean, AcesConfig.AcesIndex> {
     private static final long serialVersionUID = -153685832563296002L;
 
     public Set<String> getJcrPaths() {
-        Set<String> jcrPathsInAceConfig = new TreeSet<String>();
-        for (AceBean aceBean : this) {
-            String path = aceBean.getJcrPath();
-            jcrPathsInAceConfig.add(path);
-        }
-        return jcrPathsInAceConfig;
+        return new TreeSet<String>(getIndex().jcrPaths);
     }
 
     public Set<AceBean> filterByAuthorizableId(String authId) {
-        Set<AceBean> aclsFiltered = new LinkedHashSet<AceBean>();
-        for (AceBean bean : this) {
-            if (StringUtils.equals(authId, bean.getAuthorizableId())) {
-                aclsFiltered.add(bean);
-            }
-        }
-        return aclsFiltered;
+        return getAcesFromIndex(getIndex().acesByAuthorizableId, authId);
     }
 
     public boolean containsPath(String jcrPath) {
-        boolean result;
-        Set<String> jcrPaths = getJcrPaths();
-        if (StringUtils.isNotBlank(jcrPath)) {
-            result = jcrPaths.contains(jcrPath);
-        } else {
-            // interpret null as empty string for repo permissions (the dump returns an empty string for repo perm.)
-            result = jcrPaths.contains("");
+        // interpret null as empty string for repo permissions (the dump returns an empty string for repo perm.)
+        return getIndex().jcrPaths.contains(StringUtils.isNotBlank(jcrPath) ? jcrPath : "");
+    }
+
+    private Set<AceBean> getAcesFromIndex(Map<String, Set<AceBean>> index, String key) {
+        Set<AceBean> aces = index.get(key);
+        return aces != null ? new LinkedHashSet<AceBean>(aces) : new LinkedHashSet<AceBean>();
+    }
+
+    @Override
+    protected AcesIndex buildIndex() {
+        AcesIndex index = new AcesIndex();
+        for (AceBean aceBean : this) {
+            index.jcrPaths.add(StringUtils.defaultString(aceBean.getJcrPath()));
+            addToIndex(index.acesByAuthorizableId, aceBean.getAuthorizableId(), aceBean);
+        }
+        return index;
+    }
+
+    private static void addToIndex(Map<String, Set<AceBean>> index, String key, AceBean aceBean) {
+        Set<AceBean> aces = index.get(key);
+        if (aces == null) {
+            aces = new LinkedHashSet<AceBean>();
+            index.put(key, aces);
         }
-        return result;
+        aces.add(aceBean);
+    }
+
+    static final class AcesIndex {
+        private final Set<String> jcrPaths = new TreeSet<String>();
+        private final Map<String, Set<AceBean>> acesByAuthorizableId = new HashMap<String, Set<AceBean>>();
     }
 }
@@ -10,73 +10,97 @@ package biz.netcentric.cq.tools.actool.configmodel;
 
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.lang3.StringUtils;
 
+import biz.netcentric.cq.tools.actool.helper.PathPatternMatcher;
+
 /** User and group part of the AC Tool configuration (natural ordered set of AuthorizableConfigBeans). */
-public class AuthorizablesConfig extends LinkedHashSet<AuthorizableConfigBean> {
+public class AuthorizablesConfig extends IndexedConfigSet<AuthorizableConfigBean, AuthorizablesConfig.AuthorizablesIndex> {
     private static final long serialVersionUID = -253685832563496002L;
 
-    private Map<String, AuthorizableConfigBean> configBeansByPrincipalId = new HashMap<>();
-    
-    @Override
-    public boolean add(AuthorizableConfigBean configBean) {
-        AuthorizableConfigBean previous = configBeansByPrincipalId.put(configBean.getPrincipalName(), configBean);
-        assert previous == null;
-        return super.add(configBean);
-    }
-
     public AuthorizableConfigBean getAuthorizableConfig(String authorizableId) {
-        for (AuthorizableConfigBean authorizableConfigBean : this) {
-            if (StringUtils.equals(authorizableConfigBean.getAuthorizableId(), authorizableId)) {
-                return authorizableConfigBean;
-            }
-        }
-        return null;
+        return getIndex().configBeansByAuthorizableId.get(authorizableId);
     }
 
     public Set<String> getAuthorizableIds() {
-        Set<String> authorizableIdsFromConfigurations = new LinkedHashSet<String>();
-        for (AuthorizableConfigBean authorizableConfigBean : this) {
-            authorizableIdsFromConfigurations.add(authorizableConfigBean.getAuthorizableId());
-        }
-        return authorizableIdsFromConfigurations;
+        return new LinkedHashSet<String>(getIndex().configBeansByAuthorizableId.keySet());
     }
 
     public Set<String> getPrincipalNames() {
-        Set<String> principals = new HashSet<String>();
-        for (AuthorizableConfigBean authorizableConfigBean : this) {
-            principals.add(authorizableConfigBean.getPrincipalName());
-        }
-        return principals;
+        return new HashSet<String>(getIndex().configBeansByPrincipalName.keySet());
     }
 
     public String getPrincipalNameForAuthorizableId(String authorizableId) {
-        String principalName = null;
-        for (AuthorizableConfigBean authorizableConfigBean : this) {
-            if (StringUtils.equals(authorizableConfigBean.getAuthorizableId(), authorizableId)) {
-                principalName = authorizableConfigBean.getPrincipalName();
-                break;
-            }
-        }
-        return principalName;
+        AuthorizableConfigBean authorizableConfigBean = getAuthorizableConfig(authorizableId);
+        return authorizableConfigBean != null ? authorizableConfigBean.getPrincipalName() : null;
     }
 
     public Set<String> removeUnmanagedPrincipalNamesAtPath(String path, Set<String> principals, String defaultUnmanagedAcePathsRegex) {
 
-        Set<String> filteredPrincipals = new HashSet<String>();
-        for (String principal : principals) {
-            AuthorizableConfigBean authorizableConfig = configBeansByPrincipalId.get(principal);
-            if (authorizableConfig == null /* happens if migrateFrom is used, #290 */
-                    || authorizableConfig.managesPath(path, defaultUnmanagedAcePathsRegex)) {
-                filteredPrincipals.add(principal);
+        Set<String> filteredPrincipals = new HashSet<String>(principals);
+        if (StringUtils.isNotBlank(path) /* not supporting repository permissions here */) {
+            // principals not contained in config (happens if migrateFrom is used, #290) are never matched
+            filteredPrincipals.removeAll(getUnmanagedAcePathsMatcher(defaultUnmanagedAcePathsRegex).getMatchingValues(path));
+        }
+        return filteredPrincipals;
+    }
+
+    /** The matcher is cached with the index for frozen configurations only, as otherwise the beans may still be changed. */
+    private PathPatternMatcher<String> getUnmanagedAcePathsMatcher(String defaultUnmanagedAcePathsRegex) {
+        if (!isFrozen()) {
+            return createUnmanagedAcePathsMatcher(defaultUnmanagedAcePathsRegex);
+        }
+        Map<String, PathPatternMatcher<String>> matchersByDefaultRegex = getIndex().unmanagedAcePathsMatchersByDefaultRegex;
+        String key = StringUtils.defaultString(defaultUnmanagedAcePathsRegex);
+        PathPatternMatcher<String> matcher = matchersByDefaultRegex.get(key);
+        if (matcher == null) {
+            matcher = createUnmanagedAcePathsMatcher(defaultUnmanagedAcePathsRegex);
+            matchersByDefaultRegex.put(key, matcher);
+        }
+        return matcher;
+    }
+
+    private PathPatternMatcher<String> createUnmanagedAcePathsMatcher(String defaultUnmanagedAcePathsRegex) {
+        Map<String, Set<String>> principalNamesByUnmanagedAcePathsRegex = new LinkedHashMap<String, Set<String>>();
+        for (AuthorizableConfigBean authorizableConfigBean : getIndex().configBeansByPrincipalName.values()) {
+            String effectiveUnmanagedAcePathsRegex = StringUtils.defaultIfEmpty(authorizableConfigBean.getUnmanagedAcePathsRegex(),
+                    defaultUnmanagedAcePathsRegex);
+            if (StringUtils.isBlank(effectiveUnmanagedAcePathsRegex)) {
+                continue;
             }
+            Set<String> principalNames = principalNamesByUnmanagedAcePathsRegex.get(effectiveUnmanagedAcePathsRegex);
+            if (principalNames == null) {
+                principalNames = new HashSet<String>();
+                principalNamesByUnmanagedAcePathsRegex.put(effectiveUnmanagedAcePathsRegex, principalNames);
+            }
+            principalNames.add(authorizableConfigBean.getPrincipalName());
         }
+        return new PathPatternMatcher<String>(principalNamesByUnmanagedAcePathsRegex);
+    }
 
-        return filteredPrincipals;
+    @Override
+    protected AuthorizablesIndex buildIndex() {
+        AuthorizablesIndex index = new AuthorizablesIndex();
+        for (AuthorizableConfigBean authorizableConfigBean : this) {
+            // first bean wins for ids (as for a linear search), last bean wins for principal names
+            if (!index.configBeansByAuthorizableId.containsKey(authorizableConfigBean.getAuthorizableId())) {
+                index.configBeansByAuthorizableId.put(authorizableConfigBean.getAuthorizableId(), authorizableConfigBean);
+            }
+            index.configBeansByPrincipalName.put(authorizableConfigBean.getPrincipalName(), authorizableConfigBean);
+        }
+        return index;
+    }
+
+    static final class AuthorizablesIndex {
+        private final Map<String, AuthorizableConfigBean> configBeansByAuthorizableId = new LinkedHashMap<String, AuthorizableConfigBean>();
+        private final Map<String, AuthorizableConfigBean> configBeansByPrincipalName = new HashMap<String, AuthorizableConfigBean>();
+        private final Map<String, PathPatternMatcher<String>> unmanagedAcePathsMatchersByDefaultRegex = new ConcurrentHashMap<String, PathPatternMatcher<String>>();
     }
 
 }
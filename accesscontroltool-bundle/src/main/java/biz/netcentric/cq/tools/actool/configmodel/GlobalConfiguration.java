@@ -20,6 +20,14 @@ public class GlobalConfiguration {
 
     public static final String KEY_MIN_REQUIRED_VERSION = "minRequiredVersion";
     public static final String KEY_INSTALL_ACLS_INCREMENTALLY = "installAclsIncrementally";
+    public static final String KEY_ACL_INSTALLATION_THREADS = "aclInstallationThreads";
+    public static final String KEY_ACL_INSTALLATION_PARTITION_DEPTH = "aclInstallationPartitionDepth";
+    public static final String KEY_COMMIT_BATCH_SIZE = "commitBatchSize";
+    public static final String KEY_USE_ACL_FINGERPRINTS = "useAclFingerprints";
+    public static final String KEY_VERIFY_PASSWORDS_VIA_HASH = "verifyPasswordsViaHash";
+    public static final String KEY_INSTALL_ACLS_IN_BULK = "installAclsInBulk";
+    public static final String KEY_AUTHORIZABLE_PREFETCH_THREADS = "authorizablePrefetchThreads";
+    public static final String KEY_USE_AUTHORIZABLE_FINGERPRINTS = "useAuthorizableFingerprints";
 
     public static final String KEY_ALLOW_EXTERNAL_GROUP_NAMES_REGEX_OBSOLETE = "allowExternalGroupNamesRegEx";
 
@@ -38,6 +46,14 @@ public class GlobalConfiguration {
 
     private String minRequiredVersion;
     private boolean installAclsIncrementally = true;
+    private Integer aclInstallationThreads = null;
+    private Integer aclInstallationPartitionDepth = null;
+    private Integer commitBatchSize = null;
+    private Boolean useAclFingerprints = null;
+    private Boolean verifyPasswordsViaHash = null;
+    private Boolean installAclsInBulk = null;
+    private Integer authorizablePrefetchThreads = null;
+    private Boolean useAuthorizableFingerprints = null;
 
     private Pattern defaultUnmanagedExternalIsMemberOfRegex;
     private Pattern defaultUnmanagedExternalMembersRegex;
@@ -87,6 +103,31 @@ public class GlobalConfiguration {
             if (globalConfigMap.containsKey(KEY_INSTALL_ACLS_INCREMENTALLY)) {
                 setInstallAclsIncrementally(Boolean.valueOf(globalConfigMap.get(KEY_INSTALL_ACLS_INCREMENTALLY).toString()));
             }
+            if (globalConfigMap.containsKey(KEY_ACL_INSTALLATION_THREADS)) {
+                setAclInstallationThreads(Integer.valueOf(globalConfigMap.get(KEY_ACL_INSTALLATION_THREADS).toString()));
+            }
+            if (globalConfigMap.containsKey(KEY_ACL_INSTALLATION_PARTITION_DEPTH)) {
+                setAclInstallationPartitionDepth(
+                        Integer.valueOf(globalConfigMap.get(KEY_ACL_INSTALLATION_PARTITION_DEPTH).toString()));
+            }
+            if (globalConfigMap.containsKey(KEY_COMMIT_BATCH_SIZE)) {
+                setCommitBatchSize(Integer.valueOf(globalConfigMap.get(KEY_COMMIT_BATCH_SIZE).toString()));
+            }
+            if (globalConfigMap.containsKey(KEY_USE_ACL_FINGERPRINTS)) {
+                setUseAclFingerprints(Boolean.valueOf(globalConfigMap.get(KEY_USE_ACL_FINGERPRINTS).toString()));
+            }
+            if (globalConfigMap.containsKey(KEY_VERIFY_PASSWORDS_VIA_HASH)) {
+                setVerifyPasswordsViaHash(Boolean.valueOf(globalConfigMap.get(KEY_VERIFY_PASSWORDS_VIA_HASH).toString()));
+            }
+            if (globalConfigMap.containsKey(KEY_INSTALL_ACLS_IN_BULK)) {
+                setInstallAclsInBulk(Boolean.valueOf(globalConfigMap.get(KEY_INSTALL_ACLS_IN_BULK).toString()));
+            }
+            if (globalConfigMap.containsKey(KEY_AUTHORIZABLE_PREFETCH_THREADS)) {
+                setAuthorizablePrefetchThreads(Integer.valueOf(globalConfigMap.get(KEY_AUTHORIZABLE_PREFETCH_THREADS).toString()));
+            }
+            if (globalConfigMap.containsKey(KEY_USE_AUTHORIZABLE_FINGERPRINTS)) {
+                setUseAuthorizableFingerprints(Boolean.valueOf(globalConfigMap.get(KEY_USE_AUTHORIZABLE_FINGERPRINTS).toString()));
+            }
 
             if (globalConfigMap.containsKey(KEY_AUTOCREATE_TEST_USERS)) {
                 autoCreateTestUsersConfig = new AutoCreateTestUsersConfig((Map) globalConfigMap.get(KEY_AUTOCREATE_TEST_USERS));
@@ -146,6 +187,66 @@ public class GlobalConfiguration {
             installAclsIncrementally = false;
         }
 
+        if (otherGlobalConfig.aclInstallationThreads != null) {
+            if (aclInstallationThreads == null) {
+                aclInstallationThreads = otherGlobalConfig.aclInstallationThreads;
+            } else {
+                throw new IllegalArgumentException("Duplicate config for " + KEY_ACL_INSTALLATION_THREADS);
+            }
+        }
+
+        if (otherGlobalConfig.aclInstallationPartitionDepth != null) {
+            if (aclInstallationPartitionDepth == null) {
+                aclInstallationPartitionDepth = otherGlobalConfig.aclInstallationPartitionDepth;
+            } else {
+                throw new IllegalArgumentException("Duplicate config for " + KEY_ACL_INSTALLATION_PARTITION_DEPTH);
+            }
+        }
+
+        if (otherGlobalConfig.commitBatchSize != null) {
+            if (commitBatchSize == null) {
+                commitBatchSize = otherGlobalConfig.commitBatchSize;
+            } else {
+                throw new IllegalArgumentException("Duplicate config for " + KEY_COMMIT_BATCH_SIZE);
+            }
+        }
+
+        if (otherGlobalConfig.useAclFingerprints != null) {
+            if (useAclFingerprints == null) {
+                useAclFingerprints = otherGlobalConfig.useAclFingerprints;
+            } else {
+                throw new IllegalArgumentException("Duplicate config for " + KEY_USE_ACL_FINGERPRINTS);
+            }
+        }
+        if (otherGlobalConfig.verifyPasswordsViaHash != null) {
+            if (verifyPasswordsViaHash == null) {
+                verifyPasswordsViaHash = otherGlobalConfig.verifyPasswordsViaHash;
+            } else {
+                throw new IllegalArgumentException("Duplicate config for " + KEY_VERIFY_PASSWORDS_VIA_HASH);
+            }
+        }
+        if (otherGlobalConfig.installAclsInBulk != null) {
+            if (installAclsInBulk == null) {
+                installAclsInBulk = otherGlobalConfig.installAclsInBulk;
+            } else {
+                throw new IllegalArgumentException("Duplicate config for " + KEY_INSTALL_ACLS_IN_BULK);
+            }
+        }
+        if (otherGlobalConfig.authorizablePrefetchThreads != null) {
+            if (authorizablePrefetchThreads == null) {
+                authorizablePrefetchThreads = otherGlobalConfig.authorizablePrefetchThreads;
+            } else {
+                throw new IllegalArgumentException("Duplicate config for " + KEY_AUTHORIZABLE_PREFETCH_THREADS);
+            }
+        }
+        if (otherGlobalConfig.useAuthorizableFingerprints != null) {
+            if (useAuthorizableFingerprints == null) {
+                useAuthorizableFingerprints = otherGlobalConfig.useAuthorizableFingerprints;
+            } else {
+                throw new IllegalArgumentException("Duplicate config for " + KEY_USE_AUTHORIZABLE_FINGERPRINTS);
+            }
+        }
+
 
         if (otherGlobalConfig.getAutoCreateTestUsersConfig() != null) {
             if (autoCreateTestUsersConfig == null) {
@@ -181,6 +282,79 @@ public class GlobalConfiguration {
         this.installAclsIncrementally = installAclsIncrementally;
     }
 
+    /** @return number of threads to install ACLs with (in disjoint subtrees), 1 means sequential installation. Only effective together
+     *         with a commit batch size (as parallel installation is not atomic). */
+    public int getAclInstallationThreads() {
+        return aclInstallationThreads != null ? aclInstallationThreads : 1;
+    }
+
+    public void setAclInstallationThreads(Integer aclInstallationThreads) {
+        this.aclInstallationThreads = aclInstallationThreads;
+    }
+
+    /** @return number of path segments the subtrees for parallel installation of ACLs are partitioned by (e.g. 2 for /content/site) */
+    public int getAclInstallationPartitionDepth() {
+        return aclInstallationPartitionDepth != null ? aclInstallationPartitionDepth : 2;
+    }
+
+    public void setAclInstallationPartitionDepth(Integer aclInstallationPartitionDepth) {
+        if (aclInstallationPartitionDepth != null && aclInstallationPartitionDepth < 1) {
+            throw new IllegalArgumentException(
+                    KEY_ACL_INSTALLATION_PARTITION_DEPTH + " must be at least 1 but was " + aclInstallationPartitionDepth);
+        }
+        this.aclInstallationPartitionDepth = aclInstallationPartitionDepth;
+    }
+
+    /** @return number of changed ACLs/authorizables after which the session is saved, 0 means the session is only saved at the end */
+    public int getCommitBatchSize() {
+        return commitBatchSize != null ? commitBatchSize : 0;
+    }
+
+    public void setCommitBatchSize(Integer commitBatchSize) {
+        this.commitBatchSize = commitBatchSize;
+    }
+
+    public boolean getUseAclFingerprints() {
+        return useAclFingerprints != null && useAclFingerprints;
+    }
+
+    public void setUseAclFingerprints(Boolean useAclFingerprints) {
+        this.useAclFingerprints = useAclFingerprints;
+    }
+
+    public boolean getVerifyPasswordsViaHash() {
+        return verifyPasswordsViaHash != null && verifyPasswordsViaHash;
+    }
+
+    public void setVerifyPasswordsViaHash(Boolean verifyPasswordsViaHash) {
+        this.verifyPasswordsViaHash = verifyPasswordsViaHash;
+    }
+
+    public boolean getInstallAclsInBulk() {
+        return installAclsInBulk != null && installAclsInBulk;
+    }
+
+    public void setInstallAclsInBulk(Boolean installAclsInBulk) {
+        this.installAclsInBulk = installAclsInBulk;
+    }
+
+    /** @return number of threads to prefetch the memberships of groups and system users with, 1 means sequential prefetching */
+    public int getAuthorizablePrefetchThreads() {
+        return authorizablePrefetchThreads != null ? authorizablePrefetchThreads : 1;
+    }
+
+    public void setAuthorizablePrefetchThreads(Integer authorizablePrefetchThreads) {
+        this.authorizablePrefetchThreads = authorizablePrefetchThreads;
+    }
+
+    public boolean getUseAuthorizableFingerprints() {
+        return useAuthorizableFingerprints != null && useAuthorizableFingerprints;
+    }
+
+    public void setUseAuthorizableFingerprints(Boolean useAuthorizableFingerprints) {
+        this.useAuthorizableFingerprints = useAuthorizableFingerprints;
+    }
+
     public Pattern getDefaultUnmanagedExternalIsMemberOfRegex() {
         return defaultUnmanagedExternalIsMemberOfRegex;
     }
@@ -0,0 +1,100 @@
+/*
+ * (C) Copyright 2026 Cognizant Netcentric.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package biz.netcentric.cq.tools.actool.configmodel;
+
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+
+/** Base class for the (natural ordered) sets of the configuration model that provide indexes for lookups.
+ * 
+ * The index is built lazily and dropped on every modification of the set. Once the configuration is fully merged, the set is frozen via
+ * {@link AcConfiguration#freeze()}: the index is built eagerly and further modifications are rejected, this allows to use the index from
+ * multiple threads concurrently. Beans must not be modified in a way that affects the index after they have been added to the set
+ * (otherwise {@link #invalidateIndex()} has to be called).
+ *
+ * @param <T> the bean type
+ * @param <I> the index type */
+abstract class IndexedConfigSet<T, I> extends LinkedHashSet<T> {
+    private static final long serialVersionUID = 1L;
+
+    private transient volatile I index;
+    private boolean frozen = false;
+
+    protected abstract I buildIndex();
+
+    protected I getIndex() {
+        I currentIndex = index;
+        if (currentIndex == null) {
+            currentIndex = buildIndex();
+            index = currentIndex;
+        }
+        return currentIndex;
+    }
+
+    void invalidateIndex() {
+        index = null;
+    }
+
+    void freeze() {
+        frozen = true;
+        index = buildIndex();
+    }
+
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    private void beforeModification() {
+        if (frozen) {
+            throw new UnsupportedOperationException("The configuration is frozen and cannot be modified anymore");
+        }
+        invalidateIndex();
+    }
+
+    @Override
+    public boolean add(T bean) {
+        beforeModification();
+        return super.add(bean);
+    }
+
+    @Override
+    public boolean remove(Object bean) {
+        beforeModification();
+        return super.remove(bean);
+    }
+
+    @Override
+    public void clear() {
+        beforeModification();
+        super.clear();
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        final Iterator<T> iterator = super.iterator();
+        return new Iterator<T>() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public T next() {
+                return iterator.next();
+            }
+
+            @Override
+            public void remove() {
+                beforeModification();
+                iterator.remove();
+            }
+        };
+    }
+
+}
@@ -0,0 +1,121 @@
+/*
+ * (C) Copyright 2026 Cognizant Netcentric.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package biz.netcentric.cq.tools.actool.configreader;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+import biz.netcentric.cq.tools.actool.helper.Constants;
+import biz.netcentric.cq.tools.actool.helper.HashHelper;
+import biz.netcentric.cq.tools.actool.history.impl.PersistableInstallationLogger;
+
+/** In-memory LRU cache of parsed and macro-processed YAML files, keyed by the hash of the file content and the global variables (e.g.
+ * RUNMODES). Only files that are changed since the last execution have to be parsed and macro-processed again.
+ *
+ * Files whose macro processing depends on the repository (loops over "children of" a path) or on values provided by the
+ * ConfigurationAdmin interpolation plugin (environment variables and secrets) are never cached, neither are files containing a
+ * global_config section (as those may define global variables for subsequent files as side effect of the macro processing). The cached structures are shared between
+ * executions and are hence stored as unmodifiable deep copies. The log output of the macro processing is cached along with the structure,
+ * so a cache hit yields the same messages and warnings in the installation log as processing the file again. */
+class MacroProcessedYamlCache {
+
+    static final int MAX_ENTRIES = 1000;
+
+    private static final Pattern REPOSITORY_DEPENDENT_MACRO = Pattern.compile("children +of", Pattern.CASE_INSENSITIVE);
+    private static final String INTERPOLATION_PLACEHOLDER_START = "$[";
+
+    private final Map<String, CachedYaml> macroProcessedYamlByKey = Collections.synchronizedMap(
+            new LinkedHashMap<String, CachedYaml>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CachedYaml> eldest) {
+                    return size() > MAX_ENTRIES;
+                }
+            });
+
+    static boolean isCacheable(String yamlContent, boolean interpolationEnabled) {
+        return !isRepositoryDependent(yamlContent)
+                && !yamlContent.contains(Constants.GLOBAL_CONFIGURATION_KEY)
+                && !(interpolationEnabled && yamlContent.contains(INTERPOLATION_PLACEHOLDER_START));
+    }
+
+    /** @return true if the yaml contains loops over "children of" a path, those are evaluated against the repository */
+    static boolean isRepositoryDependent(String yamlContent) {
+        return REPOSITORY_DEPENDENT_MACRO.matcher(yamlContent).find();
+    }
+
+    static String createKey(String yamlContent, Map<String, Object> globalVariables) {
+        return HashHelper.md5(new TreeMap<>(globalVariables) + "\n" + yamlContent);
+    }
+
+    /** @return the cached yaml (and the log output of its macro processing) or null if not cached */
+    CachedYaml get(String key) {
+        return macroProcessedYamlByKey.get(key);
+    }
+
+    /** Caches an unmodifiable deep copy of the given yaml together with a copy of the log output of its macro processing.
+     * 
+     * @return the cached entry */
+    CachedYaml put(String key, List<Map> macroProcessedYaml, PersistableInstallationLogger macroProcessingLog) {
+        PersistableInstallationLogger logCopy = new PersistableInstallationLogger();
+        logCopy.merge(macroProcessingLog);
+        CachedYaml cachedYaml = new CachedYaml((List<Map>) toUnmodifiable(macroProcessedYaml), logCopy);
+        macroProcessedYamlByKey.put(key, cachedYaml);
+        return cachedYaml;
+    }
+
+    void clear() {
+        macroProcessedYamlByKey.clear();
+    }
+
+    private static Object toUnmodifiable(Object yamlValue) {
+        if (yamlValue instanceof Map) {
+            Map<Object, Object> map = new LinkedHashMap<>();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) yamlValue).entrySet()) {
+                map.put(entry.getKey(), toUnmodifiable(entry.getValue()));
+            }
+            return Collections.unmodifiableMap(map);
+        } else if (yamlValue instanceof List) {
+            List<Object> list = new ArrayList<>();
+            for (Object listValue : (List<?>) yamlValue) {
+                list.add(toUnmodifiable(listValue));
+            }
+            return Collections.unmodifiableList(list);
+        } else {
+            return yamlValue;
+        }
+    }
+
+    static final class CachedYaml {
+        private final List<Map> yamlRootList;
+        private final PersistableInstallationLogger macroProcessingLog;
+
+        private CachedYaml(List<Map> yamlRootList, PersistableInstallationLogger macroProcessingLog) {
+            this.yamlRootList = yamlRootList;
+            this.macroProcessingLog = macroProcessingLog;
+        }
+
+        /** @return the unmodifiable macro-processed yaml */
+        List<Map> getYamlRootList() {
+            return yamlRootList;
+        }
+
+        /** Adds the log output of the macro processing to the given log (the cached log itself remains unchanged). */
+        void replayLog(PersistableInstallationLogger log) {
+            log.merge(macroProcessingLog);
+        }
+    }
+
+}
@@ -17,7 +17,6 @@ import java.util.List;
 import java.util.Set;
 
 import org.apache.commons.lang3.ArrayUtils;
-import org.apache.commons.lang3.StringUtils;
 import org.osgi.service.component.annotations.Component;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -132,21 +131,19 @@ public class VirtualGroupProcessor {
     private void adjustAceBeans(InstallationLogger logger, AcesConfig aceConfig, List<AceBean> aceBeansToBeRemoved,
             List<AceBean> aceBeansToBeAdded, AuthorizableConfigBean virtualAutBean, List<AuthorizableConfigBean> referencingAuthBeans) {
 
-        for (AceBean aceBean : aceConfig) {
+        for (AceBean aceBean : aceConfig.filterByAuthorizableId(virtualAutBean.getAuthorizableId())) {
 
-            if (StringUtils.equals(aceBean.getAuthorizableId(), virtualAutBean.getAuthorizableId())) {
-                logger.addVerboseMessage(LOG,
-                        "ACE at path " + aceBean.getJcrPath() + " for virtual group " + virtualAutBean.getAuthorizableId());
-                aceBeansToBeRemoved.add(aceBean);
+            logger.addVerboseMessage(LOG,
+                    "ACE at path " + aceBean.getJcrPath() + " for virtual group " + virtualAutBean.getAuthorizableId());
+            aceBeansToBeRemoved.add(aceBean);
 
-                for (AuthorizableConfigBean newAuthBeanInAcl : referencingAuthBeans) {
-                    AceBean cloneForAuthConfigBeanUsingIsMemberOf = aceBean.clone();
-                    cloneForAuthConfigBeanUsingIsMemberOf.setAuthorizableId(newAuthBeanInAcl.getAuthorizableId());
-                    aceBeansToBeAdded.add(cloneForAuthConfigBeanUsingIsMemberOf);
-                    logger.addVerboseMessage(LOG, "  Adding clone for authorizable id " + newAuthBeanInAcl.getAuthorizableId()
-                            + " replacing " + aceBean.getAuthorizableId());
+            for (AuthorizableConfigBean newAuthBeanInAcl : referencingAuthBeans) {
+                AceBean cloneForAuthConfigBeanUsingIsMemberOf = aceBean.clone();
+                cloneForAuthConfigBeanUsingIsMemberOf.setAuthorizableId(newAuthBeanInAcl.getAuthorizableId());
+                aceBeansToBeAdded.add(cloneForAuthConfigBeanUsingIsMemberOf);
+                logger.addVerboseMessage(LOG, "  Adding clone for authorizable id " + newAuthBeanInAcl.getAuthorizableId()
+                        + " replacing " + aceBean.getAuthorizableId());
 
-                }
             }
         }
     }
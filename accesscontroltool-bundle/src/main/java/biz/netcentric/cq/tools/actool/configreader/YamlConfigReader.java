@@ -16,7 +16,6 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -117,7 +116,7 @@ public class YamlConfigReader implements ConfigReader {
             final AceBeanValidator aceBeanValidator, Session session, String sourceFile)
             throws RepositoryException, AcConfigBeanValidationException {
 
-        final List<LinkedHashMap> aclList = (List<LinkedHashMap>) getConfigSection(Constants.ACE_CONFIGURATION_KEY, aceConfigData);
+        final List<Map> aclList = (List<Map>) getConfigSection(Constants.ACE_CONFIGURATION_KEY, aceConfigData);
 
         if (aclList == null) {
             LOG.debug("ACL configuration not found in this YAML configuration file");
@@ -134,7 +133,7 @@ public class YamlConfigReader implements ConfigReader {
     public AuthorizablesConfig getGroupConfigurationBeans(final Collection yamlList,
             final AuthorizableValidator authorizableValidator) throws AcConfigBeanValidationException {
 
-        final List<LinkedHashMap> authorizableList = (List<LinkedHashMap>) getConfigSection(Constants.GROUP_CONFIGURATION_KEY, yamlList);
+        final List<Map> authorizableList = (List<Map>) getConfigSection(Constants.GROUP_CONFIGURATION_KEY, yamlList);
 
         if (authorizableList == null) {
             LOG.debug("Group configuration not found in this YAML configuration file");
@@ -149,7 +148,7 @@ public class YamlConfigReader implements ConfigReader {
     public AuthorizablesConfig getUserConfigurationBeans(final Collection yamlList,
             final AuthorizableValidator authorizableValidator) throws AcConfigBeanValidationException {
 
-        List<LinkedHashMap> authorizableList = (List<LinkedHashMap>) getConfigSection(Constants.USER_CONFIGURATION_KEY, yamlList);
+        List<Map> authorizableList = (List<Map>) getConfigSection(Constants.USER_CONFIGURATION_KEY, yamlList);
 
         AuthorizablesConfig authorizableBeans = getAuthorizableBeans(authorizableList, authorizableValidator, false);
         return authorizableBeans;
@@ -187,8 +186,8 @@ public class YamlConfigReader implements ConfigReader {
     }
 
     private Object getConfigSection(final String sectionName, final Collection yamlList) {
-        final List<LinkedHashMap<?, ?>> yamList = new ArrayList<LinkedHashMap<?, ?>>(yamlList);
-        for (final LinkedHashMap<?, ?> currMap : yamList) {
+        final List<Map<?, ?>> yamList = new ArrayList<Map<?, ?>>(yamlList);
+        for (final Map<?, ?> currMap : yamList) {
             Iterator<?> keyIt = currMap.keySet().iterator();
             if (keyIt.hasNext() && sectionName.equals(keyIt.next())) {
                 return currMap.get(sectionName);
@@ -198,7 +197,7 @@ public class YamlConfigReader implements ConfigReader {
     }
 
     private AuthorizablesConfig getAuthorizableBeans(
-            List<LinkedHashMap> yamlMap, final AuthorizableValidator authorizableValidator, boolean isGroupSection)
+            List<Map> yamlMap, final AuthorizableValidator authorizableValidator, boolean isGroupSection)
             throws AcConfigBeanValidationException {
         final Set<String> alreadyProcessedGroups = new HashSet<String>();
         final AuthorizablesConfig authorizableBeans = new AuthorizablesConfig();
@@ -207,7 +206,7 @@ public class YamlConfigReader implements ConfigReader {
             return authorizableBeans;
         }
 
-        for (final LinkedHashMap currentMap : yamlMap) {
+        for (final Map currentMap : yamlMap) {
 
             final String currentAuthorizableIdFromYaml = (String) currentMap.keySet().iterator().next();
 
@@ -242,7 +241,7 @@ public class YamlConfigReader implements ConfigReader {
 
     }
 
-    private AcesConfig getPreservedOrderdAceSet(List<LinkedHashMap> aceYamlList,
+    private AcesConfig getPreservedOrderdAceSet(List<Map> aceYamlList,
             AceBeanValidator aceBeanValidator, Session session, String sourceFile) throws RepositoryException,
             AcConfigBeanValidationException {
 
@@ -19,6 +19,12 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.regex.Pattern;
 
 import javax.jcr.RepositoryException;
@@ -63,6 +69,8 @@ public class YamlConfigurationMerger implements ConfigurationMerger {
 
     public static final String GLOBAL_VAR_RUNMODES = "RUNMODES";
 
+    private static final int MAX_PREPROCESSING_THREADS = 4;
+
     @Reference(policyOption = ReferencePolicyOption.GREEDY)
     YamlMacroProcessor yamlMacroProcessor;
 
@@ -84,6 +92,8 @@ public class YamlConfigurationMerger implements ConfigurationMerger {
     @Reference(cardinality = ReferenceCardinality.OPTIONAL, policyOption = ReferencePolicyOption.GREEDY, target="(config.plugin.id=org.apache.felix.configadmin.plugin.interpolation)")
     ConfigurationPlugin interpolationPlugin;
 
+    private final MacroProcessedYamlCache macroProcessedYamlCache = new MacroProcessedYamlCache();
+
     /** Regular expression which matches against values which should be interpolated, see https://github.com/apache/felix-dev/blob/master/configadmin-plugins/interpolation/README.md */
     public static final Pattern CONFIG_ADMIN_INTERPOLATOR_FORMAT = Pattern.compile(".*\\$\\[(env|secret|prop):[^\\]]*\\].*");
 
@@ -103,19 +113,19 @@ public class YamlConfigurationMerger implements ConfigurationMerger {
                                                                                  // configurations
         final Set<String> obsoleteAuthorizables = new HashSet<String>();
 
-        final Yaml yamlParser;
         if (interpolationPlugin != null) {
-            yamlParser = new Yaml(new YamlConfigurationAdminPluginScalarConstructor(installLog, interpolationPlugin));
-            // bind constructor to certain scalar formats (compare with https://bitbucket.org/asomov/snakeyaml/src/master/src/test/java/org/yaml/snakeyaml/env/EnvVariableTest.java)
-            yamlParser.addImplicitResolver(YamlConfigurationAdminPluginScalarConstructor.TAG, CONFIG_ADMIN_INTERPOLATOR_FORMAT, null);
             installLog.addMessage(LOG, "Using YAML parser with ConfigurationAdmin Plugin placeholder support");
-        } else {
-            yamlParser = new Yaml();
         }
         final ConfigurationsValidator configurationsValidator = new YamlConfigurationsValidator();
 
         Map<String, Object> globalVariables = getGlobalVariablesForYamlMacroProcessing();
-        
+        int countFilesFromCache = 0;
+
+        List<PersistableInstallationLogger> preprocessingLogs = new ArrayList<>();
+        List<Future<PreprocessedConfigFile>> preprocessedConfigFiles = preprocessConfigFiles(configFileContentByFilename,
+                globalVariables, preprocessingLogs, installLog, session);
+
+        int fileIndex = 0;
         for (final Map.Entry<String, String> entry : configFileContentByFilename.entrySet()) {
 
             long configFileStart = System.currentTimeMillis();
@@ -123,19 +133,17 @@ public class YamlConfigurationMerger implements ConfigurationMerger {
             String sourceFile = entry.getKey();
             installLog.addMessage(LOG, "Using configuration file " + sourceFile);
 
-            List<Map> yamlRootList;
-            try {
-                yamlRootList = yamlParser.loadAs(entry.getValue(), List.class);
-                if (yamlRootList == null || yamlRootList.isEmpty()) {
-                    installLog.addMessage(LOG, "   " + sourceFile + " has no instructions");
-                    continue;
-                }
-            } catch (ClassCastException e) {
-                throw new NoListOnTopLevelException("Each yaml file must contain a list on the top level but the yaml at " + sourceFile + " does not.", e);
-            } catch (YAMLException e) {
-                throw new IllegalArgumentException("Invalid yaml source file " + sourceFile + ": "+ e, e);
+            PreprocessedConfigFile preprocessedConfigFile = awaitPreprocessing(preprocessedConfigFiles.get(fileIndex),
+                    preprocessingLogs.get(fileIndex), installLog, sourceFile);
+            fileIndex++;
+            if (preprocessedConfigFile.yamlRootList == null) {
+                installLog.addMessage(LOG, "   " + sourceFile + " has no instructions");
+                continue;
+            }
+            if (preprocessedConfigFile.isFromCache) {
+                countFilesFromCache++;
             }
-            yamlRootList = yamlMacroProcessor.processMacros(yamlRootList, globalVariables, installLog, session);
+            List<Map> yamlRootList = preprocessedConfigFile.yamlRootList;
             // set merged config per file to ensure it is there in case of validation errors (for success, the actual merged config is set
             // after this loop)
             installLog.setMergedAndProcessedConfig("# File " + sourceFile + "\n" + yamlRootList);
@@ -229,15 +237,156 @@ public class YamlConfigurationMerger implements ConfigurationMerger {
 
         externalGroupsInIsMemberOfValidator.validateIsMemberOfConfig(acConfiguration, installLog, globalConfiguration);
 
+        acConfiguration.freeze();
+
         installLog.setMergedAndProcessedConfig(
                 "# Merged configuration of " + configFileContentByFilename.size() + " files \n" + acConfiguration);
 
-        installLog.addMessage(LOG, "Loaded configuration in " + msHumanReadable(System.currentTimeMillis() - wholeConfigStart));
+        installLog.addMessage(LOG, "Loaded configuration in " + msHumanReadable(System.currentTimeMillis() - wholeConfigStart)
+                + (countFilesFromCache > 0 ? " (reused " + countFilesFromCache + " unchanged files from cache)" : ""));
 
         return acConfiguration;
     }
 
 
+    /** Parses and macro-processes the given config files concurrently on a bounded executor. Files with a global_config section (that may
+     * define global variables for subsequent files) and files with loops over "children of" a path (that require the non-thread-safe JCR
+     * session) are processed synchronously in file order, all other files are processed with a copy of the global variables as defined
+     * by the preceding files. The returned futures (and the logs added to preprocessingLogs) are in the order of the given map, so the
+     * result of the subsequent merge is independent of the order in which the files have been processed. */
+    private List<Future<PreprocessedConfigFile>> preprocessConfigFiles(Map<String, String> configFileContentByFilename,
+            Map<String, Object> globalVariables, List<PersistableInstallationLogger> preprocessingLogs,
+            PersistableInstallationLogger installLog, final Session session) {
+
+        int preprocessingThreads = Math.min(Math.min(MAX_PREPROCESSING_THREADS, Runtime.getRuntime().availableProcessors()),
+                configFileContentByFilename.size());
+        ExecutorService executorService = preprocessingThreads > 1 ? Executors.newFixedThreadPool(preprocessingThreads) : null;
+        if (executorService != null) {
+            installLog.addVerboseMessage(LOG, "Parsing and macro-processing " + configFileContentByFilename.size() + " configuration files using "
+                    + preprocessingThreads + " threads");
+        }
+
+        List<Future<PreprocessedConfigFile>> preprocessedConfigFiles = new ArrayList<>();
+        try {
+            for (final Map.Entry<String, String> entry : configFileContentByFilename.entrySet()) {
+                final String sourceFile = entry.getKey();
+                final String yamlContent = entry.getValue();
+                final PersistableInstallationLogger preprocessingLog = new PersistableInstallationLogger();
+                preprocessingLogs.add(preprocessingLog);
+
+                if (executorService == null || requiresSynchronousPreprocessing(yamlContent)) {
+                    // the global variables are passed as is to allow global DEF statements to become visible to subsequent files
+                    CompletableFuture<PreprocessedConfigFile> preprocessedConfigFile = new CompletableFuture<>();
+                    try {
+                        preprocessedConfigFile.complete(preprocessConfigFile(sourceFile, yamlContent, globalVariables, preprocessingLog, session));
+                    } catch (AcConfigBeanValidationException | RuntimeException e) {
+                        // thrown in file order by awaitPreprocessing()
+                        preprocessedConfigFile.completeExceptionally(e);
+                    }
+                    preprocessedConfigFiles.add(preprocessedConfigFile);
+                } else {
+                    final Map<String, Object> globalVariablesOfFile = new HashMap<>(globalVariables);
+                    preprocessedConfigFiles.add(executorService.submit(new Callable<PreprocessedConfigFile>() {
+                        @Override
+                        public PreprocessedConfigFile call() throws Exception {
+                            return preprocessConfigFile(sourceFile, yamlContent, globalVariablesOfFile, preprocessingLog, session);
+                        }
+                    }));
+                }
+            }
+        } finally {
+            if (executorService != null) {
+                // already submitted tasks are completed
+                executorService.shutdown();
+            }
+        }
+        return preprocessedConfigFiles;
+    }
+
+    static boolean requiresSynchronousPreprocessing(String yamlContent) {
+        return yamlContent.contains(Constants.GLOBAL_CONFIGURATION_KEY) || MacroProcessedYamlCache.isRepositoryDependent(yamlContent);
+    }
+
+    private PreprocessedConfigFile preprocessConfigFile(String sourceFile, String yamlContent, Map<String, Object> globalVariables,
+            PersistableInstallationLogger preprocessingLog, Session session) throws AcConfigBeanValidationException {
+
+        boolean isCacheable = MacroProcessedYamlCache.isCacheable(yamlContent, interpolationPlugin != null);
+        String cacheKey = isCacheable ? MacroProcessedYamlCache.createKey(yamlContent, globalVariables) : null;
+        MacroProcessedYamlCache.CachedYaml cachedYaml = isCacheable ? macroProcessedYamlCache.get(cacheKey) : null;
+        if (cachedYaml != null) {
+            cachedYaml.replayLog(preprocessingLog);
+            preprocessingLog.addVerboseMessage(LOG, "Reusing parsed and macro-processed " + sourceFile + " (file content unchanged)");
+            return new PreprocessedConfigFile(cachedYaml.getYamlRootList(), true);
+        }
+
+        List<Map> yamlRootList;
+        try {
+            // Yaml instances are not thread-safe
+            yamlRootList = createYamlParser(preprocessingLog).loadAs(yamlContent, List.class);
+            if (yamlRootList == null || yamlRootList.isEmpty()) {
+                return new PreprocessedConfigFile(null, false);
+            }
+        } catch (ClassCastException e) {
+            throw new NoListOnTopLevelException("Each yaml file must contain a list on the top level but the yaml at " + sourceFile + " does not.", e);
+        } catch (YAMLException e) {
+            throw new IllegalArgumentException("Invalid yaml source file " + sourceFile + ": "+ e, e);
+        }
+        yamlRootList = yamlMacroProcessor.processMacros(yamlRootList, globalVariables, preprocessingLog, session);
+        if (isCacheable) {
+            // continue with the cached copy to process the same (unmodifiable) structure as with a cache hit
+            yamlRootList = macroProcessedYamlCache.put(cacheKey, yamlRootList, preprocessingLog).getYamlRootList();
+        }
+        return new PreprocessedConfigFile(yamlRootList, false);
+    }
+
+    private Yaml createYamlParser(InstallationLogger installLog) {
+        if (interpolationPlugin != null) {
+            Yaml yamlParser = new Yaml(new YamlConfigurationAdminPluginScalarConstructor(installLog, interpolationPlugin));
+            // bind constructor to certain scalar formats (compare with https://bitbucket.org/asomov/snakeyaml/src/master/src/test/java/org/yaml/snakeyaml/env/EnvVariableTest.java)
+            yamlParser.addImplicitResolver(YamlConfigurationAdminPluginScalarConstructor.TAG, CONFIG_ADMIN_INTERPOLATOR_FORMAT, null);
+            return yamlParser;
+        } else {
+            return new Yaml();
+        }
+    }
+
+    /** Waits for the preprocessing of the given file and adds its log to the installation log, errors are rethrown as if the file had
+     * been processed synchronously. */
+    private PreprocessedConfigFile awaitPreprocessing(Future<PreprocessedConfigFile> preprocessedConfigFile,
+            PersistableInstallationLogger preprocessingLog, PersistableInstallationLogger installLog, String sourceFile)
+            throws AcConfigBeanValidationException {
+        try {
+            PreprocessedConfigFile result = preprocessedConfigFile.get();
+            installLog.merge(preprocessingLog);
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for parsing of " + sourceFile, e);
+        } catch (ExecutionException e) {
+            installLog.merge(preprocessingLog);
+            Throwable cause = e.getCause();
+            if (cause instanceof AcConfigBeanValidationException) {
+                throw (AcConfigBeanValidationException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            } else {
+                throw new IllegalStateException("Could not parse " + sourceFile + ": " + cause, cause);
+            }
+        }
+    }
+
+    private static final class PreprocessedConfigFile {
+        private final List<Map> yamlRootList;
+        private final boolean isFromCache;
+
+        private PreprocessedConfigFile(List<Map> yamlRootList, boolean isFromCache) {
+            this.yamlRootList = yamlRootList;
+            this.isFromCache = isFromCache;
+        }
+    }
+
     private Map<String, Object> getGlobalVariablesForYamlMacroProcessing() {
         Map<String, Object> globalVariables = new HashMap<>();
         if(slingSettingsService != null) {
@@ -14,6 +14,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -36,75 +37,88 @@ import org.apache.el.ExpressionFactoryImpl;
 
 /** Evaluates expressions that may contain variables from for loops.
  * 
- * Not an OSGi Service as it carries state and is not multi-threading safe.
+ * Compiled expressions are cached by expression text. Variables are not bound when compiling an expression but resolved via the
+ * {@link BaseELResolver} from the context of the particular call, hence an instance can be used by multiple threads concurrently.
  * 
  * @author ghenzler */
 public class YamlMacroElEvaluator {
 
-    private ExpressionFactory expressionFactory;
-    private ELContext context;
+    static final int MAX_CACHED_EXPRESSIONS = 5000;
 
-    private Map<? extends Object, ? extends Object> vars = new HashMap<Object, Object>();
+    private static final String VAR_ENV = "env";
+
+    private final ExpressionFactory expressionFactory;
+    private final FunctionMapper functionMapper;
+    private final CompositeELResolver compositeELResolver;
+
+    private final Map<String, ValueExpression> compiledExpressions = Collections.synchronizedMap(
+            new LinkedHashMap<String, ValueExpression>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, ValueExpression> eldest) {
+                    return size() > MAX_CACHED_EXPRESSIONS;
+                }
+            });
 
     public YamlMacroElEvaluator() {
 
         expressionFactory = new ExpressionFactoryImpl();
         
-        final VariableMapper variableMapper = new ElVariableMapper();
-        final ElFunctionMapper functionMapper = new ElFunctionMapper();
-        final CompositeELResolver compositeELResolver = new CompositeELResolver();
+        functionMapper = new ElFunctionMapper();
+        compositeELResolver = new CompositeELResolver();
 
         compositeELResolver.add(new BaseELResolver());
         compositeELResolver.add(new ArrayELResolver());
         compositeELResolver.add(new ListELResolver());
         compositeELResolver.add(new BeanELResolver());
         compositeELResolver.add(new MapELResolver());
-        context = new ELContext() {
-            @Override
-            public ELResolver getELResolver() {
-                return compositeELResolver;
-            }
-
-            @Override
-            public FunctionMapper getFunctionMapper() {
-                return functionMapper;
-            }
-
-            @Override
-            public VariableMapper getVariableMapper() {
-                return variableMapper;
-            }
-
-            @Override
-            public Object convertToType(Object obj, Class<?> type) {
-                if(obj == null) {
-                    return null;
-                }
-                if(type == null) {
-                    return obj;
-                }
-                if(type.equals(String.class)) {
-                    return String.valueOf(obj);
-                }
-                if(type.isAssignableFrom(obj.getClass())) {
-                    return obj;
-                } else {
-                    // no special conversions supported
-                    throw new IllegalStateException("Cannot convert "+obj.getClass() +" to " + type + " (object: "+obj+")");
-                }
-            }
-        };
     }
 
     public <T> T evaluateEl(String el, Class<T> expectedResultType, Map<? extends Object, ? extends Object> variables) {
-        
-        vars = variables;
-        
-        ValueExpression expression = expressionFactory.createValueExpression(context, el, expectedResultType);
+
+        if (!isExpression(el)) {
+            // literal text, EL evaluation would only convert it to the expected type
+            return (T) convertToType(el, expectedResultType);
+        }
+
+        ELContext context = new YamlMacroElContext(variables);
+        String cacheKey = expectedResultType + ":" + el;
+        ValueExpression expression = compiledExpressions.get(cacheKey);
+        if (expression == null) {
+            expression = expressionFactory.createValueExpression(context, el, expectedResultType);
+            compiledExpressions.put(cacheKey, expression);
+        }
         T value = (T) expression.getValue(context);
         return value;
     }
 
+    static boolean isExpression(String el) {
+        return StringUtils.contains(el, "${") || StringUtils.contains(el, "#{");
+    }
+
+    static Object convertToType(Object obj, Class<?> type) {
+        if(obj == null) {
+            return null;
+        }
+        if(type == null) {
+            return obj;
+        }
+        if(type.equals(String.class)) {
+            return String.valueOf(obj);
+        }
+        if(type.isAssignableFrom(obj.getClass())) {
+            return obj;
+        } else {
+            // no special conversions supported
+            throw new IllegalStateException("Cannot convert "+obj.getClass() +" to " + type + " (object: "+obj+")");
+        }
+    }
+
+    private static Map<? extends Object, ? extends Object> getVariables(ELContext context) {
+        return (Map<? extends Object, ? extends Object>) context.getContext(YamlMacroElContext.class);
+    }
+
     public static class ElFunctionMapper extends FunctionMapper {
 
         private Map<String, Method> functionMap = new HashMap<String, Method>();
@@ -181,22 +195,34 @@ public class YamlMacroElEvaluator {
         }
     }
 
-    class ElVariableMapper extends VariableMapper {
+    /** Context of a single evaluation, carries the variables (the context is not thread-safe and is hence created per call). */
+    class YamlMacroElContext extends ELContext {
+
+        YamlMacroElContext(Map<? extends Object, ? extends Object> variables) {
+            // the context objects are also available to the ELResolvers via the EvaluationContext wrapping this context
+            putContext(YamlMacroElContext.class, variables != null ? variables : Collections.emptyMap());
+        }
 
         @Override
-        public ValueExpression resolveVariable(String paramString) {
-            Object value = vars.get(paramString);
-            if (value == null && paramString.equals("env")) {
-                value = System.getenv();
-            }
-            return value != null ? expressionFactory.createValueExpression(value, value.getClass()) : null;
+        public ELResolver getELResolver() {
+            return compositeELResolver;
         }
 
         @Override
-        public ValueExpression setVariable(String paramString, ValueExpression paramValueExpression) {
-            throw new UnsupportedOperationException();
+        public FunctionMapper getFunctionMapper() {
+            return functionMapper;
         }
 
+        @Override
+        public VariableMapper getVariableMapper() {
+            // variables are resolved at evaluation time by BaseELResolver to allow caching compiled expressions
+            return null;
+        }
+
+        @Override
+        public Object convertToType(Object obj, Class<?> type) {
+            return YamlMacroElEvaluator.convertToType(obj, type);
+        }
     }
 
     /** extra base resolver needed to allow to put maps on root level, see
@@ -211,6 +237,11 @@ public class YamlMacroElEvaluator {
         @Override
         public Object getValue(ELContext context, Object base, Object property) {
             if (base == null) {
+                Map<? extends Object, ? extends Object> vars = getVariables(context);
+                if (VAR_ENV.equals(property) && vars.get(property) == null) {
+                    context.setPropertyResolved(null, property);
+                    return System.getenv();
+                }
                 base = vars;
             }
             return delegate.getValue(context, base, property);
@@ -219,7 +250,7 @@ public class YamlMacroElEvaluator {
         @Override
         public Class<?> getCommonPropertyType(ELContext context, Object base) {
             if (base == null) {
-                base = vars;
+                base = getVariables(context);
             }
             return delegate.getCommonPropertyType(context, base);
         }
@@ -228,7 +259,7 @@ public class YamlMacroElEvaluator {
         public Iterator<FeatureDescriptor> getFeatureDescriptors(ELContext context,
                 Object base) {
             if (base == null) {
-                base = vars;
+                base = getVariables(context);
             }
             return delegate.getFeatureDescriptors(context, base);
         }
@@ -236,7 +267,7 @@ public class YamlMacroElEvaluator {
         @Override
         public Class<?> getType(ELContext context, Object base, Object property) {
             if (base == null) {
-                base = vars;
+                base = getVariables(context);
             }
             return delegate.getType(context, base, property);
         }
@@ -244,7 +275,7 @@ public class YamlMacroElEvaluator {
         @Override
         public boolean isReadOnly(ELContext context, Object base, Object property) {
             if (base == null) {
-                base = vars;
+                base = getVariables(context);
             }
             return delegate.isReadOnly(context, base, property);
         }
@@ -252,7 +283,7 @@ public class YamlMacroElEvaluator {
         @Override
         public void setValue(ELContext context, Object base, Object property, Object value) {
             if (base == null) {
-                base = vars;
+                base = getVariables(context);
             }
             delegate.setValue(context, base, property, value);
         }
@@ -53,6 +53,7 @@ public class YamlMacroProcessorImpl implements YamlMacroProcessor {
 
     static final String COMMA_SEPARATED_LIST_SPLITTER = "\\s*,\\s*";
 
+    // thread-safe, config files may be processed concurrently
     YamlMacroElEvaluator elEvaluator = new YamlMacroElEvaluator();
 
     @Reference(policyOption = ReferencePolicyOption.GREEDY)
@@ -19,6 +19,7 @@ import javax.jcr.UnsupportedRepositoryOperationException;
 
 import biz.netcentric.cq.tools.actool.configmodel.AuthorizableConfigBean;
 import biz.netcentric.cq.tools.actool.helper.AclBean;
+import biz.netcentric.cq.tools.actool.helper.QueryCapabilities;
 
 public interface ConfigDumpService {
 
@@ -47,6 +48,26 @@ public interface ConfigDumpService {
     public AceDumpData createAclDumpMap(int keyOrder, int aclOrdering,
             List<String> excludePaths, boolean isIncludeUsers, Session session) throws RepositoryException;
 
+    /** same as {@link #createAclDumpMap(int, int, List, boolean, Session)} but reuses the given query capabilities (as probed once at the
+     * beginning of an installation) instead of probing the query indexes again
+     *
+     * @param queryCapabilities the query capabilities of the repository
+     * @return AceDumpData */
+    public AceDumpData createAclDumpMap(int keyOrder, int aclOrdering,
+            List<String> excludePaths, boolean isIncludeUsers, QueryCapabilities queryCapabilities, Session session)
+            throws RepositoryException;
+
+    /** returns a path based map of the ACEs of the given principals only, the ACLs are looked up by querying for the principal names
+     * (instead of retrieving all ACLs of the repository)
+     *
+     * @param aclOrdering specifies whether the allow and deny ACEs within an ACL should be divided in separate blocks (first deny then
+     *            allow)
+     * @param principalNames the principal names to include in the dump
+     * @param session a JCR session
+     * @return AceDumpData */
+    public AceDumpData createAclDumpMapForPrincipals(int aclOrdering, Set<String> principalNames, Session session)
+            throws RepositoryException;
+
     /** method that return a dump comprising of all groups and all aces in path based view
      *
      * @return a string comprising the dump information */
@@ -79,6 +79,7 @@ import biz.netcentric.cq.tools.actool.helper.AccessControlUtils;
 import biz.netcentric.cq.tools.actool.helper.AceWrapper;
 import biz.netcentric.cq.tools.actool.helper.AclBean;
 import biz.netcentric.cq.tools.actool.helper.Constants;
+import biz.netcentric.cq.tools.actool.helper.QueryCapabilities;
 import biz.netcentric.cq.tools.actool.helper.QueryHelper;
 import biz.netcentric.cq.tools.actool.history.impl.HistoryUtils;
 
@@ -103,6 +104,7 @@ public class DumpServiceImpl implements ConfigDumpService {
     static final String DUMP_INCLUDE_USERS = "DumpService.includeUsers";
 
     private String[] queryExcludePaths;
+    private String[] queryShardedPaths;
     private int nrOfSavedDumps;
     private boolean includeUsersInDumps = false;
 
@@ -121,11 +123,15 @@ public class DumpServiceImpl implements ConfigDumpService {
         
         @AttributeDefinition(name="AC query exclude paths", description="direct children of jcr:root which get excluded from all dumps (also from internal dumps)")
         String[] DumpService_queryExcludePaths() default {"/home", "/jcr:system", "/tmp"};
+
+        @AttributeDefinition(name="AC query sharded paths", description="direct children of jcr:root which are queried per child node (instead of using one query for the whole subtree), the queries for all subtrees run concurrently")
+        String[] DumpService_queryShardedPaths() default {"/content"};
     }
     
     @Activate
     public void activate(Configuration configuration) throws Exception {
         queryExcludePaths = configuration.DumpService_queryExcludePaths();
+        queryShardedPaths = configuration.DumpService_queryShardedPaths();
         nrOfSavedDumps = configuration.DumpService_nrOfSavedDumps();
         includeUsersInDumps = configuration.DumpService_includeUsers();
     }
@@ -345,9 +351,17 @@ public class DumpServiceImpl implements ConfigDumpService {
     @Override
     public Set<AclBean> getACLDumpBeans(final Session session)
             throws RepositoryException {
+        return getACLDumpBeans(session, QueryCapabilities.probe(session));
+    }
 
+    private Set<AclBean> getACLDumpBeans(final Session session, QueryCapabilities queryCapabilities) {
         List<String> excludeNodesList = Arrays.asList(queryExcludePaths);
-        Set<String> resultPaths = QueryHelper.getRepPolicyNodePaths(session, excludeNodesList);
+        Set<String> resultPaths = QueryHelper.getRepPolicyNodePaths(session, excludeNodesList,
+                new HashSet<String>(Arrays.asList(queryShardedPaths)), repository, queryCapabilities);
+        return getAclBeans(resultPaths, session);
+    }
+
+    private Set<AclBean> getAclBeans(Set<String> resultPaths, final Session session) {
         Set<AclBean> accessControBeanSet = new LinkedHashSet<AclBean>();
 
         // assemble big query result set using the query results of the child
@@ -399,14 +413,31 @@ public class DumpServiceImpl implements ConfigDumpService {
     @Override
     public AceDumpData createAclDumpMap(final int keyOrder, final int aclOrdering,
             final List<String> excludePaths, final boolean isIncludeUsers, Session session) throws RepositoryException {
+        return createAclDumpMap(keyOrder, aclOrdering, excludePaths, isIncludeUsers, QueryCapabilities.probe(session), session);
+    }
+
+    @Override
+    public AceDumpData createAclDumpMap(final int keyOrder, final int aclOrdering, final List<String> excludePaths,
+            final boolean isIncludeUsers, QueryCapabilities queryCapabilities, Session session) throws RepositoryException {
+        return createAclDumpMap(keyOrder, aclOrdering, isIncludeUsers, getACLDumpBeans(session, queryCapabilities), null, session);
+    }
+
+    @Override
+    public AceDumpData createAclDumpMapForPrincipals(final int aclOrdering, final Set<String> principalNames, Session session)
+            throws RepositoryException {
+        Set<String> resultPaths = QueryHelper.getRepPolicyNodePathsForPrincipals(session, Arrays.asList(queryExcludePaths),
+                principalNames);
+        return createAclDumpMap(AcHelper.PATH_BASED_ORDER, aclOrdering, true, getAclBeans(resultPaths, session), principalNames, session);
+    }
+
+    private AceDumpData createAclDumpMap(final int keyOrder, final int aclOrdering, final boolean isIncludeUsers,
+            Set<AclBean> aclBeanSet, Set<String> principalNamesFilter, Session session) throws RepositoryException {
 
         AceDumpData aceDumpData = new AceDumpData();
         UserManager um = ((JackrabbitSession) session).getUserManager();
         Map<String, Set<AceBean>> aceMap = new TreeMap<String, Set<AceBean>>();
         Map<String, Set<AceBean>> legacyAceMap = new TreeMap<String, Set<AceBean>>();
 
-        Set<AclBean> aclBeanSet = getACLDumpBeans(session);
-
         // build a set containing all ACE found in the original order
         for (AclBean aclBean : aclBeanSet) {
 
@@ -432,6 +463,10 @@ public class DumpServiceImpl implements ConfigDumpService {
                     }
                 }
 
+                if (principalNamesFilter != null && !principalNamesFilter.contains(tmpAceBean.getPrincipalName())) {
+                    continue;
+                }
+
                 Authorizable authorizable = um.getAuthorizable(new PrincipalImpl(tmpAceBean.getPrincipalName()));
 
                 // if this group exists under home
@@ -0,0 +1,123 @@
+/*
+ * (C) Copyright 2026 Cognizant Netcentric.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package biz.netcentric.cq.tools.actool.helper;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import biz.netcentric.cq.tools.actool.history.InstallationLogger;
+
+/** Saves a session after a configurable number of processed items (ACLs or authorizables) to limit the size of the transient space and
+ * of the resulting commits. Every persisted batch is recorded in the installation log, so a failed run shows which items have been
+ * persisted already.
+ *
+ * An item is only counted towards the current batch if the caller reports it as changed (the pending changes of the session cannot tell
+ * as they include the changes of all previous items of the batch). A batch size of 0 (or less) disables batching, the session is then
+ * only saved by the caller at the end of the installation.
+ *
+ * Callers that defer changes of the processed items (e.g. to write them in bulk) register a {@link BeforeCommitHook} to write those
+ * changes to the session before a batch is saved, otherwise a persisted batch would be incomplete if the installation fails later on. */
+public class CommitBatcher {
+
+    /** Called before a batch is saved. */
+    public interface BeforeCommitHook {
+
+        /** Writes deferred changes of the items of the current batch to the session.
+         *
+         * @throws RepositoryException if the changes cannot be written */
+        void beforeCommit() throws RepositoryException;
+    }
+
+    private static final Logger LOG = LoggerFactory.getLogger(CommitBatcher.class);
+
+    private final Session session;
+    private final int batchSize;
+    private final String itemType;
+    private final InstallationLogger installLog;
+
+    private final List<String> currentBatch = new ArrayList<>();
+    private BeforeCommitHook beforeCommitHook;
+    private int countBatchesPersisted = 0;
+    private int countItemsPersisted = 0;
+
+    public CommitBatcher(Session session, int batchSize, String itemType, InstallationLogger installLog) {
+        this.session = session;
+        this.batchSize = batchSize;
+        this.itemType = itemType;
+        this.installLog = installLog;
+    }
+
+    public boolean isEnabled() {
+        return batchSize > 0;
+    }
+
+    public void setBeforeCommitHook(BeforeCommitHook beforeCommitHook) {
+        this.beforeCommitHook = beforeCommitHook;
+    }
+
+    /** To be called after each processed item, saves the session once the batch size is reached.
+     *
+     * @param item the path or id of the processed item
+     * @param changed whether processing the item has changed the session
+     * @throws RepositoryException if the session cannot be saved */
+    public void itemProcessed(String item, boolean changed) throws RepositoryException {
+        if (!isEnabled() || !changed) {
+            return;
+        }
+        currentBatch.add(item);
+        if (currentBatch.size() >= batchSize) {
+            commit();
+        }
+    }
+
+    /** Saves the current batch (if there are pending changes), deferred changes are written via the {@link BeforeCommitHook} first.
+     *
+     * @throws RepositoryException if the session cannot be saved */
+    public void commit() throws RepositoryException {
+        if (beforeCommitHook != null) {
+            beforeCommitHook.beforeCommit();
+        }
+        if (!session.hasPendingChanges()) {
+            currentBatch.clear();
+            return;
+        }
+        session.save();
+        countBatchesPersisted++;
+        countItemsPersisted += currentBatch.size();
+        if (!currentBatch.isEmpty()) {
+            installLog.addMessage(LOG, "Persisted batch " + countBatchesPersisted + " with " + currentBatch.size() + " " + itemType
+                    + " (" + currentBatch.get(0) + " ... " + currentBatch.get(currentBatch.size() - 1) + ")");
+            installLog.addVerboseMessage(LOG, "Batch " + countBatchesPersisted + " contained " + itemType + ": " + currentBatch);
+        } else {
+            installLog.addMessage(LOG, "Persisted batch " + countBatchesPersisted + " with pending changes of the session");
+        }
+        currentBatch.clear();
+    }
+
+    /** Adds a summary of the batches persisted so far to the installation log, to be called if the installation failed. */
+    public void logPersistedBatchesOnFailure() {
+        if (!isEnabled()) {
+            return;
+        }
+        installLog.addWarning(LOG, countBatchesPersisted + " batches with " + countItemsPersisted + " " + itemType
+                + " have been persisted before the failure, pending changes of " + currentBatch.size() + " " + itemType
+                + " have not been persisted" + (!currentBatch.isEmpty() ? " (starting at " + currentBatch.get(0) + ")" : ""));
+    }
+
+    public int getCountBatchesPersisted() {
+        return countBatchesPersisted;
+    }
+
+}
@@ -0,0 +1,153 @@
+/*
+ * (C) Copyright 2026 Cognizant Netcentric.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package biz.netcentric.cq.tools.actool.helper;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import org.apache.commons.lang3.StringUtils;
+
+/** Matches paths against a set of regular expressions (with {@link String#matches(String)} semantics) that are compiled once, every
+ * expression is associated with values (e.g. principal names) that are returned for matching paths.
+ *
+ * Expressions without regex meta characters are matched as exact paths and expressions of the form {@code literal.*} are matched via a
+ * literal prefix trie, hence for those no regex is evaluated at all. All other expressions are additionally combined into one
+ * alternation pattern, so for a path matching none of them only one regex is evaluated. Instances are immutable and thread-safe. */
+public final class PathPatternMatcher<T> {
+
+    private static final String REGEX_META_CHARS = "\\^$.|?*+()[]{}";
+    private static final String ANY_SUFFIX = ".*";
+    private static final Pattern BACK_REFERENCE = Pattern.compile("\\\\([1-9]|k<)");
+
+    private final Map<String, Set<T>> valuesByExactPath = new HashMap<>();
+    private final PrefixTrieNode<T> prefixTrieRoot = new PrefixTrieNode<>();
+    private final Map<Pattern, Set<T>> valuesByPattern = new LinkedHashMap<>();
+    private final Pattern combinedPattern;
+
+    /** @param valuesByRegex the values to return for paths matching the respective regex */
+    public PathPatternMatcher(Map<String, ? extends Collection<T>> valuesByRegex) {
+        Map<String, Set<T>> valuesByRemainingRegex = new LinkedHashMap<>();
+        for (Map.Entry<String, ? extends Collection<T>> regexWithValues : valuesByRegex.entrySet()) {
+            String regex = StringUtils.removeEnd(StringUtils.removeStart(regexWithValues.getKey(), "^"), "$");
+            Collection<T> values = regexWithValues.getValue();
+            if (isLiteral(regex)) {
+                getOrCreate(valuesByExactPath, regex).addAll(values);
+            } else if (regex.endsWith(ANY_SUFFIX) && isLiteral(StringUtils.removeEnd(regex, ANY_SUFFIX))) {
+                prefixTrieRoot.getOrCreate(StringUtils.removeEnd(regex, ANY_SUFFIX)).values.addAll(values);
+            } else {
+                getOrCreate(valuesByRemainingRegex, regexWithValues.getKey()).addAll(values);
+            }
+        }
+
+        boolean isCombinable = true;
+        StringBuilder combinedRegex = new StringBuilder();
+        for (Map.Entry<String, Set<T>> regexWithValues : valuesByRemainingRegex.entrySet()) {
+            String regex = regexWithValues.getKey();
+            valuesByPattern.put(Pattern.compile(regex), regexWithValues.getValue());
+            // group numbers change in the combined pattern
+            isCombinable &= !BACK_REFERENCE.matcher(regex).find();
+            combinedRegex.append(combinedRegex.length() > 0 ? "|" : "").append("(?:").append(regex).append(")");
+        }
+        combinedPattern = isCombinable && valuesByPattern.size() > 1 ? Pattern.compile(combinedRegex.toString()) : null;
+    }
+
+    /** @param path the path to match
+     * @return the values of all expressions matching the given path */
+    public Set<T> getMatchingValues(String path) {
+        Set<T> matchingValues = new HashSet<>();
+        Set<T> exactPathValues = valuesByExactPath.get(path);
+        if (exactPathValues != null) {
+            matchingValues.addAll(exactPathValues);
+        }
+        prefixTrieRoot.collectValues(path, matchingValues);
+        if (combinedPattern == null || combinedPattern.matcher(path).matches()) {
+            for (Map.Entry<Pattern, Set<T>> patternWithValues : valuesByPattern.entrySet()) {
+                if (patternWithValues.getKey().matcher(path).matches()) {
+                    matchingValues.addAll(patternWithValues.getValue());
+                }
+            }
+        }
+        return matchingValues;
+    }
+
+    /** @param path the path to match
+     * @return true if at least one of the expressions matches the given path */
+    public boolean matchesAny(String path) {
+        if (valuesByExactPath.containsKey(path) || prefixTrieRoot.hasPrefixOf(path)) {
+            return true;
+        }
+        if (combinedPattern != null) {
+            return combinedPattern.matcher(path).matches();
+        }
+        for (Pattern pattern : valuesByPattern.keySet()) {
+            if (pattern.matcher(path).matches()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isLiteral(String regex) {
+        return !StringUtils.containsAny(regex, REGEX_META_CHARS);
+    }
+
+    private static <T> Set<T> getOrCreate(Map<String, Set<T>> valuesByKey, String key) {
+        Set<T> values = valuesByKey.get(key);
+        if (values == null) {
+            values = new HashSet<>();
+            valuesByKey.put(key, values);
+        }
+        return values;
+    }
+
+    private static final class PrefixTrieNode<T> {
+        private final Map<Character, PrefixTrieNode<T>> children = new HashMap<>();
+        private final Set<T> values = new HashSet<>();
+        private boolean isPrefixEnd = false;
+
+        private PrefixTrieNode<T> getOrCreate(String prefix) {
+            PrefixTrieNode<T> node = this;
+            for (int i = 0; i < prefix.length(); i++) {
+                PrefixTrieNode<T> child = node.children.get(prefix.charAt(i));
+                if (child == null) {
+                    child = new PrefixTrieNode<>();
+                    node.children.put(prefix.charAt(i), child);
+                }
+                node = child;
+            }
+            node.isPrefixEnd = true;
+            return node;
+        }
+
+        private void collectValues(String path, Set<T> matchingValues) {
+            PrefixTrieNode<T> node = this;
+            for (int i = 0; node != null; i++) {
+                matchingValues.addAll(node.values);
+                node = i < path.length() ? node.children.get(path.charAt(i)) : null;
+            }
+        }
+
+        private boolean hasPrefixOf(String path) {
+            PrefixTrieNode<T> node = this;
+            for (int i = 0; node != null; i++) {
+                if (node.isPrefixEnd) {
+                    return true;
+                }
+                node = i < path.length() ? node.children.get(path.charAt(i)) : null;
+            }
+            return false;
+        }
+    }
+
+}
@@ -0,0 +1,150 @@
+/*
+ * (C) Copyright 2026 Cognizant Netcentric.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package biz.netcentric.cq.tools.actool.helper;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.jcr.query.Query;
+import javax.jcr.query.QueryResult;
+import javax.jcr.query.Row;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/** Records which query indexes exist for the node types queried by the AC Tool (rep:ACL, rep:ACE by principal name and rep:Authorizable by
+ * id and by node type). The indexes are detected by using EXPLAIN MEASURE queries. The probe is run once at the beginning of every
+ * installation and the result is passed to all queries of that run (and not kept beyond it).
+ *
+ * For every query that would fall back to traversal, a warning with the measured cost is logged (the indexes for all those queries are
+ * part of the oakindex package). */
+public final class QueryCapabilities {
+
+    private static final Logger LOG = LoggerFactory.getLogger(QueryCapabilities.class);
+
+    static final String EXPLAIN_QUERY_FOR_ACL_INDEX = "EXPLAIN MEASURE SELECT * FROM [rep:ACL] AS s WHERE ISDESCENDANTNODE([/])";
+    static final String EXPLAIN_QUERY_FOR_ACE_PRINCIPAL_INDEX = "EXPLAIN MEASURE SELECT * FROM [rep:ACE] AS s WHERE s.[rep:principalName] = 'everyone'";
+    static final String EXPLAIN_QUERY_FOR_AUTHORIZABLE_INDEX = "EXPLAIN MEASURE SELECT * FROM [rep:Authorizable] AS s WHERE s.[rep:authorizableId] = 'admin'";
+    static final String EXPLAIN_QUERY_FOR_AUTHORIZABLE_TYPE_INDEX = "EXPLAIN MEASURE SELECT * FROM [rep:Authorizable] AS s WHERE s.[jcr:primaryType] = 'rep:Group'";
+
+    /** every query cost below that threshold means a dedicated index exists, above that threshold means: fallback to traversal */
+    static final double COST_THRESHOLD_FOR_QUERY_INDEX = 100d;
+
+    private final Map<String, Double> costsByExplainQuery;
+
+    QueryCapabilities(Map<String, Double> costsByExplainQuery) {
+        this.costsByExplainQuery = costsByExplainQuery;
+    }
+
+    /** Probes the query indexes.
+     * 
+     * @param session the JCR session
+     * @return the capabilities of the repository of the given session */
+    public static QueryCapabilities probe(Session session) {
+        long startTime = System.currentTimeMillis();
+        Map<String, Double> costsByExplainQuery = new LinkedHashMap<>();
+        for (String explainQuery : Arrays.asList(EXPLAIN_QUERY_FOR_ACL_INDEX, EXPLAIN_QUERY_FOR_ACE_PRINCIPAL_INDEX,
+                EXPLAIN_QUERY_FOR_AUTHORIZABLE_INDEX, EXPLAIN_QUERY_FOR_AUTHORIZABLE_TYPE_INDEX)) {
+            costsByExplainQuery.put(explainQuery, measureQueryCost(session, explainQuery));
+        }
+        QueryCapabilities queryCapabilities = new QueryCapabilities(Collections.unmodifiableMap(costsByExplainQuery));
+        LOG.debug("Probed query capabilities in {}ms: {}", System.currentTimeMillis() - startTime, queryCapabilities);
+        for (String traversalWarning : queryCapabilities.getTraversalWarnings()) {
+            LOG.warn(traversalWarning);
+        }
+        return queryCapabilities;
+    }
+
+    /** @return the cost or {@link Double#NaN} if the cost could not be measured */
+    private static double measureQueryCost(Session session, String explainQuery) {
+        try {
+            return getQueryCost(session, explainQuery);
+        } catch (Exception e) {
+            LOG.warn("Could not detect if query index exists for query '{}': {}", explainQuery, e.getMessage(), e);
+            return Double.NaN;
+        }
+    }
+
+    static double getQueryCost(Session session, String explainQuery) throws RepositoryException, IOException {
+        Query query = session.getWorkspace().getQueryManager().createQuery(explainQuery, Query.JCR_SQL2);
+        QueryResult queryResult = query.execute();
+        Row row = queryResult.getRows().nextRow();
+        // inspired by https://github.com/apache/jackrabbit-oak/blob/cc8adb42d89bc4625138a62ab074e7794a4d39ab/oak-jcr/src/test/java/org/apache/jackrabbit/oak/jcr/query/QueryTest.java#L1092
+        String plan = row.getValue("plan").getString();
+        LOG.debug("Execution plan and cost for {}: {}", explainQuery, plan);
+        String costJsonStr = StringUtils.substringAfter(plan, "cost:");
+
+        // look at https://jackrabbit.apache.org/oak/docs/query/query-engine.html#cost-calculation for the threshold
+        // https://github.com/apache/jackrabbit-oak/blob/cc8adb42d89bc4625138a62ab074e7794a4d39ab/oak-core/src/main/java/org/apache/jackrabbit/oak/query/index/TraversingIndex.java#L75
+
+        // for traversing cost = estimation of node count
+        // for property index = between 2 and 100
+        double cost = QueryHelper.getCostFromJsonStr(costJsonStr);
+        LOG.debug("Cost for query {} is estimated with {}", explainQuery, cost);
+        return cost;
+    }
+
+    private boolean hasQueryIndex(String explainQuery) {
+        // NaN (cost could not be measured) is never below the threshold
+        return costsByExplainQuery.get(explainQuery) <= COST_THRESHOLD_FOR_QUERY_INDEX;
+    }
+
+    public boolean isIndexForAclsExists() {
+        return hasQueryIndex(EXPLAIN_QUERY_FOR_ACL_INDEX);
+    }
+
+    public boolean isIndexForAcesByPrincipalNameExists() {
+        return hasQueryIndex(EXPLAIN_QUERY_FOR_ACE_PRINCIPAL_INDEX);
+    }
+
+    public boolean isIndexForAuthorizablesExists() {
+        return hasQueryIndex(EXPLAIN_QUERY_FOR_AUTHORIZABLE_INDEX);
+    }
+
+    public boolean isIndexForAuthorizablesByTypeExists() {
+        return hasQueryIndex(EXPLAIN_QUERY_FOR_AUTHORIZABLE_TYPE_INDEX);
+    }
+
+    /** @return a warning with the measured cost for every probed query that would fall back to traversal */
+    public List<String> getTraversalWarnings() {
+        List<String> traversalWarnings = new ArrayList<>();
+        for (Map.Entry<String, Double> costByExplainQuery : costsByExplainQuery.entrySet()) {
+            double cost = costByExplainQuery.getValue();
+            if (cost > COST_THRESHOLD_FOR_QUERY_INDEX) {
+                traversalWarnings.add("Query '" + StringUtils.removeStart(costByExplainQuery.getKey(), "EXPLAIN MEASURE ")
+                        + "' falls back to traversal (measured cost: " + cost + ", install the oakindex package for better performance!)");
+            }
+        }
+        return traversalWarnings;
+    }
+
+    /** @return a description of the query strategies chosen based on the available indexes, to be used in the installation log */
+    public String getQueryPlansDescription() {
+        return "Existing ACLs are queried " + (isIndexForAclsExists() ? "using index for rep:ACL nodes"
+                : "via rep:ACE nodes without additional index for rep:ACL (install oakindex package for better performance!)")
+                + ", ACEs of authorizables are queried "
+                + (isIndexForAcesByPrincipalNameExists() ? "by principal name using index for rep:ACE nodes"
+                        : "by joining rep:ACE and rep:Authorizable nodes " + (isIndexForAuthorizablesExists() ? "(using index for rep:Authorizable nodes)"
+                                : "without index"));
+    }
+
+    @Override
+    public String toString() {
+        return "QueryCapabilities [costsByExplainQuery=" + costsByExplainQuery + "]";
+    }
+
+}
@@ -11,13 +11,21 @@ package biz.netcentric.cq.tools.actool.helper;
 import static biz.netcentric.cq.tools.actool.history.impl.PersistableInstallationLogger.msHumanReadable;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import javax.jcr.AccessDeniedException;
 import javax.jcr.ItemNotFoundException;
@@ -30,15 +38,18 @@ import javax.jcr.UnsupportedRepositoryOperationException;
 import javax.jcr.query.InvalidQueryException;
 import javax.jcr.query.Query;
 import javax.jcr.query.QueryResult;
-import javax.jcr.query.Row;
 import javax.jcr.security.AccessControlList;
 import javax.jcr.security.AccessControlManager;
 import javax.jcr.security.AccessControlPolicy;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.time.StopWatch;
+import org.apache.jackrabbit.api.JackrabbitSession;
 import org.apache.jackrabbit.api.security.JackrabbitAccessControlList;
+import org.apache.jackrabbit.api.security.user.Authorizable;
+import org.apache.jackrabbit.api.security.user.UserManager;
 import org.apache.jackrabbit.util.Text;
+import org.apache.sling.jcr.api.SlingRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -54,13 +65,10 @@ public class QueryHelper {
     private static final String ROOT_REP_POLICY_NODE = "/rep:policy";
     private static final String ROOT_REPO_POLICY_NODE = "/" + Constants.REPO_POLICY_NODE;
     private static final String HOME_REP_POLICY = "/home/rep:policy";
+    private static final String REP_POLICY_NODE = "rep:policy";
 
-    private static final String EXPLAIN_QUERY_FOR_ACL_INDEX = "EXPLAIN MEASURE SELECT * FROM [rep:ACL] AS s WHERE ISDESCENDANTNODE([/])";
     private static final String KEY_COST_PER_EXECUTION = "perExecution";
 
-    /** every query cost below that threshold means a dedicated index exists, above that threshold means: fallback to traversal */
-    private static final double COST_THRESHOLD_FOR_QUERY_INDEX = 100d;
-
     /** Method that returns a set containing all rep:policy nodes from repository excluding those contained in paths which are excluded from
      * search
      * 
@@ -69,6 +77,107 @@ public class QueryHelper {
      * @return all rep:policy nodes delivered by query */
     public static Set<String> getRepPolicyNodePaths(final Session session,
             final List<String> excludePaths) {
+        return getRepPolicyNodePaths(session, excludePaths, Collections.<String> emptySet(), null, QueryCapabilities.probe(session));
+    }
+
+    /** Method that returns a set containing all rep:policy nodes from repository excluding those contained in paths which are excluded from
+     * search. One query is run per child of the root node, for the given sharded paths (e.g. /content) one query is run per child of
+     * the sharded path instead. If a repository is given, the queries are run concurrently (each using its own service session) and the
+     * results are merged while iterating over the query results. If the given session has pending changes (e.g. for the install hook),
+     * the queries are always run sequentially using the given session as the changes would not be visible to other sessions.
+     * 
+     * @param session the JCR session
+     * @param excludePaths paths which are excluded from search
+     * @param shardedPaths direct children of the root node that are queried per child node
+     * @param repository the repository to obtain the sessions for concurrent queries from or null to run the queries sequentially using
+     *            the given session
+     * @param queryCapabilities the query capabilities of the repository (to decide whether rep:ACL nodes can be queried directly)
+     * @return all rep:policy nodes delivered by query */
+    public static Set<String> getRepPolicyNodePaths(final Session session,
+            final List<String> excludePaths, final Collection<String> shardedPaths, final SlingRepository repository,
+            final QueryCapabilities queryCapabilities) {
+        Set<String> rootChildrenPaths = getRootChildrenPathsToQuery(session, excludePaths);
+        Set<String> paths = ConcurrentHashMap.newKeySet();
+        try {
+            // get the rep:policy node of "/", if existing
+            if (session.nodeExists(ROOT_REP_POLICY_NODE)) {
+                paths.add(ROOT_REP_POLICY_NODE);
+            }
+            if (session.nodeExists(ROOT_REPO_POLICY_NODE)) {
+                paths.add(ROOT_REPO_POLICY_NODE);
+            }
+
+            // get the rep:policy node of "/home", if existing
+            if (session.nodeExists(HOME_REP_POLICY)) {
+                paths.add(HOME_REP_POLICY);
+            }
+
+            boolean indexForRepACLExists = queryCapabilities.isIndexForAclsExists();
+            LOG.debug("Index for repACL exists: {}",indexForRepACLExists);
+            String queryForAClNodes = indexForRepACLExists ? 
+                    "SELECT * FROM [rep:ACL] WHERE ISDESCENDANTNODE([%s])" : 
+                    "SELECT ace.* FROM [rep:ACE] AS ace WHERE ace.[rep:principalName] IS NOT NULL AND ISDESCENDANTNODE(ace, [%s])";
+            LOG.debug("Query to obtain all ACLs: {}", queryForAClNodes);
+
+            List<String> queryRootPaths = new ArrayList<>();
+            for (String path : rootChildrenPaths) {
+                if(StringUtils.equals(path, ROOT_REP_POLICY_NODE) || StringUtils.equals(path, ROOT_REPO_POLICY_NODE)) {
+                    continue;
+                }
+                if (shardedPaths.contains(path)) {
+                    addShardedQueryRootPaths(session, path, queryRootPaths, paths);
+                } else {
+                    queryRootPaths.add(path);
+                }
+            }
+
+            long startTime = System.currentTimeMillis();
+            if (repository == null || queryRootPaths.size() < 2 || session.hasPendingChanges()) {
+                for (String queryRootPath : queryRootPaths) {
+                    queryRepPolicyNodePaths(session, queryForAClNodes, queryRootPath, indexForRepACLExists, paths);
+                }
+            } else {
+                queryRepPolicyNodePathsInParallel(repository, queryForAClNodes, queryRootPaths, indexForRepACLExists, paths);
+            }
+            LOG.debug("{} queries to find ACLs ran in {}ms (count ACLs: {})", queryRootPaths.size(), System.currentTimeMillis() - startTime,
+                    paths.size());
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not query repository for existing ACLs: "+e, e);
+        }
+        return paths;
+    }
+
+    /** Returns the rep:policy nodes containing ACEs of the given principals, using the same exclusions as
+     * {@link #getRepPolicyNodePaths(Session, List)}. One query is run per 100 principals, this is only efficient if an index for rep:ACE
+     * nodes by principal name exists (see {@link QueryCapabilities#isIndexForAcesByPrincipalNameExists()}).
+     * 
+     * @param session the JCR session
+     * @param excludePaths paths which are excluded from search
+     * @param principalNames the principal names to find the ACLs for
+     * @return the rep:policy nodes containing at least one ACE of the given principals */
+    public static Set<String> getRepPolicyNodePathsForPrincipals(final Session session, final List<String> excludePaths,
+            final Collection<String> principalNames) {
+        Set<String> rootChildrenPaths = getRootChildrenPathsToQuery(session, excludePaths);
+        Set<String> paths = new HashSet<>();
+        try {
+            for (String query : createAceByPrincipalNameQueries(principalNames)) {
+                NodeIterator nodeIt = getNodesFromQuery(session, query, Query.JCR_SQL2);
+                while (nodeIt.hasNext()) {
+                    String policyNodePath = Text.getRelativeParent(nodeIt.nextNode().getPath(), 1);
+                    String rootChildPath = "/" + StringUtils.substringBefore(policyNodePath.substring(1), "/");
+                    if (rootChildrenPaths.contains(rootChildPath) || ROOT_REP_POLICY_NODE.equals(policyNodePath)
+                            || ROOT_REPO_POLICY_NODE.equals(policyNodePath) || HOME_REP_POLICY.equals(policyNodePath)) {
+                        paths.add(policyNodePath);
+                    }
+                }
+            }
+        } catch (RepositoryException e) {
+            throw new IllegalStateException("Could not query repository for ACLs of " + principalNames.size() + " principals: " + e, e);
+        }
+        return paths;
+    }
+
+    private static Set<String> getRootChildrenPathsToQuery(final Session session, final List<String> excludePaths) {
         NodeIterator nodeIt = null;
         try {
             nodeIt = session.getRootNode().getNodes();
@@ -96,70 +205,79 @@ public class QueryHelper {
                 LOG.error("Exception: {}", e);
             }
         }
-        Set<String> paths = new HashSet<>();
-        try {
-            // get the rep:policy node of "/", if existing
-            if (session.nodeExists(ROOT_REP_POLICY_NODE)) {
-                paths.add(ROOT_REP_POLICY_NODE);
-            }
-            if (session.nodeExists(ROOT_REPO_POLICY_NODE)) {
-                paths.add(ROOT_REPO_POLICY_NODE);
-            }
+        return rootChildrenPaths;
+    }
 
-            // get the rep:policy node of "/home", if existing
-            if (session.nodeExists(HOME_REP_POLICY)) {
-                paths.add(HOME_REP_POLICY);
+    /** Adds the children of the given sharded path as query roots, the rep:policy node of the sharded path itself is added to the
+     * result directly. */
+    private static void addShardedQueryRootPaths(Session session, String shardedPath, List<String> queryRootPaths,
+            Set<String> paths) throws RepositoryException {
+        NodeIterator childNodeIt = session.getNode(shardedPath).getNodes();
+        while (childNodeIt.hasNext()) {
+            Node childNode = childNodeIt.nextNode();
+            if (REP_POLICY_NODE.equals(childNode.getName())) {
+                paths.add(childNode.getPath());
+            } else {
+                queryRootPaths.add(childNode.getPath());
             }
+        }
+    }
 
-            boolean indexForRepACLExists = false;
-            try {
-                indexForRepACLExists = hasQueryIndexForACLs(session);
-            } catch(Exception e) {
-                LOG.warn("Could not detect if query index for rep:ACL nodes exists: {}", e.getMessage(), e);
+    /** Runs the queries for the given query roots concurrently, every query uses its own session. */
+    private static void queryRepPolicyNodePathsInParallel(final SlingRepository repository, final String queryForAClNodes,
+            List<String> queryRootPaths, final boolean indexForRepACLExists, final Set<String> paths) throws Exception {
+        int threadCount = Math.min(Runtime.getRuntime().availableProcessors(), queryRootPaths.size());
+        LOG.debug("Running {} queries to find ACLs using {} threads", queryRootPaths.size(), threadCount);
+        ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+        try {
+            List<Future<Void>> queryResults = new ArrayList<>();
+            for (final String queryRootPath : queryRootPaths) {
+                queryResults.add(executorService.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        Session querySession = repository.loginService(null, null);
+                        try {
+                            queryRepPolicyNodePaths(querySession, queryForAClNodes, queryRootPath, indexForRepACLExists, paths);
+                        } finally {
+                            querySession.logout();
+                        }
+                        return null;
+                    }
+                }));
             }
-            LOG.debug("Index for repACL exists: {}",indexForRepACLExists);
-            String queryForAClNodes = indexForRepACLExists ? 
-                    "SELECT * FROM [rep:ACL] WHERE ISDESCENDANTNODE([%s])" : 
-                    "SELECT ace.* FROM [rep:ACE] AS ace WHERE ace.[rep:principalName] IS NOT NULL AND ISDESCENDANTNODE(ace, [%s])";
-            LOG.debug("Query to obtain all ACLs: {}", queryForAClNodes);
-            
-            for (String path : rootChildrenPaths) {
-                if(StringUtils.equals(path, ROOT_REP_POLICY_NODE) || StringUtils.equals(path, ROOT_REPO_POLICY_NODE)) {
-                    continue;
+            for (Future<Void> queryResult : queryResults) {
+                try {
+                    queryResult.get();
+                } catch (ExecutionException e) {
+                    throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
                 }
-                
-                String query = String.format(queryForAClNodes, path);
-
-                long startTime1 = System.currentTimeMillis();
-                Set<String> nodesResult = indexForRepACLExists ? 
-                        getNodePathsFromQuery(session, query, Query.JCR_SQL2):
-                        getDistinctParentNodePathsFromQuery(session, query, Query.JCR_SQL2);
-                LOG.debug("Query to find ACLs under {} ran in {}ms (count ACLs: {})", path, System.currentTimeMillis()-startTime1, nodesResult.size());
-                paths.addAll(nodesResult);
             }
-        } catch (Exception e) {
-            throw new IllegalStateException("Could not query repository for existing ACLs: "+e, e);
+        } finally {
+            executorService.shutdownNow();
         }
-        return paths;
     }
 
+    /** Adds the rep:policy node paths below the given query root to the (possibly shared) result set while iterating over the query
+     * result. */
+    private static void queryRepPolicyNodePaths(Session session, String queryForAClNodes, String queryRootPath,
+            boolean indexForRepACLExists, Set<String> paths) throws RepositoryException {
+        long startTime = System.currentTimeMillis();
+        NodeIterator nodeIt = getNodesFromQuery(session, String.format(queryForAClNodes, queryRootPath), Query.JCR_SQL2);
+        int countResults = 0;
+        while (nodeIt.hasNext()) {
+            String path = nodeIt.nextNode().getPath();
+            // without index the ACE nodes are returned, their parent is the rep:policy node
+            paths.add(indexForRepACLExists ? path : Text.getRelativeParent(path, 1));
+            countResults++;
+        }
+        LOG.debug("Query to find ACLs under {} ran in {}ms (count results: {})", queryRootPath, System.currentTimeMillis() - startTime,
+                countResults);
+    }
+
+    /** Runs the EXPLAIN MEASURE query for rep:ACL nodes, use {@link QueryCapabilities#probe(Session)} to check all indexes relevant for
+     * an installation at once. */
     public static boolean hasQueryIndexForACLs(final Session session) throws RepositoryException, IOException {
-        Query query = session.getWorkspace().getQueryManager().createQuery(EXPLAIN_QUERY_FOR_ACL_INDEX, Query.JCR_SQL2);
-        QueryResult queryResult = query.execute();
-        Row row = queryResult.getRows().nextRow();
-        // inspired by https://github.com/apache/jackrabbit-oak/blob/cc8adb42d89bc4625138a62ab074e7794a4d39ab/oak-jcr/src/test/java/org/apache/jackrabbit/oak/jcr/query/QueryTest.java#L1092
-        String plan = row.getValue("plan").getString();
-        LOG.debug("Execution plan and cost for {}: {}", EXPLAIN_QUERY_FOR_ACL_INDEX, plan);
-        String costJsonStr = StringUtils.substringAfter(plan, "cost:");
-
-        double cost = getCostFromJsonStr(costJsonStr);
-        // look at https://jackrabbit.apache.org/oak/docs/query/query-engine.html#cost-calculation for the threshold
-        // https://github.com/apache/jackrabbit-oak/blob/cc8adb42d89bc4625138a62ab074e7794a4d39ab/oak-core/src/main/java/org/apache/jackrabbit/oak/query/index/TraversingIndex.java#L75
-
-        // for traversing cost = estimation of node count
-        // for property index = between 2 and 100
-        LOG.debug("Cost for rep:ACL query is estimated with {}", cost);
-        return cost <= COST_THRESHOLD_FOR_QUERY_INDEX;
+        return QueryCapabilities.getQueryCost(session, QueryCapabilities.EXPLAIN_QUERY_FOR_ACL_INDEX) <= QueryCapabilities.COST_THRESHOLD_FOR_QUERY_INDEX;
     }
 
     static double getCostFromJsonStr(String jsonStr) throws JsonProcessingException, IOException {
@@ -222,7 +340,7 @@ public class QueryHelper {
     }
 
     public static Set<AclBean> getAuthorizablesAcls(final Session session,
-            final Set<String> authorizableIds, Set<String> principalIdsToBeFilled) throws InvalidQueryException,
+            final Set<String> authorizableIds, Set<String> principalIdsToBeFilled, QueryCapabilities queryCapabilities) throws InvalidQueryException,
             RepositoryException {
         
         LOG.debug("Querying AclBeans for {} authorizables", authorizableIds.size());
@@ -230,6 +348,66 @@ public class QueryHelper {
         StopWatch sw = new StopWatch();
         sw.start();
         
+        Collection<Node> nodes;
+        if (queryCapabilities.isIndexForAcesByPrincipalNameExists()) {
+            nodes = getAceNodesByPrincipalNames(session, authorizableIds);
+        } else {
+            nodes = getAceNodesByJoinWithAuthorizables(session, authorizableIds);
+        }
+        Set<AclBean> resultBeans = buildAclBeansFromNodes(session, nodes, principalIdsToBeFilled);
+
+        sw.stop();
+        LOG.debug("Found {} AclBeans in {}", resultBeans.size(), msHumanReadable(sw.getTime()));
+
+        return resultBeans;
+    }
+
+    /** Resolves the principal names of the given authorizables via the user manager and queries the ACE nodes by principal name, used if
+     * an index for rep:ACE nodes by principal name exists. */
+    private static Collection<Node> getAceNodesByPrincipalNames(final Session session, final Set<String> authorizableIds)
+            throws RepositoryException {
+        UserManager userManager = ((JackrabbitSession) session).getUserManager();
+        List<String> principalNames = new ArrayList<>();
+        for (String authorizableId : authorizableIds) {
+            Authorizable authorizable = userManager.getAuthorizable(authorizableId);
+            if (authorizable != null) {
+                principalNames.add(authorizable.getPrincipal().getName());
+            }
+        }
+
+        Collection<Node> nodes = new LinkedList<>();
+        for (String query : createAceByPrincipalNameQueries(principalNames)) {
+            NodeIterator nit = getNodesFromQuery(session, query, Query.JCR_SQL2);
+            int countResults = 0;
+            while (nit.hasNext()) {
+                nodes.add(nit.nextNode());
+                countResults++;
+            }
+            LOG.trace("Querying AclBeans with {} returned {} results", query, countResults);
+        }
+        return nodes;
+    }
+
+    /** @return queries for the ACE nodes of the given principals, each covering up to 100 principals */
+    static List<String> createAceByPrincipalNameQueries(Collection<String> principalNames) {
+        List<String> queries = new ArrayList<>();
+        Iterator<String> principalNamesIterator = principalNames.iterator();
+        while (principalNamesIterator.hasNext()) {
+            StringBuilder queryStringBuilder = new StringBuilder("SELECT ace.* FROM [rep:ACE] AS ace WHERE ");
+            for (int i = 0; i < 100 && principalNamesIterator.hasNext(); i++) {
+                if (i > 0) {
+                    queryStringBuilder.append(" or ");
+                }
+                queryStringBuilder.append("ace.[rep:principalName] = '")
+                        .append(principalNamesIterator.next().replace("'", "''")).append("'");
+            }
+            queries.add(queryStringBuilder.toString());
+        }
+        return queries;
+    }
+
+    private static Collection<Node> getAceNodesByJoinWithAuthorizables(final Session session, final Set<String> authorizableIds)
+            throws RepositoryException {
         Collection<Node> nodes = new LinkedList<>();
 
         Iterator<String> authorizablesIdIterator = authorizableIds.iterator();
@@ -252,12 +430,7 @@ public class QueryHelper {
             LOG.trace("Querying AclBeans with {} returned {} results", query, resultNodes.size());
             nodes.addAll(resultNodes);
         }
-        Set<AclBean> resultBeans = buildAclBeansFromNodes(session, nodes, principalIdsToBeFilled);
-
-        sw.stop();
-        LOG.debug("Found {} AclBeans in {}", resultBeans.size(), msHumanReadable(sw.getTime()));
-
-        return resultBeans;
+        return nodes;
     }
 
     private static Set<AclBean> buildAclBeansFromNodes(final Session session,
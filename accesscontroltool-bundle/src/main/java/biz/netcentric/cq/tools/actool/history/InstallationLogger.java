@@ -38,7 +38,12 @@ public interface InstallationLogger extends InstallationLog, InstallationResult
 
     void incCountAuthorizablesCreated();
     void incCountAuthorizablesMoved();
+    void incCountAuthorizablesUnchanged();
 
     int getCountAuthorizablesCreated();
     int getCountAuthorizablesMoved();
+    int getCountAuthorizablesUnchanged();
+
+    /** Appends all messages and statistics of the given logger (as e.g. used by a worker thread) to this logger. */
+    void merge(InstallationLogger otherLogger);
 }
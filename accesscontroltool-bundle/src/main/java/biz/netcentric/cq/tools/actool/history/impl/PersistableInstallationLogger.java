@@ -19,6 +19,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
 
+import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 
 import biz.netcentric.cq.tools.actool.api.HistoryEntry;
@@ -59,6 +60,7 @@ public class PersistableInstallationLogger implements InstallationLogger, Instal
 
     private int countAuthorizablesCreated = 0;
     private int countAuthorizablesMoved = 0;
+    private int countAuthorizablesUnchanged = 0;
 
     private int missingParentPathsForInitialContent = 0;
 
@@ -339,6 +341,11 @@ public class PersistableInstallationLogger implements InstallationLogger, Instal
         countAuthorizablesMoved++;
     }
 
+    @Override
+    public void incCountAuthorizablesUnchanged() {
+        countAuthorizablesUnchanged++;
+    }
+
     public int getCountAuthorizablesCreated() {
         return countAuthorizablesCreated;
     }
@@ -347,4 +354,45 @@ public class PersistableInstallationLogger implements InstallationLogger, Instal
         return countAuthorizablesMoved;
     }
 
+    public int getCountAuthorizablesUnchanged() {
+        return countAuthorizablesUnchanged;
+    }
+
+    @Override
+    public void merge(InstallationLogger otherLogger) {
+        if (!(otherLogger instanceof PersistableInstallationLogger)) {
+            throw new IllegalArgumentException("Cannot merge logger of type " + otherLogger.getClass().getName());
+        }
+        PersistableInstallationLogger otherLog = (PersistableInstallationLogger) otherLogger;
+
+        // re-add entries in order of the other log to retain the original sequence after entries of this log
+        @SuppressWarnings("unchecked")
+        Set<HistoryEntry> otherEntries = getMessageSet(otherLog.warnings, otherLog.messages, otherLog.verboseMessages, otherLog.errors);
+        for (HistoryEntry entry : otherEntries) {
+            if (otherLog.warnings.contains(entry)) {
+                addWarning(StringUtils.removeStart(entry.getMessage(), MSG_IDENTIFIER_WARNING));
+            } else if (otherLog.messages.contains(entry)) {
+                addMessage(StringUtils.removeStart(entry.getMessage(), " "));
+            } else if (otherLog.verboseMessages.contains(entry)) {
+                addVerboseMessage(StringUtils.removeStart(entry.getMessage(), " "));
+            } else {
+                errors.add(new HistoryEntry(msgIndex, entry.getTimestamp(), entry.getMessage()));
+                msgIndex++;
+            }
+        }
+        if (!otherLog.isSuccess()) {
+            success = false;
+        }
+
+        countAclsNoChange += otherLog.countAclsNoChange;
+        countAclsChanged += otherLog.countAclsChanged;
+        countAclsPathDoesNotExist += otherLog.countAclsPathDoesNotExist;
+        countActionCacheHit += otherLog.countActionCacheHit;
+        countActionCacheMiss += otherLog.countActionCacheMiss;
+        countAuthorizablesCreated += otherLog.countAuthorizablesCreated;
+        countAuthorizablesMoved += otherLog.countAuthorizablesMoved;
+        countAuthorizablesUnchanged += otherLog.countAuthorizablesUnchanged;
+        missingParentPathsForInitialContent += otherLog.missingParentPathsForInitialContent;
+    }
+
 }
@@ -1,7 +1,5 @@
 package biz.netcentric.cq.tools.actool.impl;
 
-import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
 import java.util.Map;
 
 import javax.jcr.Node;
@@ -12,6 +10,7 @@ import org.osgi.service.component.annotations.Component;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import biz.netcentric.cq.tools.actool.helper.HashHelper;
 import biz.netcentric.cq.tools.actool.helper.runtime.RuntimeHelper;
 import biz.netcentric.cq.tools.actool.history.impl.HistoryUtils;
 
@@ -70,18 +69,7 @@ public class AcConfigChangeTracker {
             buf.append(test.getKey()+"\n"+test.getValue());
         }
 
-        return md5(buf.toString());
-    }
-    
-    private String md5(String input) throws Exception {
-        MessageDigest md = MessageDigest.getInstance("MD5");
-        byte[] hashInBytes = md.digest(input.getBytes(StandardCharsets.UTF_8));
-
-        StringBuilder sb = new StringBuilder();
-        for (byte b : hashInBytes) {
-            sb.append(String.format("%02x", b));
-        }
-        return sb.toString();
+        return HashHelper.md5(buf.toString());
     }
 
 
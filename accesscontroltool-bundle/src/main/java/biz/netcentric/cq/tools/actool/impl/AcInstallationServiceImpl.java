@@ -18,6 +18,7 @@ import java.util.Collections;
 import java.util.Dictionary;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -72,7 +73,9 @@ import biz.netcentric.cq.tools.actool.dumpservice.ConfigDumpService;
 import biz.netcentric.cq.tools.actool.helper.AcHelper;
 import biz.netcentric.cq.tools.actool.helper.AccessControlUtils;
 import biz.netcentric.cq.tools.actool.helper.AclBean;
+import biz.netcentric.cq.tools.actool.helper.PathPatternMatcher;
 import biz.netcentric.cq.tools.actool.helper.PurgeHelper;
+import biz.netcentric.cq.tools.actool.helper.QueryCapabilities;
 import biz.netcentric.cq.tools.actool.helper.QueryHelper;
 import biz.netcentric.cq.tools.actool.helper.runtime.RuntimeHelper;
 import biz.netcentric.cq.tools.actool.history.AcHistoryService;
@@ -90,6 +93,9 @@ public class AcInstallationServiceImpl implements AcInstallationService, AcInsta
     private static final String LEGACY_CONFIG_PID = "biz.netcentric.cq.tools.actool.aceservice.impl.AceServiceImpl";
     private static final String LEGACY_PROPERTY_CONFIGURATION_PATH = "AceService.configurationPath";
 
+    /** up to this number of configured principals, existing ACLs are looked up by principal name (if an index for it exists) */
+    static final int MAX_PRINCIPALS_FOR_ACL_LOOKUP_BY_PRINCIPAL = 1000;
+
     @Reference(policyOption = ReferencePolicyOption.GREEDY)
     AuthorizableInstallerService authorizableCreatorService;
 
@@ -99,6 +105,9 @@ public class AcInstallationServiceImpl implements AcInstallationService, AcInsta
     @Reference(target = "(component.name=biz.netcentric.cq.tools.actool.aceinstaller.AceBeanInstallerIncremental)", policyOption = ReferencePolicyOption.GREEDY)
     AceBeanInstaller aceBeanInstallerIncremental;
 
+    @Reference(target = "(component.name=biz.netcentric.cq.tools.actool.aceinstaller.AceBeanInstallerBulk)", policyOption = ReferencePolicyOption.GREEDY)
+    AceBeanInstaller aceBeanInstallerBulk;
+
     @Reference(policyOption = ReferencePolicyOption.GREEDY)
     private SlingRepository repository;
 
@@ -220,7 +229,7 @@ public class AcInstallationServiceImpl implements AcInstallationService, AcInsta
             // exception was added to history in installConfigurationFiles() before it was saved
             LOG.warn("Exception during installation of authorizables (no rollback), e=" + e, e);
             // here no rollback of authorizables necessary since session wasn't
-            // saved 
+            // saved (unless commitBatchSize is configured, then the log lists the persisted batches)
         } catch (Exception e) {
             // in case an installation of an ACE configuration
             // threw an exception, logout from this session
@@ -286,10 +295,13 @@ public class AcInstallationServiceImpl implements AcInstallationService, AcInsta
                 AcConfiguration acConfiguration = configurationMerger.getMergedConfigurations(configurationFileContentsByFilename, installLog,
                         configReader, session);
 
-                installMergedConfigurations(installLog, acConfiguration, restrictedToPaths, session);
+                // probe the indexes once per run, all queries of this run reuse the result
+                QueryCapabilities queryCapabilities = QueryCapabilities.probe(session);
 
-                ensureVirtualGroupsAreRemoved(installLog, acConfiguration, session);
-                removeObsoleteAuthorizables(installLog, acConfiguration.getObsoleteAuthorizables(), session);
+                installMergedConfigurations(installLog, acConfiguration, restrictedToPaths, queryCapabilities, session);
+
+                ensureVirtualGroupsAreRemoved(installLog, acConfiguration, queryCapabilities, session);
+                removeObsoleteAuthorizables(installLog, acConfiguration.getObsoleteAuthorizables(), queryCapabilities, session);
 
             }
             sw.stop();
@@ -393,19 +405,20 @@ public class AcInstallationServiceImpl implements AcInstallationService, AcInsta
         return relevantPathsForCleanup;
     }
 
-    boolean isRelevantPath(String path, String[] restrictedToPaths) {
-        if (restrictedToPaths == null || restrictedToPaths.length == 0) {
-            return true;
-        }
-        boolean isRelevant = false;
+    /** Compiles the restricted paths once, plain paths match the path itself and all its descendants. */
+    PathPatternMatcher<String> createRestrictedPathsMatcher(String[] restrictedToPaths) {
+        Map<String, Set<String>> restrictedToPathsByRegex = new LinkedHashMap<>();
         for (String restrictedToPath : restrictedToPaths) {
             boolean isRegEx = StringUtils.containsAny(restrictedToPath, new char[] {'*', '^', '$', '+'});
-            String regexStr = isRegEx ? restrictedToPath : "^" + restrictedToPath + "(/.*|$)";
-            if (path.matches(regexStr)) {
-                isRelevant = true;
+            if (isRegEx) {
+                restrictedToPathsByRegex.put(restrictedToPath, Collections.singleton(restrictedToPath));
+            } else {
+                // equivalent to "^" + restrictedToPath + "(/.*|$)", but allows for literal matching
+                restrictedToPathsByRegex.put(restrictedToPath, Collections.singleton(restrictedToPath));
+                restrictedToPathsByRegex.put(restrictedToPath + "/.*", Collections.singleton(restrictedToPath));
             }
         }
-        return isRelevant;
+        return new PathPatternMatcher<>(restrictedToPathsByRegex);
     }
 
 
@@ -466,9 +479,14 @@ public class AcInstallationServiceImpl implements AcInstallationService, AcInsta
                 restrictedToPaths, installLog);
 
         if (!filteredPathBasedAceMapFromConfig.isEmpty()) {
-            AceBeanInstaller aceBeanInstaller = acConfiguration.getGlobalConfiguration().getInstallAclsIncrementally()
-                    ? aceBeanInstallerIncremental
-                    : aceBeanInstallerClassic;
+            AceBeanInstaller aceBeanInstaller;
+            if (acConfiguration.getGlobalConfiguration().getInstallAclsIncrementally()) {
+                aceBeanInstaller = acConfiguration.getGlobalConfiguration().getInstallAclsInBulk()
+                        ? aceBeanInstallerBulk
+                        : aceBeanInstallerIncremental;
+            } else {
+                aceBeanInstaller = aceBeanInstallerClassic;
+            }
 
             installLog.addMessage(LOG,
                     "*** Starting installation of " + collectAceCount(filteredPathBasedAceMapFromConfig) + " ACE configurations for "
@@ -498,9 +516,10 @@ public class AcInstallationServiceImpl implements AcInstallationService, AcInsta
             return pathBasedAceMapFromConfig;
         }
 
+        PathPatternMatcher<String> restrictedPathsMatcher = createRestrictedPathsMatcher(restrictedToPaths);
         Map<String, Set<AceBean>> filteredPathBasedAceMapFromConfig = new TreeMap<>();
         for (final String path : pathBasedAceMapFromConfig.keySet()) {
-            boolean isRelevant = isRelevantPath(path, restrictedToPaths);
+            boolean isRelevant = restrictedPathsMatcher.matchesAny(path);
             if (isRelevant) {
                 filteredPathBasedAceMapFromConfig.put(path, pathBasedAceMapFromConfig.get(path));
             }
@@ -560,7 +579,8 @@ public class AcInstallationServiceImpl implements AcInstallationService, AcInsta
         return nonExistingAuthorizables;
     }
 
-    private void removeObsoleteAuthorizables(InstallationLogger installLog, Set<String> obsoleteAuthorizables, Session session) {
+    private void removeObsoleteAuthorizables(InstallationLogger installLog, Set<String> obsoleteAuthorizables,
+            QueryCapabilities queryCapabilities, Session session) {
 
         try {
 
@@ -582,7 +602,7 @@ public class AcInstallationServiceImpl implements AcInstallationService, AcInsta
                 installLog.addMessage(LOG, "(" + obsoleteAuthorizablesAlreadyPurged.size() + " have been purged already)");
             }
 
-            purgeAuthorizables(obsoleteAuthorizables, session, installLog, true);
+            purgeAuthorizables(obsoleteAuthorizables, session, installLog, true, queryCapabilities);
             installLog.addMessage(LOG, "Successfully purged " + obsoleteAuthorizables);
         } catch (Exception e) {
             installLog.addError(LOG, "Could not purge obsolete authorizables " + obsoleteAuthorizables, e);
@@ -590,7 +610,8 @@ public class AcInstallationServiceImpl implements AcInstallationService, AcInsta
 
     }
 
-    private void ensureVirtualGroupsAreRemoved(InstallationLogger installLog, AcConfiguration acConfiguration, Session session) {
+    private void ensureVirtualGroupsAreRemoved(InstallationLogger installLog, AcConfiguration acConfiguration,
+            QueryCapabilities queryCapabilities, Session session) {
 
         try {
 
@@ -615,7 +636,7 @@ public class AcInstallationServiceImpl implements AcInstallationService, AcInsta
             installLog.addMessage(LOG, "Purging " + virtualGroupIds.size()
                     + " virtual groups from repository (most likely they were non-virtual groups before)...");
 
-            purgeAuthorizables(virtualGroupIds, session, installLog, true);
+            purgeAuthorizables(virtualGroupIds, session, installLog, true, queryCapabilities);
             installLog.addMessage(LOG, "Successfully purged virtual groups from repository: " + virtualGroupIds);
 
         } catch (Exception e) {
@@ -625,21 +646,38 @@ public class AcInstallationServiceImpl implements AcInstallationService, AcInsta
     }
 
     private void installMergedConfigurations(InstallationLogger installLog, AcConfiguration acConfiguration, 
-            String[] restrictedToPaths, Session session) throws ValueFormatException,  RepositoryException, Exception {
+            String[] restrictedToPaths, QueryCapabilities queryCapabilities, Session session)
+            throws ValueFormatException, RepositoryException, Exception {
 
         installLog.addVerboseMessage(LOG, "Starting installation of merged configurations...");
 
+        installLog.addMessage(LOG, queryCapabilities.getQueryPlansDescription());
+        for (String traversalWarning : queryCapabilities.getTraversalWarnings()) {
+            installLog.addWarning(LOG, traversalWarning);
+        }
+
         StopWatch stopWatch = new StopWatch();
         stopWatch.start();
 
+        // only ACEs of configured principals are relevant for the cleanup of paths not contained in the configuration
+        Set<String> principalsToRemoveAcesFor = getPrincipalNamesToRemoveAcesFor(acConfiguration.getAuthorizablesConfig());
+        boolean lookupAclsByPrincipal = queryCapabilities.isIndexForAcesByPrincipalNameExists()
+                && principalsToRemoveAcesFor.size() <= MAX_PRINCIPALS_FOR_ACL_LOOKUP_BY_PRINCIPAL;
+
         Map<String, Set<AceBean>> repositoryDumpAceMap = null;
         LOG.debug("Building dump from repository (to compare delta with config to be installed)");
-        repositoryDumpAceMap = dumpservice.createAclDumpMap(AcHelper.PATH_BASED_ORDER,
-                AcHelper.ACE_ORDER_NONE,
-                Collections.<String>emptyList(), true, session).getAceDump();
+        if (lookupAclsByPrincipal) {
+            repositoryDumpAceMap = dumpservice.createAclDumpMapForPrincipals(AcHelper.ACE_ORDER_NONE, principalsToRemoveAcesFor, session)
+                    .getAceDump();
+        } else {
+            repositoryDumpAceMap = dumpservice.createAclDumpMap(AcHelper.PATH_BASED_ORDER,
+                    AcHelper.ACE_ORDER_NONE,
+                    Collections.<String>emptyList(), true, queryCapabilities, session).getAceDump();
+        }
 
-        installLog.addMessage(LOG, "Retrieved existing ACLs from repository in " + msHumanReadable(stopWatch.getTime()) 
-            + (QueryHelper.hasQueryIndexForACLs(session) ? " using index for rep:ACL nodes": " without additional index for rep:ACL (install oakindex package for better performance!)"));
+        installLog.addMessage(LOG, "Retrieved existing ACLs from repository in " + msHumanReadable(stopWatch.getTime())
+                + (lookupAclsByPrincipal ? " (looked up by principal name for " + principalsToRemoveAcesFor.size() + " principals)"
+                        : " (all ACLs of the repository)"));
 
         installAcConfiguration(acConfiguration, installLog, repositoryDumpAceMap, restrictedToPaths, session);
 
@@ -751,11 +789,13 @@ public class AcInstallationServiceImpl implements AcInstallationService, AcInsta
 
             installLog.addMessage(LOG, "Purging ACLs...");
             long startAclPurge = System.currentTimeMillis();
-            // removing the ace config section will clear all
-            acConfiguration.getAceConfig().clear();
+            // removing the ace config section will clear all (the merged configuration is frozen, hence it is replaced)
+            acConfiguration.setAceConfig(new AcesConfig());
 
+            QueryCapabilities queryCapabilities = QueryCapabilities.probe(session);
             Map<String, Set<AceBean>> aceDump = dumpservice
-                    .createAclDumpMap(AcHelper.PATH_BASED_ORDER, AcHelper.ACE_ORDER_NONE, Collections.<String> emptyList(), true, session)
+                    .createAclDumpMap(AcHelper.PATH_BASED_ORDER, AcHelper.ACE_ORDER_NONE, Collections.<String> emptyList(), true,
+                            queryCapabilities, session)
                     .getAceDump();
             installAces(installLog, acConfiguration, aceDump, null, session);
             installLog.addMessage(LOG, "Purged ACLs for " + acConfiguration.getAuthorizablesConfig().size() + " authorizables in "
@@ -775,7 +815,7 @@ public class AcInstallationServiceImpl implements AcInstallationService, AcInsta
                 authorizablesToPurge.add(authorizableId);
             }
 
-            purgeAuthorizables(authorizablesToPurge, session, installLog, false);
+            purgeAuthorizables(authorizablesToPurge, session, installLog, false, queryCapabilities);
 
             acHistoryService.persistAcePurgeHistory(installLog);
 
@@ -798,7 +838,7 @@ public class AcInstallationServiceImpl implements AcInstallationService, AcInsta
         try {
             session = repository.loginService(null, null);
             Set<String> authorizablesSet = new HashSet<>(Arrays.asList(authorizableIds));
-            purgeAuthorizables(authorizablesSet, session, installLog, true);
+            purgeAuthorizables(authorizablesSet, session, installLog, true, QueryCapabilities.probe(session));
 
             acHistoryService.persistAcePurgeHistory(installLog);
         } catch (RepositoryException e) {
@@ -811,7 +851,8 @@ public class AcInstallationServiceImpl implements AcInstallationService, AcInsta
         return installLog.getMessageHistory();
     }
 
-    private void purgeAuthorizables(Set<String> authorizableIds, final Session session, InstallationLogger installLog, boolean deleteAces) {
+    private void purgeAuthorizables(Set<String> authorizableIds, final Session session, InstallationLogger installLog, boolean deleteAces,
+            QueryCapabilities queryCapabilities) {
 
         StopWatch sw = new StopWatch();
         sw.start();
@@ -820,7 +861,7 @@ public class AcInstallationServiceImpl implements AcInstallationService, AcInsta
             if (deleteAces) {
                 // first the ACE entries have to be deleted
                 Set<String> principalIds = new HashSet<>();
-                Set<AclBean> aclBeans = QueryHelper.getAuthorizablesAcls(session, authorizableIds, principalIds);
+                Set<AclBean> aclBeans = QueryHelper.getAuthorizablesAcls(session, authorizableIds, principalIds, queryCapabilities);
                 deleteAcesForPrincipalIds(session, installLog, principalIds, aclBeans);
             }
 
@@ -3,18 +3,26 @@ package biz.netcentric.cq.tools.actool.ims;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
 import java.io.Reader;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 import org.apache.http.Consts;
@@ -79,7 +87,7 @@ public class IMSUserManagement implements ExternalGroupManagement {
         @AttributeDefinition(name = "Organization ID", description = "The unique identifier for an organization. This is a string of the form A495E53@AdobeOrg where the prefix before the @ is a hexadecimal number. You can find this value as part of the URL path for the organization in the Adobe Admin Console or in the Adobe Developer Console for your User Management integration.")
         String organizationId();
         @AttributeDefinition(name = "Test Only", description = "If true, parameter syntactic and (limited) semantic checking is done, but the specified operations are not performed, so no user/group accounts or group memberships are created, changed, or deleted.")
-        boolean isTestOnly();
+        boolean isTestOnly() default false;
         @AttributeDefinition(name = "IMS Token Endpoint URL", description = "The URL from which to retrieve the access token.")
         String imsTokenEndpointUrl() default "https://ims-na1.adobelogin.com/ims/token/v3";
         @AttributeDefinition(name = "Client ID", description = "The client ID exposed in the Adobe IO Console for the UMAPI integration used to authorize the session. Also used as \"X-Api-Key\" header value.")
@@ -94,17 +102,33 @@ public class IMSUserManagement implements ExternalGroupManagement {
         int socketTimeout() default 10000;
         @AttributeDefinition(name = "AEM Product Profiles", description = "The given product profile names are automatically added to each synchronized IMS group. The given product profile names must exist for an AEM product!")
         String[] productProfiles() default {};
+        @AttributeDefinition(name = "Max Concurrent Requests", description = "The maximum number of UMAPI requests (each containing up to 10 commands) being sent in parallel. Throttling (status code 429) pauses all requests.")
+        int maxConcurrentRequests() default 4;
+        @AttributeDefinition(name = "Max Retry Count", description = "The maximum number of retries of a UMAPI request being throttled (status code 429).")
+        int maxRetryCount() default 3;
+        @AttributeDefinition(name = "Default Retry Delay", description = "The delay in seconds before retrying a throttled request if the response does not contain a Retry-After header. Also used as upper bound of the jitter added to each retry delay.")
+        int defaultRetryDelay() default 5;
+        @AttributeDefinition(name = "Synchronize in Background", description = "If true, the groups are synchronized asynchronously, i.e. the installation does not wait for the synchronization to finish. Errors are only logged then.")
+        boolean syncInBackground() default false;
     }
 
     public static final Logger LOG = LoggerFactory.getLogger(IMSUserManagement.class);
     private static final int MAX_NUM_COMMANDS_PER_REQUEST = 10;
+    // the token is renewed once 90% of its lifetime is over
+    private static final double TOKEN_LIFETIME_USAGE_RATIO = 0.9;
 
     private final Configuration config;
     private final CloseableHttpClient client;
+    private final TooManyRequestsRetryStrategy retryStrategy;
+    private final ExecutorService backgroundSyncExecutor;
+
+    private AccessToken cachedToken;
+    private long cachedTokenExpiryTimeMillis;
 
     /**
      * Strategy evaluating the {@code retry-after} response header with status code 429.
-     * This class is not thread safe (due to mutable state in {@code retryDelayInSeconds}).
+     * The resulting delay is shared between all threads using this strategy, i.e. after a throttled response all requests are paused
+     * until the delay is over (see {@link #awaitRetryDelay()}).
      * Necessary due to <a href="https://adobe-apiplatform.github.io/umapi-documentation/en/api/ActionsRef.html#actionThrottle">throttling of UMAPI requests</a>.
      * @see <a href="https://datatracker.ietf.org/doc/html/rfc6585#section-4">RFC6585</a>
      * 
@@ -113,19 +137,18 @@ public class IMSUserManagement implements ExternalGroupManagement {
         private static final double DEFAULT_MULTIPLIER = 1.5; // increases each time by 50%
         private final int maxRetryCount;
         private final int defaultRetryDelayInSeconds;
-        private long retryDelayInMilliseconds;
-        private final Random random = new Random();
+        // point in time before which no request should be sent
+        private final AtomicLong retryNotBeforeTimeMillis = new AtomicLong();
  
         public TooManyRequestsRetryStrategy(int maxRetryCount, int defaultRetryDelayInSeconds) {
             super();
             this.maxRetryCount = maxRetryCount;
             this.defaultRetryDelayInSeconds = defaultRetryDelayInSeconds;
-            this.retryDelayInMilliseconds = defaultRetryDelayInSeconds * 1000l;
         }
 
         @Override
         public boolean retryRequest(HttpResponse response, int executionCount, HttpContext context) {
-            retryDelayInMilliseconds = defaultRetryDelayInSeconds * 1000l;
+            long retryDelayInMilliseconds = defaultRetryDelayInSeconds * 1000l;
             boolean shouldRetry = (executionCount <= maxRetryCount && response.getStatusLine().getStatusCode() == 429);
             if (shouldRetry) {
                 Header retryAfterHeader = response.getFirstHeader("Retry-After");
@@ -137,17 +160,36 @@ public class IMSUserManagement implements ExternalGroupManagement {
                 // make it exponential because the retry-after is unreliable (particularly with multiple requests in parallel)
                 retryDelayInMilliseconds *= Math.pow(DEFAULT_MULTIPLIER, executionCount);
                 // always add some jitter between 0 and default delay in seconds
-                long jitter= random.nextInt(defaultRetryDelayInSeconds) * 1000l;
+                long jitter = defaultRetryDelayInSeconds > 0 ? ThreadLocalRandom.current().nextInt(defaultRetryDelayInSeconds) * 1000l : 0;
                 retryDelayInMilliseconds += jitter;
                 LOG.info("Schedule retry no {} of {} in {} milliseconds (with jitter of {} ms) due to 429 response", executionCount, maxRetryCount, retryDelayInMilliseconds, jitter);
+                long retryNotBefore = System.currentTimeMillis() + retryDelayInMilliseconds;
+                retryNotBeforeTimeMillis.accumulateAndGet(retryNotBefore, Math::max);
             }
             return shouldRetry;
         }
 
+        /** Called by the client directly after {@link #retryRequest(HttpResponse, int, HttpContext)} returned true (on the same thread).
+         * Also covers delays caused by throttled requests of other threads. */
         @Override
         public long getRetryInterval() {
-            return retryDelayInMilliseconds;
-        } 
+            return Math.max(0, retryNotBeforeTimeMillis.get() - System.currentTimeMillis());
+        }
+
+        /** Blocks until the delay caused by the last throttled request (of any thread) is over.
+         * @throws InterruptedIOException in case the thread has been interrupted while waiting */
+        void awaitRetryDelay() throws InterruptedIOException {
+            long retryInterval = getRetryInterval();
+            if (retryInterval > 0) {
+                LOG.debug("Waiting {} milliseconds before sending request due to previous 429 response", retryInterval);
+                try {
+                    Thread.sleep(retryInterval);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for retry delay");
+                }
+            }
+        }
     }
 
     @Activate
@@ -157,14 +199,29 @@ public class IMSUserManagement implements ExternalGroupManagement {
                 .setConnectTimeout(config.connectTimeout())
                 .setConnectionRequestTimeout(config.socketTimeout())
                 .setSocketTimeout(config.socketTimeout()).build();
+        retryStrategy = new TooManyRequestsRetryStrategy(config.maxRetryCount(), config.defaultRetryDelay());
         client = httpClientBuilderFactory.newBuilder()
                 .setDefaultRequestConfig(requestConfig)
-                .setServiceUnavailableRetryStrategy(new TooManyRequestsRetryStrategy(3, 5))
+                .setServiceUnavailableRetryStrategy(retryStrategy)
+                .setMaxConnPerRoute(Math.max(1, config.maxConcurrentRequests()))
                 .build();
+        backgroundSyncExecutor = config.syncInBackground() ? Executors.newSingleThreadExecutor() : null;
     }
     
     @Deactivate
     public void deactivate() throws IOException {
+        if (backgroundSyncExecutor != null) {
+            backgroundSyncExecutor.shutdown();
+            try {
+                if (!backgroundSyncExecutor.awaitTermination(config.socketTimeout(), TimeUnit.MILLISECONDS)) {
+                    LOG.warn("Background synchronization of groups did not finish in time, aborting it");
+                    backgroundSyncExecutor.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                backgroundSyncExecutor.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
         client.close();
     }
 
@@ -184,6 +241,28 @@ public class IMSUserManagement implements ExternalGroupManagement {
 
     @Override
     public void updateGroups(Collection<AuthorizableConfigBean> groupConfigs) throws IOException {
+        if (backgroundSyncExecutor == null) {
+            updateGroupsInternal(groupConfigs);
+            return;
+        }
+        // decoupled from the installation, the collection is copied as the caller may reuse it
+        final List<AuthorizableConfigBean> groupConfigsToSync = new ArrayList<>(groupConfigs);
+        backgroundSyncExecutor.submit(new Runnable() {
+            @Override
+            public void run() {
+                long startTime = System.currentTimeMillis();
+                try {
+                    updateGroupsInternal(groupConfigsToSync);
+                    LOG.info("Synchronized {} groups in background in {} ms", groupConfigsToSync.size(), System.currentTimeMillis() - startTime);
+                } catch (IOException | RuntimeException e) {
+                    LOG.error("Could not synchronize " + groupConfigsToSync.size() + " groups in background: " + e.getMessage(), e);
+                }
+            }
+        });
+        LOG.info("Scheduled synchronization of {} groups in background", groupConfigsToSync.size());
+    }
+
+    private void updateGroupsInternal(Collection<AuthorizableConfigBean> groupConfigs) throws IOException {
         List<ActionCommand> actionCommands = new LinkedList<>();
         for (AuthorizableConfigBean groupConfig : groupConfigs) {
             UserGroupActionCommand actionCommand = new UserGroupActionCommand(groupConfig.getAuthorizableId());
@@ -203,16 +282,82 @@ public class IMSUserManagement implements ExternalGroupManagement {
         final Collection<List<ActionCommand>> actionCommandsBatches = actionCommands.stream().collect(Collectors.groupingBy
                 (it->counter.getAndIncrement() / MAX_NUM_COMMANDS_PER_REQUEST))
                 .values();
-        String token = getOAuthServer2ServerToken();
-        for (List<ActionCommand> actionCommandBatch : actionCommandsBatches) {
-            ActionCommandResponse response = sendActionCommand(token, actionCommandBatch);
-            if (!response.errors.isEmpty()) {
-                throw new IOException("Errors updating groups: " + response.errors + " for request " + getRequestInfo(response.associatedRequest));
+        int threadCount = Math.max(1, Math.min(config.maxConcurrentRequests(), actionCommandsBatches.size()));
+        ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+        try {
+            List<Future<ActionCommandResponse>> responseFutures = new ArrayList<>();
+            for (final List<ActionCommand> actionCommandBatch : actionCommandsBatches) {
+                responseFutures.add(executorService.submit(() -> sendActionCommandWithCachedToken(actionCommandBatch)));
+            }
+            // wait for all requests (to not leave any in flight) and report all errors
+            List<String> errors = new ArrayList<>();
+            IOException firstException = null;
+            for (Future<ActionCommandResponse> responseFuture : responseFutures) {
+                ActionCommandResponse response;
+                try {
+                    response = responseFuture.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while updating groups");
+                } catch (ExecutionException e) {
+                    if (firstException == null) {
+                        firstException = e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+                    }
+                    continue;
+                }
+                if (!response.errors.isEmpty()) {
+                    errors.add(response.errors + " for request " + getRequestInfo(response.associatedRequest));
+                }
+                if (!response.warnings.isEmpty()) {
+                    LOG.warn("Some warnings during updating groups with request {}", getRequestInfo(response.associatedRequest));
+                    response.warnings.stream().forEach(w -> LOG.warn("Warning updating a group: {}", w));
+                }
+            }
+            if (firstException != null) {
+                throw firstException;
             }
-            if (!response.warnings.isEmpty()) {
-                LOG.warn("Some warnings during updating groups with request {}", getRequestInfo(response.associatedRequest));
-                response.warnings.stream().forEach(w -> LOG.warn("Warning updating a group: {}", w));
+            if (!errors.isEmpty()) {
+                throw new IOException("Errors updating groups: " + String.join("\n", errors));
             }
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    private ActionCommandResponse sendActionCommandWithCachedToken(Collection<ActionCommand> actions) throws IOException {
+        String token = getCachedOAuthServer2ServerToken();
+        try {
+            return sendActionCommand(token, actions);
+        } catch (HttpResponseException e) {
+            if (e.getStatusCode() != 401) {
+                throw e;
+            }
+            // token might have been revoked before its expiry
+            LOG.info("Received 401 status, requesting new access token");
+            invalidateCachedToken(token);
+            return sendActionCommand(getCachedOAuthServer2ServerToken(), actions);
+        }
+    }
+
+    /**
+     * Returns the access token from the cache or requests a new one if the cached token is (about to be) expired.
+     * @return the access token
+     * @throws IOException
+     */
+    synchronized String getCachedOAuthServer2ServerToken() throws IOException {
+        long now = System.currentTimeMillis();
+        if (cachedToken == null || now >= cachedTokenExpiryTimeMillis) {
+            cachedToken = getOAuthServer2ServerToken();
+            cachedTokenExpiryTimeMillis = now + (long) (cachedToken.lifeTimeInSeconds * 1000l * TOKEN_LIFETIME_USAGE_RATIO);
+            LOG.debug("Requested new access token valid for {} seconds", cachedToken.lifeTimeInSeconds);
+        }
+        return cachedToken.token;
+    }
+
+    private synchronized void invalidateCachedToken(String token) {
+        // only invalidate if not yet renewed by another thread
+        if (cachedToken != null && cachedToken.token.equals(token)) {
+            cachedToken = null;
         }
     }
 
@@ -262,6 +407,7 @@ public class IMSUserManagement implements ExternalGroupManagement {
                 return actionCommandResponse;
             }
         };
+        retryStrategy.awaitRetryDelay();
         LOG.debug("Calling UMAPI via {}", httpPost);
         return client.execute(httpPost, rh);
     }
@@ -273,7 +419,7 @@ public class IMSUserManagement implements ExternalGroupManagement {
      * @throws IOException 
      * @see <a href="https://adobe-apiplatform.github.io/umapi-documentation/en/UM_Authentication.html">OAuth Server to Server Authentication</a>
      */
-    private String getOAuthServer2ServerToken() throws IOException {
+    private AccessToken getOAuthServer2ServerToken() throws IOException {
         HttpPost httpPost = new HttpPost(config.imsTokenEndpointUrl());
         List<NameValuePair> params = new ArrayList<>();
         params.add(new BasicNameValuePair("client_id", config.clientId()));
@@ -299,13 +445,13 @@ public class IMSUserManagement implements ExternalGroupManagement {
                 }
                 ObjectMapper objectMapper = new ObjectMapper();
                 ContentType contentType = ContentType.getOrDefault(entity);
-                Charset charset = contentType.getCharset();
+                // JSON (application/json) does not define a charset parameter, it is UTF-8 by default (RFC 8259)
+                Charset charset = contentType.getCharset() != null ? contentType.getCharset() : StandardCharsets.UTF_8;
                 try (Reader reader = new InputStreamReader(entity.getContent(), charset)) {
                     return objectMapper.readValue(reader, AccessToken.class);
                 }
             }
         };
-        AccessToken token = client.execute(httpPost, rh);
-        return token.token;
+        return client.execute(httpPost, rh);
     }
 }
@@ -0,0 +1,89 @@
+/*
+ * (C) Copyright 2026 Cognizant Netcentric.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package biz.netcentric.cq.tools.actool.aceinstaller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import javax.jcr.Node;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+
+import org.apache.jackrabbit.api.JackrabbitSession;
+import org.apache.jackrabbit.commons.jackrabbit.authorization.AccessControlUtils;
+import org.apache.jackrabbit.oak.spi.security.principal.EveryonePrincipal;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import biz.netcentric.cq.tools.actool.configmodel.AceBean;
+import biz.netcentric.cq.tools.actool.configmodel.Restriction;
+import biz.netcentric.cq.tools.actool.extensions.OakRepository;
+import biz.netcentric.cq.tools.actool.history.impl.PersistableInstallationLogger;
+
+@ExtendWith(OakRepository.class)
+class AceBeanInstallerBulkIT {
+
+    private static final String GROUP_ID = "bulk-test-group";
+    private static final String PATH_INCREMENTAL = "/content/incremental";
+    private static final String PATH_BULK = "/content/bulk";
+
+    @Test
+    void testBulkInstallationResultsInSameAclAsIncrementalInstallation(Session session) throws RepositoryException {
+        ((JackrabbitSession) session).getUserManager().createGroup(GROUP_ID);
+        Node contentNode = session.getRootNode().addNode("content", "nt:unstructured");
+        contentNode.addNode("incremental", "nt:unstructured");
+        contentNode.addNode("bulk", "nt:unstructured");
+        for (String path : Arrays.asList(PATH_INCREMENTAL, PATH_BULK)) {
+            // ACE of a principal outside of the configuration
+            AccessControlUtils.addAccessControlEntry(session, path, EveryonePrincipal.getInstance(), new String[] { "jcr:read" }, false);
+        }
+        session.save();
+
+        AceBeanInstallerIncremental aceBeanInstallerIncremental = new AceBeanInstallerIncremental();
+        AceBeanInstallerBulk aceBeanInstallerBulk = new AceBeanInstallerBulk();
+        Set<String> principalsInConfiguration = Collections.singleton(GROUP_ID);
+
+        // initial installation, installed in bulk
+        aceBeanInstallerIncremental.installAcl(createAceBeans(PATH_INCREMENTAL, true), PATH_INCREMENTAL, principalsInConfiguration,
+                session, new PersistableInstallationLogger());
+        aceBeanInstallerBulk.installAcl(createAceBeans(PATH_BULK, true), PATH_BULK, principalsInConfiguration, session,
+                new PersistableInstallationLogger());
+        String initialAclHash = AclFingerprintIndex.createLiveAclHash(PATH_INCREMENTAL, session);
+        assertEquals(initialAclHash, AclFingerprintIndex.createLiveAclHash(PATH_BULK, session));
+
+        // changed configuration, installed incrementally by both installers
+        aceBeanInstallerIncremental.installAcl(createAceBeans(PATH_INCREMENTAL, false), PATH_INCREMENTAL, principalsInConfiguration,
+                session, new PersistableInstallationLogger());
+        aceBeanInstallerBulk.installAcl(createAceBeans(PATH_BULK, false), PATH_BULK, principalsInConfiguration, session,
+                new PersistableInstallationLogger());
+        String changedAclHash = AclFingerprintIndex.createLiveAclHash(PATH_INCREMENTAL, session);
+        assertNotEquals(initialAclHash, changedAclHash);
+        assertEquals(changedAclHash, AclFingerprintIndex.createLiveAclHash(PATH_BULK, session));
+    }
+
+    private Set<AceBean> createAceBeans(String path, boolean includeVersionManagement) {
+        Set<AceBean> aceBeans = new LinkedHashSet<>();
+        aceBeans.add(AceBeanInstallerIncrementalTest.createTestBean(path, GROUP_ID, true, "jcr:read,rep:write", ""));
+        aceBeans.add(AceBeanInstallerIncrementalTest.createTestBean(path, GROUP_ID, false, "jcr:removeNode", "",
+                new Restriction(AceBean.RESTRICTION_NAME_GLOB, "*/jcr:content*")));
+        if (includeVersionManagement) {
+            aceBeans.add(AceBeanInstallerIncrementalTest.createTestBean(path, GROUP_ID, true, "jcr:versionManagement", "",
+                    new Restriction(AceBean.RESTRICTION_NAME_GLOB, "*/jcr:content*")));
+        }
+        aceBeans.add(AceBeanInstallerIncrementalTest.createTestBean(path, GROUP_ID, true, "jcr:lockManagement", "",
+                new Restriction("rep:ntNames", new String[] { "nt:unstructured", "nt:folder" })));
+        return aceBeans;
+    }
+
+}
@@ -0,0 +1,51 @@
+/*
+ * (C) Copyright 2026 Cognizant Netcentric.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package biz.netcentric.cq.tools.actool.aceinstaller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+/** Verifies the DS descriptors generated by bnd: AcInstallationServiceImpl references every installer as {@link AceBeanInstaller} service
+ * (filtered by component name), hence each installer component must provide that service. */
+class AceBeanInstallerComponentsTest {
+
+    @ParameterizedTest
+    @ValueSource(classes = { AceBeanInstallerClassic.class, AceBeanInstallerIncremental.class, AceBeanInstallerBulk.class })
+    void testInstallerIsProvidedAsAceBeanInstallerService(Class<?> installerClass) throws Exception {
+        String descriptorPath = "OSGI-INF/" + installerClass.getName() + ".xml";
+        try (InputStream descriptorStream = getClass().getClassLoader().getResourceAsStream(descriptorPath)) {
+            assertNotNull(descriptorStream, "Component descriptor " + descriptorPath + " not found");
+            DocumentBuilderFactory documentBuilderFactory = DocumentBuilderFactory.newInstance();
+            documentBuilderFactory.setNamespaceAware(true);
+            Document descriptor = documentBuilderFactory.newDocumentBuilder().parse(descriptorStream);
+
+            assertEquals(installerClass.getName(), descriptor.getDocumentElement().getAttribute("name"));
+            List<String> providedInterfaces = new ArrayList<>();
+            NodeList provideElements = descriptor.getElementsByTagName("provide");
+            for (int i = 0; i < provideElements.getLength(); i++) {
+                providedInterfaces.add(((Element) provideElements.item(i)).getAttribute("interface"));
+            }
+            assertEquals(Collections.singletonList(AceBeanInstaller.class.getName()), providedInterfaces);
+        }
+    }
+
+}
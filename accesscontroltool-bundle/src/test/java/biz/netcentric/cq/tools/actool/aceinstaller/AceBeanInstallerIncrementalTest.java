@@ -16,7 +16,6 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doAnswer;
-import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
@@ -31,6 +30,7 @@ import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import javax.jcr.Binary;
@@ -40,6 +40,7 @@ import javax.jcr.Session;
 import javax.jcr.Value;
 import javax.jcr.ValueFormatException;
 import javax.jcr.security.AccessControlManager;
+import javax.jcr.security.AccessControlPolicy;
 import javax.jcr.security.Privilege;
 
 import org.apache.jackrabbit.api.security.JackrabbitAccessControlEntry;
@@ -69,8 +70,6 @@ import biz.netcentric.cq.tools.actool.history.InstallationLogger;
 @MockitoSettings(strictness = Strictness.LENIENT)
 public class AceBeanInstallerIncrementalTest {
 
-    private static final String FAKE_PRINCIPAL_ID = "author";
-
     String testPath = "/content/testpath";
     String testPrincipal1 = "testPrincipal1";
     String testPrincipal2 = "testPrincipal2";
@@ -113,11 +112,12 @@ public class AceBeanInstallerIncrementalTest {
         // empty by default
         doReturn(new JackrabbitAccessControlEntry[0]).when(jackrabbitAccessControlList).getAccessControlEntries();
         doReturn(testPath).when(jackrabbitAccessControlList).getPath();
+        doReturn(new String[] { AceBean.RESTRICTION_NAME_GLOB }).when(jackrabbitAccessControlList).getRestrictionNames();
 
         doReturn(jackrabbitAccessControlList).when(aceBeanInstallerIncremental).getAccessControlList(eq(accessControlManager), anyString());
 
         doReturn(true).when(aceBeanInstallerIncremental).installPrivileges(any(AceBean.class), any(Principal.class),
-                eq(jackrabbitAccessControlList), eq(session), eq(accessControlManager));
+                eq(jackrabbitAccessControlList), eq(session), eq(accessControlManager), any(PrivilegeCatalog.class));
 
         // default privilege is a simple privilege with the given string name
         doAnswer(new Answer<Privilege>() {
@@ -136,9 +136,6 @@ public class AceBeanInstallerIncrementalTest {
         doReturn(session).when(slingRepository).loginService(null, null);
 
         doReturn(true).when(aceBeanInstallerIncremental).definesContent(testPath, session);
-
-        doReturn(new PrincipalImpl(FAKE_PRINCIPAL_ID)).when(aceBeanInstallerIncremental).getTestActionMapperPrincipal();
-        doNothing().when(aceBeanInstallerIncremental).applyCqActions(any(AceBean.class), any(Session.class), any(Principal.class));
     }
 
     @Test
@@ -177,11 +174,11 @@ public class AceBeanInstallerIncrementalTest {
         verify(jackrabbitAccessControlList, never()).removeAccessControlEntry(any(JackrabbitAccessControlEntry.class));
 
         verify(aceBeanInstallerIncremental).installPrivileges(eq(bean1), eq(new PrincipalImpl(testPrincipal1)),
-                eq(jackrabbitAccessControlList), eq(session), eq(accessControlManager));
+                eq(jackrabbitAccessControlList), eq(session), eq(accessControlManager), any(PrivilegeCatalog.class));
         verify(aceBeanInstallerIncremental).installPrivileges(eq(bean2), eq(new PrincipalImpl(testPrincipal2)),
-                eq(jackrabbitAccessControlList), eq(session), eq(accessControlManager));
+                eq(jackrabbitAccessControlList), eq(session), eq(accessControlManager), any(PrivilegeCatalog.class));
         verify(aceBeanInstallerIncremental).installPrivileges(eq(bean3), eq(new PrincipalImpl(testPrincipal3)),
-                eq(jackrabbitAccessControlList), eq(session), eq(accessControlManager));
+                eq(jackrabbitAccessControlList), eq(session), eq(accessControlManager), any(PrivilegeCatalog.class));
 
     }
 
@@ -200,7 +197,8 @@ public class AceBeanInstallerIncrementalTest {
         verify(jackrabbitAccessControlList, never()).removeAccessControlEntry(any(JackrabbitAccessControlEntry.class));
 
         verify(aceBeanInstallerIncremental, never()).installPrivileges(any(AceBean.class), any(Principal.class),
-                any(JackrabbitAccessControlList.class), any(Session.class), any(AccessControlManager.class));
+                any(JackrabbitAccessControlList.class), any(Session.class), any(AccessControlManager.class),
+                any(PrivilegeCatalog.class));
 
     }
 
@@ -222,7 +220,8 @@ public class AceBeanInstallerIncrementalTest {
         verify(jackrabbitAccessControlList).removeAccessControlEntry(ace3);
 
         verify(aceBeanInstallerIncremental, never()).installPrivileges(any(AceBean.class), any(Principal.class),
-                any(JackrabbitAccessControlList.class), any(Session.class), any(AccessControlManager.class));
+                any(JackrabbitAccessControlList.class), any(Session.class), any(AccessControlManager.class),
+                any(PrivilegeCatalog.class));
 
     }
 
@@ -230,10 +229,11 @@ public class AceBeanInstallerIncrementalTest {
     public void testGetPrincipalAceBeansForActionAceBeanIsCalledToResolveActions() throws Exception {
 
         // read maps to one simple bean
-        doReturn(asSet(bean1)).when(aceBeanInstallerIncremental).getPrincipalAceBeansForActionAceBean(beanWithAction1, session);
+        doReturn(asSet(bean1)).when(aceBeanInstallerIncremental).getPrincipalAceBeansForActionAceBean(eq(beanWithAction1), eq(session),
+                any(PrivilegeCatalog.class));
         // read,create,modify,delete maps to two beans
-        doReturn(asSet(bean2, bean2Content)).when(aceBeanInstallerIncremental).getPrincipalAceBeansForActionAceBean(beanWithAction2,
-                session);
+        doReturn(asSet(bean2, bean2Content)).when(aceBeanInstallerIncremental).getPrincipalAceBeansForActionAceBean(eq(beanWithAction2),
+                eq(session), any(PrivilegeCatalog.class));
 
         aceBeanInstallerIncremental.installAcl(
                 asSet(beanWithAction1, beanWithAction2), testPath,
@@ -242,11 +242,11 @@ public class AceBeanInstallerIncrementalTest {
         verify(jackrabbitAccessControlList, never()).removeAccessControlEntry(any(JackrabbitAccessControlEntry.class));
 
         verify(aceBeanInstallerIncremental).installPrivileges(eq(bean1), eq(new PrincipalImpl(testPrincipal1)),
-                eq(jackrabbitAccessControlList), eq(session), eq(accessControlManager));
+                eq(jackrabbitAccessControlList), eq(session), eq(accessControlManager), any(PrivilegeCatalog.class));
         verify(aceBeanInstallerIncremental).installPrivileges(eq(bean2), eq(new PrincipalImpl(testPrincipal2)),
-                eq(jackrabbitAccessControlList), eq(session), eq(accessControlManager));
+                eq(jackrabbitAccessControlList), eq(session), eq(accessControlManager), any(PrivilegeCatalog.class));
         verify(aceBeanInstallerIncremental).installPrivileges(eq(bean2Content), eq(new PrincipalImpl(testPrincipal2)),
-                eq(jackrabbitAccessControlList), eq(session), eq(accessControlManager));
+                eq(jackrabbitAccessControlList), eq(session), eq(accessControlManager), any(PrivilegeCatalog.class));
 
     }
 
@@ -254,16 +254,9 @@ public class AceBeanInstallerIncrementalTest {
     @Test
     public void testGetPrincipalAceBeansForActionRead() throws Exception {
 
-        AceBean bean1Clone = bean1.clone();
-        bean1Clone.setPrincipalName(FAKE_PRINCIPAL_ID);
-
         // test simple read bean
-        doReturn(new JackrabbitAccessControlEntry[]{
-                aceBeanToAce(bean1Clone)
-        }).when(jackrabbitAccessControlList).getAccessControlEntries();
-
         Set<AceBean> resultAceBeans = aceBeanInstallerIncremental.getPrincipalAceBeansForActionAceBean(beanWithAction1,
-                session);
+                session, PrivilegeCatalog.create(accessControlManager));
 
         assertEquals(1, resultAceBeans.size());
 
@@ -276,23 +269,17 @@ public class AceBeanInstallerIncrementalTest {
         assertArrayEquals(bean1.getPrivileges(), firstResult.getPrivileges());
         assertArrayEquals(null, firstResult.getActions());
         assertTrue(firstResult.getRestrictions().isEmpty());
+
+        // the mapping is computed without modifying the ACL (it is only checked for rep:glob support)
+        verify(accessControlManager, never()).setPolicy(anyString(), any(AccessControlPolicy.class));
     }
 
     @Test
     public void testGetPrincipalAceBeansForActionReadCreateModifyDelete() throws Exception {
 
         // test read,create,modify.delete
-        AceBean bean2Clone = bean2.clone();
-        bean2Clone.setPrincipalName(FAKE_PRINCIPAL_ID);
-        AceBean bean2ContentClone = bean2Content.clone();
-        bean2ContentClone.setPrincipalName(FAKE_PRINCIPAL_ID);
-
-        doReturn(new JackrabbitAccessControlEntry[]{
-                aceBeanToAce(bean2Clone), aceBeanToAce(bean2ContentClone)
-        }).when(jackrabbitAccessControlList).getAccessControlEntries();
-
         Set<AceBean> resultAceBeans = aceBeanInstallerIncremental.getPrincipalAceBeansForActionAceBean(beanWithAction2,
-                session);
+                session, PrivilegeCatalog.create(accessControlManager));
 
         assertEquals(2, resultAceBeans.size());
 
@@ -318,6 +305,47 @@ public class AceBeanInstallerIncrementalTest {
         assertEquals("*/jcr:content*", secondResult.getRestrictions().get(0).getValue());
     }
 
+    @Test
+    public void testPartitionPathsBySubtree() {
+        Map<String, List<String>> pathsBySubtree = BaseAceBeanInstaller.partitionPathsBySubtree(
+                Arrays.asList("", "/content", "/content/site1", "/content/site1/en", "/content/site2", "/conf/site1", "/home/groups/a"), 2);
+
+        assertEquals(Arrays.asList("", "/conf/site1", "/content", "/home/groups"),
+                new ArrayList<>(pathsBySubtree.keySet()));
+        // ancestors and descendants are always installed by the same worker
+        assertEquals(Arrays.asList("/content", "/content/site1", "/content/site1/en", "/content/site2"), pathsBySubtree.get("/content"));
+        assertEquals(Arrays.asList("/home/groups/a"), pathsBySubtree.get("/home/groups"));
+        assertEquals(Arrays.asList(""), pathsBySubtree.get(""));
+
+        pathsBySubtree = BaseAceBeanInstaller.partitionPathsBySubtree(
+                Arrays.asList("/content/site1", "/content/site2/en", "/contentother/site1", "/contentother"), 2);
+        assertEquals(Arrays.asList("/content/site1", "/content/site2", "/contentother"), new ArrayList<>(pathsBySubtree.keySet()));
+        assertEquals(Arrays.asList("/contentother/site1", "/contentother"), pathsBySubtree.get("/contentother"));
+
+        pathsBySubtree = BaseAceBeanInstaller.partitionPathsBySubtree(Arrays.asList("/content/site1", "/", "/conf/site1", ""), 2);
+        assertEquals(Arrays.asList("", "/"), new ArrayList<>(pathsBySubtree.keySet()));
+        assertEquals(Arrays.asList("/content/site1", "/", "/conf/site1"), pathsBySubtree.get("/"));
+    }
+
+    @Test
+    public void testPartitionPathsBySubtreeWithDepth() {
+        List<String> paths = Arrays.asList("/content/site1/en", "/content/site1/de/home", "/content/site1/de", "/content/site1/fr",
+                "/content/site2", "/content/site2/en/home");
+
+        // all paths of the site end up in the same subtree with the default depth
+        assertEquals(Arrays.asList("/content/site1", "/content/site2"),
+                new ArrayList<>(BaseAceBeanInstaller.partitionPathsBySubtree(paths, 2).keySet()));
+
+        Map<String, List<String>> pathsBySubtree = BaseAceBeanInstaller.partitionPathsBySubtree(paths, 3);
+        assertEquals(Arrays.asList("/content/site1/de", "/content/site1/en", "/content/site1/fr", "/content/site2"),
+                new ArrayList<>(pathsBySubtree.keySet()));
+        assertEquals(Arrays.asList("/content/site1/de/home", "/content/site1/de"), pathsBySubtree.get("/content/site1/de"));
+        // /content/site2 is an ancestor of /content/site2/en
+        assertEquals(Arrays.asList("/content/site2", "/content/site2/en/home"), pathsBySubtree.get("/content/site2"));
+
+        assertEquals(Arrays.asList("/content"), new ArrayList<>(BaseAceBeanInstaller.partitionPathsBySubtree(paths, 1).keySet()));
+    }
+
     public static <T> Set<T> asSet(T... objects) {
         return new LinkedHashSet<T>(Arrays.asList(objects));
     }
@@ -336,7 +364,8 @@ public class AceBeanInstallerIncrementalTest {
     }
 
     private String createComparablePrivSet(String privsIn) throws RepositoryException {
-        return aceBeanInstallerIncremental.privilegesToComparableSet(privsIn.split(" *, *"), accessControlManager);
+        return aceBeanInstallerIncremental.privilegesToComparableSet(privsIn.split(" *, *"), PrivilegeCatalog.create(accessControlManager),
+                accessControlManager);
     }
 
     public static JackrabbitAccessControlEntry aceBeanToAce(final AceBean bean) {
@@ -0,0 +1,128 @@
+/*
+ * (C) Copyright 2026 Cognizant Netcentric.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package biz.netcentric.cq.tools.actool.aceinstaller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.jcr.Node;
+import javax.jcr.Session;
+
+import org.apache.jackrabbit.api.JackrabbitSession;
+import org.apache.sling.jcr.api.SlingRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import biz.netcentric.cq.tools.actool.configmodel.AcConfiguration;
+import biz.netcentric.cq.tools.actool.configmodel.AceBean;
+import biz.netcentric.cq.tools.actool.configmodel.AuthorizablesConfig;
+import biz.netcentric.cq.tools.actool.configmodel.GlobalConfiguration;
+import biz.netcentric.cq.tools.actool.configmodel.Restriction;
+import biz.netcentric.cq.tools.actool.extensions.OakRepository;
+import biz.netcentric.cq.tools.actool.history.impl.PersistableInstallationLogger;
+
+class AceBeanInstallerParallelIT {
+
+    @RegisterExtension
+    static final OakRepository repository = new OakRepository(false);
+
+    private static final String GROUP_ID = "parallel-test-group";
+    private static final String INITIAL_CONTENT = "<jcr:root jcr:primaryType='nt:unstructured'></jcr:root>";
+
+    // relative to the root of the run, ancestors and descendants of the same subtree are both configured
+    private static final List<String> RELATIVE_PATHS = Arrays.asList("/site1", "/site1/en", "/site1/en/new", "/site2", "/site2/de",
+            "other", "other/child");
+
+    @Test
+    void testParallelInstallationResultsInSameAclsAsSequentialInstallation() throws Exception {
+        Session session = repository.createAdminSession();
+        try {
+            ((JackrabbitSession) session).getUserManager().createGroup(GROUP_ID);
+            // required for the composite node store check
+            session.getRootNode().addNode("apps", "nt:folder");
+            for (String root : Arrays.asList("/sequential", "/parallel")) {
+                Node rootNode = session.getRootNode().addNode(root.substring(1), "nt:unstructured");
+                rootNode.addNode("site1", "nt:unstructured").addNode("en", "nt:unstructured");
+                rootNode.addNode("site2", "nt:unstructured").addNode("de", "nt:unstructured");
+            }
+            session.save();
+
+            installAcls(session, "/sequential", 1);
+            session.save();
+            installAcls(session, "/parallel", 4);
+            session.refresh(false);
+
+            for (String relativePath : RELATIVE_PATHS) {
+                String sequentialPath = "/sequential" + relativePath;
+                String parallelPath = "/parallel" + relativePath;
+                assertTrue(session.nodeExists(sequentialPath), "Missing node " + sequentialPath);
+                assertTrue(session.nodeExists(parallelPath), "Missing node " + parallelPath);
+                assertEquals(AclFingerprintIndex.createLiveAclHash(sequentialPath, session),
+                        AclFingerprintIndex.createLiveAclHash(parallelPath, session), "Different ACLs at " + parallelPath);
+            }
+        } finally {
+            session.logout();
+        }
+    }
+
+    private void installAcls(Session session, String root, int aclInstallationThreads) throws Exception {
+        final SlingRepository slingRepository = mock(SlingRepository.class);
+        when(slingRepository.loginService(isNull(), isNull())).thenAnswer(invocation -> repository.createAdminSession());
+        AceBeanInstallerIncremental aceBeanInstaller = new AceBeanInstallerIncremental() {
+            @Override
+            protected SlingRepository getSlingRepository() {
+                return slingRepository;
+            }
+        };
+
+        GlobalConfiguration globalConfiguration = new GlobalConfiguration();
+        globalConfiguration.setAclInstallationThreads(aclInstallationThreads);
+        // parallel installation is only used for non-atomic runs
+        globalConfiguration.setCommitBatchSize(2);
+        AcConfiguration acConfiguration = new AcConfiguration();
+        acConfiguration.setGlobalConfiguration(globalConfiguration);
+        acConfiguration.setAuthorizablesConfig(new AuthorizablesConfig());
+
+        PersistableInstallationLogger installLog = new PersistableInstallationLogger();
+        aceBeanInstaller.installPathBasedACEs(createAceBeansByPath(root), acConfiguration, session, installLog,
+                Collections.singleton(GROUP_ID));
+        assertEquals(0, installLog.getCountAclsPathDoesNotExist(), "All paths are expected to exist or to be created: " + installLog);
+        assertEquals(aclInstallationThreads > 1, installLog.getMessageHistory().contains("subtrees (partitioned by 2 path segments)"),
+                "Unexpected installation mode: " + installLog);
+    }
+
+    private Map<String, Set<AceBean>> createAceBeansByPath(String root) {
+        Map<String, Set<AceBean>> aceBeansByPath = new LinkedHashMap<>();
+        for (String relativePath : RELATIVE_PATHS) {
+            String path = root + relativePath;
+            Set<AceBean> aceBeans = new LinkedHashSet<>();
+            AceBean readAceBean = AceBeanInstallerIncrementalTest.createTestBean(path, GROUP_ID, true, "jcr:read", "");
+            if (!relativePath.startsWith("/") || relativePath.endsWith("/new")) {
+                readAceBean.setInitialContent(INITIAL_CONTENT);
+            }
+            aceBeans.add(readAceBean);
+            aceBeans.add(AceBeanInstallerIncrementalTest.createTestBean(path, GROUP_ID, false, "jcr:removeNode", "",
+                    new Restriction(AceBean.RESTRICTION_NAME_GLOB, "*/jcr:content*")));
+            aceBeansByPath.put(path, aceBeans);
+        }
+        return aceBeansByPath;
+    }
+
+}
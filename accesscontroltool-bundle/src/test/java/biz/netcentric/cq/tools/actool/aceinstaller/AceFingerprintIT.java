@@ -0,0 +1,71 @@
+/*
+ * (C) Copyright 2026 Cognizant Netcentric.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package biz.netcentric.cq.tools.actool.aceinstaller;
+
+import static biz.netcentric.cq.tools.actool.aceinstaller.AceBeanInstallerIncrementalTest.createTestBean;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.jcr.security.AccessControlManager;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import biz.netcentric.cq.tools.actool.configmodel.AceBean;
+import biz.netcentric.cq.tools.actool.configmodel.Restriction;
+import biz.netcentric.cq.tools.actool.extensions.OakRepository;
+
+@ExtendWith(OakRepository.class)
+class AceFingerprintIT {
+
+    private static final String PATH = "/content";
+    private static final String PRINCIPAL = "group1";
+
+    @Test
+    void testEqualsAndHashCode(Session session) throws RepositoryException {
+        AccessControlManager acMgr = session.getAccessControlManager();
+        PrivilegeCatalog privilegeCatalog = PrivilegeCatalog.create(acMgr);
+
+        Restriction glob = new Restriction(AceBean.RESTRICTION_NAME_GLOB, "*/jcr:content*");
+        Restriction ntNames = new Restriction("rep:ntNames", new String[] { "nt:unstructured", "nt:folder" });
+
+        AceFingerprint fingerprint = AceFingerprint.create(createTestBean(PATH, PRINCIPAL, true, "jcr:read,rep:write", "", glob, ntNames),
+                privilegeCatalog, acMgr);
+
+        // aggregates vs. non-aggregate privileges and order of restrictions do not matter
+        AceFingerprint equalFingerprint = AceFingerprint.create(createTestBean(PATH, PRINCIPAL, true,
+                "jcr:write,jcr:nodeTypeManagement,rep:readNodes,rep:readProperties", "", ntNames, glob), privilegeCatalog, acMgr);
+        assertEquals(fingerprint, equalFingerprint);
+        assertEquals(fingerprint.hashCode(), equalFingerprint.hashCode());
+        assertEquals(fingerprint.toString(), equalFingerprint.toString());
+
+        assertNotEquals(fingerprint, AceFingerprint.create(createTestBean(PATH, PRINCIPAL, false, "jcr:read,rep:write", "", glob, ntNames),
+                privilegeCatalog, acMgr));
+        assertNotEquals(fingerprint, AceFingerprint.create(createTestBean(PATH, "group2", true, "jcr:read,rep:write", "", glob, ntNames),
+                privilegeCatalog, acMgr));
+        assertNotEquals(fingerprint, AceFingerprint.create(createTestBean(PATH, PRINCIPAL, true, "jcr:read", "", glob, ntNames),
+                privilegeCatalog, acMgr));
+        assertNotEquals(fingerprint, AceFingerprint.create(createTestBean(PATH, PRINCIPAL, true, "jcr:read,rep:write", "", glob),
+                privilegeCatalog, acMgr));
+        assertNotEquals(fingerprint, AceFingerprint.create(createTestBean(PATH, PRINCIPAL, true, "jcr:read,rep:write", "",
+                new Restriction(AceBean.RESTRICTION_NAME_GLOB, "*/jcr:content/*"), ntNames), privilegeCatalog, acMgr));
+    }
+
+    @Test
+    void testToString(Session session) throws RepositoryException {
+        AccessControlManager acMgr = session.getAccessControlManager();
+        AceFingerprint fingerprint = AceFingerprint.create(createTestBean(PATH, PRINCIPAL, false, "jcr:read", "",
+                new Restriction(AceBean.RESTRICTION_NAME_GLOB, "*/jcr:content*")), PrivilegeCatalog.create(acMgr), acMgr);
+        assertEquals("group1 deny [rep:readNodes, rep:readProperties][[Restriction name=rep:glob, values=[*/jcr:content*]]]",
+                fingerprint.toString());
+    }
+
+}
@@ -0,0 +1,124 @@
+/*
+ * (C) Copyright 2026 Cognizant Netcentric.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package biz.netcentric.cq.tools.actool.aceinstaller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+
+import org.apache.jackrabbit.commons.jackrabbit.authorization.AccessControlUtils;
+import org.apache.jackrabbit.oak.spi.security.principal.EveryonePrincipal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import biz.netcentric.cq.tools.actool.configmodel.AceBean;
+import biz.netcentric.cq.tools.actool.extensions.OakRepository;
+
+@ExtendWith(OakRepository.class)
+class AclFingerprintIndexIT {
+
+    private static final String TEST_PATH = "/content";
+    private static final String OTHER_TEST_PATH = "/content/other";
+
+    @BeforeEach
+    void setup(Session session) throws RepositoryException {
+        // created upfront as the default node type sling:OrderedFolder is not available in plain Oak
+        session.getRootNode().addNode("var", "nt:unstructured").addNode("statistics", "nt:unstructured")
+                .addNode("achistory", "nt:unstructured");
+        session.getRootNode().addNode("content", "nt:unstructured").addNode("other", "nt:unstructured");
+        AccessControlUtils.addAccessControlEntry(session, TEST_PATH, EveryonePrincipal.getInstance(), new String[] { "jcr:read" }, true);
+        AccessControlUtils.addAccessControlEntry(session, OTHER_TEST_PATH, EveryonePrincipal.getInstance(), new String[] { "jcr:read" },
+                true);
+        session.save();
+    }
+
+    @AfterEach
+    void cleanup(Session session) throws RepositoryException {
+        session.refresh(false);
+        session.getNode("/var").remove();
+        session.getNode(TEST_PATH).remove();
+        session.save();
+    }
+
+    @Test
+    void testFingerprintRoundtrip(Session session) throws RepositoryException {
+
+        Set<AceBean> aceBeans = Collections.singleton(
+                AceBeanInstallerIncrementalTest.createTestBean(TEST_PATH, EveryonePrincipal.NAME, true, "jcr:read", ""));
+        String configHash = AclFingerprintIndex.createConfigHash(aceBeans, Collections.singleton(EveryonePrincipal.NAME));
+
+        AclFingerprintIndex aclFingerprintIndex = AclFingerprintIndex.load(session);
+        assertFalse(aclFingerprintIndex.isUnchanged(TEST_PATH, configHash, session), "no fingerprint is persisted yet");
+        aclFingerprintIndex.update(TEST_PATH, configHash, session);
+        assertEquals(1, aclFingerprintIndex.persist(session, Collections.singleton(TEST_PATH)));
+        session.save();
+
+        aclFingerprintIndex = AclFingerprintIndex.load(session);
+        assertTrue(aclFingerprintIndex.isUnchanged(TEST_PATH, configHash, session));
+        assertEquals(1, aclFingerprintIndex.getCountSkipped());
+
+        // changed config
+        String changedConfigHash = AclFingerprintIndex.createConfigHash(aceBeans, Collections.<String> emptySet());
+        assertNotEquals(configHash, changedConfigHash);
+        assertFalse(aclFingerprintIndex.isUnchanged(TEST_PATH, changedConfigHash, session));
+
+        // ACL changed in repository
+        AccessControlUtils.addAccessControlEntry(session, TEST_PATH, EveryonePrincipal.getInstance(), new String[] { "jcr:write" },
+                false);
+        assertFalse(aclFingerprintIndex.isUnchanged(TEST_PATH, configHash, session));
+    }
+
+    @Test
+    void testChangedNodeTypeIsDetected(Session session) throws RepositoryException {
+        String configHash = AclFingerprintIndex.createConfigHash(Collections.<AceBean> emptySet(), Collections.<String> emptySet());
+        AclFingerprintIndex aclFingerprintIndex = AclFingerprintIndex.load(session);
+        aclFingerprintIndex.update(TEST_PATH, configHash, session);
+        aclFingerprintIndex.persist(session, Collections.singleton(TEST_PATH));
+        session.save();
+
+        aclFingerprintIndex = AclFingerprintIndex.load(session);
+        assertTrue(aclFingerprintIndex.isUnchanged(TEST_PATH, configHash, session));
+        // the mapping of actions to privileges depends on the node type
+        session.getNode(TEST_PATH).setPrimaryType("nt:folder");
+        assertFalse(aclFingerprintIndex.isUnchanged(TEST_PATH, configHash, session));
+    }
+
+    @Test
+    void testFingerprintsOfPathsNoLongerConfiguredAreRemoved(Session session) throws RepositoryException {
+        String configHash = AclFingerprintIndex.createConfigHash(Collections.<AceBean> emptySet(), Collections.<String> emptySet());
+        AclFingerprintIndex aclFingerprintIndex = AclFingerprintIndex.load(session);
+        aclFingerprintIndex.update(TEST_PATH, configHash, session);
+        aclFingerprintIndex.update(OTHER_TEST_PATH, configHash, session);
+        assertEquals(2, aclFingerprintIndex.persist(session, Arrays.asList(TEST_PATH, OTHER_TEST_PATH)));
+        assertEquals(0, aclFingerprintIndex.getCountRemoved());
+        session.save();
+
+        // the other path is no longer configured
+        aclFingerprintIndex = AclFingerprintIndex.load(session);
+        assertTrue(aclFingerprintIndex.isUnchanged(TEST_PATH, configHash, session));
+        assertEquals(0, aclFingerprintIndex.persist(session, Collections.singleton(TEST_PATH)));
+        assertEquals(1, aclFingerprintIndex.getCountRemoved());
+        session.save();
+
+        aclFingerprintIndex = AclFingerprintIndex.load(session);
+        assertTrue(aclFingerprintIndex.isUnchanged(TEST_PATH, configHash, session));
+        assertFalse(aclFingerprintIndex.isUnchanged(OTHER_TEST_PATH, configHash, session));
+    }
+
+}
@@ -0,0 +1,68 @@
+/*
+ * (C) Copyright 2026 Cognizant Netcentric.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package biz.netcentric.cq.tools.actool.aceinstaller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.jcr.security.AccessControlManager;
+import javax.jcr.security.Privilege;
+
+import org.apache.jackrabbit.api.security.JackrabbitAccessControlList;
+import org.apache.jackrabbit.oak.spi.security.principal.EveryonePrincipal;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import biz.netcentric.cq.tools.actool.extensions.OakRepository;
+
+@ExtendWith(OakRepository.class)
+class AclWorkingSetIT {
+
+    @Test
+    void testAclIsLoadedOnceAndWrittenOnFlush(Session session) throws RepositoryException {
+        session.getRootNode().addNode("workingset", "nt:unstructured");
+        session.save();
+        String path = "/workingset";
+        AccessControlManager acMgr = session.getAccessControlManager();
+
+        AclWorkingSet aclWorkingSet = new AclWorkingSet(session);
+        assertNull(aclWorkingSet.getAcl("/workingset/nonexisting"));
+        JackrabbitAccessControlList acl = aclWorkingSet.getAcl(path);
+        assertNotNull(acl);
+        assertSame(acl, aclWorkingSet.getAcl(path));
+        assertEquals(1, aclWorkingSet.getCountHits());
+        assertEquals(2, aclWorkingSet.getCountMisses());
+
+        acl.addEntry(EveryonePrincipal.getInstance(), new Privilege[] { acMgr.privilegeFromName(Privilege.JCR_READ) }, true);
+        assertEquals(0, acMgr.getPolicies(path).length, "ACL is only written on flush");
+        aclWorkingSet.setModified(path);
+        assertTrue(aclWorkingSet.flush(path));
+        assertEquals(1, acMgr.getPolicies(path).length);
+        assertEquals(1, aclWorkingSet.getCountWritten());
+
+        // handle is released on flush, unmodified ACLs are not written
+        assertFalse(aclWorkingSet.getAcl(path) == acl);
+        assertEquals(0, aclWorkingSet.flushAll());
+
+        // empty ACLs are removed
+        JackrabbitAccessControlList reloadedAcl = aclWorkingSet.getAcl(path);
+        reloadedAcl.removeAccessControlEntry(reloadedAcl.getAccessControlEntries()[0]);
+        aclWorkingSet.setModified(path);
+        assertEquals(1, aclWorkingSet.flushAll());
+        assertEquals(0, acMgr.getPolicies(path).length);
+        assertEquals(2, aclWorkingSet.getCountWritten());
+    }
+
+}
@@ -0,0 +1,53 @@
+/*
+ * (C) Copyright 2026 Cognizant Netcentric.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package biz.netcentric.cq.tools.actool.aceinstaller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.BitSet;
+
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.jcr.security.AccessControlManager;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import biz.netcentric.cq.tools.actool.extensions.OakRepository;
+
+@ExtendWith(OakRepository.class)
+class PrivilegeCatalogIT {
+
+    @Test
+    void testPrivilegeBits(Session session) throws RepositoryException {
+        AccessControlManager acMgr = session.getAccessControlManager();
+        PrivilegeCatalog privilegeCatalog = PrivilegeCatalog.create(acMgr);
+
+        BitSet repWriteBits = privilegeCatalog.getPrivilegeBits(new String[] { "rep:write" }, acMgr);
+        BitSet expandedRepWriteBits = privilegeCatalog.getPrivilegeBits(new String[] { "jcr:modifyProperties", "jcr:addChildNodes",
+                "jcr:removeNode", "jcr:removeChildNodes", "jcr:nodeTypeManagement" }, acMgr);
+        assertEquals(repWriteBits, expandedRepWriteBits);
+        // only non-aggregate privileges are returned, jcr:modifyProperties is an aggregate of rep:addProperties, rep:alterProperties and
+        // rep:removeProperties
+        assertEquals(7, privilegeCatalog.getPrivileges(repWriteBits).size());
+        assertEquals("[jcr:addChildNodes, jcr:nodeTypeManagement, jcr:removeChildNodes, jcr:removeNode, rep:addProperties, "
+                + "rep:alterProperties, rep:removeProperties]", privilegeCatalog.toComparableString(repWriteBits));
+
+        BitSet jcrWriteBits = privilegeCatalog.getPrivilegeBits(new String[] { "jcr:write" }, acMgr);
+        assertTrue(PrivilegeCatalog.includes(repWriteBits, jcrWriteBits));
+        assertFalse(PrivilegeCatalog.includes(jcrWriteBits, repWriteBits));
+
+        assertEquals("[jcr:readAccessControl, rep:readNodes, rep:readProperties]",
+                privilegeCatalog.toComparableString(privilegeCatalog.getPrivilegeBits(new String[] { "jcr:read", "jcr:readAccessControl" }, acMgr)));
+        assertTrue(privilegeCatalog.getPrivilegeBits(null, acMgr).isEmpty());
+    }
+
+}
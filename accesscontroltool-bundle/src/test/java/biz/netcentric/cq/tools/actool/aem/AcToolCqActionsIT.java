@@ -0,0 +1,133 @@
+/*
+ * (C) Copyright 2026 Cognizant Netcentric.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package biz.netcentric.cq.tools.actool.aem;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import javax.jcr.Node;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.jcr.security.AccessControlEntry;
+import javax.jcr.security.AccessControlManager;
+import javax.jcr.security.Privilege;
+
+import org.apache.jackrabbit.JcrConstants;
+import org.apache.jackrabbit.api.security.JackrabbitAccessControlList;
+import org.apache.jackrabbit.oak.spi.security.principal.EveryonePrincipal;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import biz.netcentric.cq.tools.actool.configmodel.AceBean;
+import biz.netcentric.cq.tools.actool.configmodel.Restriction;
+import biz.netcentric.cq.tools.actool.extensions.OakRepository;
+import biz.netcentric.cq.tools.actool.helper.AcHelper;
+import biz.netcentric.cq.tools.actool.helper.AccessControlUtils;
+
+/** Verifies that the in-memory mapping of {@link AcToolCqActions#compileActions(Map, boolean, boolean)} yields the same ACEs as
+ * {@link AcToolCqActions#installActions(String, java.security.Principal, Map, java.util.Collection)} writes to the repository. The
+ * replicate action is left out as its privilege is not registered in a plain Oak repository. */
+@ExtendWith(OakRepository.class)
+class AcToolCqActionsIT {
+
+    @Test
+    void testCompiledActionsEqualInstalledActionsWithoutContent(Session session) throws RepositoryException {
+        assertCompiledActionsEqualInstalledActions(session, JcrConstants.NT_FOLDER, false);
+    }
+
+    @Test
+    void testCompiledActionsEqualInstalledActionsWithContent(Session session) throws RepositoryException {
+        assertCompiledActionsEqualInstalledActions(session, JcrConstants.NT_FILE, true);
+    }
+
+    private static void assertCompiledActionsEqualInstalledActions(Session session, String nodeType, boolean definesContent)
+            throws RepositoryException {
+        List<Map<String, Boolean>> actionMaps = Arrays.asList(
+                createActionMap(true, "read"),
+                createActionMap(true, "read", "modify", "create", "delete"),
+                createActionMap(true, "read", "create"),
+                createActionMap(true, "read", "delete"),
+                createActionMap(false, "modify", "delete"),
+                createActionMap(false, "create"),
+                createActionMap(true, "acl_read", "acl_edit"),
+                withDenied(createActionMap(true, "read", "modify"), "create", "delete"),
+                withDenied(createActionMap(true, "read", "create", "delete"), "modify"));
+
+        AccessControlManager acMgr = session.getAccessControlManager();
+        AcToolCqActions cqActions = new AcToolCqActions(session);
+        Node parent = session.getRootNode().addNode("cqactions-" + nodeType.replace(':', '-'), JcrConstants.NT_FOLDER);
+        int i = 0;
+        for (Map<String, Boolean> actionMap : actionMaps) {
+            Node node = parent.addNode("node" + i++, nodeType);
+            if (definesContent) {
+                node.addNode(JcrConstants.JCR_CONTENT, JcrConstants.NT_UNSTRUCTURED);
+            }
+            assertEquals(definesContent, AcToolCqActions.definesContent(node));
+
+            cqActions.installActions(node.getPath(), EveryonePrincipal.getInstance(), actionMap, Collections.<String> emptyList());
+
+            List<String> installedAces = new ArrayList<>();
+            JackrabbitAccessControlList acl = AccessControlUtils.getAccessControlList(acMgr, node.getPath());
+            for (AccessControlEntry ace : acl.getAccessControlEntries()) {
+                installedAces.add(toComparableString(AcHelper.getAceBean(ace, acl), acMgr));
+            }
+            List<String> compiledAces = new ArrayList<>();
+            for (AceBean aceBean : AcToolCqActions.compileActions(actionMap, definesContent,
+                    AcToolCqActions.isGlobRestrictionSupported(acl))) {
+                compiledAces.add(toComparableString(aceBean, acMgr));
+            }
+            assertEquals(installedAces, compiledAces, "ACEs for actions " + actionMap);
+        }
+        // nothing is saved, the nodes and ACLs are discarded
+        session.refresh(false);
+    }
+
+    private static Map<String, Boolean> createActionMap(boolean isAllow, String... actions) {
+        Map<String, Boolean> actionMap = new LinkedHashMap<>();
+        for (String action : actions) {
+            actionMap.put(action, isAllow);
+        }
+        return actionMap;
+    }
+
+    private static Map<String, Boolean> withDenied(Map<String, Boolean> actionMap, String... actions) {
+        actionMap.putAll(createActionMap(false, actions));
+        return actionMap;
+    }
+
+    /** Expands aggregate privileges, as the access control list may store them differently than the compiled bean. */
+    private static String toComparableString(AceBean aceBean, AccessControlManager acMgr) throws RepositoryException {
+        Set<String> privilegeNames = new TreeSet<>();
+        for (String privilegeName : aceBean.getPrivileges()) {
+            Privilege privilege = acMgr.privilegeFromName(privilegeName);
+            if (privilege.isAggregate()) {
+                for (Privilege aggregatedPrivilege : privilege.getAggregatePrivileges()) {
+                    if (!aggregatedPrivilege.isAggregate()) {
+                        privilegeNames.add(aggregatedPrivilege.getName());
+                    }
+                }
+            } else {
+                privilegeNames.add(privilege.getName());
+            }
+        }
+        Set<String> restrictions = new TreeSet<>();
+        for (Restriction restriction : aceBean.getRestrictions()) {
+            restrictions.add(restriction.getName() + "=" + restriction.getValues());
+        }
+        return aceBean.getPermission() + " " + privilegeNames + " " + restrictions;
+    }
+}
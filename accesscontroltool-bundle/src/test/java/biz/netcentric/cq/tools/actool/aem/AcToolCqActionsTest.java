@@ -0,0 +1,82 @@
+/*
+ * (C) Copyright 2026 Cognizant Netcentric.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package biz.netcentric.cq.tools.actool.aem;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import biz.netcentric.cq.tools.actool.configmodel.AceBean;
+
+public class AcToolCqActionsTest {
+
+    @Test
+    public void testCompileActionsWithoutContent() {
+        List<AceBean> aceBeans = AcToolCqActions.compileActions(createActionMap(true, "read", "modify", "create", "delete"), false, true);
+
+        assertEquals(1, aceBeans.size());
+        assertEquals("allow", aceBeans.get(0).getPermission());
+        assertEquals("jcr:read,jcr:lockManagement,jcr:versionManagement,rep:write", aceBeans.get(0).getPrivilegesString());
+        assertTrue(aceBeans.get(0).getRestrictions().isEmpty());
+    }
+
+    @Test
+    public void testCompileActionsCreateWithoutModifyForContent() {
+        List<AceBean> aceBeans = AcToolCqActions.compileActions(createActionMap(true, "read", "create", "replicate"), true, true);
+
+        assertEquals(2, aceBeans.size());
+        assertEquals("allow", aceBeans.get(0).getPermission());
+        assertEquals("jcr:read,jcr:addChildNodes,jcr:nodeTypeManagement,crx:replicate", aceBeans.get(0).getPrivilegesString());
+
+        // creating nodes is not allowed within jcr:content if modify is not granted
+        assertEquals("deny", aceBeans.get(1).getPermission());
+        assertEquals("jcr:addChildNodes,jcr:nodeTypeManagement", aceBeans.get(1).getPrivilegesString());
+        assertEquals(1, aceBeans.get(1).getRestrictions().size());
+        assertEquals(AceBean.RESTRICTION_NAME_GLOB, aceBeans.get(1).getRestrictions().get(0).getName());
+        assertEquals("*/jcr:content*", aceBeans.get(1).getRestrictions().get(0).getValue());
+    }
+
+    @Test
+    public void testCompileActionsDenyForContent() {
+        List<AceBean> aceBeans = AcToolCqActions.compileActions(createActionMap(false, "modify", "delete"), true, true);
+
+        assertEquals(2, aceBeans.size());
+        assertEquals("deny", aceBeans.get(0).getPermission());
+        assertEquals("jcr:modifyProperties,jcr:lockManagement,jcr:versionManagement,jcr:removeChildNodes,jcr:removeNode",
+                aceBeans.get(0).getPrivilegesString());
+
+        assertEquals("deny", aceBeans.get(1).getPermission());
+        assertEquals("jcr:addChildNodes,jcr:nodeTypeManagement,jcr:removeChildNodes,jcr:removeNode", aceBeans.get(1).getPrivilegesString());
+        assertEquals("*/jcr:content*", aceBeans.get(1).getRestrictions().get(0).getValue());
+    }
+
+    @Test
+    public void testCompileActionsForContentWithoutGlobSupport() {
+        List<AceBean> aceBeans = AcToolCqActions.compileActions(createActionMap(false, "modify", "delete"), true, false);
+
+        // no entries for the page content can be created without rep:glob
+        assertEquals(1, aceBeans.size());
+        assertEquals("deny", aceBeans.get(0).getPermission());
+        assertTrue(aceBeans.get(0).getRestrictions().isEmpty());
+    }
+
+    private Map<String, Boolean> createActionMap(boolean isAllow, String... actions) {
+        Map<String, Boolean> actionMap = new HashMap<>();
+        for (String action : actions) {
+            actionMap.put(action, isAllow);
+        }
+        return actionMap;
+    }
+
+}
@@ -0,0 +1,128 @@
+/*
+ * (C) Copyright 2026 Cognizant Netcentric.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package biz.netcentric.cq.tools.actool.authorizableinstaller.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.jcr.SimpleCredentials;
+
+import org.apache.jackrabbit.api.JackrabbitSession;
+import org.apache.jackrabbit.api.security.user.Group;
+import org.apache.jackrabbit.api.security.user.User;
+import org.apache.jackrabbit.api.security.user.UserManager;
+import org.apache.jackrabbit.oak.spi.security.principal.PrincipalImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import biz.netcentric.cq.tools.actool.extensions.OakRepository;
+import biz.netcentric.cq.tools.actool.history.impl.PersistableInstallationLogger;
+
+@ExtendWith(OakRepository.class)
+class AuthInstallerUserManagerPrefetchingImplIT {
+
+    @Test
+    void testScopedPrefetchEqualsFullPrefetch(Session session) throws RepositoryException {
+        UserManager userManager = ((JackrabbitSession) session).getUserManager();
+        Group parentGroup = userManager.createGroup(new PrincipalImpl("prefetch-parent"));
+        Group configGroup = userManager.createGroup(new PrincipalImpl("prefetch-config"));
+        Group memberGroup = userManager.createGroup(new PrincipalImpl("prefetch-member"));
+        User systemUser = userManager.createSystemUser("prefetch-systemuser", null);
+        User regularUser = userManager.createUser("prefetch-user", "password");
+        parentGroup.addMember(configGroup);
+        configGroup.addMember(memberGroup);
+        configGroup.addMember(systemUser);
+        configGroup.addMember(regularUser);
+        for (int i = 0; i < 20; i++) {
+            // unrelated groups (e.g. synced from IMS)
+            userManager.createGroup(new PrincipalImpl("prefetch-unrelated-" + i)).addMember(memberGroup);
+        }
+        // more members than fit into rep:members, the remaining ones are stored below rep:membersList
+        Group bigGroup = userManager.createGroup(new PrincipalImpl("prefetch-big"));
+        for (int i = 0; i < 150; i++) {
+            bigGroup.addMember(userManager.createUser("prefetch-big-user-" + i, "password"));
+            bigGroup.addMember(userManager.createSystemUser("prefetch-big-systemuser-" + i, null));
+        }
+        session.save();
+
+        Set<String> authorizableIdsFromConfig = new HashSet<>(
+                Arrays.asList("prefetch-config", "PREFETCH-PARENT", "prefetch-big", "prefetch-new"));
+
+        AuthInstallerUserManagerPrefetchingImpl fullPrefetch = new AuthInstallerUserManagerPrefetchingImpl(userManager,
+                session.getValueFactory(), session, new PersistableInstallationLogger(), authorizableIdsFromConfig, Integer.MAX_VALUE, 1,
+                null);
+        assertFalse(fullPrefetch.isScopedPrefetch());
+
+        AuthInstallerUserManagerPrefetchingImpl scopedPrefetch = new AuthInstallerUserManagerPrefetchingImpl(userManager,
+                session.getValueFactory(), session, new PersistableInstallationLogger(), authorizableIdsFromConfig, 5, 1, null);
+        assertTrue(scopedPrefetch.isScopedPrefetch());
+
+        assertEquals(new HashSet<>(Arrays.asList("prefetch-member", "prefetch-systemuser")),
+                scopedPrefetch.getDeclaredMembersWithoutRegularUsers("prefetch-config"));
+        assertEquals(fullPrefetch.getDeclaredMembersWithoutRegularUsers("prefetch-config"),
+                scopedPrefetch.getDeclaredMembersWithoutRegularUsers("prefetch-config"));
+        assertEquals(fullPrefetch.getDeclaredMembersWithoutRegularUsers("prefetch-parent"),
+                scopedPrefetch.getDeclaredMembersWithoutRegularUsers("prefetch-parent"));
+        assertEquals(150, scopedPrefetch.getDeclaredMembersWithoutRegularUsers("prefetch-big").size());
+        assertEquals(fullPrefetch.getDeclaredMembersWithoutRegularUsers("prefetch-big"),
+                scopedPrefetch.getDeclaredMembersWithoutRegularUsers("prefetch-big"));
+
+        assertEquals(fullPrefetch.getDeclaredIsMemberOf("prefetch-config"), scopedPrefetch.getDeclaredIsMemberOf("prefetch-config"));
+        // not referenced by config, falls back to retrieve on demand
+        assertEquals(fullPrefetch.getDeclaredIsMemberOf("prefetch-member"), scopedPrefetch.getDeclaredIsMemberOf("prefetch-member"));
+        assertEquals(21, scopedPrefetch.getDeclaredIsMemberOf("prefetch-member").size());
+
+        assertEquals("prefetch-parent", scopedPrefetch.getAuthorizable("prefetch-parent").getID());
+        assertEquals(null, scopedPrefetch.getAuthorizable("prefetch-new"));
+    }
+
+    @Test
+    void testParallelPrefetchEqualsSequentialPrefetch(final Session session) throws RepositoryException {
+        UserManager userManager = ((JackrabbitSession) session).getUserManager();
+        Group parentGroup = userManager.createGroup(new PrincipalImpl("parallel-parent"));
+        User systemUser = userManager.createSystemUser("parallel-systemuser", null);
+        parentGroup.addMember(systemUser);
+        for (int i = 0; i < 250; i++) {
+            Group group = userManager.createGroup(new PrincipalImpl("parallel-group-" + i));
+            parentGroup.addMember(group);
+            group.addMember(systemUser);
+        }
+        session.save();
+
+        AuthInstallerUserManagerPrefetchingImpl sequentialPrefetch = new AuthInstallerUserManagerPrefetchingImpl(userManager,
+                session.getValueFactory(), new PersistableInstallationLogger());
+        PersistableInstallationLogger installLog = new PersistableInstallationLogger();
+        AuthInstallerUserManagerPrefetchingImpl parallelPrefetch = new AuthInstallerUserManagerPrefetchingImpl(userManager,
+                session, installLog, null, 3,
+                new AuthInstallerUserManagerPrefetchingImpl.WorkerSessionFactory() {
+                    @Override
+                    public Session createSession() throws RepositoryException {
+                        return session.getRepository().login(new SimpleCredentials("admin", "admin".toCharArray()));
+                    }
+                });
+
+        assertEquals(251, parallelPrefetch.getDeclaredMembersWithoutRegularUsers("parallel-parent").size());
+        assertEquals(sequentialPrefetch.getDeclaredMembersWithoutRegularUsers("parallel-parent"),
+                parallelPrefetch.getDeclaredMembersWithoutRegularUsers("parallel-parent"));
+        assertEquals(251, parallelPrefetch.getDeclaredIsMemberOf("PARALLEL-SYSTEMUSER").size());
+        assertEquals(sequentialPrefetch.getDeclaredIsMemberOf("parallel-systemuser"),
+                parallelPrefetch.getDeclaredIsMemberOf("parallel-systemuser"));
+        assertEquals(sequentialPrefetch.getDeclaredIsMemberOf("parallel-group-42"),
+                parallelPrefetch.getDeclaredIsMemberOf("parallel-group-42"));
+        assertTrue(installLog.getMessageHistory().contains("Prefetch worker 3 prefetched"));
+    }
+
+}
@@ -0,0 +1,141 @@
+/*
+ * (C) Copyright 2026 Cognizant Netcentric.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package biz.netcentric.cq.tools.actool.authorizableinstaller.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+
+import org.apache.jackrabbit.api.JackrabbitSession;
+import org.apache.jackrabbit.api.security.user.Group;
+import org.apache.jackrabbit.api.security.user.User;
+import org.apache.jackrabbit.api.security.user.UserManager;
+import org.apache.jackrabbit.oak.spi.security.principal.PrincipalImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import biz.netcentric.cq.tools.actool.configmodel.AcConfiguration;
+import biz.netcentric.cq.tools.actool.configmodel.AuthorizableConfigBean;
+import biz.netcentric.cq.tools.actool.configmodel.AuthorizablesConfig;
+import biz.netcentric.cq.tools.actool.configmodel.GlobalConfiguration;
+import biz.netcentric.cq.tools.actool.extensions.OakRepository;
+import biz.netcentric.cq.tools.actool.history.impl.PersistableInstallationLogger;
+
+@ExtendWith(OakRepository.class)
+class AuthorizableFingerprintIT {
+
+    @Test
+    void testFingerprintDetectsChanges(Session session) throws RepositoryException {
+        UserManager userManager = ((JackrabbitSession) session).getUserManager();
+        Group group = userManager.createGroup(new PrincipalImpl("fingerprintGroup"));
+        Group otherGroup = userManager.createGroup(new PrincipalImpl("fingerprintOtherGroup"));
+        User systemUser = userManager.createSystemUser("fingerprintSystemUser", null);
+        User regularUser = userManager.createUser("fingerprintRegularUser", "password");
+        group.addMember(systemUser);
+        group.addMember(regularUser);
+        session.save();
+
+        AuthorizableConfigBean groupBean = new AuthorizableConfigBean();
+        groupBean.setAuthorizableId("fingerprintGroup");
+        groupBean.setIsGroup(true);
+        groupBean.setDescription("description");
+        GlobalConfiguration globalConfiguration = new GlobalConfiguration();
+        Set<String> authorizablesFromConfigurations = new HashSet<>(Arrays.asList("fingerprintGroup", "fingerprintOtherGroup"));
+
+        AuthInstallerUserManagerPrefetchingImpl prefetchingUserManager = new AuthInstallerUserManagerPrefetchingImpl(userManager,
+                session.getValueFactory(), new PersistableInstallationLogger());
+        Set<String> declaredMembers = prefetchingUserManager.getDeclaredMembersWithoutRegularUsers("fingerprintGroup");
+        assertEquals(Collections.singleton("fingerprintSystemUser"), declaredMembers, "regular users are not part of the fingerprint");
+        String fingerprint = AuthorizableFingerprint.create(groupBean, globalConfiguration, group,
+                prefetchingUserManager.getDeclaredIsMemberOf("fingerprintGroup"), declaredMembers, authorizablesFromConfigurations);
+        assertEquals(fingerprint, AuthorizableFingerprint.create(groupBean, globalConfiguration, group,
+                prefetchingUserManager.getDeclaredIsMemberOf("fingerprintGroup"), declaredMembers, authorizablesFromConfigurations));
+
+        // stored fingerprint
+        assertNull(AuthorizableFingerprint.getStoredFingerprint(group));
+        group.setProperty(AuthorizableFingerprint.PROPERTY_FINGERPRINT, session.getValueFactory().createValue(fingerprint));
+        assertEquals(fingerprint, AuthorizableFingerprint.getStoredFingerprint(group));
+
+        // changed membership in repository (not saved yet, hence only visible via the applied membership plan)
+        prefetchingUserManager.getGroupMembershipPlan().addMember("fingerprintOtherGroup", "fingerprintGroup");
+        prefetchingUserManager.getGroupMembershipPlan().apply(prefetchingUserManager, new PersistableInstallationLogger());
+        assertTrue(otherGroup.isDeclaredMember(group));
+        assertEquals(Collections.singleton("fingerprintOtherGroup"), prefetchingUserManager.getDeclaredIsMemberOf("fingerprintGroup"));
+        String fingerprintAfterMembershipChange = AuthorizableFingerprint.create(groupBean, globalConfiguration, group,
+                prefetchingUserManager.getDeclaredIsMemberOf("fingerprintGroup"), declaredMembers, authorizablesFromConfigurations);
+        assertNotEquals(fingerprint, fingerprintAfterMembershipChange);
+        assertTrue(fingerprintAfterMembershipChange.startsWith(AuthorizableFingerprint.createConfigHash(groupBean, globalConfiguration) + ":"));
+
+        // changed configuration
+        groupBean.setDescription("changed description");
+        assertFalse(fingerprintAfterMembershipChange.startsWith(AuthorizableFingerprint.createConfigHash(groupBean, globalConfiguration) + ":"));
+
+        session.refresh(false);
+    }
+
+    @Test
+    void testRegularUserConfiguredAsMemberIsRestored(Session session) throws Exception {
+        UserManager userManager = ((JackrabbitSession) session).getUserManager();
+        User regularUser = userManager.createUser("fingerprintConfiguredRegularUser", "password");
+        session.save();
+
+        AuthorizableConfigBean groupBean = new AuthorizableConfigBean();
+        groupBean.setAuthorizableId("fingerprintGroupWithRegularUser");
+        groupBean.setPrincipalName("fingerprintGroupWithRegularUser");
+        groupBean.setIsGroup(true);
+        groupBean.setMembers(new String[] { "fingerprintConfiguredRegularUser" });
+        AuthorizablesConfig authorizablesConfig = new AuthorizablesConfig();
+        authorizablesConfig.add(groupBean);
+        GlobalConfiguration globalConfiguration = new GlobalConfiguration();
+        globalConfiguration.setUseAuthorizableFingerprints(true);
+        AcConfiguration acConfiguration = new AcConfiguration();
+        acConfiguration.setGlobalConfiguration(globalConfiguration);
+        acConfiguration.setAuthorizablesConfig(authorizablesConfig);
+        AuthorizableInstallerServiceImpl authorizableInstallerService = new AuthorizableInstallerServiceImpl();
+
+        authorizableInstallerService.installAuthorizables(acConfiguration, authorizablesConfig, session, new PersistableInstallationLogger());
+        session.save();
+        Group group = (Group) userManager.getAuthorizable("fingerprintGroupWithRegularUser");
+        assertTrue(group.isDeclaredMember(regularUser));
+
+        PersistableInstallationLogger installLogUnchanged = new PersistableInstallationLogger();
+        authorizableInstallerService.installAuthorizables(acConfiguration, authorizablesConfig, session, installLogUnchanged);
+        assertEquals(1, installLogUnchanged.getCountAuthorizablesUnchanged());
+
+        // membership removed manually
+        group.removeMember(regularUser);
+        session.save();
+
+        PersistableInstallationLogger installLogAfterRemoval = new PersistableInstallationLogger();
+        authorizableInstallerService.installAuthorizables(acConfiguration, authorizablesConfig, session, installLogAfterRemoval);
+        session.save();
+        assertEquals(0, installLogAfterRemoval.getCountAuthorizablesUnchanged(), "removed configured member has to be detected");
+        assertTrue(group.isDeclaredMember(regularUser));
+    }
+
+    @Test
+    void testIsApplicable() {
+        AuthorizableConfigBean userBean = new AuthorizableConfigBean();
+        userBean.setAuthorizableId("fingerprintUser");
+        assertTrue(AuthorizableFingerprint.isApplicable(userBean));
+        userBean.setPassword("password");
+        assertFalse(AuthorizableFingerprint.isApplicable(userBean), "passwords are not covered by the fingerprint");
+    }
+
+}
@@ -0,0 +1,75 @@
+/*
+ * (C) Copyright 2026 Cognizant Netcentric.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package biz.netcentric.cq.tools.actool.authorizableinstaller.impl;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+
+import org.apache.jackrabbit.api.JackrabbitSession;
+import org.apache.jackrabbit.api.security.user.Group;
+import org.apache.jackrabbit.api.security.user.UserManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import biz.netcentric.cq.tools.actool.configmodel.AcConfiguration;
+import biz.netcentric.cq.tools.actool.configmodel.AuthorizableConfigBean;
+import biz.netcentric.cq.tools.actool.configmodel.AuthorizablesConfig;
+import biz.netcentric.cq.tools.actool.configmodel.GlobalConfiguration;
+import biz.netcentric.cq.tools.actool.extensions.OakRepository;
+import biz.netcentric.cq.tools.actool.history.impl.PersistableInstallationLogger;
+
+@ExtendWith(OakRepository.class)
+class AuthorizableInstallerServiceImplIT {
+
+    @Test
+    void testPersistedBatchesContainMembershipsIfInstallationFails(Session session) throws RepositoryException {
+        AuthorizablesConfig authorizablesConfig = new AuthorizablesConfig();
+        authorizablesConfig.add(createGroupBean("batchGroupB", null, null));
+        authorizablesConfig.add(createGroupBean("batchGroupA", new String[] { "batchGroupB" }, null));
+        // fails as the member does not exist
+        authorizablesConfig.add(createGroupBean("batchGroupC", null, new String[] { "batchNonExistingMember" }));
+
+        GlobalConfiguration globalConfiguration = new GlobalConfiguration();
+        globalConfiguration.setCommitBatchSize(1);
+        AcConfiguration acConfiguration = new AcConfiguration();
+        acConfiguration.setGlobalConfiguration(globalConfiguration);
+        acConfiguration.setAuthorizablesConfig(authorizablesConfig);
+
+        PersistableInstallationLogger installLog = new PersistableInstallationLogger();
+        assertThrows(IllegalStateException.class,
+                () -> new AuthorizableInstallerServiceImpl().installAuthorizables(acConfiguration, authorizablesConfig, session, installLog));
+        assertTrue(installLog.getMessageHistory().contains("have been persisted before the failure"));
+
+        // only the persisted batches remain
+        session.refresh(false);
+        UserManager userManager = ((JackrabbitSession) session).getUserManager();
+        Group groupA = (Group) userManager.getAuthorizable("batchGroupA");
+        Group groupB = (Group) userManager.getAuthorizable("batchGroupB");
+        assertNotNull(groupA);
+        assertNotNull(groupB);
+        assertTrue(groupB.isDeclaredMember(groupA), "membership of a persisted batch has to be persisted along with the batch");
+        assertNull(userManager.getAuthorizable("batchGroupC"));
+    }
+
+    private static AuthorizableConfigBean createGroupBean(String groupId, String[] isMemberOf, String[] members) {
+        AuthorizableConfigBean groupBean = new AuthorizableConfigBean();
+        groupBean.setAuthorizableId(groupId);
+        groupBean.setPrincipalName(groupId);
+        groupBean.setIsGroup(true);
+        groupBean.setIsMemberOf(isMemberOf);
+        groupBean.setMembers(members);
+        return groupBean;
+    }
+
+}
@@ -186,15 +186,16 @@ public class AuthorizableInstallerServiceImplTest {
             cut.applyGroupMembershipConfigIsMemberOf(authorizableConfigBean, acConfiguration, status, prefetchingUserManager, null, configuredGroups,
                     groupsInRepo,
                     authorizablesInConfig);
+            prefetchingUserManager.getGroupMembershipPlan().apply(prefetchingUserManager, status);
 
             Mockito.verifyNoInteractions(group2); // in configuredGroups and in groupsInRepo
             Mockito.verifyNoInteractions(externalGroup); // matches external.* and hence must not be removed (even though it is not in the
             // configuration)
 
-            verify(group1).addMember(testGroup);
+            verify(group1).addMembers(TESTGROUP);
             verifyNoMoreInteractions(group1);
 
-            verify(group3).removeMember(testGroup);
+            verify(group3).removeMembers(TESTGROUP);
             verifyNoMoreInteractions(group3);
 
         }
@@ -217,38 +218,35 @@ public class AuthorizableInstallerServiceImplTest {
 
             doReturn(asSet(group2.getID(), group3.getID(), systemUser1.getID())).when(spyedPrefetchingUserManager).getDeclaredMembersWithoutRegularUsers(eq(TESTGROUP));
             cut.applyGroupMembershipConfigMembers(acConfiguration, authorizableConfigBean, history, TESTGROUP, spyedPrefetchingUserManager, authorizablesInConfig);
-            verify(testGroup, times(0)).addMember(any(Authorizable.class));
-            verify(testGroup, times(0)).removeMember(any(Authorizable.class));
+            spyedPrefetchingUserManager.getGroupMembershipPlan().apply(spyedPrefetchingUserManager, history);
+            Mockito.verifyNoInteractions(testGroup);
             reset(testGroup);
 
             // test removed in config
             authorizableConfigBean.setMembers(new String[] {});
             doReturn(asSet(group2.getID(), group3.getID(), systemUser1.getID())).when(spyedPrefetchingUserManager).getDeclaredMembersWithoutRegularUsers(eq(TESTGROUP));
             cut.applyGroupMembershipConfigMembers(acConfiguration, authorizableConfigBean, history, TESTGROUP, spyedPrefetchingUserManager, authorizablesInConfig);
-            verify(testGroup, times(0)).addMember(any(Authorizable.class));
-            verify(testGroup).removeMember(group2);
-            verify(testGroup).removeMember(group3);
-            verify(testGroup).removeMember(systemUser1);
-            verify(testGroup, times(0)).removeMember(regularUser1);// regular user must not be removed
+            spyedPrefetchingUserManager.getGroupMembershipPlan().apply(spyedPrefetchingUserManager, history);
+            verify(testGroup).removeMembers(GROUP2, GROUP3, SYSTEM_USER1); // regular user must not be removed
+            verifyNoMoreInteractions(testGroup);
             reset(testGroup);
 
             // test to be added as in config but not in repo
             authorizableConfigBean.setMembers(new String[] { GROUP2, GROUP3, SYSTEM_USER1 });
             doReturn(asSet()).when(spyedPrefetchingUserManager).getDeclaredMembersWithoutRegularUsers(eq(TESTGROUP));
             cut.applyGroupMembershipConfigMembers(acConfiguration, authorizableConfigBean, history, TESTGROUP, spyedPrefetchingUserManager, authorizablesInConfig);
-            verify(testGroup).addMember(group2);
-            verify(testGroup).addMember(group3);
-            verify(testGroup).addMember(systemUser1);
-            verify(testGroup, times(0)).removeMember(any(Authorizable.class));
+            spyedPrefetchingUserManager.getGroupMembershipPlan().apply(spyedPrefetchingUserManager, history);
+            verify(testGroup).addMembers(GROUP2, GROUP3, SYSTEM_USER1);
+            verifyNoMoreInteractions(testGroup);
             reset(testGroup);
 
             // test authorizable in config not removed
             authorizableConfigBean.setMembers(new String[] {});
             doReturn(asSet(group1.getID(), group2.getID())).when(spyedPrefetchingUserManager).getDeclaredMembersWithoutRegularUsers(eq(TESTGROUP));
             cut.applyGroupMembershipConfigMembers(acConfiguration, authorizableConfigBean, history, TESTGROUP, spyedPrefetchingUserManager, authorizablesInConfig);
-            verify(testGroup, times(0)).addMember(any(Authorizable.class));
-            verify(testGroup, times(0)).removeMember(group1); // must not be removed since it's contained in config
-            verify(testGroup).removeMember(group2);
+            spyedPrefetchingUserManager.getGroupMembershipPlan().apply(spyedPrefetchingUserManager, history);
+            verify(testGroup).removeMembers(GROUP2); // group1 must not be removed since it's contained in config
+            verifyNoMoreInteractions(testGroup);
             reset(testGroup);
 
             // test authorizable in config not removed if defaultUnmanagedExternalMembersRegex is configured
@@ -256,9 +254,9 @@ public class AuthorizableInstallerServiceImplTest {
             authorizableConfigBean.setMembers(new String[] {});
             doReturn(asSet(group1.getID(), group2.getID())).when(spyedPrefetchingUserManager).getDeclaredMembersWithoutRegularUsers(eq(TESTGROUP));
             cut.applyGroupMembershipConfigMembers(acConfiguration, authorizableConfigBean, history, TESTGROUP, spyedPrefetchingUserManager, authorizablesInConfig);
-            verify(testGroup, times(0)).addMember(any(Authorizable.class));
-            verify(testGroup, times(0)).removeMember(group1); // must not be removed since it's contained in config
-            verify(testGroup, times(0)).removeMember(group2); // must not be removed since allowExternalGroupNamesRegEx config
+            spyedPrefetchingUserManager.getGroupMembershipPlan().apply(spyedPrefetchingUserManager, history);
+            // group1 must not be removed since it's contained in config, group2 not since allowExternalGroupNamesRegEx config
+            Mockito.verifyNoInteractions(testGroup);
             reset(testGroup);
 
         }
@@ -0,0 +1,75 @@
+/*
+ * (C) Copyright 2026 Cognizant Netcentric.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package biz.netcentric.cq.tools.actool.authorizableinstaller.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import javax.jcr.RepositoryException;
+
+import org.apache.jackrabbit.api.security.user.Group;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import biz.netcentric.cq.tools.actool.history.impl.PersistableInstallationLogger;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class GroupMembershipPlanTest {
+
+    @Mock
+    AuthInstallerUserManager userManager;
+
+    @Mock
+    Group group1;
+
+    @Mock
+    Group group2;
+
+    @Test
+    void testOneBulkCallPerGroup() throws RepositoryException {
+        doReturn(group1).when(userManager).getAuthorizable("group1");
+        doReturn(group2).when(userManager).getAuthorizable("group2");
+
+        GroupMembershipPlan groupMembershipPlan = new GroupMembershipPlan();
+        groupMembershipPlan.addMember("group1", "memberB");
+        groupMembershipPlan.addMember("group1", "memberA");
+        groupMembershipPlan.removeMember("Group1", "memberC");
+        groupMembershipPlan.removeMember("group2", "memberA");
+        // last planned change wins
+        groupMembershipPlan.addMember("group2", "memberD");
+        groupMembershipPlan.removeMember("group2", "MEMBERD");
+        assertEquals(5, groupMembershipPlan.getCountMembershipChanges());
+
+        assertEquals(2, groupMembershipPlan.apply(userManager, new PersistableInstallationLogger()));
+
+        verify(group1).removeMembers("memberC");
+        verify(group1).addMembers("memberA", "memberB");
+        verifyNoMoreInteractions(group1);
+        verify(group2).removeMembers("memberA", "MEMBERD");
+        verifyNoMoreInteractions(group2);
+        // the prefetched memberships are updated with the applied changes
+        verify(userManager).updateMemberships(eq("group1"), eq(new HashSet<>(Arrays.asList("memberA", "memberB"))),
+                eq(Collections.singleton("memberC")));
+
+        assertEquals(0, groupMembershipPlan.getCountMembershipChanges());
+    }
+
+}
@@ -0,0 +1,51 @@
+/*
+ * (C) Copyright 2026 Cognizant Netcentric.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package biz.netcentric.cq.tools.actool.authorizableinstaller.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+
+import org.apache.jackrabbit.api.JackrabbitSession;
+import org.apache.jackrabbit.api.security.user.User;
+import org.apache.jackrabbit.api.security.user.UserManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import biz.netcentric.cq.tools.actool.extensions.OakRepository;
+import biz.netcentric.cq.tools.actool.history.impl.PersistableInstallationLogger;
+
+@ExtendWith(OakRepository.class)
+class PasswordHashVerifierIT {
+
+    @Test
+    void testVerifyPasswords(Session session) throws RepositoryException {
+        UserManager userManager = ((JackrabbitSession) session).getUserManager();
+        User user1 = userManager.createUser("hashVerifierUser1", "password1");
+        User user2 = userManager.createUser("hashVerifierUser2", "password2");
+        session.save();
+
+        Map<User, String> passwordsByUser = new LinkedHashMap<>();
+        passwordsByUser.put(user1, "password1");
+        passwordsByUser.put(user2, "changedPassword");
+
+        PasswordHashVerifier passwordHashVerifier = new PasswordHashVerifier();
+        passwordHashVerifier.verifyPasswords(passwordsByUser, session, new PersistableInstallationLogger());
+
+        assertEquals(Boolean.TRUE, passwordHashVerifier.isPasswordUnchanged("hashVerifierUser1"));
+        assertEquals(Boolean.FALSE, passwordHashVerifier.isPasswordUnchanged("hashVerifierUser2"));
+        assertNull(passwordHashVerifier.isPasswordUnchanged("unknownUser"), "users not verified have to fall back to a login");
+    }
+
+}
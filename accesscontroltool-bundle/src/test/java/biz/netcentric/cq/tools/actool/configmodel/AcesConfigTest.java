@@ -0,0 +1,85 @@
+/*
+ * (C) Copyright 2026 Cognizant Netcentric.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package biz.netcentric.cq.tools.actool.configmodel;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class AcesConfigTest {
+
+    AcesConfig acesConfig;
+
+    @BeforeEach
+    public void setup() {
+        acesConfig = new AcesConfig();
+        acesConfig.add(getBean("/content/site", "group1"));
+        acesConfig.add(getBean("/content/site/en", "group1"));
+        acesConfig.add(getBean("/content/site/en", "group2"));
+        acesConfig.add(getBean("/content/site-other", "group2"));
+        acesConfig.add(getBean("", "group3"));
+    }
+
+    @Test
+    public void testPathLookups() {
+        assertTrue(acesConfig.containsPath("/content/site/en"));
+        assertFalse(acesConfig.containsPath("/content"));
+        assertTrue(acesConfig.containsPath(null), "null is interpreted as repository level path");
+        assertEquals(Arrays.asList("", "/content/site", "/content/site-other", "/content/site/en"),
+                new ArrayList<>(acesConfig.getJcrPaths()));
+    }
+
+    @Test
+    public void testFilterByAuthorizableId() {
+        assertEquals(2, acesConfig.filterByAuthorizableId("group2").size());
+        assertEquals(1, acesConfig.filterByAuthorizableId("group3").size());
+        assertTrue(acesConfig.filterByAuthorizableId("group4").isEmpty());
+    }
+
+    @Test
+    public void testIndexIsUpdatedOnModification() {
+        Iterator<AceBean> aceBeanIt = acesConfig.iterator();
+        while (aceBeanIt.hasNext()) {
+            if ("/content/site-other".equals(aceBeanIt.next().getJcrPath())) {
+                aceBeanIt.remove();
+            }
+        }
+        assertFalse(acesConfig.containsPath("/content/site-other"));
+        assertEquals(1, acesConfig.filterByAuthorizableId("group2").size());
+    }
+
+    @Test
+    public void testFreeze() {
+        acesConfig.freeze();
+        assertTrue(acesConfig.containsPath("/content/site"));
+        assertThrows(UnsupportedOperationException.class, () -> acesConfig.add(getBean("/content/site/de", "group1")));
+        assertThrows(UnsupportedOperationException.class, () -> acesConfig.clear());
+        assertThrows(UnsupportedOperationException.class, () -> acesConfig.retainAll(Collections.emptySet()));
+    }
+
+    private AceBean getBean(String path, String authorizableId) {
+        AceBean aceBean = new AceBean();
+        aceBean.setJcrPath(path);
+        aceBean.setAuthorizableId(authorizableId);
+        aceBean.setPrincipalName(authorizableId);
+        aceBean.setPermission("allow");
+        aceBean.setPrivilegesString("jcr:read");
+        return aceBean;
+    }
+
+}
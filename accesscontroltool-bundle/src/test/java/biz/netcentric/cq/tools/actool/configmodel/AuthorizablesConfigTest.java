@@ -1,7 +1,12 @@
 package biz.netcentric.cq.tools.actool.configmodel;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedHashSet;
@@ -91,6 +96,28 @@ public class AuthorizablesConfigTest {
 
     }
 
+    @Test
+    public void testLookupsAndFreeze() {
+        AuthorizableConfigBean externalGroup = getBean("externalGroup", null);
+        externalGroup.setPrincipalName("externalGroup;idp");
+        authorizablesConfig.add(externalGroup);
+
+        assertSame(testgroupPartlyManaged, authorizablesConfig.getAuthorizableConfig("testgroupPartlyManaged"));
+        assertEquals("externalGroup;idp", authorizablesConfig.getPrincipalNameForAuthorizableId("externalGroup"));
+        assertTrue(authorizablesConfig.getPrincipalNames().contains("externalGroup;idp"));
+        assertEquals(Arrays.asList("testgroupAllManaged", "testgroupPartlyManaged", "everyone", "externalGroup"),
+                new ArrayList<>(authorizablesConfig.getAuthorizableIds()));
+
+        authorizablesConfig.remove(externalGroup);
+        assertNull(authorizablesConfig.getAuthorizableConfig("externalGroup"));
+
+        authorizablesConfig.freeze();
+        assertTrue(authorizablesConfig.isFrozen());
+        assertSame(beanEveryone, authorizablesConfig.getAuthorizableConfig("everyone"));
+        assertThrows(UnsupportedOperationException.class, () -> authorizablesConfig.add(externalGroup));
+        assertThrows(UnsupportedOperationException.class, () -> authorizablesConfig.removeAll(Collections.singleton(beanEveryone)));
+    }
+
     private AuthorizableConfigBean getBean(String name, String unmanagedAcePathRegex) {
         AuthorizableConfigBean beanEveryone = new AuthorizableConfigBean();
         beanEveryone.setPrincipalName(name);
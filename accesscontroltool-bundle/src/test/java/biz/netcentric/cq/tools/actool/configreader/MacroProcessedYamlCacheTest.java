@@ -0,0 +1,92 @@
+/*
+ * (C) Copyright 2026 Cognizant Netcentric.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package biz.netcentric.cq.tools.actool.configreader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import biz.netcentric.cq.tools.actool.history.impl.PersistableInstallationLogger;
+
+class MacroProcessedYamlCacheTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MacroProcessedYamlCacheTest.class);
+
+    @Test
+    void testIsCacheable() {
+        assertTrue(MacroProcessedYamlCache.isCacheable("- group_config:\n    - group1:\n      - name: Group 1", true));
+        assertFalse(MacroProcessedYamlCache.isCacheable("- global_config:\n    vars:\n      - DEF prefix=\"xyz\"", false));
+        assertFalse(MacroProcessedYamlCache.isCacheable("- FOR site IN CHILDREN OF /content:\n    - group_${site}:", false));
+        assertTrue(MacroProcessedYamlCache.isCacheable("- user_config:\n    - user1:\n      - password: $[secret:pw]", false));
+        assertFalse(MacroProcessedYamlCache.isCacheable("- user_config:\n    - user1:\n      - password: $[secret:pw]", true));
+    }
+
+    @Test
+    void testKeyDependsOnGlobalVariables() {
+        String yaml = "- group_config:";
+        assertEquals(MacroProcessedYamlCache.createKey(yaml, Collections.singletonMap("RUNMODES", "author")),
+                MacroProcessedYamlCache.createKey(yaml, Collections.singletonMap("RUNMODES", "author")));
+        assertNotEquals(MacroProcessedYamlCache.createKey(yaml, Collections.singletonMap("RUNMODES", "author")),
+                MacroProcessedYamlCache.createKey(yaml, Collections.singletonMap("RUNMODES", "publish")));
+    }
+
+    @Test
+    void testCachedYamlIsReadOnlyCopy() {
+        MacroProcessedYamlCache cache = new MacroProcessedYamlCache();
+        List<Map> yamlRootList = new ArrayList<>();
+        Map<String, Object> groupConfig = new LinkedHashMap<>();
+        groupConfig.put("group_config", new ArrayList<>(Collections.singletonList(new LinkedHashMap<>())));
+        yamlRootList.add(groupConfig);
+        cache.put("key", yamlRootList, new PersistableInstallationLogger());
+
+        List<Map> cachedYamlRootList = cache.get("key").getYamlRootList();
+        assertEquals(yamlRootList, cachedYamlRootList);
+        assertThrows(UnsupportedOperationException.class, () -> cachedYamlRootList.clear());
+        assertThrows(UnsupportedOperationException.class, () -> cachedYamlRootList.get(0).clear());
+        assertThrows(UnsupportedOperationException.class, () -> ((List) cachedYamlRootList.get(0).get("group_config")).clear());
+
+        // changes of the original structure do not affect the cache
+        groupConfig.put("user_config", Collections.emptyList());
+        assertFalse(cache.get("key").getYamlRootList().get(0).containsKey("user_config"));
+
+        cache.clear();
+        assertNull(cache.get("key"));
+    }
+
+    @Test
+    void testLogIsReplayedOnCacheHit() {
+        MacroProcessedYamlCache cache = new MacroProcessedYamlCache();
+        PersistableInstallationLogger macroProcessingLog = new PersistableInstallationLogger();
+        macroProcessingLog.addWarning(LOG, "Warning of macro processing");
+        macroProcessingLog.addVerboseMessage(LOG, "Message of macro processing");
+        cache.put("key", new ArrayList<Map>(), macroProcessingLog);
+
+        for (int i = 0; i < 2; i++) {
+            PersistableInstallationLogger log = new PersistableInstallationLogger();
+            cache.get("key").replayLog(log);
+            assertEquals(1, log.getWarnings().size());
+            assertTrue(log.getWarnings().iterator().next().getMessage().contains("Warning of macro processing"));
+            assertTrue(log.getVerboseMessageHistory().contains("Message of macro processing"));
+        }
+    }
+
+}
@@ -21,6 +21,7 @@ import static org.mockito.MockitoAnnotations.initMocks;
 import java.io.IOException;
 import java.util.Dictionary;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
 
@@ -135,6 +136,23 @@ public class YamlConfigurationMergerTest {
         assertEquals("RESOLVED-PASSWORD", acConfiguration.getAuthorizablesConfig().getAuthorizableConfig("editor2").getPassword());
     }
 
+    @Test
+    public void testMultipleFilesWithGlobalVariables() throws IOException, RepositoryException, AcConfigBeanValidationException {
+        final Map<String, String> configs = new LinkedHashMap<String, String>();
+        configs.put("/etc/config/test-def-global-1-set.yaml", YamlConfigReaderTest.getTestConfigAsString("test-def-global-1-set.yaml"));
+        configs.put("/etc/config/test-def-global-2-use.yaml", YamlConfigReaderTest.getTestConfigAsString("test-def-global-2-use.yaml"));
+        configs.put("/etc/config/test-membergroups.yaml", YamlConfigReaderTest.getTestConfigAsString("test-membergroups.yaml"));
+
+        AcConfiguration acConfiguration = getConfigurationMerger().getMergedConfigurations(configs, new PersistableInstallationLogger(),
+                new YamlConfigReader(), session);
+
+        AuthorizablesConfig authorizablesConfig = acConfiguration.getAuthorizablesConfig();
+        assertEquals("Name val1", authorizablesConfig.getAuthorizableConfig("xyz-group-reader").getName());
+        assertEquals("global variable overridden elsewhere (not in this file) has global val: 'globalVal'",
+                authorizablesConfig.getAuthorizableConfig("xyz-group-reader2").getDescription());
+        assertNotNull(authorizablesConfig.getAuthorizableConfig("groupA"));
+    }
+
     public static AcConfiguration getAcConfigurationForFile(YamlConfigurationMerger merger, Session session, String testConfigFile)
             throws IOException, RepositoryException, AcConfigBeanValidationException {
         final String config = YamlConfigReaderTest.getTestConfigAsString(testConfigFile);
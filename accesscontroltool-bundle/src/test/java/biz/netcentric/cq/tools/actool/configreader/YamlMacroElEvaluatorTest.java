@@ -3,8 +3,13 @@ package biz.netcentric.cq.tools.actool.configreader;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -36,6 +41,38 @@ class YamlMacroElEvaluatorTest {
         assertThrows(ELException.class, () -> evaluateSimpleExpression("invalid(\"test\""));
     }
 
+    @Test
+    void testLiteralText() {
+        assertEquals("plain text", elEvaluator.evaluateEl("plain text", Object.class, Collections.emptyMap()));
+        assertEquals("plain text", elEvaluator.evaluateEl("plain text", String.class, Collections.emptyMap()));
+        assertThrows(IllegalStateException.class, () -> elEvaluator.evaluateEl("plain text", Boolean.class, Collections.emptyMap()));
+    }
+
+    @Test
+    void testCachedExpressionUsesVariablesOfCall() {
+        assertEquals("group-a", elEvaluator.evaluateEl("group-${var1}", String.class, Collections.singletonMap("var1", "a")));
+        assertEquals("group-b", elEvaluator.evaluateEl("group-${var1}", String.class, Collections.singletonMap("var1", "b")));
+        assertEquals("group-", elEvaluator.evaluateEl("group-${var1}", String.class, Collections.emptyMap()));
+    }
+
+    @Test
+    void testConcurrentEvaluation() throws Exception {
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                final String value = "val" + i;
+                results.add(executorService.submit(
+                        () -> elEvaluator.evaluateEl("${upperCase(var1)}", String.class, Collections.singletonMap("var1", value))));
+            }
+            for (int i = 0; i < results.size(); i++) {
+                assertEquals("VAL" + i, results.get(i).get());
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
     private Object evaluateSimpleExpression(String expression) {
         return evaluateSimpleExpression(expression, Collections.emptyMap());
     }
@@ -131,12 +131,12 @@ public class OakRepository implements BeforeAllCallback, BeforeEachCallback, Aft
         return admin;
     }
 
-    /** 
-     * @param useFileStore only evaluated for Oak. O
+    /** Creates the repository, also used outside of JUnit (e.g. by the benchmarks).
+     *
      * @throws RepositoryException
      * @throws IOException
      * @throws InvalidFileStoreVersionException */
-    private void initRepository() throws RepositoryException, IOException, InvalidFileStoreVersionException {
+    public void initRepository() throws RepositoryException, IOException, InvalidFileStoreVersionException {
         Jcr jcr;
         if (useFileStore) {
             BlobStore blobStore = createBlobStore();
@@ -169,7 +169,7 @@ public class OakRepository implements BeforeAllCallback, BeforeEachCallback, Aft
                 repository.getDescriptor(Repository.REP_VERSION_DESC));
     }
 
-    private void shutdownRepository() throws IOException {
+    public void shutdownRepository() throws IOException {
         if (repository instanceof org.apache.jackrabbit.oak.jcr.repository.RepositoryImpl) {
             ((org.apache.jackrabbit.oak.jcr.repository.RepositoryImpl) repository).shutdown();
             if (fileStore != null) {
@@ -0,0 +1,94 @@
+/*
+ * (C) Copyright 2026 Cognizant Netcentric.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package biz.netcentric.cq.tools.actool.helper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import biz.netcentric.cq.tools.actool.history.impl.PersistableInstallationLogger;
+
+@ExtendWith(MockitoExtension.class)
+public class CommitBatcherTest {
+
+    @Mock
+    Session session;
+
+    @Test
+    public void testSaveAfterBatchSizeIsReached() throws RepositoryException {
+        doReturn(true).when(session).hasPendingChanges();
+        PersistableInstallationLogger installLog = new PersistableInstallationLogger();
+
+        CommitBatcher commitBatcher = new CommitBatcher(session, 2, "ACLs", installLog);
+        assertTrue(commitBatcher.isEnabled());
+        commitBatcher.itemProcessed("/content/path1", true);
+        verify(session, never()).save();
+        commitBatcher.itemProcessed("/content/path2", true);
+        verify(session, times(1)).save();
+        commitBatcher.itemProcessed("/content/path3", true);
+        verify(session, times(1)).save();
+
+        assertEquals(1, commitBatcher.getCountBatchesPersisted());
+        assertTrue(installLog.getMessageHistory().contains("Persisted batch 1 with 2 ACLs (/content/path1 ... /content/path2)"));
+
+        commitBatcher.logPersistedBatchesOnFailure();
+        assertTrue(installLog.getMessageHistory().contains(
+                "1 batches with 2 ACLs have been persisted before the failure, pending changes of 1 ACLs have not been persisted (starting at /content/path3)"));
+    }
+
+    @Test
+    public void testUnchangedItemsAreNotCounted() throws RepositoryException {
+        CommitBatcher commitBatcher = new CommitBatcher(session, 1, "authorizables", new PersistableInstallationLogger());
+        commitBatcher.itemProcessed("group1", false);
+        commitBatcher.itemProcessed("group2", false);
+
+        verify(session, never()).save();
+        assertEquals(0, commitBatcher.getCountBatchesPersisted());
+    }
+
+    @Test
+    public void testUnchangedItemsAfterChangedItemAreNotCounted() throws RepositoryException {
+        // the session remains dirty after the first change, hence only the caller can tell whether an item was changed
+        doReturn(true).when(session).hasPendingChanges();
+        PersistableInstallationLogger installLog = new PersistableInstallationLogger();
+
+        CommitBatcher commitBatcher = new CommitBatcher(session, 2, "authorizables", installLog);
+        commitBatcher.itemProcessed("group1", true);
+        commitBatcher.itemProcessed("group2", false);
+        commitBatcher.itemProcessed("group3", false);
+        verify(session, never()).save();
+        commitBatcher.itemProcessed("group4", true);
+        verify(session, times(1)).save();
+
+        assertTrue(installLog.getMessageHistory().contains("Persisted batch 1 with 2 authorizables (group1 ... group4)"));
+    }
+
+    @Test
+    public void testDisabled() throws RepositoryException {
+        CommitBatcher commitBatcher = new CommitBatcher(session, 0, "ACLs", new PersistableInstallationLogger());
+        assertFalse(commitBatcher.isEnabled());
+        commitBatcher.itemProcessed("/content/path1", true);
+
+        verify(session, never()).hasPendingChanges();
+        verify(session, never()).save();
+    }
+
+}
@@ -0,0 +1,66 @@
+/*
+ * (C) Copyright 2026 Cognizant Netcentric.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package biz.netcentric.cq.tools.actool.helper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+public class PathPatternMatcherTest {
+
+    private static final List<String> REGEXES = Arrays.asList(
+            "/content/dam/geometrixx.*", // literal prefix
+            "^/$", "^$", "/x$", // literal
+            "^(?!/etc/linkchecker|/etc/test).*", "/etc/.*", "/content/a\\.b" // regex
+    );
+
+    @Test
+    public void testSameResultsAsStringMatches() {
+        Map<String, Set<String>> valuesByRegex = new LinkedHashMap<>();
+        for (String regex : REGEXES) {
+            valuesByRegex.put(regex, Collections.singleton(regex));
+        }
+        PathPatternMatcher<String> pathPatternMatcher = new PathPatternMatcher<>(valuesByRegex);
+
+        for (String path : Arrays.asList("", "/", "/etc", "/etc/linkchecker", "/etc/x", "/content/dam/geometrixx",
+                "/content/dam/geometrixx/a", "/content/a.b", "/content/aXb", "/x", "/xy")) {
+            Set<String> expectedValues = new HashSet<>();
+            for (String regex : REGEXES) {
+                if (path.matches(regex)) {
+                    expectedValues.add(regex);
+                }
+            }
+            assertEquals(expectedValues, pathPatternMatcher.getMatchingValues(path), "path " + path);
+            assertEquals(!expectedValues.isEmpty(), pathPatternMatcher.matchesAny(path), "path " + path);
+        }
+    }
+
+    @Test
+    public void testValuesOfSameRegexAreCombined() {
+        Map<String, Set<String>> valuesByRegex = new LinkedHashMap<>();
+        valuesByRegex.put("/content/.*", new HashSet<>(Arrays.asList("group1", "group2")));
+        valuesByRegex.put("^/content/.*$", Collections.singleton("group3"));
+        PathPatternMatcher<String> pathPatternMatcher = new PathPatternMatcher<>(valuesByRegex);
+
+        assertEquals(new HashSet<>(Arrays.asList("group1", "group2", "group3")), pathPatternMatcher.getMatchingValues("/content/site"));
+        assertTrue(pathPatternMatcher.getMatchingValues("/etc").isEmpty());
+        assertFalse(pathPatternMatcher.matchesAny("/content"));
+    }
+
+}
@@ -0,0 +1,53 @@
+/*
+ * (C) Copyright 2026 Cognizant Netcentric.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package biz.netcentric.cq.tools.actool.helper;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import javax.jcr.Node;
+import javax.jcr.PropertyType;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import biz.netcentric.cq.tools.actool.extensions.OakRepository;
+
+@ExtendWith(OakRepository.class)
+class QueryCapabilitiesIT {
+
+    @Test
+    void testProbeReflectsIndexChanges(Session session) throws RepositoryException {
+        Node ntIndexDefNode = session.getNode("/oak:index/nodetype");
+        ntIndexDefNode.setProperty("declaringNodeTypes", new String[] { "oak:QueryIndexDefinition", "rep:User", "rep:Authorizable" },
+                PropertyType.NAME);
+        session.save();
+
+        QueryCapabilities queryCapabilities = QueryCapabilities.probe(session);
+        assertFalse(queryCapabilities.isIndexForAclsExists());
+        assertTrue(queryCapabilities.isIndexForAuthorizablesExists());
+        assertTrue(queryCapabilities.getTraversalWarnings().get(0).startsWith(
+                "Query 'SELECT * FROM [rep:ACL] AS s WHERE ISDESCENDANTNODE([/])' falls back to traversal (measured cost: "));
+
+        ntIndexDefNode.setProperty("declaringNodeTypes",
+                new String[] { "oak:QueryIndexDefinition", "rep:User", "rep:Authorizable", "rep:ACL" }, PropertyType.NAME);
+        session.save();
+
+        // the result of a probe is immutable, index changes are only picked up by the next probe (i.e. the next installation)
+        assertFalse(queryCapabilities.isIndexForAclsExists());
+        QueryCapabilities reprobedQueryCapabilities = QueryCapabilities.probe(session);
+        assertNotSame(queryCapabilities, reprobedQueryCapabilities);
+        assertTrue(reprobedQueryCapabilities.isIndexForAclsExists());
+        assertTrue(reprobedQueryCapabilities.getQueryPlansDescription().contains("using index for rep:ACL nodes"));
+    }
+
+}
@@ -8,16 +8,32 @@
  */
 package biz.netcentric.cq.tools.actool.helper;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 import javax.jcr.Node;
 import javax.jcr.PropertyType;
 import javax.jcr.RepositoryException;
 import javax.jcr.Session;
 
+import org.apache.jackrabbit.api.JackrabbitSession;
+import org.apache.jackrabbit.api.security.user.Group;
+import org.apache.jackrabbit.commons.jackrabbit.authorization.AccessControlUtils;
+import org.apache.jackrabbit.oak.spi.security.principal.EveryonePrincipal;
+import org.apache.sling.jcr.api.SlingRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
 
@@ -47,4 +63,76 @@ class QueryHelperIT {
         assertTrue(QueryHelper.hasQueryIndexForACLs(session));
     }
 
+    @Test
+    void testGetRepPolicyNodePathsWithShardedPathsInParallel(Session session) throws RepositoryException {
+        Node contentNode = session.getRootNode().addNode("content", "nt:unstructured");
+        contentNode.addNode("site1", "nt:unstructured").addNode("page", "nt:unstructured");
+        contentNode.addNode("site2", "nt:unstructured");
+        contentNode.addNode("site3", "nt:unstructured");
+        session.getRootNode().addNode("apps", "nt:unstructured");
+        for (String path : Arrays.asList("/content", "/content/site1/page", "/content/site2", "/apps")) {
+            AccessControlUtils.addAccessControlEntry(session, path, EveryonePrincipal.getInstance(), new String[] { "jcr:read" }, true);
+        }
+        session.save();
+
+        List<String> excludePaths = Arrays.asList("/home", "/jcr:system", "/tmp");
+        Set<String> expectedPaths = new HashSet<>(Arrays.asList("/content/rep:policy", "/content/site1/page/rep:policy",
+                "/content/site2/rep:policy", "/apps/rep:policy"));
+
+        Set<String> sequentialPaths = QueryHelper.getRepPolicyNodePaths(session, excludePaths);
+        assertTrue(sequentialPaths.containsAll(expectedPaths), "Unexpected paths: " + sequentialPaths);
+
+        SlingRepository slingRepository = mock(SlingRepository.class);
+        when(slingRepository.loginService(isNull(), isNull())).thenAnswer(invocation -> repository.createAdminSession());
+        Set<String> parallelPaths = QueryHelper.getRepPolicyNodePaths(session, excludePaths, Collections.singleton("/content"),
+                slingRepository, QueryCapabilities.probe(session));
+        assertEquals(sequentialPaths, parallelPaths);
+    }
+
+    @Test
+    void testGetRepPolicyNodePathsWithPendingChanges(Session session) throws RepositoryException {
+        // paths are disjoint from the other tests as the repository is shared
+        Node libsNode = session.getRootNode().addNode("libs", "nt:unstructured");
+        libsNode.addNode("app1", "nt:unstructured");
+        libsNode.addNode("app2", "nt:unstructured");
+        AccessControlUtils.addAccessControlEntry(session, "/libs/app1", EveryonePrincipal.getInstance(), new String[] { "jcr:read" }, true);
+        session.save();
+        // unsaved changes (e.g. from the install hook) are not visible to other sessions
+        session.getRootNode().addNode("var", "nt:unstructured");
+        assertTrue(session.hasPendingChanges());
+
+        SlingRepository slingRepository = mock(SlingRepository.class);
+        when(slingRepository.loginService(isNull(), isNull())).thenAnswer(invocation -> repository.createAdminSession());
+        try {
+            Set<String> paths = QueryHelper.getRepPolicyNodePaths(session, Arrays.asList("/home", "/jcr:system", "/tmp"),
+                    Collections.singleton("/libs"), slingRepository, QueryCapabilities.probe(session));
+            assertTrue(paths.contains("/libs/app1/rep:policy"), "Unexpected paths: " + paths);
+            // the queries are run sequentially using the given session
+            verify(slingRepository, never()).loginService(isNull(), isNull());
+        } finally {
+            session.refresh(false);
+        }
+    }
+
+    @Test
+    void testGetRepPolicyNodePathsForPrincipals(Session session) throws RepositoryException {
+        Group group = ((JackrabbitSession) session).getUserManager().createGroup("testgroup");
+        // paths are disjoint from the other tests as the repository is shared
+        Node confNode = session.getRootNode().addNode("conf", "nt:unstructured");
+        confNode.addNode("site1", "nt:unstructured");
+        confNode.addNode("site2", "nt:unstructured");
+        session.getRootNode().addNode("etc", "nt:unstructured");
+        session.getRootNode().addNode("tmp", "nt:unstructured");
+        for (String path : Arrays.asList("/conf/site1", "/etc", "/tmp")) {
+            AccessControlUtils.addAccessControlEntry(session, path, group.getPrincipal(), new String[] { "jcr:read" }, true);
+        }
+        AccessControlUtils.addAccessControlEntry(session, "/conf/site2", EveryonePrincipal.getInstance(), new String[] { "jcr:read" },
+                true);
+        session.save();
+
+        Set<String> paths = QueryHelper.getRepPolicyNodePathsForPrincipals(session, Arrays.asList("/home", "/jcr:system", "/tmp"),
+                Collections.singleton("testgroup"));
+        assertEquals(new HashSet<>(Arrays.asList("/conf/site1/rep:policy", "/etc/rep:policy")), paths);
+    }
+
 }
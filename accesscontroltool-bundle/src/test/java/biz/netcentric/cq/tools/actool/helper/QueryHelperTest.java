@@ -12,6 +12,9 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 import org.junit.jupiter.api.Test;
 
@@ -48,5 +51,17 @@ public class QueryHelperTest {
          assertEquals("Unexpected json structure for query cost: { \"s\": { someChangedFormat: 123 } }", thrown.getMessage());
 
     }
+
+    @Test
+    public void testCreateAceByPrincipalNameQueries() {
+        assertEquals(Arrays.asList("SELECT ace.* FROM [rep:ACE] AS ace WHERE ace.[rep:principalName] = 'group1' or ace.[rep:principalName] = 'o''neil'"),
+                QueryHelper.createAceByPrincipalNameQueries(Arrays.asList("group1", "o'neil")));
+
+        List<String> principalNames = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            principalNames.add("group" + i);
+        }
+        assertEquals(3, QueryHelper.createAceByPrincipalNameQueries(principalNames).size());
+    }
     
 }
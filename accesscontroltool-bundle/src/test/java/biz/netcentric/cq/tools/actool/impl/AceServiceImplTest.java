@@ -18,6 +18,7 @@ import org.junit.jupiter.api.Test;
 
 import biz.netcentric.cq.tools.actool.configmodel.AuthorizableConfigBean;
 import biz.netcentric.cq.tools.actool.configmodel.AuthorizablesConfig;
+import biz.netcentric.cq.tools.actool.helper.PathPatternMatcher;
 
 public class AceServiceImplTest {
 
@@ -25,39 +26,41 @@ public class AceServiceImplTest {
 
 
     @Test
-    public void testIsRelevantPath() {
+    public void testRestrictedPathsMatcher() {
 
-        String[] restrictedToPaths = new String[] { "/content/site1", "/content/site3" };
-        assertTrue(aceServiceImpl.isRelevantPath("/content/site1", restrictedToPaths));
-        assertFalse(aceServiceImpl.isRelevantPath("/content/site1ButNotSameRoot", restrictedToPaths));
-        assertTrue(aceServiceImpl.isRelevantPath("/content/site1/page", restrictedToPaths));
+        PathPatternMatcher<String> restrictedToPaths = aceServiceImpl
+                .createRestrictedPathsMatcher(new String[] { "/content/site1", "/content/site3" });
+        assertTrue(restrictedToPaths.matchesAny("/content/site1"));
+        assertFalse(restrictedToPaths.matchesAny("/content/site1ButNotSameRoot"));
+        assertTrue(restrictedToPaths.matchesAny("/content/site1/page"));
 
-        assertFalse(aceServiceImpl.isRelevantPath("/content/site2", restrictedToPaths));
-        assertFalse(aceServiceImpl.isRelevantPath("/content/site2/page", restrictedToPaths));
+        assertFalse(restrictedToPaths.matchesAny("/content/site2"));
+        assertFalse(restrictedToPaths.matchesAny("/content/site2/page"));
 
-        assertTrue(aceServiceImpl.isRelevantPath("/content/site3", restrictedToPaths));
-        assertTrue(aceServiceImpl.isRelevantPath("/content/site3/page", restrictedToPaths));
+        assertTrue(restrictedToPaths.matchesAny("/content/site3"));
+        assertTrue(restrictedToPaths.matchesAny("/content/site3/page"));
 
-        assertFalse(aceServiceImpl.isRelevantPath("/etc/cloudservices", restrictedToPaths));
+        assertFalse(restrictedToPaths.matchesAny("/etc/cloudservices"));
 
     }
 
     @Test
-    public void testIsRelevantPathWithRegEx() {
+    public void testRestrictedPathsMatcherWithRegEx() {
 
-        String[] restrictedToPaths = new String[] { "/content/site1", "^/$", "^$" };
+        PathPatternMatcher<String> restrictedToPaths = aceServiceImpl
+                .createRestrictedPathsMatcher(new String[] { "/content/site1", "^/$", "^$" });
         
         // regex (for repo level restrition)
-        assertTrue(aceServiceImpl.isRelevantPath("", restrictedToPaths));
+        assertTrue(restrictedToPaths.matchesAny(""));
         // regex (for root only)
-        assertTrue(aceServiceImpl.isRelevantPath("/", restrictedToPaths));
+        assertTrue(restrictedToPaths.matchesAny("/"));
         
         // other paths
-        assertTrue(aceServiceImpl.isRelevantPath("/content/site1", restrictedToPaths));
-        assertFalse(aceServiceImpl.isRelevantPath("/content/site1ButNotSameRoot", restrictedToPaths));
-        assertTrue(aceServiceImpl.isRelevantPath("/content/site1/page", restrictedToPaths));
+        assertTrue(restrictedToPaths.matchesAny("/content/site1"));
+        assertFalse(restrictedToPaths.matchesAny("/content/site1ButNotSameRoot"));
+        assertTrue(restrictedToPaths.matchesAny("/content/site1/page"));
 
-        assertFalse(aceServiceImpl.isRelevantPath("/content/site2", restrictedToPaths));
+        assertFalse(restrictedToPaths.matchesAny("/content/site2"));
 
     }
     
@@ -0,0 +1,181 @@
+/*
+ * (C) Copyright 2026 Cognizant Netcentric.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package biz.netcentric.cq.tools.actool.ims;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.osgi.services.HttpClientBuilderFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.osgi.util.converter.Converters;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import biz.netcentric.cq.tools.actool.configmodel.AuthorizableConfigBean;
+import biz.netcentric.cq.tools.actool.ims.IMSUserManagement.Configuration;
+
+/** Tests {@link IMSUserManagement} against a local HTTP stand-in for the IMS token endpoint and the UMAPI. */
+class IMSUserManagementTest {
+
+    private static final String ORGANIZATION_ID = "TESTORG@AdobeOrg";
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private Map<String, Object> properties;
+
+    private final AtomicInteger countTokenRequests = new AtomicInteger();
+    private final AtomicInteger countActionRequests = new AtomicInteger();
+    private final AtomicInteger countActionRequestsInFlight = new AtomicInteger();
+    private final AtomicInteger maxActionRequestsInFlight = new AtomicInteger();
+    private final AtomicInteger countThrottledResponsesToSend = new AtomicInteger();
+    private volatile String actionResponse = "{\"completed\":10,\"notCompleted\":0,\"completedInTestMode\":0}";
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/ims/token", exchange -> {
+            countTokenRequests.incrementAndGet();
+            sendResponse(exchange, 200, "{\"access_token\":\"token" + countTokenRequests.get() + "\",\"token_type\":\"bearer\",\"expires_in\":86399}");
+        });
+        server.createContext("/umapi/", exchange -> {
+            countActionRequests.incrementAndGet();
+            maxActionRequestsInFlight.accumulateAndGet(countActionRequestsInFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(20);
+                if (countThrottledResponsesToSend.getAndDecrement() > 0) {
+                    exchange.getResponseHeaders().add("Retry-After", "0");
+                    sendResponse(exchange, 429, "{}");
+                } else {
+                    sendResponse(exchange, 200, actionResponse);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                countActionRequestsInFlight.decrementAndGet();
+            }
+        });
+        serverExecutor = Executors.newFixedThreadPool(10);
+        server.setExecutor(serverExecutor);
+        server.start();
+
+        String baseUrl = "http://localhost:" + server.getAddress().getPort();
+        properties = new HashMap<>();
+        properties.put("umapiBaseUrl", baseUrl + "/umapi/");
+        properties.put("imsTokenEndpointUrl", baseUrl + "/ims/token");
+        properties.put("organizationId", ORGANIZATION_ID);
+        properties.put("clientId", "clientId");
+        properties.put("clientSecret", "clientSecret");
+        properties.put("defaultRetryDelay", 0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    void testConcurrentRequestsWithCachedToken() throws IOException {
+        properties.put("maxConcurrentRequests", 3);
+        IMSUserManagement imsUserManagement = createImsUserManagement();
+        try {
+            imsUserManagement.updateGroups(createGroups(95));
+            assertEquals(10, countActionRequests.get());
+            assertTrue(maxActionRequestsInFlight.get() <= 3, "Only 3 concurrent requests allowed but were " + maxActionRequestsInFlight.get());
+
+            imsUserManagement.updateGroups(createGroups(5));
+            assertEquals(11, countActionRequests.get());
+            assertEquals(1, countTokenRequests.get(), "Token is supposed to be cached until expiry");
+        } finally {
+            imsUserManagement.deactivate();
+        }
+    }
+
+    @Test
+    void testRetryOnTooManyRequests() throws IOException {
+        countThrottledResponsesToSend.set(2);
+        IMSUserManagement imsUserManagement = createImsUserManagement();
+        try {
+            imsUserManagement.updateGroups(createGroups(20));
+            assertEquals(4, countActionRequests.get());
+        } finally {
+            imsUserManagement.deactivate();
+        }
+    }
+
+    @Test
+    void testErrorsInResponse() throws IOException {
+        actionResponse = "{\"completed\":0,\"notCompleted\":1,\"completedInTestMode\":0,\"errors\":[{\"index\":0,\"step\":0,\"requestID\":\"1\",\"message\":\"Invalid group\",\"user\":\"\",\"errorCode\":\"error.group.invalid\"}]}";
+        IMSUserManagement imsUserManagement = createImsUserManagement();
+        try {
+            IOException e = assertThrows(IOException.class, () -> imsUserManagement.updateGroups(createGroups(15)));
+            assertTrue(e.getMessage().contains("error.group.invalid"), "Unexpected message " + e.getMessage());
+            assertEquals(2, countActionRequests.get(), "All batches are supposed to be sent");
+        } finally {
+            imsUserManagement.deactivate();
+        }
+    }
+
+    @Test
+    void testSyncInBackground() throws IOException {
+        properties.put("syncInBackground", true);
+        IMSUserManagement imsUserManagement = createImsUserManagement();
+        imsUserManagement.updateGroups(createGroups(30));
+        // waits for the background synchronization
+        imsUserManagement.deactivate();
+        assertEquals(3, countActionRequests.get());
+    }
+
+    private IMSUserManagement createImsUserManagement() {
+        Configuration config = Converters.standardConverter().convert(properties).to(Configuration.class);
+        return new IMSUserManagement(config, new HttpClientBuilderFactory() {
+            @Override
+            public HttpClientBuilder newBuilder() {
+                return HttpClientBuilder.create();
+            }
+        });
+    }
+
+    private static List<AuthorizableConfigBean> createGroups(int count) {
+        List<AuthorizableConfigBean> groups = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            AuthorizableConfigBean group = new AuthorizableConfigBean();
+            group.setAuthorizableId("testGroup" + i);
+            group.setDescription("description " + i);
+            groups.add(group);
+        }
+        return groups;
+    }
+
+    private static void sendResponse(HttpExchange exchange, int statusCode, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(statusCode, bytes.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(bytes);
+        }
+    }
+}